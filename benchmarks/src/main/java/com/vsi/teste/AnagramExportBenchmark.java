@@ -0,0 +1,112 @@
+package com.vsi.teste;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Exportação de todos os anagramas para disco (10 letras = 40 MB, 11 letras = 479 MB):
+ * - exportarMapeado: {@link AnagramGenerator#exportarAnagramas(String, Path)}, faixas paralelas gravadas
+ *   direto em trechos mapeados, sem String por anagrama;
+ * - exportarComBufferedWriter: {@link AnagramGenerator#iterarAnagramas(String)} + BufferedWriter, o mesmo
+ *   conteúdo com uma String por anagrama.
+ * E a leitura por posição no arquivo mapeado, contra o cálculo por {@link AnagramGenerator#anagramaNaPosicao(String, long)}.
+ *
+ * java -jar benchmarks/target/benchmarks.jar AnagramExportBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx512m")
+public class AnagramExportBenchmark {
+
+    private static final String ALFABETO = "kjihgfedcba";
+
+    @Param({"10", "11"})
+    private int tamanho;
+
+    private final AnagramGenerator generator = new AnagramGenerator();
+    private String letras;
+    private Path diretorio;
+    private Path destino;
+    private AnagramFile leitura;
+    private byte[] registro;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        letras = ALFABETO.substring(ALFABETO.length() - tamanho);
+        diretorio = Files.createTempDirectory("anagramas");
+        destino = diretorio.resolve("destino.txt");
+        Path arquivoLeitura = diretorio.resolve("leitura.txt");
+        generator.exportarAnagramas(letras, arquivoLeitura);
+        leitura = AnagramFile.abrir(arquivoLeitura);
+        registro = new byte[tamanho];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        leitura.close();
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    @Benchmark
+    public long exportarMapeado() throws IOException {
+        return generator.exportarAnagramas(letras, destino);
+    }
+
+    @Benchmark
+    public long exportarComBufferedWriter() throws IOException {
+        long total = 0;
+        try (BufferedWriter escritor = Files.newBufferedWriter(destino, StandardCharsets.US_ASCII)) {
+            Iterator<String> anagramas = generator.iterarAnagramas(letras);
+            while (anagramas.hasNext()) {
+                escritor.write(anagramas.next());
+                escritor.write('\n');
+                total++;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] lerPorPosicaoNoArquivo() {
+        leitura.ler(ThreadLocalRandom.current().nextLong(leitura.tamanho()), registro, 0);
+        return registro;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String calcularPorPosicao() {
+        return generator.anagramaNaPosicao(letras, ThreadLocalRandom.current().nextLong(leitura.tamanho()));
+    }
+}
@@ -0,0 +1,107 @@
+package com.vsi.teste;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks dos caminhos de geração de anagramas para entradas de 3 a 11 letras.
+ *
+ * gerarAnagramasParalelo roda em um {@link ForkJoinPool} próprio de 1 a 16 threads (parâmetro paralelismo),
+ * criado a cada trial: comparado a gerarAnagramas (serial), mostra o ganho por número de núcleos.
+ * Para uma só contagem: -p paralelismo=4.
+ *
+ * Execute com o profiler de GC para obter a taxa de alocação (gc.alloc.rate.norm):
+ * java -jar benchmarks/target/benchmarks.jar AnagramGeneratorBenchmark -prof gc -rf json -rff anagramas.json
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnagramGeneratorBenchmark {
+
+    private static final String ALFABETO = "kjihgfedcba";
+
+    @Param({"3", "4", "5", "6", "7", "8", "9", "10", "11"})
+    private int tamanho;
+
+    private AnagramGenerator generator;
+    private String letras;
+
+    @Setup
+    public void setUp() {
+        generator = new AnagramGenerator();
+        letras = ALFABETO.substring(ALFABETO.length() - tamanho);
+    }
+
+    @Benchmark
+    public List<String> gerarAnagramas() {
+        return generator.gerarAnagramas(letras);
+    }
+
+    @Benchmark
+    public List<String> gerarAnagramasParalelo(Pool pool) {
+        return generator.gerarAnagramasParalelo(letras, pool.forkJoin);
+    }
+
+    @Benchmark
+    public void visitarAnagramas(Blackhole blackhole) {
+        // Referência sem alocação por permutação: apenas consome o buffer
+        generator.visitarAnagramas(letras, (permutacao, n) -> {
+            blackhole.consume(permutacao[0]);
+            return true;
+        });
+    }
+
+    @Benchmark
+    public void iterarAnagramas(Blackhole blackhole) {
+        generator.iterarAnagramas(letras).forEachRemaining(blackhole::consume);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String validarEntrada() {
+        generator.validarEntrada(letras);
+        return letras;
+    }
+
+    /**
+     * Pool dedicado por trial, para que o paralelismo medido não dependa do commonPool nem de outras cargas.
+     * O parâmetro só multiplica os benchmarks que recebem este estado.
+     */
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        @Param({"1", "2", "4", "8", "16"})
+        private int paralelismo;
+
+        private ForkJoinPool forkJoin;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            forkJoin = new ForkJoinPool(paralelismo);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            forkJoin.shutdown();
+        }
+    }
+}
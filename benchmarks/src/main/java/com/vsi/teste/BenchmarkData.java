@@ -0,0 +1,18 @@
+package com.vsi.teste;
+
+/**
+ * Geração determinística de dados de entrada compartilhada pelos benchmarks.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return Um CPF de 11 dígitos (somente números) derivado de {@code semente}, com dígitos verificadores válidos.
+     */
+    static String cpf(long semente) {
+        long base = Math.floorMod(semente * 7919L + 100_000_000L, 1_000_000_000L);
+        return Cpf.paraTexto(Cpf.completar(base));
+    }
+}
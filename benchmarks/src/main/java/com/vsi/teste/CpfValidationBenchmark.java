@@ -0,0 +1,100 @@
+package com.vsi.teste;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compara a validação de CPF em uma passada ({@link Cpf}) com a abordagem tradicional baseada
+ * em regex + replaceAll + conversão para dígitos, tanto por CPF quanto para um lote de 100 mil
+ * linhas (como um arquivo de importação).
+ *
+ * java -jar benchmarks/target/benchmarks.jar CpfValidationBenchmark -prof gc -rf json
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpfValidationBenchmark {
+
+    private static final int LINHAS_LOTE = 100_000;
+    private static final Pattern FORMATO_CPF = Pattern.compile("^\\d{3}\\.?\\d{3}\\.?\\d{3}-?\\d{2}$");
+    private static final Pattern NAO_DIGITOS = Pattern.compile("\\D");
+
+    private String cpfFormatado;
+    private byte[] arquivo;
+    private long[] chaves;
+
+    @Setup
+    public void setUp() {
+        String cpf = BenchmarkData.cpf(42);
+        cpfFormatado = cpf.substring(0, 3) + "." + cpf.substring(3, 6) + "." + cpf.substring(6, 9) + "-" + cpf.substring(9);
+
+        StringBuilder conteudo = new StringBuilder(LINHAS_LOTE * 15);
+        for (int i = 0; i < LINHAS_LOTE; i++) {
+            conteudo.append(BenchmarkData.cpf(i)).append('\n');
+        }
+        arquivo = conteudo.toString().getBytes(StandardCharsets.US_ASCII);
+        chaves = new long[LINHAS_LOTE];
+    }
+
+    @Benchmark
+    public boolean umaPassada() {
+        return Cpf.isValido(cpfFormatado);
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return validarComRegex(cpfFormatado);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int loteUmaPassada() {
+        return Cpf.validarLote(arquivo, 0, arquivo.length, chaves);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int loteRegex() {
+        int validos = 0;
+        for (String linha : new String(arquivo, StandardCharsets.US_ASCII).split("\n")) {
+            if (validarComRegex(linha)) {
+                validos++;
+            }
+        }
+        return validos;
+    }
+
+    private static boolean validarComRegex(String cpf) {
+        if (!FORMATO_CPF.matcher(cpf).matches()) {
+            return false;
+        }
+        String digitos = NAO_DIGITOS.matcher(cpf).replaceAll("");
+        int soma1 = 0;
+        int soma2 = 0;
+        for (int i = 0; i < 10; i++) {
+            int d = Character.getNumericValue(digitos.charAt(i));
+            if (i < 9) {
+                soma1 += d * (10 - i);
+            }
+            soma2 += d * (11 - i);
+        }
+        int dv1 = soma1 % 11 < 2 ? 0 : 11 - soma1 % 11;
+        int dv2 = soma2 % 11 < 2 ? 0 : 11 - soma2 % 11;
+        return dv1 == Character.getNumericValue(digitos.charAt(9)) && dv2 == Character.getNumericValue(digitos.charAt(10));
+    }
+}
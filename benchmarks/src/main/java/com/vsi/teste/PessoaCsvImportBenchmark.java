@@ -0,0 +1,125 @@
+package com.vsi.teste;
+
+import com.vsi.teste.EqualsHashCodeExample.Pessoa;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Importação de um CSV de pessoas (metade das linhas repete um CPF já visto) com remoção de duplicados:
+ * - importador: {@link PessoaCsvImporter} com o orçamento padrão, tudo em memória;
+ * - importadorComDerramamento: o mesmo com orçamento de 8 MB, forçando a ordenação externa;
+ * - hashMapDePessoa: readLine + split + um {@link Pessoa} por linha em um HashMap, ordenado e gravado no fim.
+ * Todos gravam a mesma saída (última ocorrência vence, ordenada por CPF). O relatório da última
+ * importação (linhas/s e pico de heap) é impresso ao fim de cada execução.
+ *
+ * java -jar benchmarks/target/benchmarks.jar PessoaCsvImportBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class PessoaCsvImportBenchmark {
+
+    @Param({"2000000"})
+    private int linhas;
+
+    private Path diretorio;
+    private Path entrada;
+    private Path saida;
+    private PessoaCsvImporter importador;
+    private PessoaCsvImporter importadorComDerramamento;
+    private PessoaCsvImporter.Relatorio ultimoRelatorio;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        diretorio = Files.createTempDirectory("importacao");
+        entrada = diretorio.resolve("pessoas.csv");
+        saida = diretorio.resolve("unicas.csv");
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        try (BufferedWriter escritor = Files.newBufferedWriter(entrada, StandardCharsets.US_ASCII)) {
+            escritor.write("nome,cpf,idade\n");
+            for (int i = 0; i < linhas; i++) {
+                int pessoa = aleatorio.nextInt(linhas / 2);
+                escritor.write("Pessoa " + pessoa + "," + BenchmarkData.cpf(pessoa) + "," + aleatorio.nextInt(100) + "\n");
+            }
+        }
+        importador = new PessoaCsvImporter();
+        importadorComDerramamento = new PessoaCsvImporter(PessoaCsvImporter.Configuracao.padrao()
+                .orcamentoMemoria(8L << 20));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (ultimoRelatorio != null) {
+            System.out.printf("%n%s%n", ultimoRelatorio);
+        }
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    @Benchmark
+    public long importador() throws IOException {
+        ultimoRelatorio = importador.importar(entrada, saida);
+        return ultimoRelatorio.getPessoasUnicas();
+    }
+
+    @Benchmark
+    public long importadorComDerramamento() throws IOException {
+        ultimoRelatorio = importadorComDerramamento.importar(entrada, saida);
+        return ultimoRelatorio.getPessoasUnicas();
+    }
+
+    @Benchmark
+    public long hashMapDePessoa() throws IOException {
+        Map<Pessoa, Pessoa> unicas = new HashMap<>();
+        try (BufferedReader leitor = Files.newBufferedReader(entrada, StandardCharsets.US_ASCII)) {
+            leitor.readLine();
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                String[] campos = linha.split(",");
+                Pessoa pessoa = new Pessoa(campos[0], campos[1], Integer.parseInt(campos[2].trim()));
+                unicas.put(pessoa, pessoa); // A chave antiga fica, o valor passa a ser a última ocorrência
+            }
+        }
+        List<Pessoa> ordenadas = new ArrayList<>(unicas.values());
+        ordenadas.sort(Comparator.comparing(Pessoa::getCpf));
+        try (BufferedWriter escritor = Files.newBufferedWriter(saida, StandardCharsets.US_ASCII)) {
+            escritor.write("nome,cpf,idade\n");
+            for (Pessoa pessoa : ordenadas) {
+                escritor.write(pessoa.getNome() + "," + pessoa.getCpf() + "," + pessoa.getIdade() + "\n");
+            }
+        }
+        return ordenadas.size();
+    }
+}
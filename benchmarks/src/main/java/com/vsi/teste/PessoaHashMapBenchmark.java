@@ -0,0 +1,72 @@
+package com.vsi.teste;
+
+import com.vsi.teste.EqualsHashCodeExample.Pessoa;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de put/get em HashMap usando {@link Pessoa} como chave, cobrindo o custo de
+ * equals()/hashCode() baseados no CPF.
+ *
+ * java -jar benchmarks/target/benchmarks.jar PessoaHashMapBenchmark -prof gc -rf json -rff pessoa.json
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PessoaHashMapBenchmark {
+
+    @Param({"1000", "100000"})
+    private int tamanho;
+
+    private Pessoa[] pessoas;
+    // Instâncias distintas com o mesmo CPF: força o caminho completo de equals() no get
+    private Pessoa[] consultas;
+    private Map<Pessoa, Integer> mapaPreenchido;
+    private int proxima;
+
+    @Setup
+    public void setUp() {
+        pessoas = new Pessoa[tamanho];
+        consultas = new Pessoa[tamanho];
+        mapaPreenchido = new HashMap<>();
+        for (int i = 0; i < tamanho; i++) {
+            String cpf = BenchmarkData.cpf(i);
+            pessoas[i] = new Pessoa("Pessoa " + i, cpf, 20 + i % 60);
+            consultas[i] = new Pessoa("Consulta " + i, cpf, 0);
+            mapaPreenchido.put(pessoas[i], i);
+        }
+    }
+
+    @Benchmark
+    public Integer get() {
+        int i = proxima;
+        proxima = i + 1 == tamanho ? 0 : i + 1;
+        return mapaPreenchido.get(consultas[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Pessoa, Integer> putTodos() {
+        Map<Pessoa, Integer> mapa = new HashMap<>();
+        for (int i = 0; i < tamanho; i++) {
+            mapa.put(pessoas[i], i);
+        }
+        return mapa;
+    }
+}
@@ -0,0 +1,70 @@
+package com.vsi.teste;
+
+import com.vsi.teste.EqualsHashCodeExample.Pessoa;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks do {@link PessoaRegistry}, para comparação direta com {@link PessoaHashMapBenchmark}
+ * (mesmos tamanhos e mesmos CPFs). O benchmark de consulta roda com 4 threads para exercitar
+ * as leituras otimistas concorrentes.
+ *
+ * java -jar benchmarks/target/benchmarks.jar "PessoaRegistryBenchmark|PessoaHashMapBenchmark" -prof gc -rf json
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PessoaRegistryBenchmark {
+
+    @Param({"1000", "100000"})
+    private int tamanho;
+
+    private Pessoa[] pessoas;
+    private long[] chaves;
+    private PessoaRegistry registroPreenchido;
+
+    @Setup
+    public void setUp() {
+        pessoas = new Pessoa[tamanho];
+        chaves = new long[tamanho];
+        registroPreenchido = new PessoaRegistry(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            String cpf = BenchmarkData.cpf(i);
+            pessoas[i] = new Pessoa("Pessoa " + i, cpf, 20 + i % 60);
+            chaves[i] = Cpf.paraChave(cpf);
+            registroPreenchido.registrar(pessoas[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int buscarIdade() {
+        return registroPreenchido.buscarIdade(chaves[ThreadLocalRandom.current().nextInt(tamanho)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PessoaRegistry registrarTodos() {
+        PessoaRegistry registro = new PessoaRegistry();
+        for (Pessoa pessoa : pessoas) {
+            registro.registrar(pessoa);
+        }
+        return registro;
+    }
+}
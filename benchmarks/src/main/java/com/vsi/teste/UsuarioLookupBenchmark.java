@@ -0,0 +1,116 @@
+package com.vsi.teste;
+
+import com.vsi.teste.jdbc.PooledDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buscas de usuário por email contra H2 em memória, em três configurações:
+ * - semPool: DriverManager + prepareStatement a cada chamada (o caminho original);
+ * - poolSemCache: conexões reaproveitadas, mas statement preparado a cada chamada;
+ * - poolComCache: conexões e PreparedStatements reaproveitados.
+ *
+ * java -jar benchmarks/target/benchmarks.jar UsuarioLookupBenchmark -rf json
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class UsuarioLookupBenchmark {
+
+    static final String URL = "jdbc:h2:mem:benchmark_usuarios;DB_CLOSE_DELAY=-1";
+    static final int TOTAL_USUARIOS = 10_000;
+
+    private Connection conexaoMantenedora;
+    private PooledDataSource poolSemCache;
+    private PooledDataSource poolComCache;
+    private SqlInjectionPrevention buscaSemCache;
+    private SqlInjectionPrevention buscaComCache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conexaoMantenedora = DriverManager.getConnection(URL, "sa", "");
+        popularUsuarios(conexaoMantenedora, TOTAL_USUARIOS);
+
+        poolSemCache = new PooledDataSource(URL, "sa", "", PooledDataSource.Configuracao.padrao().tamanhoCacheStatements(0));
+        poolComCache = new PooledDataSource(URL, "sa", "");
+        buscaSemCache = new SqlInjectionPrevention(poolSemCache);
+        buscaComCache = new SqlInjectionPrevention(poolComCache);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        poolSemCache.close();
+        poolComCache.close();
+        conexaoMantenedora.close();
+    }
+
+    @Benchmark
+    public boolean semPool() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "");
+             PreparedStatement ps = conn.prepareStatement("SELECT id, nome, email FROM usuarios WHERE email = ?")) {
+            ps.setString(1, emailAleatorio());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<Usuario> poolSemCache() throws SQLException {
+        return buscaSemCache.buscarUsuarioPorEmail_Seguro(emailAleatorio());
+    }
+
+    @Benchmark
+    public Optional<Usuario> poolComCache() throws SQLException {
+        return buscaComCache.buscarUsuarioPorEmail_Seguro(emailAleatorio());
+    }
+
+    static String emailAleatorio() {
+        return email(ThreadLocalRandom.current().nextInt(TOTAL_USUARIOS));
+    }
+
+    static String email(int i) {
+        return "usuario" + i + "@example.com";
+    }
+
+    static void popularUsuarios(Connection conn, int total) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS usuarios");
+            stmt.execute("CREATE TABLE usuarios (id INT PRIMARY KEY, nome VARCHAR(255), email VARCHAR(255) UNIQUE)");
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO usuarios (id, nome, email) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < total; i++) {
+                ps.setInt(1, i);
+                ps.setString(2, "Usuario " + i);
+                ps.setString(3, email(i));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.vsi.teste.batch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Exportação completa de uma tabela Orders com 10 milhões de linhas para arquivos GZIP.
+ *
+ * O banco H2 fica em disco e a query usa execução preguiçosa (LAZY_QUERY_EXECUTION), como um cursor
+ * de banco de produção. O heap do fork é limitado a 256 MB: a exportação só cabe porque o pipeline
+ * mantém um número fixo de lotes na memória. O relatório por estágio da última execução é impresso
+ * no fim de cada iteração e mostra qual estágio é o gargalo.
+ *
+ * java -jar benchmarks/target/benchmarks.jar BatchExportBenchmark -p nivelCompressao=1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx256m")
+public class BatchExportBenchmark {
+
+    @Param({"10000000"})
+    public int linhas;
+
+    @Param({"1", "6"})
+    public int nivelCompressao;
+
+    private Path diretorioBanco;
+    private Path diretorioSaida;
+    private Connection conexao;
+    private BatchExportPipeline<Object[]> pipeline;
+    private BatchExportPipeline.Resultado ultimo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        diretorioBanco = Files.createTempDirectory("batch-banco");
+        diretorioSaida = Files.createTempDirectory("batch-saida");
+        conexao = DriverManager.getConnection("jdbc:h2:file:" + diretorioBanco.resolve("batch") + ";LAZY_QUERY_EXECUTION=TRUE", "sa", "");
+        try (Statement stmt = conexao.createStatement()) {
+            stmt.execute("CREATE TABLE Orders (ID INT PRIMARY KEY, order_date DATE, customer_id INT, salesperson_id INT, Amount DECIMAL(10, 2))");
+            stmt.execute("INSERT INTO Orders SELECT X, DATEADD(DAY, MOD(X, 3650), DATE '2015-01-01'), MOD(X * 7, 10000), MOD(X, 1000), MOD(X * 31, 500000) / 100.0"
+                    + " FROM SYSTEM_RANGE(1, " + linhas + ")");
+        }
+        pipeline = new BatchExportPipeline<>(
+                rs -> new Object[]{rs.getInt(1), rs.getDate(2), rs.getInt(3), rs.getInt(4), rs.getBigDecimal(5)},
+                (linha, destino) -> destino.append(linha[0]).append(';').append(linha[1]).append(';').append(linha[2])
+                        .append(';').append(linha[3]).append(';').append(linha[4]),
+                BatchExportPipeline.Configuracao.padrao()
+                        .tamanhoFetch(5_000)
+                        .nivelCompressao(nivelCompressao)
+                        .linhasPorArquivo(2_000_000)
+                        .cabecalho("id;data;cliente;vendedor;valor"));
+    }
+
+    @TearDown(Level.Iteration)
+    public void relatorio() {
+        System.out.println();
+        System.out.println(ultimo);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        conexao.close();
+        apagar(diretorioBanco);
+        apagar(diretorioSaida);
+    }
+
+    @Benchmark
+    public long exportar() throws Exception {
+        ultimo = pipeline.executar(conexao, "SELECT ID, order_date, customer_id, salesperson_id, Amount FROM Orders",
+                diretorioSaida, "pedidos");
+        return ultimo.getLinhas();
+    }
+
+    private static void apagar(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.vsi.teste.batch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Envio de 8 arquivos de 32 MB para um diretório local: {@code transferTo} entre FileChannels contra
+ * cópia por buffer no heap, com 1 ou 4 envios simultâneos. O relatório com MB/s por arquivo e total
+ * é impresso no fim de cada iteração.
+ *
+ * java -jar benchmarks/target/benchmarks.jar FileTransferBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileTransferBenchmark {
+
+    static final int ARQUIVOS = 8;
+    static final int TAMANHO = 32 * 1024 * 1024;
+
+    @Param({"true", "false"})
+    public boolean transferenciaDireta;
+
+    @Param({"1", "4"})
+    public int simultaneos;
+
+    private Path origem;
+    private Path destino;
+    private List<Path> arquivos;
+    private TransportSessionPool pool;
+    private ParallelFileUploader uploader;
+    private ParallelFileUploader.Relatorio ultimo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        origem = Files.createTempDirectory("transferencia-origem");
+        destino = Files.createTempDirectory("transferencia-destino");
+        arquivos = new ArrayList<>();
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        byte[] bloco = new byte[1024 * 1024];
+        for (int i = 0; i < ARQUIVOS; i++) {
+            Path arquivo = origem.resolve("pedidos-" + i + ".csv.gz");
+            try (OutputStream saida = Files.newOutputStream(arquivo)) {
+                for (int escrito = 0; escrito < TAMANHO; escrito += bloco.length) {
+                    for (int j = 0; j < bloco.length; j++) {
+                        bloco[j] = (byte) aleatorio.nextInt(256);
+                    }
+                    saida.write(bloco);
+                }
+            }
+            arquivos.add(arquivo);
+        }
+        FileSystemTransport diretorio = new FileSystemTransport(destino);
+        FileTransport transporte = transferenciaDireta ? diretorio : () -> new SemTransferenciaDireta(diretorio.abrirSessao());
+        pool = new TransportSessionPool(transporte, simultaneos, 10_000);
+        uploader = new ParallelFileUploader(pool, ParallelFileUploader.Configuracao.padrao().maximoTransferenciasSimultaneas(simultaneos));
+    }
+
+    @Setup(Level.Invocation)
+    public void limparDestino() throws IOException {
+        try (Stream<Path> enviados = Files.list(destino)) {
+            for (Path arquivo : (Iterable<Path>) enviados::iterator) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void relatorio() {
+        System.out.println();
+        System.out.println(ultimo);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.close();
+        for (Path diretorio : List.of(origem, destino)) {
+            try (Stream<Path> conteudo = Files.walk(diretorio)) {
+                conteudo.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public long enviar() throws Exception {
+        ultimo = uploader.enviar(arquivos);
+        return ultimo.getBytesTransferidos();
+    }
+
+    /**
+     * Mesma sessão, mas forçando o caminho com buffer (como em um cliente FTP que expõe apenas um OutputStream).
+     */
+    private static final class SemTransferenciaDireta implements TransportSession {
+        private final TransportSession sessao;
+
+        SemTransferenciaDireta(TransportSession sessao) {
+            this.sessao = sessao;
+        }
+
+        @Override
+        public long tamanho(String nomeRemoto) throws IOException {
+            return sessao.tamanho(nomeRemoto);
+        }
+
+        @Override
+        public WritableByteChannel abrirEscrita(String nomeRemoto, long posicao) throws IOException {
+            return sessao.abrirEscrita(nomeRemoto, posicao);
+        }
+
+        @Override
+        public void renomear(String nomeAtual, String nomeNovo) throws IOException {
+            sessao.renomear(nomeAtual, nomeNovo);
+        }
+
+        @Override
+        public long modificadoEm(String nomeRemoto) throws IOException {
+            return sessao.modificadoEm(nomeRemoto);
+        }
+
+        @Override
+        public boolean definirModificadoEm(String nomeRemoto, long epochMs) throws IOException {
+            return sessao.definirModificadoEm(nomeRemoto, epochMs);
+        }
+
+        @Override
+        public boolean suportaTransferenciaDireta() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            sessao.close();
+        }
+    }
+}
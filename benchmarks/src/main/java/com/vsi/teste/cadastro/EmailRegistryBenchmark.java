@@ -0,0 +1,146 @@
+package com.vsi.teste.cadastro;
+
+import com.vsi.teste.Usuario;
+import com.vsi.teste.jdbc.PooledDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disputa pelos mesmos emails com 256 threads: cada operação tenta reivindicar um dos poucos emails
+ * "quentes" (com grafias diferentes) e, se vencer, o libera em seguida, para que a disputa continue.
+ * - reservarNoIndice: {@link EmailRegistry#tentarReservar(String)}, sem Strings extras;
+ * - mapaSincronizadoComToLowerCase: trim().toLowerCase() + HashMap sob um único lock;
+ * - cadastroComIndice: {@link UsuarioCadastro#registrar(String, String)}, os perdedores não vão ao banco;
+ * - cadastroSoComBanco: INSERT direto, os perdedores descobrem a duplicidade pela restrição UNIQUE.
+ *
+ * java -jar benchmarks/target/benchmarks.jar EmailRegistryBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(256)
+public class EmailRegistryBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:benchmark_cadastro;DB_CLOSE_DELAY=-1";
+    private static final String[] DOMINIOS = {"@example.com", "@EXAMPLE.com", "@Example.Com", "@example.COM"};
+
+    @Param({"32"})
+    public int emailsDisputados;
+
+    private String[] grafias;
+    private EmailRegistry registro;
+    private Map<String, Boolean> mapaSincronizado;
+    private PooledDataSource dataSource;
+    private UsuarioCadastro cadastro;
+    private Connection conexaoMantenedora;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        grafias = new String[emailsDisputados * DOMINIOS.length];
+        for (int i = 0; i < emailsDisputados; i++) {
+            for (int d = 0; d < DOMINIOS.length; d++) {
+                String local = d % 2 == 0 ? "usuario" + i : "Usuario" + i;
+                grafias[i * DOMINIOS.length + d] = (d == 3 ? " " : "") + local + DOMINIOS[d];
+            }
+        }
+        registro = new EmailRegistry(emailsDisputados);
+        mapaSincronizado = new HashMap<>();
+
+        dataSource = new PooledDataSource(URL, "sa", "", PooledDataSource.Configuracao.padrao().timeoutAquisicaoMs(60_000));
+        conexaoMantenedora = dataSource.getConnection();
+        try (Statement stmt = conexaoMantenedora.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS usuarios");
+            stmt.execute("CREATE TABLE usuarios (id INT AUTO_INCREMENT PRIMARY KEY, nome VARCHAR(255), email VARCHAR(255) UNIQUE)");
+        }
+        cadastro = new UsuarioCadastro(dataSource, new EmailRegistry(emailsDisputados));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        conexaoMantenedora.close();
+        dataSource.close();
+    }
+
+    private String grafiaAleatoria() {
+        return grafias[ThreadLocalRandom.current().nextInt(grafias.length)];
+    }
+
+    @Benchmark
+    public boolean reservarNoIndice() {
+        EmailRegistry.Reserva reserva = registro.tentarReservar(grafiaAleatoria());
+        if (reserva == null) {
+            return false;
+        }
+        registro.liberar(reserva);
+        return true;
+    }
+
+    @Benchmark
+    public boolean mapaSincronizadoComToLowerCase() {
+        String normalizado = grafiaAleatoria().trim().toLowerCase(Locale.ROOT);
+        synchronized (mapaSincronizado) {
+            if (mapaSincronizado.putIfAbsent(normalizado, Boolean.TRUE) != null) {
+                return false;
+            }
+        }
+        synchronized (mapaSincronizado) {
+            mapaSincronizado.remove(normalizado);
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean cadastroComIndice() throws SQLException {
+        try {
+            Usuario usuario = cadastro.registrar("Usuario", grafiaAleatoria());
+            cadastro.excluir(usuario.getId(), usuario.getEmail(), true);
+            return true;
+        } catch (EmailDuplicadoException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean cadastroSoComBanco() throws SQLException {
+        String normalizado = grafiaAleatoria().trim().toLowerCase(Locale.ROOT);
+        try (Connection conexao = dataSource.getConnection()) {
+            try (PreparedStatement ps = conexao.prepareStatement("INSERT INTO usuarios (nome, email) VALUES (?, ?)")) {
+                ps.setString(1, "Usuario");
+                ps.setString(2, normalizado);
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                return false; // Violação da restrição UNIQUE
+            }
+            try (PreparedStatement ps = conexao.prepareStatement("DELETE FROM usuarios WHERE email = ?")) {
+                ps.setString(1, normalizado);
+                ps.executeUpdate();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.vsi.teste.cadastro;
+
+import com.vsi.teste.SqlInjectionPrevention;
+import com.vsi.teste.Usuario;
+import com.vsi.teste.jdbc.PooledDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buscas de usuário por email contra H2 em memória, com emails sorteados por uma distribuição de Zipf
+ * (poucos emails muito populares e uma cauda longa, 20% deles inexistentes):
+ * - semCache: {@link SqlInjectionPrevention#buscarUsuarioPorEmail_Seguro(String)} com pool e statements em cache;
+ * - comCache: a mesma busca atrás do {@link UsuarioCache}, com capacidade para 5% dos emails.
+ * A taxa de acerto do cache é impressa ao fim de cada execução.
+ *
+ * java -jar benchmarks/target/benchmarks.jar UsuarioCacheBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class UsuarioCacheBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:benchmark_cache;DB_CLOSE_DELAY=-1";
+    private static final int AMOSTRAS = 1 << 20;
+
+    @Param({"100000"})
+    public int emails;
+
+    @Param({"0.99"})
+    public double expoenteZipf;
+
+    private String[] sorteados;
+    private PooledDataSource dataSource;
+    private Connection conexaoMantenedora;
+    private SqlInjectionPrevention busca;
+    private UsuarioCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = new PooledDataSource(URL, "sa", "");
+        conexaoMantenedora = dataSource.getConnection();
+        try (Statement stmt = conexaoMantenedora.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS usuarios");
+            stmt.execute("CREATE TABLE usuarios (id INT PRIMARY KEY, nome VARCHAR(255), email VARCHAR(255) UNIQUE)");
+        }
+        try (PreparedStatement ps = conexaoMantenedora.prepareStatement("INSERT INTO usuarios (id, nome, email) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < emails; i++) {
+                if (i % 5 == 4) {
+                    continue; // Inexistente: exercita o cache negativo
+                }
+                ps.setInt(1, i);
+                ps.setString(2, "Usuario " + i);
+                ps.setString(3, email(i));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        busca = new SqlInjectionPrevention(dataSource);
+        cache = new UsuarioCache(busca::buscarUsuarioPorEmail_Seguro, UsuarioCache.Configuracao.padrao().capacidadeMaxima(emails / 20));
+        sorteados = sortearZipf(emails, expoenteZipf);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (cache.getFalhas() > 0) {
+            System.out.printf("%nTaxa de acerto: %.3f (acertos=%d, falhas=%d, compartilhados=%d, remoções=%d)%n",
+                    cache.getTaxaAcerto(), cache.getAcertos(), cache.getFalhas(),
+                    cache.getCarregamentosCompartilhados(), cache.getRemocoesPorCapacidade());
+        }
+        conexaoMantenedora.close();
+        dataSource.close();
+    }
+
+    private static String email(int i) {
+        return "usuario" + i + "@example.com";
+    }
+
+    /**
+     * Pré-sorteia os emails para que o custo do sorteio fique fora da medição. A posição no ranking de
+     * popularidade é embaralhada em relação ao id, para não favorecer ids baixos.
+     */
+    private static String[] sortearZipf(int total, double expoente) {
+        double[] acumulada = new double[total];
+        double soma = 0;
+        for (int i = 0; i < total; i++) {
+            soma += 1 / Math.pow(i + 1, expoente);
+            acumulada[i] = soma;
+        }
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        int[] permutacao = new int[total];
+        for (int i = 0; i < total; i++) {
+            int j = aleatorio.nextInt(i + 1);
+            permutacao[i] = permutacao[j];
+            permutacao[j] = i;
+        }
+        String[] nomes = new String[total];
+        for (int i = 0; i < total; i++) {
+            nomes[i] = email(i);
+        }
+        String[] sorteados = new String[AMOSTRAS];
+        for (int i = 0; i < AMOSTRAS; i++) {
+            int posicao = Arrays.binarySearch(acumulada, aleatorio.nextDouble() * soma);
+            posicao = posicao >= 0 ? posicao : Math.min(-posicao - 1, total - 1);
+            sorteados[i] = nomes[permutacao[posicao]];
+        }
+        return sorteados;
+    }
+
+    private String emailSorteado() {
+        return sorteados[ThreadLocalRandom.current().nextInt(AMOSTRAS)];
+    }
+
+    @Benchmark
+    public Optional<Usuario> semCache() throws SQLException {
+        return busca.buscarUsuarioPorEmail_Seguro(emailSorteado());
+    }
+
+    @Benchmark
+    public Optional<Usuario> comCache() throws SQLException {
+        return cache.buscarPorEmail(emailSorteado());
+    }
+}
@@ -0,0 +1,111 @@
+package com.vsi.teste.decoupling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compara o envio de uma compra por chamada ao gateway com o envio em micro-lotes
+ * ({@link PaymentBatcher}), com 32 compradores simultâneos.
+ *
+ * O gateway simulado tem um custo fixo por chamada (ida e volta de rede, 2 ms), um custo
+ * pequeno por item (50 µs) e aceita no máximo 4 chamadas simultâneas, como um provedor que
+ * limita conexões por cliente. O modo SampleTime reporta p50/p99 por compra.
+ *
+ * java -jar benchmarks/target/benchmarks.jar PaymentBatchingBenchmark -rf json
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class PaymentBatchingBenchmark {
+
+    static final long CUSTO_CHAMADA_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    static final long CUSTO_ITEM_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    static final int CHAMADAS_SIMULTANEAS = 4;
+
+    private static final BigDecimal VALOR = new BigDecimal("10.00");
+
+    private PaymentGateway gateway;
+    private PaymentBatcher batcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gateway = new GatewaySimulado();
+        batcher = new PaymentBatcher(gateway, 32, 2, 1_024, 1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        batcher.close();
+    }
+
+    @Benchmark
+    public boolean porChamada() {
+        return gateway.processarPagamento(VALOR, "4111");
+    }
+
+    @Benchmark
+    public boolean emLote() {
+        return batcher.processarPagamento(VALOR, "4111").join().isSucesso();
+    }
+
+    /**
+     * Gateway cujo custo é dominado pela chamada, não pelo item: o cenário em que agrupar compensa.
+     */
+    static final class GatewaySimulado implements PaymentGateway {
+
+        private final Semaphore conexoes = new Semaphore(CHAMADAS_SIMULTANEAS);
+
+        @Override
+        public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+            chamar(CUSTO_CHAMADA_NANOS + CUSTO_ITEM_NANOS);
+            return true;
+        }
+
+        @Override
+        public boolean estornarPagamento(String idTransacao) {
+            chamar(CUSTO_CHAMADA_NANOS);
+            return true;
+        }
+
+        @Override
+        public List<PaymentResult> processarPagamentosEmLote(List<PaymentRequest> pagamentos) {
+            chamar(CUSTO_CHAMADA_NANOS + CUSTO_ITEM_NANOS * pagamentos.size());
+            List<PaymentResult> resultados = new ArrayList<>(pagamentos.size());
+            for (int i = 0; i < pagamentos.size(); i++) {
+                resultados.add(PaymentResult.sucesso("TXN_" + i));
+            }
+            return resultados;
+        }
+
+        private void chamar(long duracaoNanos) {
+            conexoes.acquireUninterruptibly();
+            try {
+                LockSupport.parkNanos(duracaoNanos);
+            } finally {
+                conexoes.release();
+            }
+        }
+    }
+}
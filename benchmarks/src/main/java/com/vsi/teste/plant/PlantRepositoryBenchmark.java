@@ -0,0 +1,85 @@
+package com.vsi.teste.plant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas ao {@link PlantRepository} com 4 threads: por código, contra um
+ * {@code ConcurrentHashMap<Long, Plant>} com os mesmos dados, e por prefixo de descrição.
+ * As escritas concorrentes (uma em cada oito operações) exercitam a validação das leituras otimistas.
+ *
+ * java -jar benchmarks/target/benchmarks.jar PlantRepositoryBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PlantRepositoryBenchmark {
+
+    private static final String[] NOMES = {"Rosa", "Tulipa", "Lirio", "Cacto", "Hera", "Iris", "Musgo", "Violet"};
+
+    @Param({"1000000"})
+    public int plantas;
+
+    private PlantRepository repositorio;
+    private ConcurrentHashMap<Long, Plant> mapa;
+
+    @Setup
+    public void setUp() {
+        repositorio = new PlantRepository(plantas);
+        mapa = new ConcurrentHashMap<>(plantas);
+        for (int i = 0; i < plantas; i++) {
+            Plant planta = new Plant(i, descricao(i));
+            repositorio.criar(planta);
+            mapa.put((long) i, planta);
+        }
+    }
+
+    private static String descricao(int i) {
+        return NOMES[i % NOMES.length] + (i / NOMES.length) % 10_000;
+    }
+
+    @Benchmark
+    public Plant buscarPorCodigo() {
+        return repositorio.buscar(ThreadLocalRandom.current().nextInt(plantas));
+    }
+
+    @Benchmark
+    public Plant buscarPorCodigoConcurrentHashMap() {
+        return mapa.get((long) ThreadLocalRandom.current().nextInt(plantas));
+    }
+
+    @Benchmark
+    public Plant buscarComEscritasConcorrentes() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int codigo = aleatorio.nextInt(plantas);
+        if ((codigo & 7) == 0) {
+            repositorio.atualizarDescricao(codigo, descricao(aleatorio.nextInt(plantas)));
+        }
+        return repositorio.buscar(codigo);
+    }
+
+    @Benchmark
+    public List<Plant> buscarPorPrefixo() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        return repositorio.buscarPorPrefixo(NOMES[aleatorio.nextInt(NOMES.length)] + aleatorio.nextInt(1_000), 20);
+    }
+}
@@ -0,0 +1,146 @@
+package com.vsi.teste.sales;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Questões 6a e 6d sobre uma tabela Orders de produção simulada: SalesAnalytics (colunar, em
+ * memória) contra as mesmas queries de sql/queries.sql no H2 em memória, com índices nas FKs e
+ * sem o cache de resultados do H2 (OPTIMIZE_REUSE_RESULTS), para que cada execução percorra os dados.
+ *
+ * java -jar benchmarks/target/benchmarks.jar SalesAnalyticsBenchmark -p pedidos=5000000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SalesAnalyticsBenchmark {
+
+    static final int VENDEDORES = 1_000;
+    static final int CLIENTES = 10_000;
+    static final int CIDADES = 50;
+
+    @Param({"1000000"})
+    public int pedidos;
+
+    private Connection conexao;
+    private SalesAnalytics analytics;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conexao = DriverManager.getConnection("jdbc:h2:mem:benchmark_vendas;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        popular(conexao, pedidos);
+        analytics = SalesAnalytics.carregar(conexao);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        conexao.close();
+    }
+
+    @Benchmark
+    public List<String> colunar6a() {
+        return analytics.vendedoresSemPedidosDoCliente("Samsonic");
+    }
+
+    @Benchmark
+    public List<TotalVendas> colunar6d() {
+        return analytics.totalVendasPorVendedor();
+    }
+
+    @Benchmark
+    public int h2_6a() throws SQLException {
+        return contarLinhas("SELECT sp.Name FROM Salesperson sp WHERE sp.ID NOT IN ("
+                + "SELECT DISTINCT o.salesperson_id FROM Orders o JOIN Customer c ON o.customer_id = c.ID WHERE c.Name = 'Samsonic')");
+    }
+
+    @Benchmark
+    public int h2_6d() throws SQLException {
+        return contarLinhas("SELECT sp.Name, COALESCE(SUM(o.Amount), 0) AS Total_Sales_Amount FROM Salesperson sp "
+                + "LEFT JOIN Orders o ON sp.ID = o.salesperson_id GROUP BY sp.ID, sp.Name ORDER BY sp.Name");
+    }
+
+    private int contarLinhas(String sql) throws SQLException {
+        int linhas = 0;
+        try (Statement stmt = conexao.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                linhas++;
+            }
+        }
+        return linhas;
+    }
+
+    static void popular(Connection conexao, int pedidos) throws SQLException {
+        try (Statement stmt = conexao.createStatement()) {
+            stmt.execute("CREATE TABLE Salesperson (ID INT PRIMARY KEY, Name VARCHAR(50), Age INT, Salary DECIMAL(10, 2))");
+            stmt.execute("CREATE TABLE Customer (ID INT PRIMARY KEY, Name VARCHAR(50), City VARCHAR(50), Industry_Type CHAR(1))");
+            stmt.execute("CREATE TABLE Orders (ID INT PRIMARY KEY, order_date DATE, customer_id INT, salesperson_id INT, Amount DECIMAL(10, 2))");
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        try (PreparedStatement ps = conexao.prepareStatement("INSERT INTO Salesperson VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= VENDEDORES; i++) {
+                ps.setInt(1, i);
+                ps.setString(2, "Vendedor" + i);
+                ps.setInt(3, 20 + random.nextInt(45));
+                ps.setBigDecimal(4, BigDecimal.valueOf(30_000 + random.nextInt(120_000)));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = conexao.prepareStatement("INSERT INTO Customer VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= CLIENTES; i++) {
+                ps.setInt(1, i);
+                ps.setString(2, i == 1 ? "Samsonic" : "Cliente" + i);
+                ps.setString(3, "Cidade" + random.nextInt(CIDADES));
+                ps.setString(4, random.nextBoolean() ? "J" : "B");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        LocalDate inicio = LocalDate.of(1995, 1, 1);
+        try (PreparedStatement ps = conexao.prepareStatement("INSERT INTO Orders VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= pedidos; i++) {
+                ps.setInt(1, i);
+                ps.setObject(2, inicio.plusDays(random.nextInt(10_000)));
+                ps.setInt(3, 1 + random.nextInt(CLIENTES));
+                ps.setInt(4, 1 + random.nextInt(VENDEDORES));
+                ps.setBigDecimal(5, BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+                ps.addBatch();
+                if (i % 10_000 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        try (Statement stmt = conexao.createStatement()) {
+            // Índices nas FKs, como em produção; sem eles o H2 faz nested loop e a 6d leva minutos
+            stmt.execute("CREATE INDEX idx_orders_salesperson ON Orders(salesperson_id)");
+            stmt.execute("CREATE INDEX idx_orders_customer ON Orders(customer_id)");
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.vsi.teste;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Arquivo com todos os anagramas de um grupo de letras distintas, em ordem lexicográfica, gravado
+ * por {@link AnagramGenerator#exportarAnagramas(String, Path)}.
+ *
+ * Cada anagrama é um registro de largura fixa: as n letras em ASCII seguidas de '\n'. O arquivo é um
+ * texto comum para ferramentas externas (uma linha por anagrama) e, por ter largura fixa, o registro
+ * i fica no byte i * (n + 1): a gravação divide o arquivo em faixas escritas em paralelo, cada uma
+ * começando pela permutação da sua posição ({@link AnagramGenerator#desordenarParaPosicao(char[], long)}),
+ * e a leitura acessa qualquer posição direto no arquivo mapeado. Não há cabeçalho: as letras e o
+ * número de anagramas vêm do primeiro registro e do tamanho do arquivo.
+ *
+ * A gravação escreve as permutações direto em {@link MappedByteBuffer}s, sem criar uma String por
+ * anagrama, em um arquivo temporário renomeado ao final: um arquivo com o nome final está sempre completo.
+ */
+public final class AnagramFile implements AutoCloseable {
+
+    private static final byte FIM_DE_LINHA = '\n';
+
+    // Cada tarefa de gravação mapeia até ~64 MB; maiores são divididas ao meio
+    private static final int BYTES_POR_TAREFA = 1 << 26;
+
+    private final FileChannel canal;
+    private final MappedByteBuffer[] janelas;
+    private final long registrosPorJanela;
+    private final int largura;
+    private final long tamanho;
+    private final String letras;
+
+    private AnagramFile(FileChannel canal, MappedByteBuffer[] janelas, long registrosPorJanela,
+                        int largura, long tamanho, String letras) {
+        this.canal = canal;
+        this.janelas = janelas;
+        this.registrosPorJanela = registrosPorJanela;
+        this.largura = largura;
+        this.tamanho = tamanho;
+        this.letras = letras;
+    }
+
+    /**
+     * Grava todas as permutações de {@code primeira} (letras distintas, ordenadas) no arquivo.
+     *
+     * @return Número de anagramas gravados.
+     */
+    static long gravar(char[] primeira, Path arquivo, ForkJoinPool pool) throws IOException {
+        return gravar(primeira, arquivo, pool, BYTES_POR_TAREFA);
+    }
+
+    static long gravar(char[] primeira, Path arquivo, ForkJoinPool pool, int bytesPorTarefa) throws IOException {
+        int largura = primeira.length + 1;
+        long total = fatorial(primeira.length);
+        long bytes;
+        try {
+            bytes = Math.multiplyExact(total, largura);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Anagramas demais para um arquivo: " + primeira.length + " letras.");
+        }
+        long registrosPorTarefa = Math.max(1, bytesPorTarefa / largura);
+
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".parcial");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[]{FIM_DE_LINHA}), bytes - 1); // Dimensiona o arquivo de uma vez
+            pool.invoke(new TarefaFaixa(canal, primeira, 0, total, registrosPorTarefa));
+            canal.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            if (e instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e).getCause();
+            }
+            throw e;
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return total;
+    }
+
+    /**
+     * Abre um arquivo gravado por {@link AnagramGenerator#exportarAnagramas(String, Path)} para leitura por posição.
+     *
+     * @throws IOException Se o arquivo não tiver o formato esperado ou estiver incompleto.
+     */
+    public static AnagramFile abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        try {
+            long bytes = canal.size();
+            ByteBuffer inicio = ByteBuffer.allocate((int) Math.min(bytes, 22));
+            canal.read(inicio, 0);
+            int n = 0;
+            while (n < inicio.limit() && inicio.get(n) != FIM_DE_LINHA) {
+                n++;
+            }
+            if (n == 0 || n == inicio.limit()) {
+                throw new IOException("O arquivo não é uma exportação de anagramas: " + arquivo);
+            }
+            String letras = new String(inicio.array(), 0, n, StandardCharsets.US_ASCII);
+            int largura = n + 1;
+            long total = fatorial(n);
+            if (bytes != total * largura) {
+                throw new IOException("Exportação de anagramas incompleta: " + arquivo + " tem " + bytes
+                        + " bytes, esperados " + total * largura + ".");
+            }
+
+            // Janelas de até 2 GB, com um número inteiro de registros cada
+            long registrosPorJanela = Integer.MAX_VALUE / largura;
+            MappedByteBuffer[] janelas = new MappedByteBuffer[(int) ((total + registrosPorJanela - 1) / registrosPorJanela)];
+            for (int i = 0; i < janelas.length; i++) {
+                long primeiro = i * registrosPorJanela;
+                long registros = Math.min(registrosPorJanela, total - primeiro);
+                janelas[i] = canal.map(FileChannel.MapMode.READ_ONLY, primeiro * largura, registros * largura);
+            }
+            return new AnagramFile(canal, janelas, registrosPorJanela, largura, total, letras);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Número de anagramas no arquivo (n!).
+     */
+    public long tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * @return As letras em ordem crescente (o primeiro anagrama).
+     */
+    public String getLetras() {
+        return letras;
+    }
+
+    /**
+     * @return O anagrama da posição, igual a {@link AnagramGenerator#anagramaNaPosicao(String, long)}.
+     * @throws IndexOutOfBoundsException Se a posição estiver fora do intervalo [0, n!).
+     */
+    public String anagrama(long indice) {
+        byte[] destino = new byte[largura - 1];
+        ler(indice, destino, 0);
+        return new String(destino, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Copia as letras do anagrama da posição para {@code destino}, sem alocar. Seguro para várias threads.
+     *
+     * @throws IndexOutOfBoundsException Se a posição estiver fora do intervalo [0, n!) ou não couber no destino.
+     */
+    public void ler(long indice, byte[] destino, int deslocamento) {
+        if (indice < 0 || indice >= tamanho) {
+            throw new IndexOutOfBoundsException("Posição " + indice + " fora do intervalo [0, " + tamanho + ").");
+        }
+        MappedByteBuffer janela = janelas[(int) (indice / registrosPorJanela)];
+        int posicao = (int) (indice % registrosPorJanela) * largura;
+        janela.get(posicao, destino, deslocamento, largura - 1); // Leitura absoluta: não altera o estado do buffer
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close(); // Os mapeamentos são liberados pelo GC
+    }
+
+    private static long fatorial(int n) {
+        if (n > 20) {
+            return Long.MAX_VALUE; // Não cabe em um long: nunca coincide com o tamanho de um arquivo válido
+        }
+        long resultado = 1;
+        for (int i = 2; i <= n; i++) {
+            resultado *= i;
+        }
+        return resultado;
+    }
+
+    /**
+     * Grava os registros [inicio, fim) em um trecho mapeado próprio; faixas grandes são divididas ao meio.
+     */
+    private static final class TarefaFaixa extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel canal;
+        private final char[] primeira;
+        private final long inicio;
+        private final long fim;
+        private final long registrosPorTarefa;
+
+        TarefaFaixa(FileChannel canal, char[] primeira, long inicio, long fim, long registrosPorTarefa) {
+            this.canal = canal;
+            this.primeira = primeira;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.registrosPorTarefa = registrosPorTarefa;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio > registrosPorTarefa) {
+                long meio = inicio + (fim - inicio) / 2;
+                invokeAll(new TarefaFaixa(canal, primeira, inicio, meio, registrosPorTarefa),
+                        new TarefaFaixa(canal, primeira, meio, fim, registrosPorTarefa));
+                return;
+            }
+            int n = primeira.length;
+            int largura = n + 1;
+            try {
+                MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, inicio * largura, (fim - inicio) * largura);
+                char[] atual = Arrays.copyOf(primeira, n);
+                AnagramGenerator.desordenarParaPosicao(atual, inicio);
+                byte[] registro = new byte[largura];
+                registro[n] = FIM_DE_LINHA;
+                for (long i = inicio; i < fim; i++) {
+                    for (int k = 0; k < n; k++) {
+                        registro[k] = (byte) atual[k]; // Letras validadas: sempre ASCII
+                    }
+                    mapa.put(registro);
+                    AnagramGenerator.proximaPermutacao(atual, 0, n);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
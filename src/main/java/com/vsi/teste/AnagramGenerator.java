@@ -1,14 +1,28 @@
 package com.vsi.teste;
 
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Utilitário para gerar todos os anagramas possíveis de um grupo de letras distintas.
+ * Também oferece geração para multiconjuntos (letras repetidas) via {@link #iterarAnagramasMulticonjunto(String, boolean)}.
  *
  * @see <a href="file:../doc-files/DSE%20-%20Test%20-%20Java%20Developer.docx.pdf">Questão 1 do Teste</a>
  */
@@ -17,67 +31,504 @@ public class AnagramGenerator {
     // Pattern para validar se a entrada contém apenas letras (ASCII)
     private static final Pattern LETTERS_ONLY_PATTERN = Pattern.compile("^[a-zA-Z]+$");
 
+    // Maior n cujo fatorial ainda cabe em um long (20! < Long.MAX_VALUE < 21!)
+    private static final int MAX_LETRAS_TAMANHO_CONHECIDO = 20;
+
+    // Maior n cujo fatorial ainda cabe na capacidade de um ArrayList (12! < Integer.MAX_VALUE < 13!)
+    private static final int MAX_LETRAS_LISTA_PRE_DIMENSIONADA = 12;
+
+    // Blocos com até 7! permutações são gerados sequencialmente; acima disso a tarefa é dividida por prefixo
+    private static final long LIMIAR_TAREFA_SEQUENCIAL = 5040;
+
     /**
      * Gera todos os anagramas possíveis para uma string de letras distintas.
      *
-     * @param letras Uma string contendo apenas letras distintas.
+     * @param letras Uma string contendo apenas letras distintas (no máximo 12, limite de uma lista Java).
      * @return Uma lista de strings, onde cada string é um anagrama único das letras de entrada.
-     * @throws IllegalArgumentException Se a entrada for nula, vazia, contiver caracteres não-letras
-     * ou letras repetidas.
+     * @throws IllegalArgumentException Se a entrada for nula, vazia, contiver caracteres não-letras,
+     * letras repetidas ou for grande demais para ser materializada.
      */
     public List<String> gerarAnagramas(String letras) {
-        validarEntrada(letras);
+        validarEntradaMaterializavel(letras);
 
-        Set<String> anagramasSet = new HashSet<>(); // Usa Set para garantir unicidade automaticamente
-        gerarPermutacoes("", letras, anagramasSet);
+        // As letras são distintas (garantido pela validação), então cada permutação já é única e a
+        // lista recebe exatamente n! elementos
+        List<String> anagramasList = new ArrayList<>((int) fatorial(letras.length()));
+        PermutationEngine.permutar(letras.toCharArray(),
+                (permutacao, tamanho) -> anagramasList.add(new String(permutacao, 0, tamanho)));
 
-        List<String> anagramasList = new ArrayList<>(anagramasSet);
         Collections.sort(anagramasList); // Ordena para consistência da saída
         return anagramasList;
     }
 
     /**
-     * Método auxiliar recursivo para gerar as permutações.
+     * Entrega cada anagrama ao visitante sem alocar Strings intermediárias.
+     *
+     * Ideal para processar grandes volumes (contar, filtrar, gravar em disco) sem pressionar
+     * o GC. A ordem de visita é a do algoritmo de Heap, não a lexicográfica.
+     *
+     * @param letras    Uma string contendo apenas letras distintas.
+     * @param visitante Callback que recebe o buffer de cada permutação.
+     * @return true se todas as permutações foram visitadas, false se o visitante interrompeu.
+     * @throws IllegalArgumentException Se a entrada for inválida.
+     * @see PermutationEngine
+     */
+    public boolean visitarAnagramas(String letras, PermutationVisitor visitante) {
+        validarEntrada(letras);
+        return PermutationEngine.permutar(letras.toCharArray(), visitante);
+    }
+
+    /**
+     * Versão paralela de {@link #gerarAnagramas(String)} usando o {@link ForkJoinPool#commonPool()}.
+     *
+     * @see #gerarAnagramasParalelo(String, ForkJoinPool)
+     */
+    public List<String> gerarAnagramasParalelo(String letras) {
+        return gerarAnagramasParalelo(letras, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Gera os anagramas em paralelo, dividindo o espaço de permutações por prefixo em tarefas
+     * fork/join executadas no pool informado (o paralelismo é o do próprio pool).
+     *
+     * Em ordem lexicográfica, as permutações que começam com um mesmo prefixo formam um bloco
+     * contíguo de tamanho (n - k)!. Cada tarefa conhece, portanto, a posição exata do seu bloco
+     * no resultado e escreve diretamente nele: não há fase de junção nem ordenação final, e o
+     * resultado é idêntico ao de {@link #gerarAnagramas(String)}.
+     *
+     * @param letras Uma string contendo apenas letras distintas (no máximo 12, limite de um array Java).
+     * @param pool   Pool onde as tarefas serão executadas.
+     * @return Lista de tamanho fixo com os anagramas em ordem lexicográfica.
+     * @throws IllegalArgumentException Se a entrada for inválida ou grande demais para ser materializada.
+     */
+    public List<String> gerarAnagramasParalelo(String letras, ForkJoinPool pool) {
+        validarEntradaMaterializavel(letras);
+        int n = letras.length();
+
+        char[] primeira = letras.toCharArray();
+        Arrays.sort(primeira);
+        String[] resultado = new String[(int) fatorial(n)];
+        pool.invoke(new TarefaBlocoPrefixo(primeira, 0, 0, resultado));
+        return Arrays.asList(resultado);
+    }
+
+    /**
+     * Grava todos os anagramas em um arquivo, usando o {@link ForkJoinPool#commonPool()}.
+     *
+     * @see #exportarAnagramas(String, Path, ForkJoinPool)
+     */
+    public long exportarAnagramas(String letras, Path arquivo) throws IOException {
+        return exportarAnagramas(letras, arquivo, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Grava todos os anagramas em ordem lexicográfica em um arquivo de registros de largura fixa
+     * (n letras + '\n'), sem criar Strings: para entradas de 12 ou 13 letras, cuja lista nunca caberia
+     * no heap. O arquivo é dividido em faixas gravadas em paralelo no pool informado, direto em
+     * trechos mapeados em memória, e pode ser lido por posição com {@link AnagramFile#abrir(Path)}.
+     *
+     * @param letras  Uma string contendo apenas letras distintas (no máximo 20).
+     * @param arquivo Arquivo de destino; substituído apenas quando a gravação termina.
+     * @param pool    Pool onde as faixas serão gravadas.
+     * @return Número de anagramas gravados (n!).
+     * @throws IllegalArgumentException Se a entrada for inválida ou o arquivo ultrapassar o limite de um long.
+     * @throws IOException              Se a gravação falhar; o arquivo de destino não é alterado.
+     */
+    public long exportarAnagramas(String letras, Path arquivo, ForkJoinPool pool) throws IOException {
+        validarEntradaIndexavel(letras);
+        char[] primeira = letras.toCharArray();
+        Arrays.sort(primeira);
+        return AnagramFile.gravar(primeira, arquivo, pool);
+    }
+
+    /**
+     * Retorna um iterador preguiçoso sobre os anagramas, na mesma ordem lexicográfica
+     * da lista devolvida por {@link #gerarAnagramas(String)}.
+     *
+     * Cada anagrama é produzido sob demanda a partir da permutação anterior (algoritmo
+     * "next permutation"), portanto a memória extra é constante: apenas um char[] com a
+     * permutação corrente. O chamador pode parar a qualquer momento ou paginar o resultado.
+     *
+     * @param letras Uma string contendo apenas letras distintas.
+     * @return Um iterador que devolve os anagramas um a um, em ordem lexicográfica.
+     * @throws IllegalArgumentException Se a entrada for inválida (mesmas regras de {@link #gerarAnagramas(String)}).
+     */
+    public Iterator<String> iterarAnagramas(String letras) {
+        validarEntrada(letras);
+
+        char[] primeira = letras.toCharArray();
+        Arrays.sort(primeira); // A menor permutação lexicográfica é a das letras ordenadas
+        return new IteradorLexicografico(primeira, Long.MAX_VALUE);
+    }
+
+    /**
+     * Versão em {@link Stream} de {@link #iterarAnagramas(String)}. O stream é sequencial,
+     * ordenado e preguiçoso: operações como {@code limit} ou {@code findFirst} interrompem
+     * a geração sem materializar as permutações restantes.
+     *
+     * @param letras Uma string contendo apenas letras distintas.
+     * @return Um stream com os anagramas em ordem lexicográfica.
+     * @throws IllegalArgumentException Se a entrada for inválida.
+     */
+    public Stream<String> streamAnagramas(String letras) {
+        Iterator<String> iterador = iterarAnagramas(letras);
+        int caracteristicas = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+
+        Spliterator<String> spliterator = letras.length() <= MAX_LETRAS_TAMANHO_CONHECIDO
+                ? Spliterators.spliterator(iterador, fatorial(letras.length()), caracteristicas)
+                : Spliterators.spliteratorUnknownSize(iterador, caracteristicas);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Itera os anagramas de um MULTICONJUNTO de letras (ex: "banana"), em ordem lexicográfica e
+     * sem repetições.
+     *
+     * Não há deduplicação por Set: partindo das letras ordenadas, o passo "next permutation"
+     * (com comparações não estritas) salta naturalmente as permutações equivalentes, de modo que
+     * o trabalho é proporcional a n!/∏k! (o número de resultados) e não a n!.
+     *
+     * @param letras            Uma string contendo apenas letras (repetições permitidas).
+     * @param ignorarMaiusculas Se true, 'A' e 'a' são a mesma letra e a saída é em minúsculas;
+     *                          se false, são letras diferentes.
+     * @return Um iterador preguiçoso sobre os anagramas distintos.
+     * @throws IllegalArgumentException Se a entrada for nula, vazia ou contiver caracteres não-letras.
+     */
+    public Iterator<String> iterarAnagramasMulticonjunto(String letras, boolean ignorarMaiusculas) {
+        return new IteradorLexicografico(letrasMulticonjuntoOrdenadas(letras, ignorarMaiusculas), Long.MAX_VALUE);
+    }
+
+    /**
+     * Versão em {@link Stream} de {@link #iterarAnagramasMulticonjunto(String, boolean)}.
+     *
+     * @param letras            Uma string contendo apenas letras (repetições permitidas).
+     * @param ignorarMaiusculas Se true, 'A' e 'a' são consideradas a mesma letra.
+     * @return Um stream sequencial e ordenado com os anagramas distintos.
+     * @throws IllegalArgumentException Se a entrada for inválida.
+     */
+    public Stream<String> streamAnagramasMulticonjunto(String letras, boolean ignorarMaiusculas) {
+        Iterator<String> iterador = iterarAnagramasMulticonjunto(letras, ignorarMaiusculas);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterador,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Conta exatamente quantos anagramas distintos existem para o multiconjunto de letras:
+     * n! / (k1! * k2! * ...), onde ki é o número de ocorrências de cada letra.
+     *
+     * O valor é calculado sem gerar nenhuma permutação, servindo para dimensionar buffers ou
+     * recusar requisições grandes demais antes de começar o trabalho.
+     *
+     * @param letras            Uma string contendo apenas letras (repetições permitidas).
+     * @param ignorarMaiusculas Se true, 'A' e 'a' são consideradas a mesma letra.
+     * @return O número exato de anagramas distintos.
+     * @throws IllegalArgumentException Se a entrada for inválida.
+     */
+    public BigInteger contarAnagramas(String letras, boolean ignorarMaiusculas) {
+        char[] ordenadas = letrasMulticonjuntoOrdenadas(letras, ignorarMaiusculas);
+
+        // Coeficiente multinomial acumulado: após cada passo o valor parcial é inteiro, logo a divisão é exata
+        BigInteger total = BigInteger.ONE;
+        int posicao = 0;
+        int repeticoes = 0;
+        for (int i = 0; i < ordenadas.length; i++) {
+            repeticoes = (i > 0 && ordenadas[i] == ordenadas[i - 1]) ? repeticoes + 1 : 1;
+            posicao++;
+            total = total.multiply(BigInteger.valueOf(posicao)).divide(BigInteger.valueOf(repeticoes));
+        }
+        return total;
+    }
+
+    private char[] letrasMulticonjuntoOrdenadas(String letras, boolean ignorarMaiusculas) {
+        validarLetras(letras);
+        char[] ordenadas = (ignorarMaiusculas ? letras.toLowerCase(Locale.ROOT) : letras).toCharArray();
+        Arrays.sort(ordenadas);
+        return ordenadas;
+    }
+
+    /**
+     * Retorna o anagrama que ocupa a posição {@code indice} (base 0) na sequência ordenada
+     * de {@link #gerarAnagramas(String)}, sem gerar as permutações anteriores.
+     *
+     * Usa o sistema de numeração fatorial: o dígito de ordem i de {@code indice} (na base i!)
+     * diz qual das letras ainda disponíveis ocupa a próxima posição. Custo O(n²).
+     *
+     * @param letras Uma string contendo apenas letras distintas (no máximo 20, limite de um long).
+     * @param indice Posição desejada, entre 0 e n! - 1.
+     * @return O anagrama na posição informada.
+     * @throws IllegalArgumentException  Se a entrada for inválida ou tiver mais de 20 letras.
+     * @throws IndexOutOfBoundsException Se o índice estiver fora do intervalo [0, n!).
+     */
+    public String anagramaNaPosicao(String letras, long indice) {
+        validarEntradaIndexavel(letras);
+        char[] disponiveis = letras.toCharArray();
+        Arrays.sort(disponiveis);
+        validarIndice(indice, fatorial(disponiveis.length));
+
+        desordenarParaPosicao(disponiveis, indice);
+        return new String(disponiveis);
+    }
+
+    /**
+     * Operação inversa de {@link #anagramaNaPosicao(String, long)}: retorna a posição (base 0)
+     * de {@code anagrama} na sequência ordenada dos anagramas de {@code letras}. Custo O(n²).
+     *
+     * @param letras   Uma string contendo apenas letras distintas (no máximo 20).
+     * @param anagrama Um anagrama de {@code letras}.
+     * @return A posição do anagrama na ordem lexicográfica.
+     * @throws IllegalArgumentException Se a entrada for inválida ou {@code anagrama} não for um anagrama de {@code letras}.
+     */
+    public long posicaoDoAnagrama(String letras, String anagrama) {
+        validarEntradaIndexavel(letras);
+        char[] ordenadas = letras.toCharArray();
+        Arrays.sort(ordenadas);
+        char[] alvo = anagrama == null ? new char[0] : anagrama.toCharArray();
+        char[] alvoOrdenado = alvo.clone();
+        Arrays.sort(alvoOrdenado);
+        if (!Arrays.equals(ordenadas, alvoOrdenado)) {
+            throw new IllegalArgumentException("'" + anagrama + "' não é um anagrama de '" + letras + "'.");
+        }
+
+        int n = alvo.length;
+        long posicao = 0;
+        for (int i = 0; i < n; i++) {
+            // Quantas letras ainda não usadas são menores que alvo[i]: cada uma precede um bloco de (n-1-i)! anagramas
+            int menoresRestantes = 0;
+            for (int j = i + 1; j < n; j++) {
+                if (alvo[j] < alvo[i]) {
+                    menoresRestantes++;
+                }
+            }
+            posicao += menoresRestantes * fatorial(n - 1 - i);
+        }
+        return posicao;
+    }
+
+    /**
+     * Retorna um stream com até {@code quantidade} anagramas a partir da posição {@code inicio}
+     * da sequência ordenada. O ponto de partida é calculado diretamente por
+     * {@link #anagramaNaPosicao(String, long)}, de modo que paginar ou dividir o trabalho entre
+     * workers não exige percorrer as permutações anteriores ao deslocamento.
+     *
+     * @param letras     Uma string contendo apenas letras distintas (no máximo 20).
+     * @param inicio     Posição (base 0) do primeiro anagrama.
+     * @param quantidade Número máximo de anagramas a devolver.
+     * @return Stream ordenado com os anagramas da faixa.
+     * @throws IllegalArgumentException  Se a entrada for inválida ou {@code quantidade} for negativa.
+     * @throws IndexOutOfBoundsException Se {@code inicio} estiver fora do intervalo [0, n!).
+     */
+    public Stream<String> streamAnagramas(String letras, long inicio, long quantidade) {
+        validarEntradaIndexavel(letras);
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa: " + quantidade);
+        }
+        char[] primeira = letras.toCharArray();
+        Arrays.sort(primeira);
+        long total = fatorial(primeira.length);
+        validarIndice(inicio, total);
+
+        desordenarParaPosicao(primeira, inicio);
+        long tamanho = Math.min(quantidade, total - inicio);
+        Iterator<String> iterador = new IteradorLexicografico(primeira, tamanho);
+        return StreamSupport.stream(Spliterators.spliterator(iterador, tamanho,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Reorganiza in-place um array ORDENADO de letras distintas para a permutação da posição {@code indice}.
+     */
+    static void desordenarParaPosicao(char[] letras, long indice) {
+        int n = letras.length;
+        long resto = indice;
+        for (int i = 0; i < n - 1; i++) {
+            long tamanhoBloco = fatorial(n - 1 - i);
+            int escolhida = i + (int) (resto / tamanhoBloco);
+            resto %= tamanhoBloco;
+
+            // Traz a letra escolhida para a posição i, deslocando as demais e mantendo-as ordenadas
+            char letra = letras[escolhida];
+            System.arraycopy(letras, i, letras, i + 1, escolhida - i);
+            letras[i] = letra;
+        }
+    }
+
+    private void validarEntradaMaterializavel(String letras) {
+        validarEntrada(letras);
+        if (letras.length() > MAX_LETRAS_LISTA_PRE_DIMENSIONADA) {
+            throw new IllegalArgumentException("A entrada deve ter no máximo " + MAX_LETRAS_LISTA_PRE_DIMENSIONADA
+                    + " letras para gerar a lista completa; use iterarAnagramas para entradas maiores.");
+        }
+    }
+
+    private void validarEntradaIndexavel(String letras) {
+        validarEntrada(letras);
+        if (letras.length() > MAX_LETRAS_TAMANHO_CONHECIDO) {
+            throw new IllegalArgumentException("A entrada deve ter no máximo " + MAX_LETRAS_TAMANHO_CONHECIDO
+                    + " letras para acesso por posição.");
+        }
+    }
+
+    private static void validarIndice(long indice, long total) {
+        if (indice < 0 || indice >= total) {
+            throw new IndexOutOfBoundsException("Posição " + indice + " fora do intervalo [0, " + total + ").");
+        }
+    }
+
+    /**
+     * Transforma {@code letras[inicio..fim)} na próxima permutação em ordem lexicográfica, in-place.
      *
-     * A lógica é:
-     * 1. Caso Base: Se não há mais letras restantes (sufixo está vazio), a permutação atual (prefixo) está completa. Adiciona ao conjunto.
-     * 2. Passo Recursivo: Para cada letra no sufixo:
-     * a. Fixa a letra atual, adicionando-a ao prefixo.
-     * b. Cria um novo sufixo removendo a letra atual.
-     * c. Chama recursivamente a função com o novo prefixo e novo sufixo.
+     * Algoritmo clássico (Narayana Pandita):
+     * 1. Encontra o maior i tal que letras[i] < letras[i + 1]. Se não existir, esta é a última permutação.
+     * 2. Encontra o maior j > i tal que letras[j] > letras[i] e troca letras[i] com letras[j].
+     * 3. Inverte o trecho letras[i + 1..fim).
      *
-     * @param prefixo     A parte do anagrama já construída.
-     * @param sufixo      As letras restantes a serem permutadas.
-     * @param resultSet   O conjunto onde os anagramas completos são armazenados.
+     * @return false se {@code letras} já era a última permutação (nada é alterado nesse caso).
      */
-    private void gerarPermutacoes(String prefixo, String sufixo, Set<String> resultSet) {
-        int n = sufixo.length();
-        if (n == 0) {
-            // Caso base: não há mais letras para permutar, adiciona o anagrama formado
-            resultSet.add(prefixo);
-        } else {
-            // Para cada letra no sufixo
-            for (int i = 0; i < n; i++) {
-                // Constrói o próximo prefixo adicionando o caractere atual (sufixo.charAt(i))
-                String novoPrefixo = prefixo + sufixo.charAt(i);
+    static boolean proximaPermutacao(char[] letras, int inicio, int fim) {
+        int i = fim - 2;
+        while (i >= inicio && letras[i] >= letras[i + 1]) {
+            i--;
+        }
+        if (i < inicio) {
+            return false;
+        }
 
-                // Constrói o próximo sufixo removendo o caractere atual
-                // Pega a parte antes do caractere + a parte depois do caractere
-                String novoSufixo = sufixo.substring(0, i) + sufixo.substring(i + 1, n);
+        int j = fim - 1;
+        while (letras[j] <= letras[i]) {
+            j--;
+        }
+        trocar(letras, i, j);
+        inverter(letras, i + 1, fim - 1);
+        return true;
+    }
 
-                // Chama recursivamente com os novos prefixo e sufixo
-                gerarPermutacoes(novoPrefixo, novoSufixo, resultSet);
+    private static void trocar(char[] letras, int i, int j) {
+        char temp = letras[i];
+        letras[i] = letras[j];
+        letras[j] = temp;
+    }
+
+    private static void inverter(char[] letras, int de, int ate) {
+        while (de < ate) {
+            trocar(letras, de++, ate--);
+        }
+    }
+
+    private static long fatorial(int n) {
+        long resultado = 1;
+        for (int i = 2; i <= n; i++) {
+            resultado *= i;
+        }
+        return resultado;
+    }
+
+    /**
+     * Tarefa fork/join responsável pelo bloco de permutações que compartilham os primeiros
+     * {@code tamanhoPrefixo} caracteres de {@code letras}. O restante do array está ordenado,
+     * ou seja, {@code letras} é a primeira permutação do bloco.
+     */
+    private static final class TarefaBlocoPrefixo extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final char[] letras;
+        private final int tamanhoPrefixo;
+        private final int deslocamento;
+        private final String[] resultado;
+
+        TarefaBlocoPrefixo(char[] letras, int tamanhoPrefixo, int deslocamento, String[] resultado) {
+            this.letras = letras;
+            this.tamanhoPrefixo = tamanhoPrefixo;
+            this.deslocamento = deslocamento;
+            this.resultado = resultado;
+        }
+
+        @Override
+        protected void compute() {
+            int n = letras.length;
+            int restantes = n - tamanhoPrefixo;
+            long tamanhoBloco = fatorial(restantes);
+
+            if (tamanhoBloco <= LIMIAR_TAREFA_SEQUENCIAL) {
+                int posicao = deslocamento;
+                do {
+                    resultado[posicao++] = new String(letras);
+                } while (proximaPermutacao(letras, tamanhoPrefixo, n));
+                return;
             }
+
+            // Um filho por letra candidata à próxima posição do prefixo, em ordem crescente
+            int tamanhoSubBloco = (int) fatorial(restantes - 1);
+            TarefaBlocoPrefixo[] filhos = new TarefaBlocoPrefixo[restantes];
+            for (int i = 0; i < restantes; i++) {
+                char[] filho = letras.clone();
+                // Move a i-ésima letra do sufixo para o fim do prefixo, preservando a ordem das demais
+                char escolhida = filho[tamanhoPrefixo + i];
+                System.arraycopy(filho, tamanhoPrefixo, filho, tamanhoPrefixo + 1, i);
+                filho[tamanhoPrefixo] = escolhida;
+                filhos[i] = new TarefaBlocoPrefixo(filho, tamanhoPrefixo + 1,
+                        deslocamento + i * tamanhoSubBloco, resultado);
+            }
+            invokeAll(filhos);
+        }
+    }
+
+    /**
+     * Iterador que mantém apenas a permutação corrente e avança para a próxima a cada chamada de next().
+     */
+    private static final class IteradorLexicografico implements Iterator<String> {
+        private final char[] atual;
+        private boolean temProximo = true;
+        private long restantes;
+
+        IteradorLexicografico(char[] primeira, long limite) {
+            this.atual = primeira;
+            this.restantes = limite;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return temProximo && restantes > 0;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Não há mais anagramas.");
+            }
+            String anagrama = new String(atual);
+            restantes--;
+            // Não avança além do limite: a última permutação da faixa não precisa de sucessora
+            temProximo = restantes > 0 && proximaPermutacao(atual, 0, atual.length);
+            return anagrama;
         }
     }
 
     /**
      * Valida a string de entrada.
+     * Visibilidade de pacote para que o módulo de benchmarks possa medi-la isoladamente.
      *
      * @param letras A string a ser validada.
      * @throws IllegalArgumentException Se a validação falhar.
      */
-    private void validarEntrada(String letras) {
+    void validarEntrada(String letras) {
+        validarLetras(letras);
+
+        // 3. Validação de distinção: verifica se há letras repetidas
+        Set<Character> caracteresUnicos = new HashSet<>();
+        for (char c : letras.toCharArray()) {
+            if (!caracteresUnicos.add(Character.toLowerCase(c))) { // Compara ignorando case para 'a' e 'A'
+                throw new IllegalArgumentException("A entrada deve conter apenas letras distintas. Letra repetida: " + c);
+            }
+        }
+    }
+
+    /**
+     * Valida apenas o conteúdo da entrada (não nula, não vazia, somente letras), sem exigir letras distintas.
+     *
+     * @param letras A string a ser validada.
+     * @throws IllegalArgumentException Se a validação falhar.
+     */
+    private void validarLetras(String letras) {
         // 1. Validação básica: não nulo e não vazio
         if (letras == null || letras.isEmpty()) {
             throw new IllegalArgumentException("A entrada não pode ser nula ou vazia.");
@@ -87,14 +538,6 @@ public class AnagramGenerator {
         if (!LETTERS_ONLY_PATTERN.matcher(letras).matches()) {
             throw new IllegalArgumentException("A entrada deve conter apenas letras (a-z, A-Z).");
         }
-
-        // 3. Validação de distinção: verifica se há letras repetidas
-        Set<Character> caracteresUnicos = new HashSet<>();
-        for (char c : letras.toCharArray()) {
-            if (!caracteresUnicos.add(Character.toLowerCase(c))) { // Compara ignorando case para 'a' e 'A'
-                throw new IllegalArgumentException("A entrada deve conter apenas letras distintas. Letra repetida: " + c);
-            }
-        }
     }
 
     // --- Exemplo de uso (Opcional) ---
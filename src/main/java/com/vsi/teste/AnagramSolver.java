@@ -0,0 +1,292 @@
+package com.vsi.teste;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Busca anagramas que são palavras (ou frases de várias palavras) de um dicionário.
+ *
+ * Em vez de gerar as n! permutações e filtrar, a busca percorre uma trie do dicionário
+ * consumindo um contador de letras disponíveis: qualquer ramo que não seja prefixo de uma
+ * palavra é descartado imediatamente. Assim, entradas com 20+ letras são resolvidas em
+ * milissegundos, pois o trabalho é limitado pelo tamanho do dicionário e não por n!.
+ *
+ * Apenas letras a-z são consideradas; maiúsculas e minúsculas são equivalentes.
+ */
+public class AnagramSolver {
+
+    private static final int ALFABETO = 26;
+    private static final int SEM_PALAVRA = -1;
+    private static final int SEM_NO = -1;
+    private static final int CAPACIDADE_INICIAL = 1024;
+
+    // Índice por assinatura (letras ordenadas) para anagramas de uma única palavra: consulta O(1)
+    private final Map<String, List<String>> palavrasPorAssinatura = new HashMap<>();
+
+    // Palavras em ordem alfabética; o id de uma palavra é sua posição nesta lista
+    private final String[] palavras;
+
+    // Trie compacta em arrays paralelos (primeiro filho / próximo irmão), sem um objeto por nó
+    private byte[] letraDoNo = new byte[CAPACIDADE_INICIAL];
+    private int[] primeiroFilho = new int[CAPACIDADE_INICIAL];
+    private int[] proximoIrmao = new int[CAPACIDADE_INICIAL];
+    private int[] palavraDoNo = new int[CAPACIDADE_INICIAL];
+    private int[] maiorPalavraNaSubarvore = new int[CAPACIDADE_INICIAL];
+    private int totalNos;
+
+    /**
+     * Constrói o índice a partir de uma lista de palavras. Palavras com caracteres que não sejam
+     * letras a-z (após converter para minúsculas) são ignoradas, assim como duplicatas.
+     *
+     * @param dicionario As palavras do dicionário.
+     */
+    public AnagramSolver(Collection<String> dicionario) {
+        TreeSet<String> normalizadas = new TreeSet<>();
+        for (String palavra : dicionario) {
+            String normalizada = normalizarPalavra(palavra);
+            if (normalizada != null) {
+                normalizadas.add(normalizada);
+            }
+        }
+        this.palavras = normalizadas.toArray(new String[0]);
+
+        novoNo((byte) 0); // raiz
+        // Inserir em ordem alfabética mantém os filhos ordenados e os ids de cada subárvore contíguos
+        for (int id = 0; id < palavras.length; id++) {
+            inserir(palavras[id], id);
+            palavrasPorAssinatura.computeIfAbsent(assinatura(palavras[id]), k -> new ArrayList<>(1)).add(palavras[id]);
+        }
+    }
+
+    /**
+     * Carrega um dicionário com uma palavra por linha (UTF-8).
+     *
+     * @param arquivo Caminho do arquivo.
+     * @return O solver com o dicionário indexado.
+     * @throws IOException Se ocorrer erro de leitura.
+     */
+    public static AnagramSolver carregar(Path arquivo) throws IOException {
+        try (Stream<String> linhas = Files.lines(arquivo, StandardCharsets.UTF_8)) {
+            List<String> palavras = new ArrayList<>();
+            linhas.forEach(palavras::add);
+            return new AnagramSolver(palavras);
+        }
+    }
+
+    /**
+     * @return Número de palavras distintas indexadas.
+     */
+    public int tamanhoDicionario() {
+        return palavras.length;
+    }
+
+    /**
+     * Retorna as palavras do dicionário que são anagramas exatos das letras informadas.
+     *
+     * @param letras As letras disponíveis.
+     * @return Palavras em ordem alfabética (lista vazia se não houver nenhuma).
+     * @throws IllegalArgumentException Se a entrada for nula, vazia ou contiver caracteres não-letras.
+     */
+    public List<String> buscarPalavras(String letras) {
+        String normalizada = normalizarEntrada(letras);
+        List<String> encontradas = palavrasPorAssinatura.get(assinatura(normalizada));
+        return encontradas == null ? Collections.emptyList() : Collections.unmodifiableList(encontradas);
+    }
+
+    /**
+     * Retorna as frases (uma ou mais palavras do dicionário separadas por espaço) que usam
+     * exatamente todas as letras informadas.
+     *
+     * Cada combinação de palavras aparece uma única vez, com as palavras em ordem alfabética
+     * (ex: "dormitory" pode gerar "dirty room", mas não também "room dirty").
+     *
+     * @param letras               As letras disponíveis.
+     * @param tamanhoMinimoPalavra Menor número de letras aceito para cada palavra da frase.
+     * @param maximoResultados     Limite de frases retornadas (protege contra explosão combinatória).
+     * @return As frases encontradas, em ordem alfabética das palavras.
+     * @throws IllegalArgumentException Se a entrada for inválida ou os limites não forem positivos.
+     */
+    public List<String> buscarFrases(String letras, int tamanhoMinimoPalavra, int maximoResultados) {
+        String normalizada = normalizarEntrada(letras);
+        if (tamanhoMinimoPalavra < 1 || maximoResultados < 1) {
+            throw new IllegalArgumentException("O tamanho mínimo da palavra e o máximo de resultados devem ser positivos.");
+        }
+
+        int[] disponiveis = new int[ALFABETO];
+        for (int i = 0; i < normalizada.length(); i++) {
+            disponiveis[normalizada.charAt(i) - 'a']++;
+        }
+
+        Busca busca = new Busca(disponiveis, normalizada.length(), tamanhoMinimoPalavra, maximoResultados);
+        busca.buscarFrase(0);
+        return busca.resultados;
+    }
+
+    /**
+     * Estado de uma busca de frases: contador de letras restantes e pilha das palavras escolhidas.
+     */
+    private final class Busca {
+        private final int[] disponiveis;
+        private final int tamanhoMinimoPalavra;
+        private final int maximoResultados;
+        private final int[] palavrasEscolhidas;
+        private final List<String> resultados = new ArrayList<>();
+        private int totalEscolhidas;
+        private int letrasRestantes;
+
+        Busca(int[] disponiveis, int totalLetras, int tamanhoMinimoPalavra, int maximoResultados) {
+            this.disponiveis = disponiveis;
+            this.letrasRestantes = totalLetras;
+            this.tamanhoMinimoPalavra = tamanhoMinimoPalavra;
+            this.maximoResultados = maximoResultados;
+            this.palavrasEscolhidas = new int[totalLetras / tamanhoMinimoPalavra + 1];
+        }
+
+        /**
+         * Escolhe a próxima palavra da frase; só aceita ids >= menorPalavra para não repetir a
+         * mesma combinação em outra ordem.
+         */
+        void buscarFrase(int menorPalavra) {
+            if (letrasRestantes == 0) {
+                registrarFrase();
+                return;
+            }
+            if (letrasRestantes < tamanhoMinimoPalavra) {
+                return; // Sobrou menos letras do que a menor palavra aceita: ramo morto
+            }
+            descer(0, 0, menorPalavra);
+        }
+
+        private void descer(int no, int profundidade, int menorPalavra) {
+            for (int filho = primeiroFilho[no]; filho != SEM_NO; filho = proximoIrmao[filho]) {
+                if (resultados.size() >= maximoResultados) {
+                    return;
+                }
+                int letra = letraDoNo[filho];
+                // Poda: letra indisponível ou subárvore inteira com palavras anteriores à permitida
+                if (disponiveis[letra] == 0 || maiorPalavraNaSubarvore[filho] < menorPalavra) {
+                    continue;
+                }
+
+                disponiveis[letra]--;
+                letrasRestantes--;
+
+                int palavra = palavraDoNo[filho];
+                if (palavra >= menorPalavra && profundidade + 1 >= tamanhoMinimoPalavra) {
+                    palavrasEscolhidas[totalEscolhidas++] = palavra;
+                    buscarFrase(palavra);
+                    totalEscolhidas--;
+                }
+                descer(filho, profundidade + 1, menorPalavra);
+
+                letrasRestantes++;
+                disponiveis[letra]++;
+            }
+        }
+
+        private void registrarFrase() {
+            StringBuilder frase = new StringBuilder();
+            for (int i = 0; i < totalEscolhidas; i++) {
+                if (i > 0) {
+                    frase.append(' ');
+                }
+                frase.append(palavras[palavrasEscolhidas[i]]);
+            }
+            resultados.add(frase.toString());
+        }
+    }
+
+    private void inserir(String palavra, int id) {
+        int no = 0;
+        for (int i = 0; i < palavra.length(); i++) {
+            maiorPalavraNaSubarvore[no] = id;
+            byte letra = (byte) (palavra.charAt(i) - 'a');
+
+            // Como as palavras chegam ordenadas, o filho procurado só pode ser o último da lista
+            int ultimo = SEM_NO;
+            int filho = primeiroFilho[no];
+            while (filho != SEM_NO && letraDoNo[filho] != letra) {
+                ultimo = filho;
+                filho = proximoIrmao[filho];
+            }
+            if (filho == SEM_NO) {
+                filho = novoNo(letra);
+                if (ultimo == SEM_NO) {
+                    primeiroFilho[no] = filho;
+                } else {
+                    proximoIrmao[ultimo] = filho;
+                }
+            }
+            no = filho;
+        }
+        maiorPalavraNaSubarvore[no] = id;
+        palavraDoNo[no] = id;
+    }
+
+    private int novoNo(byte letra) {
+        if (totalNos == letraDoNo.length) {
+            int novaCapacidade = totalNos * 2;
+            letraDoNo = Arrays.copyOf(letraDoNo, novaCapacidade);
+            primeiroFilho = Arrays.copyOf(primeiroFilho, novaCapacidade);
+            proximoIrmao = Arrays.copyOf(proximoIrmao, novaCapacidade);
+            palavraDoNo = Arrays.copyOf(palavraDoNo, novaCapacidade);
+            maiorPalavraNaSubarvore = Arrays.copyOf(maiorPalavraNaSubarvore, novaCapacidade);
+        }
+        int no = totalNos++;
+        letraDoNo[no] = letra;
+        primeiroFilho[no] = SEM_NO;
+        proximoIrmao[no] = SEM_NO;
+        palavraDoNo[no] = SEM_PALAVRA;
+        maiorPalavraNaSubarvore[no] = SEM_PALAVRA;
+        return no;
+    }
+
+    private static String assinatura(String palavra) {
+        char[] letras = palavra.toCharArray();
+        Arrays.sort(letras);
+        return new String(letras);
+    }
+
+    /**
+     * @return A palavra em minúsculas, ou null se estiver vazia ou contiver algo além de letras a-z.
+     */
+    private static String normalizarPalavra(String palavra) {
+        if (palavra == null) {
+            return null;
+        }
+        String normalizada = palavra.trim().toLowerCase(Locale.ROOT);
+        if (normalizada.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < normalizada.length(); i++) {
+            char c = normalizada.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return null;
+            }
+        }
+        return normalizada;
+    }
+
+    private static String normalizarEntrada(String letras) {
+        if (letras == null || letras.isEmpty()) {
+            throw new IllegalArgumentException("A entrada não pode ser nula ou vazia.");
+        }
+        String normalizada = normalizarPalavra(letras);
+        if (normalizada == null || normalizada.length() != letras.length()) {
+            throw new IllegalArgumentException("A entrada deve conter apenas letras (a-z, A-Z).");
+        }
+        return normalizada;
+    }
+}
@@ -0,0 +1,280 @@
+package com.vsi.teste;
+
+/**
+ * Utilitário para validar, normalizar e converter CPFs entre a forma textual e uma chave
+ * primitiva {@code long}.
+ *
+ * Um CPF tem 11 dígitos, ou seja, cabe com folga em um long (máximo 99.999.999.999).
+ * Usar o long como chave evita manter uma String por pessoa em estruturas de índice.
+ *
+ * Toda a validação é feita em uma única passada sobre os caracteres: a pontuação é ignorada,
+ * os dígitos são acumulados na chave e as somas ponderadas dos dois dígitos verificadores são
+ * calculadas ao mesmo tempo. Não há regex nem Strings intermediárias.
+ */
+public final class Cpf {
+
+    /** Quantidade de dígitos de um CPF. */
+    public static final int DIGITOS = 11;
+
+    /** Valor gravado por {@code validarLote} nas linhas com CPF inválido. */
+    public static final long INVALIDO = -1L;
+
+    private Cpf() {
+        // Classe utilitária
+    }
+
+    /**
+     * Converte um CPF válido (com ou sem pontuação, ex: "123.456.789-09" ou "12345678909") na sua chave numérica.
+     * Pontos, hífens e espaços são ignorados.
+     *
+     * @param cpf O CPF em formato textual.
+     * @return O valor numérico dos 11 dígitos.
+     * @throws IllegalArgumentException Se o CPF for nulo, contiver outros caracteres, não tiver 11 dígitos
+     * ou se os dígitos verificadores não conferirem.
+     */
+    public static long paraChave(CharSequence cpf) {
+        if (cpf == null) {
+            throw new IllegalArgumentException("CPF não pode ser nulo ou vazio.");
+        }
+        Leitor leitor = new Leitor();
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (!leitor.consumir(c)) {
+                throw new IllegalArgumentException("CPF contém caractere inválido: '" + c + "'");
+            }
+        }
+        if (leitor.digitos != DIGITOS) {
+            throw new IllegalArgumentException("CPF deve conter exatamente " + DIGITOS + " dígitos.");
+        }
+        long chave = leitor.finalizar();
+        if (chave == INVALIDO) {
+            throw new IllegalArgumentException("CPF inválido: dígitos verificadores não conferem.");
+        }
+        return chave;
+    }
+
+    /**
+     * @param cpf O CPF em formato textual (com ou sem pontuação).
+     * @return true se o CPF tiver 11 dígitos e dígitos verificadores corretos.
+     */
+    public static boolean isValido(CharSequence cpf) {
+        if (cpf == null) {
+            return false;
+        }
+        Leitor leitor = new Leitor();
+        for (int i = 0; i < cpf.length(); i++) {
+            if (!leitor.consumir(cpf.charAt(i))) {
+                return false;
+            }
+        }
+        return leitor.finalizar() != INVALIDO;
+    }
+
+    /**
+     * Remove a pontuação e valida o CPF, devolvendo a forma canônica com 11 dígitos.
+     * Assim "123.456.789-09" e "12345678909" passam a ser a mesma chave.
+     *
+     * @param cpf O CPF em formato textual.
+     * @return O CPF somente com dígitos.
+     * @throws IllegalArgumentException Se o CPF for inválido.
+     */
+    public static String normalizar(CharSequence cpf) {
+        return paraTexto(paraChave(cpf));
+    }
+
+    /**
+     * Converte a chave numérica de volta para os 11 dígitos do CPF (com zeros à esquerda, sem pontuação).
+     *
+     * @param chave A chave obtida por {@link #paraChave(CharSequence)}.
+     * @return O CPF somente com dígitos.
+     */
+    public static String paraTexto(long chave) {
+        char[] digitos = new char[DIGITOS];
+        long resto = chave;
+        for (int i = DIGITOS - 1; i >= 0; i--) {
+            digitos[i] = (char) ('0' + (resto % 10));
+            resto /= 10;
+        }
+        return new String(digitos);
+    }
+
+    /**
+     * Calcula os dois dígitos verificadores para uma base de 9 dígitos.
+     *
+     * @param base Os 9 primeiros dígitos do CPF (0 a 999.999.999).
+     * @return A chave do CPF completo (base seguida dos dígitos verificadores).
+     */
+    public static long completar(long base) {
+        if (base < 0 || base > 999_999_999L) {
+            throw new IllegalArgumentException("A base do CPF deve ter no máximo 9 dígitos: " + base);
+        }
+        Leitor leitor = new Leitor();
+        long divisor = 100_000_000L;
+        for (int i = 0; i < 9; i++) {
+            leitor.consumir((char) ('0' + (base / divisor) % 10));
+            divisor /= 10;
+        }
+        int primeiro = leitor.digitoVerificador(leitor.soma1);
+        int segundo = leitor.digitoVerificador(leitor.soma2 + primeiro * 2);
+        return base * 100 + primeiro * 10 + segundo;
+    }
+
+    /**
+     * Valida em lote CPFs de um arquivo de importação já carregado em memória: um CPF por linha,
+     * separados por '\n' (um '\r' antes do '\n' é aceito). A última linha pode não ter terminador.
+     *
+     * O laço percorre os bytes uma única vez, sem criar objetos por linha, e roda na velocidade
+     * de leitura da memória.
+     *
+     * @param dados  Bytes ASCII do arquivo.
+     * @param inicio Posição inicial (inclusiva).
+     * @param fim    Posição final (exclusiva).
+     * @param chaves Saída: a chave de cada linha, ou {@link #INVALIDO}; deve comportar todas as linhas.
+     * @return O número de linhas processadas.
+     * @throws ArrayIndexOutOfBoundsException Se {@code chaves} for menor que o número de linhas.
+     */
+    public static int validarLote(byte[] dados, int inicio, int fim, long[] chaves) {
+        Leitor leitor = new Leitor();
+        int linhas = 0;
+        boolean linhaAberta = false;
+        for (int i = inicio; i < fim; i++) {
+            byte b = dados[i];
+            if (b == '\n') {
+                chaves[linhas++] = leitor.finalizarLinha();
+                linhaAberta = false;
+            } else if (b != '\r') {
+                leitor.consumirOuInvalidar((char) b);
+                linhaAberta = true;
+            }
+        }
+        if (linhaAberta) {
+            chaves[linhas++] = leitor.finalizarLinha();
+        }
+        return linhas;
+    }
+
+    /**
+     * Converte um campo de um buffer de bytes ASCII (ex: a coluna de CPF de uma linha de CSV) na sua
+     * chave, com a mesma regra de {@link #validarLote(byte[], int, int, long[])} e sem criar objetos.
+     *
+     * @param dados  Bytes ASCII.
+     * @param inicio Posição inicial do campo (inclusiva).
+     * @param fim    Posição final do campo (exclusiva).
+     * @return A chave, ou {@link #INVALIDO} se o campo não for um CPF válido.
+     */
+    public static long lerChave(byte[] dados, int inicio, int fim) {
+        Leitor leitor = new Leitor();
+        for (int i = inicio; i < fim; i++) {
+            leitor.consumirOuInvalidar((char) dados[i]);
+        }
+        return leitor.finalizar();
+    }
+
+    /**
+     * Mesma regra de {@link #validarLote(byte[], int, int, long[])}, para texto já decodificado
+     * (ex: um {@link java.nio.CharBuffer}).
+     *
+     * @param dados  O conteúdo do arquivo.
+     * @param chaves Saída: a chave de cada linha, ou {@link #INVALIDO}.
+     * @return O número de linhas processadas.
+     */
+    public static int validarLote(CharSequence dados, long[] chaves) {
+        Leitor leitor = new Leitor();
+        int linhas = 0;
+        boolean linhaAberta = false;
+        int fim = dados.length();
+        for (int i = 0; i < fim; i++) {
+            char c = dados.charAt(i);
+            if (c == '\n') {
+                chaves[linhas++] = leitor.finalizarLinha();
+                linhaAberta = false;
+            } else if (c != '\r') {
+                leitor.consumirOuInvalidar(c);
+                linhaAberta = true;
+            }
+        }
+        if (linhaAberta) {
+            chaves[linhas++] = leitor.finalizarLinha();
+        }
+        return linhas;
+    }
+
+    /**
+     * Acumulador de uma passada: guarda a chave parcial e as somas ponderadas dos dígitos verificadores.
+     *
+     * Pesos: o 1º verificador usa 10..2 sobre os 9 primeiros dígitos; o 2º usa 11..2 sobre os 10 primeiros.
+     */
+    private static final class Leitor {
+        int digitos;
+        long chave;
+        int soma1;
+        int soma2;
+        boolean invalido;
+        boolean todosIguais = true;
+        int primeiroDigito;
+
+        /**
+         * @return false se o caractere não for dígito nem pontuação aceita.
+         */
+        boolean consumir(char c) {
+            if (c >= '0' && c <= '9') {
+                int d = c - '0';
+                if (digitos == 0) {
+                    primeiroDigito = d;
+                } else if (d != primeiroDigito) {
+                    todosIguais = false;
+                }
+                if (digitos < 9) {
+                    soma1 += d * (10 - digitos);
+                }
+                if (digitos < 10) {
+                    soma2 += d * (11 - digitos);
+                }
+                if (digitos < DIGITOS) {
+                    chave = chave * 10 + d;
+                }
+                digitos++;
+                return true;
+            }
+            return c == '.' || c == '-' || c == ' ';
+        }
+
+        void consumirOuInvalidar(char c) {
+            if (!consumir(c)) {
+                invalido = true;
+            }
+        }
+
+        int digitoVerificador(int soma) {
+            int resto = soma % 11;
+            return resto < 2 ? 0 : 11 - resto;
+        }
+
+        /**
+         * @return A chave, ou {@link #INVALIDO} se a quantidade de dígitos ou os verificadores não conferirem.
+         */
+        long finalizar() {
+            // CPFs com todos os dígitos iguais (ex: 111.111.111-11) passam no cálculo, mas não são emitidos
+            if (invalido || digitos != DIGITOS || todosIguais) {
+                return INVALIDO;
+            }
+            int primeiro = (int) (chave / 10 % 10);
+            int segundo = (int) (chave % 10);
+            return digitoVerificador(soma1) == primeiro && digitoVerificador(soma2) == segundo ? chave : INVALIDO;
+        }
+
+        /**
+         * Finaliza a linha corrente e reinicia o acumulador para a próxima (modo lote).
+         */
+        long finalizarLinha() {
+            long resultado = finalizar();
+            digitos = 0;
+            chave = 0;
+            soma1 = 0;
+            soma2 = 0;
+            invalido = false;
+            todosIguais = true;
+            return resultado;
+        }
+    }
+}
@@ -20,17 +20,18 @@ public class EqualsHashCodeExample {
         private int idade;
 
         public Pessoa(String nome, String cpf, int idade) {
-            // Validações básicas (poderiam ser mais robustas)
             if (cpf == null || cpf.trim().isEmpty()) {
                 throw new IllegalArgumentException("CPF não pode ser nulo ou vazio.");
             }
             this.nome = nome;
-            this.cpf = cpf.trim(); // Garante que não há espaços extras no CPF
+            // Remove a pontuação e confere os dígitos verificadores: "123.456.789-09" e "12345678909"
+            // passam a ser a mesma chave, e CPFs inválidos não chegam a coleções baseadas em hash
+            this.cpf = Cpf.normalizar(cpf);
             this.idade = idade;
         }
 
         public String getNome() { return nome; }
-        public String getCpf() { return cpf; }
+        public String getCpf() { return cpf; } // Sempre os 11 dígitos, sem pontuação
         public int getIdade() { return idade; }
         public void setIdade(int idade) { this.idade = idade; }
 
@@ -97,10 +98,10 @@ public class EqualsHashCodeExample {
 
     // --- Exemplo de Uso (Opcional) ---
     // public static void main(String[] args) {
-    //     Pessoa p1 = new Pessoa("Alice", "123.456.789-00", 30);
-    //     Pessoa p2 = new Pessoa("Alice Silva", "123.456.789-00", 35); // Mesmo CPF, nome e idade diferentes
-    //     Pessoa p3 = new Pessoa("Bob", "987.654.321-99", 40);
-    //     Pessoa p4 = new Pessoa("Alice", "123.456.789-00", 30); // Exatamente os mesmos dados de p1
+    //     Pessoa p1 = new Pessoa("Alice", "123.456.789-09", 30);
+    //     Pessoa p2 = new Pessoa("Alice Silva", "123.456.789-09", 35); // Mesmo CPF, nome e idade diferentes
+    //     Pessoa p3 = new Pessoa("Bob", "987.654.321-00", 40);
+    //     Pessoa p4 = new Pessoa("Alice", "123.456.789-09", 30); // Exatamente os mesmos dados de p1
 
     //     System.out.println("p1: " + p1);
     //     System.out.println("p2: " + p2);
@@ -0,0 +1,513 @@
+package com.vsi.teste;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Mapa concorrente com chave {@code long}, base dos índices em memória ({@link PessoaRegistry},
+ * agregados de vendas, índice de plantas).
+ *
+ * - Endereçamento aberto (sondagem linear): as chaves ficam em um {@code long[]} e os valores em
+ *   colunas paralelas definidas pelo cliente ({@link Colunas}), por exemplo um {@code int[]} e um
+ *   {@code String[]}. Não há um Node nem boxing por entrada.
+ * - A tabela é dividida em 64 segmentos, cada um com um {@link StampedLock}. Leituras usam o modo
+ *   otimista (sem escrever em memória compartilhada) e só caem para o lock de leitura se uma escrita
+ *   concorrente invalidar o carimbo; escritas bloqueiam apenas o seu segmento.
+ *
+ * O acesso às colunas é feito por funções que recebem as colunas e a posição da chave. Em leituras
+ * otimistas elas podem observar dados inconsistentes e devem apenas ler; o resultado é descartado se
+ * o carimbo não for validado. As escritas gravam as colunas antes da chave, mas sem barreira de memória
+ * um leitor concorrente ainda pode ver uma posição pela metade (valores padrão ou misturados); se a
+ * função de leitura lançar exceção nesse caso, a exceção é descartada junto com o resultado e a
+ * leitura é repetida sob o lock. Para evitar alocar uma lambda por chamada, as escritas recebem um
+ * argumento que é repassado à função.
+ *
+ * Remoções usam deslocamento para trás (backward shift) em vez de lápides, para que a tabela não se
+ * degrade com ciclos de inserção e remoção.
+ *
+ * {@link #CHAVE_RESERVADA} marca posições livres e não pode ser usada como chave.
+ *
+ * @param <C> As colunas de valores de uma tabela.
+ */
+public final class LongKeyedSegmentedMap<C> {
+
+    /** Chave que marca posição livre. */
+    public static final long CHAVE_RESERVADA = Long.MIN_VALUE;
+
+    private static final long VAZIO = CHAVE_RESERVADA;
+    private static final int SEGMENTOS = 64;
+    private static final int CAPACIDADE_MINIMA_SEGMENTO = 16;
+    private static final float FATOR_CARGA = 0.7f;
+
+    /**
+     * Cria, copia e limpa as colunas de valores de uma tabela.
+     */
+    public interface Colunas<C> {
+
+        /**
+         * @return Colunas vazias com a capacidade informada.
+         */
+        C criar(int capacidade);
+
+        /**
+         * Copia os valores da posição {@code de} de {@code origem} para a posição {@code para} de {@code destino}.
+         */
+        void copiar(C origem, int de, C destino, int para);
+
+        /**
+         * Devolve a posição aos valores padrão após uma remoção (zero, null), para que uma inserção
+         * posterior a receba como nova e nenhuma referência fique retida.
+         */
+        void limpar(C colunas, int posicao);
+    }
+
+    @FunctionalInterface
+    public interface Leitura<C, R> {
+        R ler(C colunas, int posicao);
+    }
+
+    @FunctionalInterface
+    public interface LeituraLong<C> {
+        long ler(C colunas, int posicao);
+    }
+
+    @FunctionalInterface
+    public interface Condicao<C> {
+        boolean testar(C colunas, int posicao);
+    }
+
+    /**
+     * Escrita sob o lock de escrita do segmento.
+     */
+    @FunctionalInterface
+    public interface Escrita<C, A, R> {
+
+        /**
+         * @param nova True se a chave acabou de ser inserida (as colunas da posição estão com os valores padrão).
+         */
+        R escrever(C colunas, int posicao, boolean nova, A argumento);
+    }
+
+    /**
+     * Escrita sob o lock de escrita do segmento, com argumento e resultado primitivos.
+     */
+    @FunctionalInterface
+    public interface EscritaLong<C> {
+
+        /**
+         * @param nova True se a chave acabou de ser inserida (as colunas da posição estão com os valores padrão).
+         */
+        long escrever(C colunas, int posicao, boolean nova, long argumento);
+    }
+
+    private final Colunas<C> colunas;
+    private final Segmento<C>[] segmentos;
+
+    /**
+     * @param capacidadeEsperada Número aproximado de chaves, usado para pré-dimensionar as tabelas e evitar redimensionamentos.
+     * @param colunas            As colunas de valores.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LongKeyedSegmentedMap(int capacidadeEsperada, Colunas<C> colunas) {
+        this.colunas = colunas;
+        this.segmentos = new Segmento[SEGMENTOS];
+        int porSegmento = (int) Math.ceil(capacidadeEsperada / (double) SEGMENTOS / FATOR_CARGA);
+        int capacidade = Math.max(CAPACIDADE_MINIMA_SEGMENTO, Integer.highestOneBit(Math.max(1, porSegmento - 1)) << 1);
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento<>(new Tabela<>(capacidade, colunas));
+        }
+    }
+
+    /**
+     * Leitura otimista.
+     *
+     * @return O que {@code leitura} devolver para a posição da chave, ou null se a chave não estiver no mapa.
+     */
+    public <R> R ler(long chave, Leitura<C, R> leitura) {
+        Segmento<C> segmento = segmento(chave);
+        long carimbo = segmento.lock.tryOptimisticRead();
+        R valor = null;
+        try {
+            valor = lerSemLock(segmento.tabela, chave, leitura);
+        } catch (RuntimeException e) {
+            if (segmento.lock.validate(carimbo)) {
+                throw e; // Falha da própria função de leitura, não de uma posição pela metade
+            }
+        }
+        if (segmento.lock.validate(carimbo)) {
+            return valor;
+        }
+        // Houve escrita concorrente durante a leitura: repete com lock de leitura
+        carimbo = segmento.lock.readLock();
+        try {
+            return lerSemLock(segmento.tabela, chave, leitura);
+        } finally {
+            segmento.lock.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Leitura otimista sem boxing.
+     *
+     * @return O que {@code leitura} devolver para a posição da chave, ou {@code ausente} se a chave não estiver no mapa.
+     */
+    public long lerLong(long chave, long ausente, LeituraLong<C> leitura) {
+        Segmento<C> segmento = segmento(chave);
+        long carimbo = segmento.lock.tryOptimisticRead();
+        long valor = ausente;
+        try {
+            valor = lerLongSemLock(segmento.tabela, chave, ausente, leitura);
+        } catch (RuntimeException e) {
+            if (segmento.lock.validate(carimbo)) {
+                throw e;
+            }
+        }
+        if (segmento.lock.validate(carimbo)) {
+            return valor;
+        }
+        carimbo = segmento.lock.readLock();
+        try {
+            return lerLongSemLock(segmento.tabela, chave, ausente, leitura);
+        } finally {
+            segmento.lock.unlockRead(carimbo);
+        }
+    }
+
+    /**
+     * Insere a chave, se necessário, e aplica {@code escrita} à sua posição.
+     *
+     * @return O resultado de {@code escrita}.
+     * @throws IllegalArgumentException Se a chave for {@link #CHAVE_RESERVADA}.
+     */
+    public <A, R> R gravar(long chave, A argumento, Escrita<C, A, R> escrita) {
+        Segmento<C> segmento = segmento(chave);
+        long carimbo = segmento.lock.writeLock();
+        try {
+            Tabela<C> t = segmento.tabela;
+            int posicao = localizar(t, chave);
+            if (t.chaves[posicao] != VAZIO) {
+                return escrita.escrever(t.colunas, posicao, false, argumento);
+            }
+            t = prepararInsercao(segmento, chave);
+            posicao = localizar(t, chave);
+            R resultado;
+            try {
+                resultado = escrita.escrever(t.colunas, posicao, true, argumento);
+            } catch (RuntimeException | Error e) {
+                colunas.limpar(t.colunas, posicao);
+                throw e;
+            }
+            publicar(segmento, t, posicao, chave);
+            return resultado;
+        } finally {
+            segmento.lock.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Como {@link #gravar(long, Object, Escrita)}, com argumento e resultado primitivos.
+     */
+    public long gravarLong(long chave, long argumento, EscritaLong<C> escrita) {
+        Segmento<C> segmento = segmento(chave);
+        long carimbo = segmento.lock.writeLock();
+        try {
+            Tabela<C> t = segmento.tabela;
+            int posicao = localizar(t, chave);
+            if (t.chaves[posicao] != VAZIO) {
+                return escrita.escrever(t.colunas, posicao, false, argumento);
+            }
+            t = prepararInsercao(segmento, chave);
+            posicao = localizar(t, chave);
+            long resultado;
+            try {
+                resultado = escrita.escrever(t.colunas, posicao, true, argumento);
+            } catch (RuntimeException | Error e) {
+                colunas.limpar(t.colunas, posicao);
+                throw e;
+            }
+            publicar(segmento, t, posicao, chave);
+            return resultado;
+        } finally {
+            segmento.lock.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Aplica {@code escrita} à posição da chave somente se ela já estiver no mapa.
+     *
+     * @return O resultado de {@code escrita}, ou null se a chave não estiver no mapa.
+     */
+    public <A, R> R alterar(long chave, A argumento, Escrita<C, A, R> escrita) {
+        Segmento<C> segmento = segmento(chave);
+        long carimbo = segmento.lock.writeLock();
+        try {
+            Tabela<C> t = segmento.tabela;
+            int posicao = procurar(t, chave);
+            return posicao < 0 ? null : escrita.escrever(t.colunas, posicao, false, argumento);
+        } finally {
+            segmento.lock.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Remove a chave.
+     *
+     * @param removido Lê o valor da posição antes da remoção.
+     * @return O que {@code removido} devolver, ou null se a chave não estiver no mapa.
+     */
+    public <R> R remover(long chave, Leitura<C, R> removido) {
+        Segmento<C> segmento = segmento(chave);
+        long carimbo = segmento.lock.writeLock();
+        try {
+            Tabela<C> t = segmento.tabela;
+            int posicao = procurar(t, chave);
+            if (posicao < 0) {
+                return null;
+            }
+            R valor = removido.ler(t.colunas, posicao);
+            removerNaPosicao(segmento, t, posicao);
+            return valor;
+        } finally {
+            segmento.lock.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Como {@link #remover(long, Leitura)}, com resultado primitivo.
+     *
+     * @return O que {@code removido} devolver, ou {@code ausente} se a chave não estiver no mapa.
+     */
+    public long removerLong(long chave, long ausente, LeituraLong<C> removido) {
+        Segmento<C> segmento = segmento(chave);
+        long carimbo = segmento.lock.writeLock();
+        try {
+            Tabela<C> t = segmento.tabela;
+            int posicao = procurar(t, chave);
+            if (posicao < 0) {
+                return ausente;
+            }
+            long valor = removido.ler(t.colunas, posicao);
+            removerNaPosicao(segmento, t, posicao);
+            return valor;
+        } finally {
+            segmento.lock.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Remove a chave somente se {@code condicao} for verdadeira para os seus valores, na mesma seção
+     * crítica: uma escrita concorrente não se perde entre o teste e a remoção (ex: um contador que
+     * chegou a zero e já foi incrementado de novo).
+     *
+     * @return true se a chave foi removida.
+     */
+    public boolean removerSe(long chave, Condicao<C> condicao) {
+        Segmento<C> segmento = segmento(chave);
+        long carimbo = segmento.lock.writeLock();
+        try {
+            Tabela<C> t = segmento.tabela;
+            int posicao = procurar(t, chave);
+            if (posicao < 0 || !condicao.testar(t.colunas, posicao)) {
+                return false;
+            }
+            removerNaPosicao(segmento, t, posicao);
+            return true;
+        } finally {
+            segmento.lock.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Percorre todas as entradas, um segmento de cada vez sob o lock de leitura.
+     *
+     * @param acao Recebe as colunas e a posição de cada entrada.
+     */
+    public void paraCada(ObjIntConsumer<C> acao) {
+        for (Segmento<C> segmento : segmentos) {
+            long carimbo = segmento.lock.readLock();
+            try {
+                Tabela<C> t = segmento.tabela;
+                for (int i = 0; i < t.chaves.length; i++) {
+                    if (t.chaves[i] != VAZIO) {
+                        acao.accept(t.colunas, i);
+                    }
+                }
+            } finally {
+                segmento.lock.unlockRead(carimbo);
+            }
+        }
+    }
+
+    /**
+     * @return Número de chaves no mapa.
+     */
+    public int tamanho() {
+        int total = 0;
+        for (Segmento<C> segmento : segmentos) {
+            long carimbo = segmento.lock.readLock();
+            try {
+                total += segmento.tamanho;
+            } finally {
+                segmento.lock.unlockRead(carimbo);
+            }
+        }
+        return total;
+    }
+
+    private Segmento<C> segmento(long chave) {
+        return segmentos[(int) (espalhar(chave) >>> 58)]; // 6 bits mais altos => 64 segmentos
+    }
+
+    /**
+     * Deve ser chamado com o lock de escrita, para uma chave ausente. Redimensiona se necessário.
+     *
+     * @return A tabela em que a chave será inserida.
+     */
+    private Tabela<C> prepararInsercao(Segmento<C> segmento, long chave) {
+        if (chave == VAZIO) {
+            throw new IllegalArgumentException("A chave " + chave + " é reservada.");
+        }
+        Tabela<C> t = segmento.tabela;
+        if (segmento.tamanho + 1 > t.chaves.length * FATOR_CARGA) {
+            t = redimensionar(segmento, t);
+        }
+        return t;
+    }
+
+    /**
+     * Grava a chave só depois das colunas: se a escrita lançar exceção, a chave não chega a existir.
+     */
+    private static <C> void publicar(Segmento<C> segmento, Tabela<C> t, int posicao, long chave) {
+        t.chaves[posicao] = chave;
+        segmento.tamanho++;
+    }
+
+    /**
+     * Deve ser chamado com o lock de escrita.
+     */
+    private void removerNaPosicao(Segmento<C> segmento, Tabela<C> t, int posicao) {
+        long[] chaves = t.chaves;
+        int mascara = chaves.length - 1;
+        // Backward shift: puxa para o buraco as entradas seguintes do mesmo cluster que não estão
+        // na sua posição ideal, mantendo a sondagem linear correta sem lápides.
+        int buraco = posicao;
+        int atual = (posicao + 1) & mascara;
+        while (chaves[atual] != VAZIO) {
+            int ideal = (int) espalhar(chaves[atual]) & mascara;
+            if (((atual - ideal) & mascara) >= ((atual - buraco) & mascara)) {
+                colunas.copiar(t.colunas, atual, t.colunas, buraco); // Colunas antes da chave, como na inserção
+                chaves[buraco] = chaves[atual];
+                buraco = atual;
+            }
+            atual = (atual + 1) & mascara;
+        }
+        chaves[buraco] = VAZIO;
+        colunas.limpar(t.colunas, buraco);
+        segmento.tamanho--;
+    }
+
+    private Tabela<C> redimensionar(Segmento<C> segmento, Tabela<C> antiga) {
+        Tabela<C> nova = new Tabela<>(antiga.chaves.length * 2, colunas);
+        for (int i = 0; i < antiga.chaves.length; i++) {
+            long chave = antiga.chaves[i];
+            if (chave != VAZIO) {
+                int posicao = localizar(nova, chave);
+                nova.chaves[posicao] = chave;
+                colunas.copiar(antiga.colunas, i, nova.colunas, posicao);
+            }
+        }
+        segmento.tabela = nova; // Publicada já preenchida: um leitor otimista vê a antiga ou a nova inteira
+        return nova;
+    }
+
+    /**
+     * Finalizador do MurmurHash3 (fmix64): chaves sequenciais viram segmentos e posições bem distribuídos.
+     */
+    private static long espalhar(long chave) {
+        long h = chave;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Leitura sem lock: pode observar dados inconsistentes durante uma escrita, mas sempre termina
+     * (no máximo uma volta na tabela); o chamador valida o carimbo antes de usar o resultado.
+     */
+    private static <C, R> R lerSemLock(Tabela<C> t, long chave, Leitura<C, R> leitura) {
+        int posicao = procurar(t, chave);
+        return posicao < 0 ? null : leitura.ler(t.colunas, posicao);
+    }
+
+    private static <C> long lerLongSemLock(Tabela<C> t, long chave, long ausente, LeituraLong<C> leitura) {
+        int posicao = procurar(t, chave);
+        return posicao < 0 ? ausente : leitura.ler(t.colunas, posicao);
+    }
+
+    /**
+     * Sondagem limitada a uma volta, segura sem lock.
+     *
+     * @return A posição da chave, ou -1 (sempre para {@link #CHAVE_RESERVADA}, que coincide com as posições livres).
+     */
+    private static int procurar(Tabela<?> t, long chave) {
+        if (chave == VAZIO) {
+            return -1;
+        }
+        long[] chaves = t.chaves;
+        int mascara = chaves.length - 1;
+        int posicao = (int) espalhar(chave) & mascara;
+        for (int tentativas = 0; tentativas <= mascara; tentativas++) {
+            long atual = chaves[posicao];
+            if (atual == chave) {
+                return posicao;
+            }
+            if (atual == VAZIO) {
+                return -1;
+            }
+            posicao = (posicao + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * @return A posição que contém a chave ou, se ela não existir, a posição vazia onde deveria ser inserida.
+     */
+    private static int localizar(Tabela<?> t, long chave) {
+        long[] chaves = t.chaves;
+        int mascara = chaves.length - 1;
+        int posicao = (int) espalhar(chave) & mascara;
+        while (chaves[posicao] != chave && chaves[posicao] != VAZIO) {
+            posicao = (posicao + 1) & mascara;
+        }
+        return posicao;
+    }
+
+    /**
+     * Chaves e colunas de um segmento. São substituídas em bloco no redimensionamento, para que um
+     * leitor otimista sempre enxergue arrays do mesmo tamanho.
+     */
+    private static final class Tabela<C> {
+        final long[] chaves;
+        final C colunas;
+
+        Tabela(int capacidade, Colunas<C> colunas) {
+            chaves = new long[capacidade];
+            Arrays.fill(chaves, VAZIO);
+            this.colunas = colunas.criar(capacidade);
+        }
+    }
+
+    private static final class Segmento<C> {
+        final StampedLock lock = new StampedLock();
+        volatile Tabela<C> tabela;
+        int tamanho;
+
+        Segmento(Tabela<C> tabela) {
+            this.tabela = tabela;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.vsi.teste;
+
+/**
+ * Motor de permutações que trabalha in-place sobre um único char[], sem alocar
+ * objetos por permutação gerada.
+ *
+ * Usa a versão iterativa do algoritmo de Heap: cada permutação difere da anterior por
+ * exatamente uma troca, o que dá custo O(1) amortizado por resultado. A ordem de saída
+ * NÃO é lexicográfica; quem precisar dela deve ordenar o resultado ou usar
+ * {@link AnagramGenerator#iterarAnagramas(String)}.
+ */
+public final class PermutationEngine {
+
+    private PermutationEngine() {
+        // Classe utilitária
+    }
+
+    /**
+     * Gera todas as permutações de {@code letras}, entregando cada uma ao visitante.
+     *
+     * O array é permutado in-place e, ao final, fica em uma ordem arbitrária (não
+     * necessariamente a original).
+     *
+     * @param letras    Buffer com os caracteres a permutar; é reutilizado para todas as permutações.
+     * @param visitante Callback chamado uma vez por permutação.
+     * @return true se todas as permutações foram visitadas, false se o visitante interrompeu a geração.
+     */
+    public static boolean permutar(char[] letras, PermutationVisitor visitante) {
+        int n = letras.length;
+        if (!visitante.visitar(letras, n)) {
+            return false;
+        }
+
+        // contadores[i] controla quantas trocas já foram feitas no nível i (substitui a pilha da recursão)
+        int[] contadores = new int[n];
+        int i = 1;
+        while (i < n) {
+            if (contadores[i] < i) {
+                // Nível par troca com a primeira posição; nível ímpar troca com a posição do contador
+                int j = (i & 1) == 0 ? 0 : contadores[i];
+                char temp = letras[j];
+                letras[j] = letras[i];
+                letras[i] = temp;
+
+                if (!visitante.visitar(letras, n)) {
+                    return false;
+                }
+                contadores[i]++;
+                i = 1;
+            } else {
+                contadores[i] = 0;
+                i++;
+            }
+        }
+        return true;
+    }
+}
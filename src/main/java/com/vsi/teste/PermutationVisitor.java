@@ -0,0 +1,22 @@
+package com.vsi.teste;
+
+/**
+ * Callback que recebe cada permutação produzida pelo {@link PermutationEngine}.
+ *
+ * O array recebido é o próprio buffer de trabalho do motor: ele é reutilizado entre as
+ * chamadas e só é válido durante a execução de {@link #visitar(char[], int)}. O visitante
+ * não deve alterá-lo e, se precisar guardar a permutação, deve copiá-la
+ * (ex: {@code new String(permutacao, 0, tamanho)}).
+ */
+@FunctionalInterface
+public interface PermutationVisitor {
+
+    /**
+     * Recebe uma permutação.
+     *
+     * @param permutacao Buffer contendo a permutação corrente (somente leitura).
+     * @param tamanho    Número de caracteres válidos no buffer.
+     * @return true para continuar a geração, false para interrompê-la.
+     */
+    boolean visitar(char[] permutacao, int tamanho);
+}
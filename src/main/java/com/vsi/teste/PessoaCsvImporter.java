@@ -0,0 +1,787 @@
+package com.vsi.teste;
+
+import com.vsi.teste.EqualsHashCodeExample.Pessoa;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Importação de arquivos CSV de pessoas ({@code nome,cpf,idade}) com remoção de duplicados pelo CPF,
+ * a mesma identidade de {@link Pessoa#equals(Object)}, para arquivos de vários GB.
+ *
+ * Em vez de um {@code HashSet<Pessoa>} com um objeto, duas Strings e um Node por linha:
+ * - O arquivo é lido em blocos por um {@link FileChannel} e os campos são localizados direto nos bytes
+ *   do bloco, sem String por linha nem split. O CPF vira a chave {@code long} de {@link Cpf#lerChave(byte[], int, int)}.
+ * - Os CPFs únicos ficam em uma tabela de endereçamento aberto com chaves {@code long} e, para cada um,
+ *   a idade, o número da linha e os bytes do nome em uma única área de bytes.
+ * - Quando a tabela e a área atingem o orçamento de memória, o conteúdo é ordenado por CPF e derramado em
+ *   um arquivo temporário (corrida), e a tabela é reaproveitada. Ao final, as corridas são intercaladas
+ *   (ordenação externa) e cada CPF aparece uma única vez na saída. A memória usada não depende do tamanho
+ *   do arquivo, apenas do orçamento.
+ *
+ * Quando o mesmo CPF aparece mais de uma vez, a {@link PoliticaConflito} decide qual linha fica (nome e idade).
+ * A saída é um CSV no mesmo formato, ordenado por CPF, com o CPF sem pontuação; o nome é copiado byte a byte.
+ * Linhas com CPF ou idade inválidos, ou sem exatamente três colunas, são ignoradas e contadas no {@link Relatorio}.
+ * O nome pode estar entre aspas (e conter o separador), mas não pode conter quebras de linha.
+ */
+public class PessoaCsvImporter {
+
+    /**
+     * Qual linha prevalece quando o mesmo CPF aparece mais de uma vez, com idades iguais ou não.
+     */
+    public enum PoliticaConflito {
+        /** Fica a primeira ocorrência do CPF no arquivo. */
+        PRIMEIRA_VENCE,
+        /** Fica a última ocorrência do CPF no arquivo (a mais recente). */
+        ULTIMA_VENCE
+    }
+
+    /**
+     * Parâmetros da importação.
+     */
+    public static final class Configuracao {
+        private int tamanhoBloco = 1 << 20;
+        private long orcamentoMemoria = 256L << 20;
+        private PoliticaConflito politica = PoliticaConflito.ULTIMA_VENCE;
+        private boolean cabecalho = true;
+        private byte separador = ',';
+        private Path diretorioTemporario;
+
+        public static Configuracao padrao() {
+            return new Configuracao();
+        }
+
+        /** Bytes lidos do arquivo por vez; uma linha não pode ser maior que o bloco. */
+        public Configuracao tamanhoBloco(int valor) {
+            this.tamanhoBloco = valor;
+            return this;
+        }
+
+        /** Bytes para a tabela de CPFs únicos; acima disso o conteúdo é derramado em disco. */
+        public Configuracao orcamentoMemoria(long valor) {
+            this.orcamentoMemoria = valor;
+            return this;
+        }
+
+        public Configuracao politica(PoliticaConflito valor) {
+            this.politica = valor;
+            return this;
+        }
+
+        /** Se a primeira linha da entrada é um cabeçalho (ignorado; a saída recebe {@code nome,cpf,idade}). */
+        public Configuracao cabecalho(boolean valor) {
+            this.cabecalho = valor;
+            return this;
+        }
+
+        public Configuracao separador(char valor) {
+            this.separador = (byte) valor;
+            return this;
+        }
+
+        /** Onde ficam as corridas derramadas; por padrão, o diretório do arquivo de saída. */
+        public Configuracao diretorioTemporario(Path valor) {
+            this.diretorioTemporario = valor;
+            return this;
+        }
+    }
+
+    private static final int MAXIMO_LINHAS_INVALIDAS_LISTADAS = 100;
+    private static final int BUFFER_SAIDA = 1 << 18;
+    private static final int BUFFER_MAXIMO_CORRIDA = 1 << 16;
+    private static final int BUFFER_MINIMO_CORRIDA = 1 << 13;
+
+    private final Configuracao configuracao;
+
+    public PessoaCsvImporter() {
+        this(Configuracao.padrao());
+    }
+
+    public PessoaCsvImporter(Configuracao configuracao) {
+        if (configuracao.tamanhoBloco < 64 || configuracao.orcamentoMemoria < Tabela.MEMORIA_INICIAL) {
+            throw new IllegalArgumentException("Bloco deve ter ao menos 64 bytes e o orçamento ao menos "
+                    + Tabela.MEMORIA_INICIAL + " bytes.");
+        }
+        if (configuracao.politica == null || configuracao.separador == '"' || configuracao.separador == '\n') {
+            throw new IllegalArgumentException("Política e separador inválidos.");
+        }
+        this.configuracao = configuracao;
+    }
+
+    /**
+     * Lê {@code entrada} e grava em {@code saida} uma linha por CPF válido, em ordem de CPF.
+     * A saída é gravada em um arquivo temporário renomeado ao final: um arquivo com o nome final está sempre completo.
+     *
+     * @return Contagens, vazão e pico de heap da importação.
+     * @throws IOException Se a leitura ou a gravação falhar, ou se uma linha for maior que o bloco.
+     */
+    public Relatorio importar(Path entrada, Path saida) throws IOException {
+        Importacao importacao = new Importacao(saida);
+        Path temporario = saida.resolveSibling(saida.getFileName() + ".parcial");
+        try {
+            try (FileChannel canal = FileChannel.open(entrada, StandardOpenOption.READ)) {
+                importacao.ler(canal);
+            }
+            try (SaidaCsv csv = new SaidaCsv(Files.newOutputStream(temporario), configuracao.cabecalho)) {
+                importacao.gravar(csv);
+            }
+            Files.move(temporario, saida, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        } finally {
+            importacao.apagarCorridas();
+        }
+        return importacao.relatorio();
+    }
+
+    /**
+     * Estado de uma chamada a {@link #importar(Path, Path)}.
+     */
+    private final class Importacao {
+        private final Path diretorioTemporario;
+        private final Tabela tabela = new Tabela(configuracao.orcamentoMemoria);
+        private final List<Path> corridas = new ArrayList<>();
+        private final List<Long> primeirasLinhasInvalidas = new ArrayList<>();
+        private final MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        private final long inicio = System.nanoTime();
+        private long numeroLinha;
+        private long linhasLidas;
+        private long linhasInvalidas;
+        private long bytesLidos;
+        private long pessoasUnicas;
+        private long cpfsDivergentes;
+        private long picoHeap;
+
+        Importacao(Path saida) {
+            Path diretorio = configuracao.diretorioTemporario;
+            if (diretorio == null) {
+                diretorio = saida.toAbsolutePath().getParent();
+            }
+            this.diretorioTemporario = diretorio;
+        }
+
+        void ler(FileChannel canal) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(configuracao.tamanhoBloco);
+            byte[] bytes = buffer.array();
+            int lidos;
+            while ((lidos = canal.read(buffer)) >= 0) {
+                bytesLidos += lidos;
+                int fim = buffer.position();
+                int inicioLinha = 0;
+                for (int i = fim - lidos; i < fim; i++) { // O resto do bloco anterior não tem '\n'
+                    if (bytes[i] == '\n') {
+                        linha(bytes, inicioLinha, i);
+                        inicioLinha = i + 1;
+                    }
+                }
+                int pendente = fim - inicioLinha;
+                if (pendente == bytes.length) {
+                    throw new IOException("Linha " + (numeroLinha + 1) + " maior que o bloco de " + bytes.length + " bytes.");
+                }
+                System.arraycopy(bytes, inicioLinha, bytes, 0, pendente);
+                buffer.position(pendente);
+                amostrarHeap();
+            }
+            if (buffer.position() > 0) {
+                linha(bytes, 0, buffer.position()); // Última linha sem terminador
+            }
+        }
+
+        private void linha(byte[] bytes, int inicio, int fim) throws IOException {
+            numeroLinha++;
+            if (fim > inicio && bytes[fim - 1] == '\r') {
+                fim--;
+            }
+            if (fim == inicio || (numeroLinha == 1 && configuracao.cabecalho)) {
+                return;
+            }
+            linhasLidas++;
+            byte separador = configuracao.separador;
+            int fimNome = inicio;
+            boolean aspas = false;
+            while (fimNome < fim && (aspas || bytes[fimNome] != separador)) {
+                if (bytes[fimNome] == '"') {
+                    aspas = !aspas;
+                }
+                fimNome++;
+            }
+            int fimCpf = fimNome + 1;
+            while (fimCpf < fim && bytes[fimCpf] != separador) {
+                fimCpf++;
+            }
+            long cpf = fimCpf < fim ? Cpf.lerChave(bytes, fimNome + 1, fimCpf) : Cpf.INVALIDO;
+            int idade = cpf == Cpf.INVALIDO ? -1 : lerIdade(bytes, fimCpf + 1, fim, separador);
+            if (idade < 0) {
+                linhasInvalidas++;
+                if (primeirasLinhasInvalidas.size() < MAXIMO_LINHAS_INVALIDAS_LISTADAS) {
+                    primeirasLinhasInvalidas.add(numeroLinha);
+                }
+                return;
+            }
+            if (!tabela.gravar(cpf, numeroLinha, idade, bytes, inicio, fimNome - inicio, configuracao.politica)) {
+                derramar();
+                tabela.gravar(cpf, numeroLinha, idade, bytes, inicio, fimNome - inicio, configuracao.politica);
+            }
+        }
+
+        /**
+         * Ordena a tabela por CPF e grava em uma nova corrida, liberando a tabela para o restante do arquivo.
+         */
+        private void derramar() throws IOException {
+            amostrarHeap();
+            Path corrida = Files.createTempFile(diretorioTemporario, "pessoas-", ".corrida");
+            corridas.add(corrida);
+            try (SaidaCorrida saida = new SaidaCorrida(Files.newOutputStream(corrida), tabela.tamanho())) {
+                tabela.esvaziarOrdenado(saida);
+            }
+        }
+
+        void gravar(SaidaCsv csv) throws IOException {
+            if (corridas.isEmpty()) {
+                tabela.esvaziarOrdenado(csv);
+            } else {
+                if (tabela.tamanho() > 0) {
+                    derramar();
+                }
+                intercalar(csv);
+            }
+            pessoasUnicas = csv.registros;
+            cpfsDivergentes = csv.divergentes;
+            amostrarHeap();
+        }
+
+        /**
+         * Intercala as corridas, já ordenadas por CPF, escolhendo uma linha por CPF pela política.
+         * Dentro de um mesmo CPF as corridas saem na ordem do arquivo (pelo número da linha).
+         */
+        private void intercalar(Destino destino) throws IOException {
+            int bufferPorCorrida = (int) Math.max(BUFFER_MINIMO_CORRIDA,
+                    Math.min(BUFFER_MAXIMO_CORRIDA, configuracao.orcamentoMemoria / corridas.size()));
+            PriorityQueue<LeitorCorrida> fila = new PriorityQueue<>(corridas.size(),
+                    Comparator.comparingLong((LeitorCorrida leitor) -> leitor.cpf).thenComparingLong(leitor -> leitor.linha));
+            List<LeitorCorrida> abertos = new ArrayList<>(corridas.size());
+            try {
+                for (Path corrida : corridas) {
+                    LeitorCorrida leitor = new LeitorCorrida(corrida, bufferPorCorrida);
+                    abertos.add(leitor);
+                    if (leitor.avancar()) {
+                        fila.add(leitor);
+                    }
+                }
+                LeitorCorrida vencedor = new LeitorCorrida();
+                boolean ultimaVence = configuracao.politica == PoliticaConflito.ULTIMA_VENCE;
+                while (!fila.isEmpty()) {
+                    LeitorCorrida primeiro = fila.poll();
+                    vencedor.copiar(primeiro);
+                    int idadeReferencia = primeiro.idade;
+                    boolean divergente = primeiro.divergente;
+                    if (primeiro.avancar()) {
+                        fila.add(primeiro);
+                    }
+                    while (!fila.isEmpty() && fila.peek().cpf == vencedor.cpf) {
+                        LeitorCorrida seguinte = fila.poll();
+                        divergente |= seguinte.divergente || seguinte.idade != idadeReferencia;
+                        if (ultimaVence) {
+                            vencedor.copiar(seguinte);
+                        }
+                        if (seguinte.avancar()) {
+                            fila.add(seguinte);
+                        }
+                    }
+                    destino.gravar(vencedor.cpf, vencedor.linha, vencedor.idade, divergente, vencedor.nome, 0, vencedor.tamanhoNome);
+                }
+            } finally {
+                for (LeitorCorrida leitor : abertos) {
+                    leitor.close();
+                }
+            }
+        }
+
+        private void amostrarHeap() {
+            picoHeap = Math.max(picoHeap, memoria.getHeapMemoryUsage().getUsed());
+        }
+
+        void apagarCorridas() throws IOException {
+            for (Path corrida : corridas) {
+                Files.deleteIfExists(corrida);
+            }
+        }
+
+        Relatorio relatorio() {
+            return new Relatorio(linhasLidas, linhasInvalidas, pessoasUnicas, cpfsDivergentes, corridas.size(),
+                    bytesLidos, System.nanoTime() - inicio, picoHeap, primeirasLinhasInvalidas);
+        }
+    }
+
+    /**
+     * @return A idade (0 a 999.999.999, espaços em volta são ignorados), ou -1 se o campo não for um número
+     * ou se houver uma quarta coluna.
+     */
+    private static int lerIdade(byte[] bytes, int inicio, int fim, byte separador) {
+        while (inicio < fim && bytes[inicio] == ' ') {
+            inicio++;
+        }
+        while (fim > inicio && bytes[fim - 1] == ' ') {
+            fim--;
+        }
+        if (fim == inicio || fim - inicio > 9) {
+            return -1;
+        }
+        int idade = 0;
+        for (int i = inicio; i < fim; i++) {
+            int digito = bytes[i] - '0';
+            if (digito < 0 || digito > 9) {
+                return -1; // Inclui o separador de uma coluna a mais
+            }
+            idade = idade * 10 + digito;
+        }
+        return idade;
+    }
+
+    /**
+     * Recebe as pessoas únicas em ordem de CPF: a saída CSV ou uma corrida derramada.
+     */
+    private interface Destino {
+        void gravar(long cpf, long linha, int idade, boolean divergente, byte[] nome, int inicio, int tamanho) throws IOException;
+    }
+
+    /**
+     * Tabela de endereçamento aberto (sondagem linear) de CPF para a posição do registro na área de bytes.
+     * Cada registro guarda o número da linha de origem (8 bytes), a idade (4), se o CPF já teve idades
+     * diferentes (1), o tamanho do nome (4) e o nome. A tabela e a área só crescem até o orçamento.
+     */
+    private static final class Tabela {
+        static final int CAPACIDADE_INICIAL = 64;
+        static final int AREA_INICIAL = 1 << 10;
+        static final long MEMORIA_INICIAL = CAPACIDADE_INICIAL * 12L + AREA_INICIAL;
+        private static final int CABECALHO_REGISTRO = 17;
+        private static final int AREA_MAXIMA = Integer.MAX_VALUE - 8;
+        private static final float FATOR_CARGA = 0.7f;
+        private static final long VAZIO = 0L; // 000.000.000-00 tem todos os dígitos iguais: nunca é um CPF válido
+
+        private final long orcamento;
+        private long[] chaves = new long[CAPACIDADE_INICIAL];
+        private int[] posicoes = new int[CAPACIDADE_INICIAL];
+        private byte[] area = new byte[AREA_INICIAL];
+        private int usado;
+        private int tamanho;
+
+        Tabela(long orcamento) {
+            this.orcamento = orcamento;
+        }
+
+        int tamanho() {
+            return tamanho;
+        }
+
+        /**
+         * Insere o CPF ou resolve o conflito com a ocorrência já presente.
+         *
+         * @return false se não houver espaço no orçamento: a tabela deve ser derramada e a chamada repetida.
+         */
+        boolean gravar(long cpf, long linha, int idade, byte[] bytes, int inicioNome, int tamanhoNome, PoliticaConflito politica) {
+            int mascara = chaves.length - 1;
+            int posicao = (int) espalhar(cpf) & mascara;
+            while (chaves[posicao] != VAZIO && chaves[posicao] != cpf) {
+                posicao = (posicao + 1) & mascara;
+            }
+            int registro;
+            if (chaves[posicao] == cpf) {
+                registro = posicoes[posicao];
+                boolean divergente = area[registro + 12] != 0 || lerInt(area, registro + 8) != idade;
+                area[registro + 12] = (byte) (divergente ? 1 : 0);
+                if (politica == PoliticaConflito.PRIMEIRA_VENCE) {
+                    return true;
+                }
+                if (tamanhoNome > lerInt(area, registro + 13)) { // Não cabe no lugar do anterior
+                    if (!reservarArea(CABECALHO_REGISTRO + tamanhoNome)) {
+                        return false;
+                    }
+                    int novo = usado;
+                    usado += CABECALHO_REGISTRO + tamanhoNome;
+                    area[novo + 12] = area[registro + 12];
+                    registro = novo;
+                    posicoes[posicao] = registro;
+                }
+            } else {
+                if (!reservarEntrada() || !reservarArea(CABECALHO_REGISTRO + tamanhoNome)) {
+                    return false;
+                }
+                if (chaves.length != mascara + 1) { // A tabela cresceu: procura a posição de novo
+                    return gravar(cpf, linha, idade, bytes, inicioNome, tamanhoNome, politica);
+                }
+                registro = usado;
+                usado += CABECALHO_REGISTRO + tamanhoNome;
+                area[registro + 12] = 0;
+                chaves[posicao] = cpf;
+                posicoes[posicao] = registro;
+                tamanho++;
+            }
+            gravarLong(area, registro, linha);
+            gravarInt(area, registro + 8, idade);
+            gravarInt(area, registro + 13, tamanhoNome);
+            System.arraycopy(bytes, inicioNome, area, registro + CABECALHO_REGISTRO, tamanhoNome);
+            return true;
+        }
+
+        private long memoria(long capacidade, long bytesArea) {
+            return capacidade * 12 + bytesArea;
+        }
+
+        private boolean reservarEntrada() {
+            if (tamanho + 1 <= (int) (chaves.length * FATOR_CARGA)) {
+                return true;
+            }
+            if (tamanho > 0 && memoria(chaves.length * 2L, area.length) > orcamento) {
+                return false;
+            }
+            long[] chavesAntigas = chaves;
+            int[] posicoesAntigas = posicoes;
+            chaves = new long[chavesAntigas.length * 2];
+            posicoes = new int[chavesAntigas.length * 2];
+            int mascara = chaves.length - 1;
+            for (int i = 0; i < chavesAntigas.length; i++) {
+                if (chavesAntigas[i] != VAZIO) {
+                    int posicao = (int) espalhar(chavesAntigas[i]) & mascara;
+                    while (chaves[posicao] != VAZIO) {
+                        posicao = (posicao + 1) & mascara;
+                    }
+                    chaves[posicao] = chavesAntigas[i];
+                    posicoes[posicao] = posicoesAntigas[i];
+                }
+            }
+            return true;
+        }
+
+        private boolean reservarArea(int bytes) {
+            long necessario = (long) usado + bytes;
+            if (necessario <= area.length) {
+                return true;
+            }
+            long novo = Math.min(Math.max(area.length * 2L, necessario),
+                    Math.min(AREA_MAXIMA, orcamento - memoria(chaves.length, 0)));
+            if (novo < necessario) {
+                if (tamanho > 0 || necessario > AREA_MAXIMA) {
+                    return false; // Tabela vazia: um único nome maior que o orçamento ainda é aceito
+                }
+                novo = necessario;
+            }
+            area = Arrays.copyOf(area, (int) novo);
+            return true;
+        }
+
+        /**
+         * Entrega os registros em ordem de CPF e esvazia a tabela, mantendo os arrays já alocados.
+         * A ordenação reaproveita os próprios arrays da tabela: as entradas são compactadas no início.
+         */
+        void esvaziarOrdenado(Destino destino) throws IOException {
+            int n = 0;
+            for (int i = 0; i < chaves.length; i++) {
+                if (chaves[i] != VAZIO) {
+                    chaves[n] = chaves[i];
+                    posicoes[n] = posicoes[i];
+                    n++;
+                }
+            }
+            ordenar(chaves, posicoes, 0, n - 1);
+            for (int i = 0; i < n; i++) {
+                int registro = posicoes[i];
+                destino.gravar(chaves[i], lerLong(area, registro), lerInt(area, registro + 8), area[registro + 12] != 0,
+                        area, registro + CABECALHO_REGISTRO, lerInt(area, registro + 13));
+            }
+            Arrays.fill(chaves, VAZIO);
+            usado = 0;
+            tamanho = 0;
+        }
+
+        /**
+         * Quicksort das chaves (únicas) levando junto as posições, sem arrays auxiliares.
+         * Recursão só na metade menor: a pilha fica em O(log n).
+         */
+        private static void ordenar(long[] chaves, int[] posicoes, int inicio, int fim) {
+            while (fim - inicio > 16) {
+                int meio = (inicio + fim) >>> 1;
+                if (chaves[meio] < chaves[inicio]) trocar(chaves, posicoes, meio, inicio);
+                if (chaves[fim] < chaves[inicio]) trocar(chaves, posicoes, fim, inicio);
+                if (chaves[fim] < chaves[meio]) trocar(chaves, posicoes, fim, meio);
+                long pivo = chaves[meio];
+                int i = inicio;
+                int j = fim;
+                while (i <= j) {
+                    while (chaves[i] < pivo) i++;
+                    while (chaves[j] > pivo) j--;
+                    if (i <= j) {
+                        trocar(chaves, posicoes, i++, j--);
+                    }
+                }
+                if (j - inicio < fim - i) {
+                    ordenar(chaves, posicoes, inicio, j);
+                    inicio = i;
+                } else {
+                    ordenar(chaves, posicoes, i, fim);
+                    fim = j;
+                }
+            }
+            for (int i = inicio + 1; i <= fim; i++) { // Inserção nas faixas pequenas
+                for (int j = i; j > inicio && chaves[j] < chaves[j - 1]; j--) {
+                    trocar(chaves, posicoes, j, j - 1);
+                }
+            }
+        }
+
+        private static void trocar(long[] chaves, int[] posicoes, int a, int b) {
+            long chave = chaves[a];
+            chaves[a] = chaves[b];
+            chaves[b] = chave;
+            int posicao = posicoes[a];
+            posicoes[a] = posicoes[b];
+            posicoes[b] = posicao;
+        }
+
+        private static long espalhar(long chave) {
+            long h = chave * 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 32);
+        }
+
+        private static int lerInt(byte[] area, int posicao) {
+            return (area[posicao] & 0xFF) << 24 | (area[posicao + 1] & 0xFF) << 16
+                    | (area[posicao + 2] & 0xFF) << 8 | (area[posicao + 3] & 0xFF);
+        }
+
+        private static long lerLong(byte[] area, int posicao) {
+            return (long) lerInt(area, posicao) << 32 | (lerInt(area, posicao + 4) & 0xFFFFFFFFL);
+        }
+
+        private static void gravarInt(byte[] area, int posicao, int valor) {
+            area[posicao] = (byte) (valor >>> 24);
+            area[posicao + 1] = (byte) (valor >>> 16);
+            area[posicao + 2] = (byte) (valor >>> 8);
+            area[posicao + 3] = (byte) valor;
+        }
+
+        private static void gravarLong(byte[] area, int posicao, long valor) {
+            gravarInt(area, posicao, (int) (valor >>> 32));
+            gravarInt(area, posicao + 4, (int) valor);
+        }
+    }
+
+    /**
+     * Corrida derramada: a quantidade de registros seguida de (cpf, linha, idade, divergente, tamanho do nome, nome).
+     */
+    private static final class SaidaCorrida implements Destino, Closeable {
+        private final DataOutputStream saida;
+
+        SaidaCorrida(OutputStream saida, int registros) throws IOException {
+            this.saida = new DataOutputStream(new BufferedOutputStream(saida, BUFFER_SAIDA));
+            this.saida.writeInt(registros);
+        }
+
+        @Override
+        public void gravar(long cpf, long linha, int idade, boolean divergente, byte[] nome, int inicio, int tamanho) throws IOException {
+            saida.writeLong(cpf);
+            saida.writeLong(linha);
+            saida.writeInt(idade);
+            saida.writeBoolean(divergente);
+            saida.writeInt(tamanho);
+            saida.write(nome, inicio, tamanho);
+        }
+
+        @Override
+        public void close() throws IOException {
+            saida.close();
+        }
+    }
+
+    /**
+     * Leitura sequencial de uma corrida; o registro corrente fica nos campos. Sem arquivo, serve de
+     * cópia do vencedor na intercalação.
+     */
+    private static final class LeitorCorrida implements Closeable {
+        private final DataInputStream entrada;
+        private int restantes;
+        long cpf;
+        long linha;
+        int idade;
+        boolean divergente;
+        byte[] nome = new byte[64];
+        int tamanhoNome;
+
+        LeitorCorrida() {
+            this.entrada = null;
+        }
+
+        LeitorCorrida(Path corrida, int tamanhoBuffer) throws IOException {
+            this.entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(corrida), tamanhoBuffer));
+            this.restantes = entrada.readInt();
+        }
+
+        boolean avancar() throws IOException {
+            if (restantes == 0) {
+                return false;
+            }
+            restantes--;
+            cpf = entrada.readLong();
+            linha = entrada.readLong();
+            idade = entrada.readInt();
+            divergente = entrada.readBoolean();
+            tamanhoNome = entrada.readInt();
+            if (nome.length < tamanhoNome) {
+                nome = new byte[Math.max(tamanhoNome, nome.length * 2)];
+            }
+            entrada.readFully(nome, 0, tamanhoNome);
+            return true;
+        }
+
+        void copiar(LeitorCorrida outro) {
+            cpf = outro.cpf;
+            linha = outro.linha;
+            idade = outro.idade;
+            divergente = outro.divergente;
+            tamanhoNome = outro.tamanhoNome;
+            if (nome.length < tamanhoNome) {
+                nome = new byte[Math.max(tamanhoNome, nome.length * 2)];
+            }
+            System.arraycopy(outro.nome, 0, nome, 0, tamanhoNome);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (entrada != null) {
+                entrada.close();
+            }
+        }
+    }
+
+    /**
+     * Grava o CSV de saída: nome (bytes originais), CPF com 11 dígitos e idade, sem Strings intermediárias.
+     */
+    private final class SaidaCsv implements Destino, Closeable {
+        private final OutputStream saida;
+        private final byte[] numero = new byte[Cpf.DIGITOS];
+        long registros;
+        long divergentes;
+
+        SaidaCsv(OutputStream saida, boolean cabecalho) throws IOException {
+            this.saida = new BufferedOutputStream(saida, BUFFER_SAIDA);
+            if (cabecalho) {
+                this.saida.write(("nome" + (char) configuracao.separador + "cpf" + (char) configuracao.separador
+                        + "idade\n").getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        @Override
+        public void gravar(long cpf, long linha, int idade, boolean divergente, byte[] nome, int inicio, int tamanho) throws IOException {
+            registros++;
+            if (divergente) {
+                divergentes++;
+            }
+            saida.write(nome, inicio, tamanho);
+            saida.write(configuracao.separador);
+            gravarNumero(cpf, Cpf.DIGITOS);
+            saida.write(configuracao.separador);
+            gravarNumero(idade, 1);
+            saida.write('\n');
+        }
+
+        private void gravarNumero(long valor, int digitosMinimos) throws IOException {
+            int posicao = numero.length;
+            do {
+                numero[--posicao] = (byte) ('0' + valor % 10);
+                valor /= 10;
+            } while (valor > 0 || numero.length - posicao < digitosMinimos);
+            saida.write(numero, posicao, numero.length - posicao);
+        }
+
+        @Override
+        public void close() throws IOException {
+            saida.close();
+        }
+    }
+
+    /**
+     * Resultado de {@link #importar(Path, Path)}.
+     */
+    public static final class Relatorio {
+        private final long linhasLidas;
+        private final long linhasInvalidas;
+        private final long pessoasUnicas;
+        private final long cpfsComIdadesDivergentes;
+        private final int corridasDerramadas;
+        private final long bytesLidos;
+        private final long duracaoNanos;
+        private final long picoHeapBytes;
+        private final List<Long> primeirasLinhasInvalidas;
+
+        Relatorio(long linhasLidas, long linhasInvalidas, long pessoasUnicas, long cpfsComIdadesDivergentes,
+                  int corridasDerramadas, long bytesLidos, long duracaoNanos, long picoHeapBytes,
+                  List<Long> primeirasLinhasInvalidas) {
+            this.linhasLidas = linhasLidas;
+            this.linhasInvalidas = linhasInvalidas;
+            this.pessoasUnicas = pessoasUnicas;
+            this.cpfsComIdadesDivergentes = cpfsComIdadesDivergentes;
+            this.corridasDerramadas = corridasDerramadas;
+            this.bytesLidos = bytesLidos;
+            this.duracaoNanos = duracaoNanos;
+            this.picoHeapBytes = picoHeapBytes;
+            this.primeirasLinhasInvalidas = Collections.unmodifiableList(primeirasLinhasInvalidas);
+        }
+
+        /** Linhas de dados, sem o cabeçalho e as linhas em branco. */
+        public long getLinhasLidas() { return linhasLidas; }
+        public long getLinhasInvalidas() { return linhasInvalidas; }
+        /** Linhas gravadas na saída: uma por CPF. */
+        public long getPessoasUnicas() { return pessoasUnicas; }
+        /** CPFs repetidos que apareceram com mais de uma idade (conflitos resolvidos pela política). */
+        public long getCpfsComIdadesDivergentes() { return cpfsComIdadesDivergentes; }
+        /** Quantas vezes a tabela atingiu o orçamento e foi derramada em disco; 0 se tudo coube em memória. */
+        public int getCorridasDerramadas() { return corridasDerramadas; }
+        public long getBytesLidos() { return bytesLidos; }
+        public long getDuracaoNanos() { return duracaoNanos; }
+        /** Maior uso de heap da JVM amostrado a cada bloco lido (inclui o que outras threads alocaram). */
+        public long getPicoHeapBytes() { return picoHeapBytes; }
+        /** Números (a partir de 1, contando o cabeçalho) das primeiras 100 linhas inválidas. */
+        public List<Long> getPrimeirasLinhasInvalidas() { return primeirasLinhasInvalidas; }
+
+        /** Linhas válidas descartadas por repetirem um CPF. */
+        public long getDuplicadas() {
+            return linhasLidas - linhasInvalidas - pessoasUnicas;
+        }
+
+        public double getLinhasPorSegundo() {
+            return duracaoNanos <= 0 ? 0 : linhasLidas * 1e9 / duracaoNanos;
+        }
+
+        public double getMegabytesPorSegundo() {
+            return duracaoNanos <= 0 ? 0 : bytesLidos * 1e9 / duracaoNanos / (1024 * 1024);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("linhas=%d invalidas=%d unicas=%d duplicadas=%d divergentes=%d corridas=%d duracao=%d ms "
+                            + "linhas/s=%.0f MB/s=%.1f picoHeap=%d MB", linhasLidas, linhasInvalidas, pessoasUnicas,
+                    getDuplicadas(), cpfsComIdadesDivergentes, corridasDerramadas, duracaoNanos / 1_000_000,
+                    getLinhasPorSegundo(), getMegabytesPorSegundo(), picoHeapBytes / (1024 * 1024));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.vsi.teste;
+
+import com.vsi.teste.EqualsHashCodeExample.Pessoa;
+
+/**
+ * Registro em memória de {@link Pessoa}, indexado pelo CPF convertido para {@code long}.
+ *
+ * Alternativa ao {@code HashMap<Pessoa, ...>} para dezenas de milhões de registros:
+ * - Endereçamento aberto (sondagem linear) em arrays primitivos paralelos: não há um Node,
+ *   uma Pessoa nem uma String de CPF por entrada, apenas um long, um int e a referência do nome.
+ * - Consultas não fazem boxing: a chave é um long e a idade é devolvida como int.
+ * - O armazenamento é um {@link LongKeyedSegmentedMap}: segmentos com leituras otimistas, e escritas
+ *   que bloqueiam apenas o seu segmento.
+ */
+public class PessoaRegistry {
+
+    /** Valor devolvido por {@link #buscarIdade(long)} quando o CPF não está registrado. */
+    public static final int IDADE_AUSENTE = Integer.MIN_VALUE;
+
+    private final LongKeyedSegmentedMap<Colunas> pessoas;
+
+    public PessoaRegistry() {
+        this(0);
+    }
+
+    /**
+     * @param capacidadeEsperada Número aproximado de pessoas, usado para pré-dimensionar as tabelas e evitar redimensionamentos.
+     */
+    public PessoaRegistry(int capacidadeEsperada) {
+        this.pessoas = new LongKeyedSegmentedMap<>(capacidadeEsperada, Colunas.TIPO);
+    }
+
+    /**
+     * Insere a pessoa ou, se o CPF já estiver registrado, atualiza nome e idade (upsert).
+     *
+     * @param pessoa A pessoa a registrar.
+     * @return true se foi inserida, false se um registro existente foi atualizado.
+     * @throws IllegalArgumentException Se o CPF da pessoa for inválido.
+     */
+    public boolean registrar(Pessoa pessoa) {
+        return pessoas.gravar(Cpf.paraChave(pessoa.getCpf()), pessoa, (c, posicao, nova, p) -> {
+            c.nomes[posicao] = p.getNome();
+            c.idades[posicao] = p.getIdade();
+            return nova;
+        });
+    }
+
+    /**
+     * Atualiza apenas a idade de uma pessoa já registrada.
+     *
+     * @param cpf   O CPF (com ou sem pontuação).
+     * @param idade A nova idade.
+     * @return true se a pessoa existia e foi atualizada, false caso contrário.
+     */
+    public boolean atualizarIdade(String cpf, int idade) {
+        return pessoas.alterar(Cpf.paraChave(cpf), idade, (c, posicao, nova, novaIdade) -> {
+            c.idades[posicao] = novaIdade;
+            return Boolean.TRUE;
+        }) != null;
+    }
+
+    /**
+     * Consulta a idade sem alocar objetos.
+     *
+     * @param chaveCpf O CPF já convertido por {@link Cpf#paraChave(CharSequence)}.
+     * @return A idade, ou {@link #IDADE_AUSENTE} se o CPF não estiver registrado.
+     */
+    public int buscarIdade(long chaveCpf) {
+        return (int) pessoas.lerLong(chaveCpf, IDADE_AUSENTE, (c, posicao) -> c.idades[posicao]);
+    }
+
+    /**
+     * @param cpf O CPF (com ou sem pontuação).
+     * @return true se o CPF estiver registrado.
+     */
+    public boolean contem(String cpf) {
+        return buscarIdade(Cpf.paraChave(cpf)) != IDADE_AUSENTE;
+    }
+
+    /**
+     * Reconstrói a {@link Pessoa} registrada para o CPF.
+     *
+     * @param cpf O CPF (com ou sem pontuação).
+     * @return A pessoa, ou null se o CPF não estiver registrado.
+     */
+    public Pessoa buscar(String cpf) {
+        long chave = Cpf.paraChave(cpf);
+        return pessoas.ler(chave, (c, posicao) -> new Pessoa(c.nomes[posicao], Cpf.paraTexto(chave), c.idades[posicao]));
+    }
+
+    /**
+     * @return Número de pessoas registradas.
+     */
+    public int tamanho() {
+        return pessoas.tamanho();
+    }
+
+    /**
+     * Colunas de valores: a idade e a referência do nome de cada posição.
+     */
+    private static final class Colunas {
+        static final LongKeyedSegmentedMap.Colunas<Colunas> TIPO = new LongKeyedSegmentedMap.Colunas<>() {
+            @Override
+            public Colunas criar(int capacidade) {
+                return new Colunas(capacidade);
+            }
+
+            @Override
+            public void copiar(Colunas origem, int de, Colunas destino, int para) {
+                destino.idades[para] = origem.idades[de];
+                destino.nomes[para] = origem.nomes[de];
+            }
+
+            @Override
+            public void limpar(Colunas colunas, int posicao) {
+                colunas.idades[posicao] = 0;
+                colunas.nomes[posicao] = null;
+            }
+        };
+
+        final int[] idades;
+        final String[] nomes;
+
+        Colunas(int capacidade) {
+            idades = new int[capacidade];
+            nomes = new String[capacidade];
+        }
+    }
+}
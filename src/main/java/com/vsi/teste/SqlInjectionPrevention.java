@@ -1,11 +1,19 @@
 package com.vsi.teste;
 
+import com.vsi.teste.jdbc.PooledDataSource;
+
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Exemplos de código para demonstrar a prevenção de SQL Injection.
@@ -16,13 +24,67 @@ import java.sql.Statement;
  *
  * @see ../../../../../docs/Q2_4_SQL_Injection.md Explicação detalhada.
  */
-public class SqlInjectionPrevention {
+public class SqlInjectionPrevention implements AutoCloseable {
 
     // --- Dados de Conexão (Exemplo - NÃO FAÇA ISSO EM PRODUÇÃO!) ---
     private static final String DB_URL = "jdbc:h2:mem:testdb"; // Exemplo com H2 em memória
     private static final String DB_USER = "sa";
     private static final String DB_PASSWORD = "";
 
+    private static final String SQL_BUSCAR_POR_EMAIL = "SELECT id, nome, email FROM usuarios WHERE email = ?";
+
+    // Tamanhos permitidos para a lista IN (?, ?, ...): poucos textos SQL distintos => planos e statements reaproveitáveis
+    private static final int[] TAMANHOS_LOTE_IN = {1, 8, 32, 128};
+    private static final String[] SQL_BUSCAR_POR_EMAILS = new String[TAMANHOS_LOTE_IN.length];
+    private static final int FETCH_SIZE_PADRAO = 500;
+
+    static {
+        for (int i = 0; i < TAMANHOS_LOTE_IN.length; i++) {
+            StringBuilder sql = new StringBuilder("SELECT id, nome, email FROM usuarios WHERE email IN (?");
+            for (int j = 1; j < TAMANHOS_LOTE_IN[i]; j++) {
+                sql.append(", ?");
+            }
+            SQL_BUSCAR_POR_EMAILS[i] = sql.append(')').toString();
+        }
+    }
+
+    // Pool de conexões usado pelas buscas que não recebem uma Connection pronta
+    private final DataSource dataSource;
+    // Pool criado pelo construtor sem argumentos: é desta instância e fecha junto com ela
+    private final PooledDataSource poolProprio;
+
+    /**
+     * Usa um {@link PooledDataSource} próprio apontando para o banco de exemplo (DB_URL), fechado em {@link #close()}.
+     * As conexões só são abertas na primeira busca.
+     */
+    public SqlInjectionPrevention() {
+        this(new PooledDataSource(DB_URL, DB_USER, DB_PASSWORD));
+    }
+
+    private SqlInjectionPrevention(PooledDataSource poolProprio) {
+        this.dataSource = poolProprio;
+        this.poolProprio = poolProprio;
+    }
+
+    /**
+     * @param dataSource Origem das conexões; de preferência um pool com cache de statements,
+     *                   como o {@link PooledDataSource}. Continua sendo do chamador: não é fechado em {@link #close()}.
+     */
+    public SqlInjectionPrevention(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.poolProprio = null;
+    }
+
+    /**
+     * Fecha o pool criado pelo construtor sem argumentos; um {@link DataSource} recebido não é afetado.
+     */
+    @Override
+    public void close() {
+        if (poolProprio != null) {
+            poolProprio.close();
+        }
+    }
+
     // --- Método VULNERÁVEL (NÃO USE!) ---
 
     /**
@@ -60,7 +122,7 @@ public class SqlInjectionPrevention {
      */
     public void buscarUsuarioPorEmail_Seguro(Connection connection, String email) throws SQLException {
         // Query parametrizada com placeholder (?)
-        String sql = "SELECT id, nome, email FROM usuarios WHERE email = ?";
+        String sql = SQL_BUSCAR_POR_EMAIL;
         System.out.println("Preparando (Seguro): " + sql);
 
         // Usa try-with-resources para garantir que PreparedStatement e ResultSet sejam fechados
@@ -83,6 +145,102 @@ public class SqlInjectionPrevention {
         // e buscará por um email que seja exatamente "' OR '1'='1'", provavelmente não encontrando nada.
     }
 
+    /**
+     * Mesma busca SEGURA de {@link #buscarUsuarioPorEmail_Seguro(Connection, String)}, para uso em alta taxa:
+     * a conexão vem do pool e, com o {@link PooledDataSource}, o PreparedStatement é reaproveitado do cache
+     * da conexão (sem novo parse/plano no banco a cada chamada). Não imprime nada no console.
+     *
+     * @param email Email fornecido pelo usuário.
+     * @return O usuário encontrado, ou vazio.
+     * @throws SQLException Se ocorrer erro no banco.
+     */
+    public Optional<Usuario> buscarUsuarioPorEmail_Seguro(String email) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(SQL_BUSCAR_POR_EMAIL)) {
+
+            preparedStatement.setString(1, email); // Parâmetro vinculado: continua imune a SQL Injection
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return Optional.empty();
+                }
+                return Optional.of(new Usuario(resultSet.getInt("id"), resultSet.getString("nome"), resultSet.getString("email")));
+            }
+        }
+    }
+
+    /**
+     * Busca em lote: resolve muitos emails com poucas idas ao banco, usando {@link #FETCH_SIZE_PADRAO}.
+     *
+     * @see #buscarUsuariosPorEmails_Seguro(Collection, int, Consumer)
+     */
+    public void buscarUsuariosPorEmails_Seguro(Collection<String> emails, Consumer<Usuario> consumidor) throws SQLException {
+        buscarUsuariosPorEmails_Seguro(emails, FETCH_SIZE_PADRAO, consumidor);
+    }
+
+    /**
+     * Busca SEGURA em lote. Os emails (sem repetição) são divididos em blocos consultados com
+     * {@code WHERE email IN (?, ?, ...)}, sempre com parâmetros vinculados.
+     *
+     * Para que o banco e o cache de statements reaproveitem os planos, a lista IN só assume os
+     * tamanhos de {@link #TAMANHOS_LOTE_IN}: um bloco incompleto é preenchido repetindo o último
+     * email (repetições dentro do IN não alteram o resultado).
+     *
+     * Os registros são entregues ao consumidor à medida que chegam do banco, sem serem acumulados
+     * em memória; {@code fetchSize} controla quantas linhas o driver traz por ida ao servidor.
+     *
+     * @param emails     Emails a buscar (duplicados são ignorados).
+     * @param fetchSize  Dica de linhas por ida ao banco (ver {@link java.sql.Statement#setFetchSize(int)}).
+     * @param consumidor Recebe cada usuário encontrado; emails sem usuário simplesmente não geram chamada.
+     * @throws SQLException Se ocorrer erro no banco.
+     */
+    public void buscarUsuariosPorEmails_Seguro(Collection<String> emails, int fetchSize, Consumer<Usuario> consumidor)
+            throws SQLException {
+        if (emails.isEmpty()) {
+            return;
+        }
+        Collection<String> distintos = new LinkedHashSet<>(emails);
+        Iterator<String> pendentes = distintos.iterator();
+        int restantes = distintos.size();
+
+        try (Connection connection = dataSource.getConnection()) {
+            while (restantes > 0) {
+                int faixa = faixaDeTamanho(restantes);
+                int tamanhoBloco = TAMANHOS_LOTE_IN[faixa];
+                int usados = Math.min(restantes, tamanhoBloco);
+
+                try (PreparedStatement preparedStatement = connection.prepareStatement(SQL_BUSCAR_POR_EMAILS[faixa])) {
+                    preparedStatement.setFetchSize(fetchSize);
+                    String email = null;
+                    for (int i = 1; i <= tamanhoBloco; i++) {
+                        if (i <= usados) {
+                            email = pendentes.next();
+                        }
+                        preparedStatement.setString(i, email); // Preenche o restante com o último email
+                    }
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            consumidor.accept(new Usuario(resultSet.getInt("id"), resultSet.getString("nome"),
+                                    resultSet.getString("email")));
+                        }
+                    }
+                }
+                restantes -= usados;
+            }
+        }
+    }
+
+    /**
+     * @return O índice do menor tamanho de lote que comporta {@code quantidade}, ou o maior tamanho disponível.
+     */
+    private static int faixaDeTamanho(int quantidade) {
+        for (int i = 0; i < TAMANHOS_LOTE_IN.length; i++) {
+            if (TAMANHOS_LOTE_IN[i] >= quantidade) {
+                return i;
+            }
+        }
+        return TAMANHOS_LOTE_IN.length - 1;
+    }
+
     // --- Método SEGURO usando ORM (Conceitual - JPA/Hibernate) ---
 
     /**
@@ -0,0 +1,540 @@
+package com.vsi.teste.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação batch do banco para arquivos comprimidos (Questão 2.5), em três estágios ligados por filas limitadas:
+ *
+ * 1. Leitura: uma thread executa a query com cursor somente-leitura e {@code fetchSize}, sem carregar o
+ *    resultado inteiro na memória, e agrupa as linhas em lotes.
+ * 2. Transformação: N threads formatam cada lote como texto e o comprimem como um membro GZIP
+ *    independente. A compressão, que é o trabalho de CPU mais caro, roda em paralelo.
+ * 3. Gravação: uma thread grava os lotes na ordem da query. Membros GZIP concatenados formam um arquivo
+ *    GZIP válido (RFC 1952), lido normalmente por {@code gunzip} ou {@link java.util.zip.GZIPInputStream}.
+ *
+ * Memória constante: existem apenas {@code lotesEmTransito} lotes, reaproveitados do início ao fim. A leitura
+ * só avança quando a gravação devolve um lote (back-pressure), independentemente do tamanho da tabela.
+ *
+ * Cada arquivo é gravado com o sufixo {@code .parcial} e renomeado ao ser concluído, para que um processo de
+ * transferência nunca pegue um arquivo pela metade. Em caso de falha, os arquivos desta execução são apagados.
+ *
+ * @param <T> O tipo da linha produzida pelo {@link RowExtractor}.
+ */
+public class BatchExportPipeline<T> {
+
+    /**
+     * Parâmetros do pipeline. Os valores padrão servem para exportações de alguns milhões de linhas.
+     */
+    public static final class Configuracao {
+        private int tamanhoFetch = 1_000;
+        private int linhasPorLote = 5_000;
+        private int threadsTransformacao = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        private int lotesEmTransito;
+        private long linhasPorArquivo = 1_000_000;
+        private int nivelCompressao = Deflater.DEFAULT_COMPRESSION;
+        private String extensao = ".csv.gz";
+        private String cabecalho;
+
+        public static Configuracao padrao() {
+            return new Configuracao();
+        }
+
+        /** Linhas trazidas do banco por ida à rede (JDBC {@code setFetchSize}). */
+        public Configuracao tamanhoFetch(int valor) {
+            this.tamanhoFetch = valor;
+            return this;
+        }
+
+        public Configuracao linhasPorLote(int valor) {
+            this.linhasPorLote = valor;
+            return this;
+        }
+
+        public Configuracao threadsTransformacao(int valor) {
+            this.threadsTransformacao = valor;
+            return this;
+        }
+
+        /** Limite de lotes na memória ao mesmo tempo; 0 usa {@code 2 * threadsTransformacao + 2}. */
+        public Configuracao lotesEmTransito(int valor) {
+            this.lotesEmTransito = valor;
+            return this;
+        }
+
+        /** Um novo arquivo é iniciado quando o atual atinge este número de linhas (arredondado para lotes inteiros). */
+        public Configuracao linhasPorArquivo(long valor) {
+            this.linhasPorArquivo = valor;
+            return this;
+        }
+
+        /** Nível do {@link Deflater}: 1 é o mais rápido, 9 o que mais comprime. */
+        public Configuracao nivelCompressao(int valor) {
+            this.nivelCompressao = valor;
+            return this;
+        }
+
+        public Configuracao extensao(String valor) {
+            this.extensao = valor;
+            return this;
+        }
+
+        /** Linha gravada no início de cada arquivo; {@code null} para nenhuma. */
+        public Configuracao cabecalho(String valor) {
+            this.cabecalho = valor;
+            return this;
+        }
+
+        int lotesEmTransitoEfetivo() {
+            return lotesEmTransito > 0 ? lotesEmTransito : 2 * threadsTransformacao + 2;
+        }
+    }
+
+    private static final long ESPERA_FILA_MS = 50;
+
+    private final Configuracao configuracao;
+    private final RowExtractor<T> extrator;
+    private final RowFormatter<? super T> formatador;
+
+    public BatchExportPipeline(RowExtractor<T> extrator, RowFormatter<? super T> formatador) {
+        this(extrator, formatador, Configuracao.padrao());
+    }
+
+    public BatchExportPipeline(RowExtractor<T> extrator, RowFormatter<? super T> formatador, Configuracao configuracao) {
+        if (configuracao.tamanhoFetch < 1 || configuracao.linhasPorLote < 1 || configuracao.threadsTransformacao < 1
+                || configuracao.lotesEmTransito < 0 || configuracao.linhasPorArquivo < 1) {
+            throw new IllegalArgumentException("Tamanhos de fetch, lote e arquivo e número de threads devem ser positivos.");
+        }
+        this.extrator = extrator;
+        this.formatador = formatador;
+        this.configuracao = configuracao;
+    }
+
+    /**
+     * Executa a query e grava o resultado em {@code diretorio/prefixo-00001.csv.gz}, {@code -00002} etc.
+     * Uma query sem linhas não gera arquivos.
+     *
+     * A conexão continua pertencendo ao chamador. Durante a leitura o autocommit é desligado (exigido por
+     * alguns drivers, como o do PostgreSQL, para usar cursor) e depois restaurado.
+     *
+     * @param parametros Valores dos {@code ?} da query, na ordem.
+     * @return Os arquivos gerados e as métricas de cada estágio.
+     */
+    public Resultado executar(Connection conexao, String sql, Path diretorio, String prefixo, Object... parametros)
+            throws SQLException, IOException, InterruptedException {
+        Files.createDirectories(diretorio);
+        return new Execucao(conexao, sql, parametros, diretorio, prefixo).executar();
+    }
+
+    /**
+     * Resultado de uma execução bem-sucedida.
+     */
+    public static final class Resultado {
+        private final List<Path> arquivos;
+        private final long duracaoNanos;
+        private final StageMetrics leitura;
+        private final StageMetrics transformacao;
+        private final StageMetrics gravacao;
+
+        private Resultado(List<Path> arquivos, long duracaoNanos, StageMetrics leitura,
+                          StageMetrics transformacao, StageMetrics gravacao) {
+            this.arquivos = Collections.unmodifiableList(arquivos);
+            this.duracaoNanos = duracaoNanos;
+            this.leitura = leitura;
+            this.transformacao = transformacao;
+            this.gravacao = gravacao;
+        }
+
+        public List<Path> getArquivos() { return arquivos; }
+        public long getLinhas() { return gravacao.getLinhas(); }
+        public long getDuracaoNanos() { return duracaoNanos; }
+        public StageMetrics getLeitura() { return leitura; }
+        public StageMetrics getTransformacao() { return transformacao; }
+        public StageMetrics getGravacao() { return gravacao; }
+
+        @Override
+        public String toString() {
+            return "linhas=" + getLinhas() + " arquivos=" + arquivos.size() + " duracao=" + duracaoNanos / 1_000_000 + " ms\n  "
+                    + leitura + "\n  " + transformacao + "\n  " + gravacao;
+        }
+    }
+
+    /**
+     * Estado de uma execução: filas, lotes e threads.
+     */
+    private final class Execucao {
+        private final Connection conexao;
+        private final String sql;
+        private final Object[] parametros;
+        private final Path diretorio;
+        private final String prefixo;
+
+        private final int threadsTransformacao = configuracao.threadsTransformacao;
+        private final int lotesEmTransito = configuracao.lotesEmTransitoEfetivo();
+        private final BlockingQueue<Lote> livres = new ArrayBlockingQueue<>(lotesEmTransito);
+        // Capacidade extra para os marcadores de fim, um por thread de transformação
+        private final BlockingQueue<Lote> paraTransformar = new ArrayBlockingQueue<>(lotesEmTransito + threadsTransformacao);
+        private final BlockingQueue<Lote> paraGravar = new ArrayBlockingQueue<>(lotesEmTransito + threadsTransformacao);
+
+        private final StageMetrics leitura = new StageMetrics("leitura", 1);
+        private final StageMetrics transformacao;
+        private final StageMetrics gravacao = new StageMetrics("gravacao", 1);
+
+        private final AtomicReference<Throwable> falha = new AtomicReference<>();
+        private final List<Path> arquivos = new ArrayList<>(); // Somente a thread de gravação altera
+        private volatile Path arquivoParcial;
+
+        Execucao(Connection conexao, String sql, Object[] parametros, Path diretorio, String prefixo) {
+            this.conexao = conexao;
+            this.sql = sql;
+            this.parametros = parametros;
+            this.diretorio = diretorio;
+            this.prefixo = prefixo;
+            this.transformacao = new StageMetrics("transformacao", threadsTransformacao);
+            for (int i = 0; i < lotesEmTransito; i++) {
+                livres.add(new Lote(configuracao.linhasPorLote));
+            }
+        }
+
+        Resultado executar() throws SQLException, IOException, InterruptedException {
+            long inicio = System.nanoTime();
+            leitura.iniciar(inicio);
+            transformacao.iniciar(inicio);
+            gravacao.iniciar(inicio);
+
+            List<Thread> threads = new ArrayList<>();
+            threads.add(iniciar("batch-leitura", leitura, this::ler));
+            for (int i = 0; i < threadsTransformacao; i++) {
+                threads.add(iniciar("batch-transformacao-" + i, transformacao, this::transformar));
+            }
+            threads.add(iniciar("batch-gravacao", gravacao, this::gravar));
+
+            boolean interrompido = false;
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        // Os estágios param na próxima espera em fila; aguarda-os para não deixar arquivos abertos
+                        interrompido = true;
+                        falha.compareAndSet(null, e);
+                    }
+                }
+            }
+            if (interrompido) {
+                Thread.currentThread().interrupt();
+            }
+
+            Throwable erro = falha.get();
+            if (erro == null) {
+                return new Resultado(arquivos, System.nanoTime() - inicio, leitura, transformacao, gravacao);
+            }
+            apagarArquivos();
+            if (erro instanceof SQLException) throw (SQLException) erro;
+            if (erro instanceof IOException) throw (IOException) erro;
+            if (erro instanceof InterruptedException) throw (InterruptedException) erro;
+            if (erro instanceof RuntimeException) throw (RuntimeException) erro;
+            if (erro instanceof Error) throw (Error) erro;
+            throw new IllegalStateException("Falha na exportação batch.", erro);
+        }
+
+        private Thread iniciar(String nome, StageMetrics metricas, Etapa etapa) {
+            Thread thread = new Thread(() -> {
+                try {
+                    etapa.executar();
+                } catch (Abortado e) {
+                    // Outro estágio falhou e já registrou o erro
+                } catch (Throwable e) {
+                    falha.compareAndSet(null, e);
+                } finally {
+                    metricas.terminar();
+                }
+            }, nome);
+            thread.setDaemon(true);
+            thread.start();
+            return thread;
+        }
+
+        private void ler() throws SQLException, InterruptedException {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+            try (PreparedStatement ps = conexao.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(configuracao.tamanhoFetch);
+                for (int i = 0; i < parametros.length; i++) {
+                    ps.setObject(i + 1, parametros[i]);
+                }
+                long inicio = System.nanoTime();
+                try (ResultSet rs = ps.executeQuery()) {
+                    boolean haMais = rs.next();
+                    leitura.registrarOcupado(System.nanoTime() - inicio);
+                    long sequencia = 0;
+                    while (haMais) {
+                        Lote lote = retirar(livres, leitura);
+                        inicio = System.nanoTime();
+                        Object[] linhas = lote.linhas;
+                        int quantidade = 0;
+                        do {
+                            linhas[quantidade++] = extrator.extrair(rs);
+                            haMais = rs.next();
+                        } while (haMais && quantidade < linhas.length);
+                        lote.quantidade = quantidade;
+                        lote.sequencia = sequencia++;
+                        leitura.registrarLote(quantidade, 0, 0, System.nanoTime() - inicio);
+                        colocar(paraTransformar, lote, leitura);
+                    }
+                }
+            } finally {
+                conexao.setAutoCommit(autoCommit);
+            }
+            for (int i = 0; i < threadsTransformacao; i++) {
+                colocar(paraTransformar, Lote.FIM, leitura);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void transformar() throws IOException, InterruptedException {
+            StringBuilder texto = new StringBuilder(configuracao.linhasPorLote * 64);
+            while (true) {
+                Lote lote = retirar(paraTransformar, transformacao);
+                if (lote == Lote.FIM) {
+                    colocar(paraGravar, Lote.FIM, transformacao);
+                    return;
+                }
+                long inicio = System.nanoTime();
+                texto.setLength(0);
+                Object[] linhas = lote.linhas;
+                for (int i = 0; i < lote.quantidade; i++) {
+                    formatador.formatar((T) linhas[i], texto);
+                    texto.append('\n');
+                    linhas[i] = null; // Libera a linha já formatada para o GC
+                }
+                lote.comprimido.reset();
+                long bytesTexto = comprimir(texto, lote.comprimido, configuracao.nivelCompressao);
+                transformacao.registrarLote(lote.quantidade, bytesTexto, lote.comprimido.size(), System.nanoTime() - inicio);
+                colocar(paraGravar, lote, transformacao);
+            }
+        }
+
+        private void gravar() throws IOException, InterruptedException {
+            // Os lotes chegam fora de ordem; como só existem lotesEmTransito lotes, a sequência módulo
+            // lotesEmTransito identifica a posição sem colisões.
+            Lote[] pendentes = new Lote[lotesEmTransito];
+            long proxima = 0;
+            int fins = 0;
+            FileChannel canal = null;
+            long linhasArquivo = 0;
+            try {
+                while (fins < threadsTransformacao) {
+                    Lote recebido = retirar(paraGravar, gravacao);
+                    if (recebido == Lote.FIM) {
+                        fins++;
+                        continue;
+                    }
+                    pendentes[(int) (recebido.sequencia % lotesEmTransito)] = recebido;
+                    int posicao;
+                    while (pendentes[posicao = (int) (proxima % lotesEmTransito)] != null) {
+                        Lote lote = pendentes[posicao];
+                        pendentes[posicao] = null;
+                        long inicio = System.nanoTime();
+                        if (canal == null) {
+                            canal = abrirArquivo();
+                            linhasArquivo = 0;
+                        }
+                        escrever(canal, lote.comprimido);
+                        linhasArquivo += lote.quantidade;
+                        if (linhasArquivo >= configuracao.linhasPorArquivo) {
+                            fecharArquivo(canal);
+                            canal = null;
+                        }
+                        gravacao.registrarLote(lote.quantidade, lote.comprimido.size(), lote.comprimido.size(), System.nanoTime() - inicio);
+                        proxima++;
+                        livres.add(lote); // Nunca falha: a fila de livres comporta todos os lotes
+                    }
+                }
+                if (canal != null) {
+                    long inicio = System.nanoTime();
+                    fecharArquivo(canal);
+                    canal = null;
+                    gravacao.registrarOcupado(System.nanoTime() - inicio);
+                }
+            } finally {
+                if (canal != null) {
+                    canal.close();
+                }
+            }
+        }
+
+        private FileChannel abrirArquivo() throws IOException {
+            String nome = String.format("%s-%05d%s", prefixo, arquivos.size() + 1, configuracao.extensao);
+            Path parcial = diretorio.resolve(nome + ".parcial");
+            arquivoParcial = parcial;
+            FileChannel canal = FileChannel.open(parcial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            if (configuracao.cabecalho != null) {
+                Buffer cabecalho = new Buffer(256);
+                comprimir(new StringBuilder(configuracao.cabecalho).append('\n'), cabecalho, configuracao.nivelCompressao);
+                escrever(canal, cabecalho);
+            }
+            return canal;
+        }
+
+        private void fecharArquivo(FileChannel canal) throws IOException {
+            canal.close();
+            Path parcial = arquivoParcial;
+            String nome = parcial.getFileName().toString();
+            Path definitivo = parcial.resolveSibling(nome.substring(0, nome.length() - ".parcial".length()));
+            Files.move(parcial, definitivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            arquivoParcial = null;
+            arquivos.add(definitivo);
+        }
+
+        private void apagarArquivos() {
+            List<Path> apagar = new ArrayList<>(arquivos);
+            if (arquivoParcial != null) {
+                apagar.add(arquivoParcial);
+            }
+            for (Path arquivo : apagar) {
+                try {
+                    Files.deleteIfExists(arquivo);
+                } catch (IOException e) {
+                    // Melhor esforço: o erro original é o que interessa ao chamador
+                }
+            }
+        }
+
+        private Lote retirar(BlockingQueue<Lote> fila, StageMetrics metricas) throws InterruptedException {
+            long inicio = System.nanoTime();
+            try {
+                Lote lote;
+                while ((lote = fila.poll(ESPERA_FILA_MS, TimeUnit.MILLISECONDS)) == null) {
+                    verificarFalha();
+                }
+                return lote;
+            } finally {
+                metricas.registrarBloqueio(System.nanoTime() - inicio);
+            }
+        }
+
+        private void colocar(BlockingQueue<Lote> fila, Lote lote, StageMetrics metricas) throws InterruptedException {
+            long inicio = System.nanoTime();
+            try {
+                while (!fila.offer(lote, ESPERA_FILA_MS, TimeUnit.MILLISECONDS)) {
+                    verificarFalha();
+                }
+            } finally {
+                metricas.registrarBloqueio(System.nanoTime() - inicio);
+            }
+        }
+
+        /**
+         * As esperas usam timeout em vez de interrupção: interromper uma thread dentro do driver JDBC
+         * ou de um FileChannel fecha o canal subjacente.
+         */
+        private void verificarFalha() {
+            if (falha.get() != null) {
+                throw Abortado.INSTANCIA;
+            }
+        }
+    }
+
+    /**
+     * Grava o texto como um membro GZIP completo.
+     *
+     * @return Bytes do texto antes da compressão.
+     */
+    private static long comprimir(CharSequence texto, OutputStream destino, int nivel) throws IOException {
+        MembroGzip gzip = new MembroGzip(destino, nivel);
+        Writer escritor = new OutputStreamWriter(gzip, StandardCharsets.UTF_8);
+        escritor.append(texto);
+        escritor.flush();
+        gzip.finish();
+        long bytesTexto = gzip.bytesLidos();
+        escritor.close();
+        return bytesTexto;
+    }
+
+    private static void escrever(FileChannel canal, Buffer dados) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(dados.dados(), 0, dados.size());
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Etapa {
+        void executar() throws Exception;
+    }
+
+    private static final class Lote {
+        static final Lote FIM = new Lote(0);
+
+        final Object[] linhas;
+        final Buffer comprimido = new Buffer(64 * 1024);
+        int quantidade;
+        long sequencia;
+
+        Lote(int capacidade) {
+            this.linhas = new Object[capacidade];
+        }
+    }
+
+    /**
+     * {@link ByteArrayOutputStream} que expõe o array interno, reaproveitado entre lotes sem cópias.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer(int capacidade) {
+            super(capacidade);
+        }
+
+        byte[] dados() {
+            return buf;
+        }
+    }
+
+    private static final class MembroGzip extends GZIPOutputStream {
+        MembroGzip(OutputStream destino, int nivel) throws IOException {
+            super(destino, 8 * 1024);
+            def.setLevel(nivel);
+        }
+
+        long bytesLidos() {
+            return def.getBytesRead();
+        }
+    }
+
+    /**
+     * Sinaliza a um estágio que outro falhou. Sem stack trace: é controle de fluxo, não um erro novo.
+     */
+    private static final class Abortado extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        static final Abortado INSTANCIA = new Abortado();
+
+        private Abortado() {
+            super(null, null, false, false);
+        }
+    }
+}
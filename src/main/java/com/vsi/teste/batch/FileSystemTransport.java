@@ -0,0 +1,91 @@
+package com.vsi.teste.batch;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * {@link FileTransport} para um diretório local ou montado (NFS, SMB), usado também como substituto
+ * de um servidor FTP em testes e benchmarks.
+ *
+ * O canal de escrita é um {@link FileChannel}, então {@code transferTo} entre arquivos não passa pelo heap.
+ */
+public class FileSystemTransport implements FileTransport {
+
+    private final Path diretorio;
+
+    public FileSystemTransport(Path diretorio) throws IOException {
+        this.diretorio = Files.createDirectories(diretorio).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public TransportSession abrirSessao() {
+        return new Sessao();
+    }
+
+    private final class Sessao implements TransportSession {
+        private volatile boolean fechada;
+
+        @Override
+        public long tamanho(String nomeRemoto) throws IOException {
+            Path arquivo = resolver(nomeRemoto);
+            return Files.exists(arquivo) ? Files.size(arquivo) : -1;
+        }
+
+        @Override
+        public WritableByteChannel abrirEscrita(String nomeRemoto, long posicao) throws IOException {
+            FileChannel canal = FileChannel.open(resolver(nomeRemoto), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                canal.truncate(posicao);
+                canal.position(posicao);
+                return canal;
+            } catch (IOException | RuntimeException e) {
+                canal.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void renomear(String nomeAtual, String nomeNovo) throws IOException {
+            Files.move(resolver(nomeAtual), resolver(nomeNovo), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public long modificadoEm(String nomeRemoto) throws IOException {
+            Path arquivo = resolver(nomeRemoto);
+            return Files.exists(arquivo) ? Files.getLastModifiedTime(arquivo).toMillis() : -1;
+        }
+
+        @Override
+        public boolean definirModificadoEm(String nomeRemoto, long epochMs) throws IOException {
+            Files.setLastModifiedTime(resolver(nomeRemoto), FileTime.fromMillis(epochMs));
+            return true;
+        }
+
+        @Override
+        public boolean isValida() {
+            return !fechada;
+        }
+
+        @Override
+        public void close() {
+            fechada = true;
+        }
+
+        private Path resolver(String nomeRemoto) throws IOException {
+            if (fechada) {
+                throw new IOException("Sessão fechada.");
+            }
+            Path arquivo = diretorio.resolve(nomeRemoto).normalize();
+            if (!arquivo.startsWith(diretorio)) {
+                throw new IOException("Nome remoto fora do diretório de destino: " + nomeRemoto);
+            }
+            return arquivo;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.vsi.teste.batch;
+
+import java.io.IOException;
+
+/**
+ * Destino remoto de arquivos (FTP, SFTP, bucket, diretório compartilhado etc.).
+ *
+ * Abrir uma sessão costuma ser caro (conexão TCP, handshake TLS/SSH, login), por isso as sessões
+ * são reaproveitadas através do {@link TransportSessionPool}.
+ */
+@FunctionalInterface
+public interface FileTransport {
+
+    TransportSession abrirSessao() throws IOException;
+}
@@ -0,0 +1,309 @@
+package com.vsi.teste.batch;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envio de arquivos para um {@link FileTransport} (Questão 2.5, otimização da transferência FTP).
+ *
+ * - Vários arquivos são enviados ao mesmo tempo, até {@code maximoTransferenciasSimultaneas}.
+ * - As sessões vêm de um {@link TransportSessionPool}: a conexão e o login são feitos uma vez e
+ *   reaproveitados entre arquivos.
+ * - Quando a sessão permite, os bytes vão do arquivo para o canal remoto por {@link FileChannel#transferTo},
+ *   sem cópia para o heap (sendfile/copy_file_range no Linux). Caso contrário, usa um buffer de
+ *   {@code tamanhoBuffer} bytes.
+ * - Cada arquivo é enviado como {@code nome.parcial} e renomeado ao final. O tamanho do parcial no destino é o
+ *   checkpoint: uma nova tentativa, ou uma nova execução do batch, continua dali em vez de recomeçar.
+ * - Depois do rename, a data de modificação do arquivo local é copiada para o destino. Arquivos que já existem
+ *   no destino com o mesmo tamanho e a mesma data (com precisão de segundos, a do MDTM/MFMT) não são reenviados;
+ *   se o transporte não informa a data, o arquivo é sempre reenviado.
+ *
+ * Arquivos comprimidos pelo {@link BatchExportPipeline} já chegam em GZIP, então não há compressão aqui.
+ */
+public class ParallelFileUploader {
+
+    /**
+     * Parâmetros do envio. Os valores padrão atendem a um servidor FTP comum.
+     */
+    public static final class Configuracao {
+        private int maximoTransferenciasSimultaneas = 4;
+        private long tamanhoBloco = 8L * 1024 * 1024;
+        private int tamanhoBuffer = 256 * 1024;
+        private int tentativas = 3;
+        private long esperaEntreTentativasMs = 500;
+        private String sufixoParcial = ".parcial";
+
+        public static Configuracao padrao() {
+            return new Configuracao();
+        }
+
+        /** Deve ser no máximo o tamanho do pool de sessões. */
+        public Configuracao maximoTransferenciasSimultaneas(int valor) {
+            this.maximoTransferenciasSimultaneas = valor;
+            return this;
+        }
+
+        /** Bytes por chamada a {@code transferTo}. */
+        public Configuracao tamanhoBloco(long valor) {
+            this.tamanhoBloco = valor;
+            return this;
+        }
+
+        /** Buffer usado quando a sessão não suporta transferência direta. */
+        public Configuracao tamanhoBuffer(int valor) {
+            this.tamanhoBuffer = valor;
+            return this;
+        }
+
+        /** Tentativas por arquivo, contando a primeira. */
+        public Configuracao tentativas(int valor) {
+            this.tentativas = valor;
+            return this;
+        }
+
+        /** Espera antes da segunda tentativa; dobra a cada nova tentativa. */
+        public Configuracao esperaEntreTentativasMs(long valor) {
+            this.esperaEntreTentativasMs = valor;
+            return this;
+        }
+
+        public Configuracao sufixoParcial(String valor) {
+            this.sufixoParcial = valor;
+            return this;
+        }
+    }
+
+    private final TransportSessionPool pool;
+    private final Configuracao configuracao;
+
+    public ParallelFileUploader(TransportSessionPool pool) {
+        this(pool, Configuracao.padrao());
+    }
+
+    public ParallelFileUploader(TransportSessionPool pool, Configuracao configuracao) {
+        if (configuracao.maximoTransferenciasSimultaneas < 1 || configuracao.tamanhoBloco < 1
+                || configuracao.tamanhoBuffer < 1 || configuracao.tentativas < 1) {
+            throw new IllegalArgumentException("Concorrência, bloco, buffer e tentativas devem ser positivos.");
+        }
+        this.pool = pool;
+        this.configuracao = configuracao;
+    }
+
+    /**
+     * Envia os arquivos com o mesmo nome no destino e espera todos terminarem.
+     *
+     * @return Estatísticas de cada arquivo, na ordem recebida, e do envio como um todo.
+     * @throws IOException Se algum arquivo falhar em todas as tentativas. Os demais são enviados mesmo assim;
+     *                     as outras falhas vêm como {@link Throwable#getSuppressed() suprimidas}.
+     */
+    public Relatorio enviar(List<Path> arquivos) throws IOException, InterruptedException {
+        long inicio = System.nanoTime();
+        int threads = Math.min(configuracao.maximoTransferenciasSimultaneas, Math.max(1, arquivos.size()));
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "transferencia-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<TransferStats>> futuros = new ArrayList<>(arquivos.size());
+            for (Path arquivo : arquivos) {
+                futuros.add(executor.submit(() -> enviar(arquivo)));
+            }
+            List<TransferStats> estatisticas = new ArrayList<>(arquivos.size());
+            IOException falha = null;
+            for (Future<TransferStats> futuro : futuros) {
+                try {
+                    estatisticas.add(futuro.get());
+                } catch (ExecutionException e) {
+                    IOException erro = e.getCause() instanceof IOException
+                            ? (IOException) e.getCause() : new IOException(e.getCause());
+                    if (falha == null) {
+                        falha = erro;
+                    } else {
+                        falha.addSuppressed(erro);
+                    }
+                }
+            }
+            if (falha != null) {
+                throw falha;
+            }
+            return new Relatorio(estatisticas, System.nanoTime() - inicio);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private TransferStats enviar(Path arquivo) throws IOException, InterruptedException {
+        String nome = arquivo.getFileName().toString();
+        String nomeParcial = nome + configuracao.sufixoParcial;
+        long tamanho = Files.size(arquivo);
+        long modificadoEm = Files.getLastModifiedTime(arquivo).toMillis();
+        long inicio = System.nanoTime();
+        long transferidos = 0;
+        IOException ultimoErro = null;
+
+        for (int tentativa = 1; tentativa <= configuracao.tentativas; tentativa++) {
+            if (tentativa > 1) {
+                Thread.sleep(configuracao.esperaEntreTentativasMs << (tentativa - 2));
+            }
+            TransportSession sessao = null;
+            long posicao = 0;
+            long retomadoDe = 0;
+            boolean concluido = false;
+            try {
+                // Dentro do try: um timeout do pool ou uma falha ao conectar também é uma tentativa
+                sessao = pool.emprestar();
+                if (sessao.tamanho(nome) == tamanho && mesmoSegundo(sessao.modificadoEm(nome), modificadoEm)) {
+                    concluido = true;
+                    return new TransferStats(nome, tamanho, transferidos, tamanho, tentativa, System.nanoTime() - inicio);
+                }
+                long checkpoint = sessao.tamanho(nomeParcial);
+                retomadoDe = checkpoint > 0 && checkpoint <= tamanho ? checkpoint : 0;
+                posicao = retomadoDe;
+                try (FileChannel origem = FileChannel.open(arquivo, StandardOpenOption.READ);
+                     WritableByteChannel destino = sessao.abrirEscrita(nomeParcial, posicao)) {
+                    if (sessao.suportaTransferenciaDireta()) {
+                        while (posicao < tamanho) {
+                            long enviados = origem.transferTo(posicao, Math.min(configuracao.tamanhoBloco, tamanho - posicao), destino);
+                            if (enviados == 0) {
+                                // Sem progresso: a origem acabou antes do tamanho esperado (ou o destino não aceitou bytes)
+                                throw new IOException("O arquivo " + arquivo + " diminuiu durante o envio.");
+                            }
+                            posicao += enviados;
+                        }
+                    } else {
+                        ByteBuffer buffer = ByteBuffer.allocate(configuracao.tamanhoBuffer);
+                        while (posicao < tamanho) {
+                            buffer.clear();
+                            int lidos = origem.read(buffer, posicao);
+                            if (lidos < 0) {
+                                throw new IOException("O arquivo " + arquivo + " diminuiu durante o envio.");
+                            }
+                            buffer.flip();
+                            while (buffer.hasRemaining()) {
+                                int escritos = destino.write(buffer);
+                                if (escritos == 0) {
+                                    // Um canal bloqueante sem progresso não vai avançar: falha e deixa a próxima tentativa retomar
+                                    throw new IOException("O destino não aceitou bytes durante o envio de " + arquivo + ".");
+                                }
+                                posicao += escritos;
+                            }
+                        }
+                    }
+                }
+                sessao.renomear(nomeParcial, nome);
+                sessao.definirModificadoEm(nome, modificadoEm);
+                concluido = true;
+                return new TransferStats(nome, tamanho, transferidos + posicao - retomadoDe, retomadoDe, tentativa,
+                        System.nanoTime() - inicio);
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                ultimoErro = e;
+            } finally {
+                // Em caso de erro, conta o que o canal confirmou; o checkpoint no destino é que vale para retomar
+                transferidos += concluido ? 0 : posicao - retomadoDe;
+                if (concluido) {
+                    pool.devolver(sessao);
+                } else if (sessao != null) { // null: o empréstimo falhou e o pool já liberou a permissão
+                    pool.descartar(sessao);
+                }
+            }
+        }
+        throw new IOException("Falha ao enviar " + arquivo + " após " + configuracao.tentativas + " tentativas.", ultimoErro);
+    }
+
+    private static boolean mesmoSegundo(long remotoMs, long localMs) {
+        return remotoMs >= 0 && Math.floorDiv(remotoMs, 1000) == Math.floorDiv(localMs, 1000);
+    }
+
+    /**
+     * Estatísticas do envio de um arquivo.
+     */
+    public static final class TransferStats {
+        private final String nome;
+        private final long tamanho;
+        private final long bytesTransferidos;
+        private final long retomadoDe;
+        private final int tentativas;
+        private final long duracaoNanos;
+
+        TransferStats(String nome, long tamanho, long bytesTransferidos, long retomadoDe, int tentativas, long duracaoNanos) {
+            this.nome = nome;
+            this.tamanho = tamanho;
+            this.bytesTransferidos = bytesTransferidos;
+            this.retomadoDe = retomadoDe;
+            this.tentativas = tentativas;
+            this.duracaoNanos = duracaoNanos;
+        }
+
+        public String getNome() { return nome; }
+        public long getTamanho() { return tamanho; }
+        /** Bytes efetivamente enviados, somando todas as tentativas. */
+        public long getBytesTransferidos() { return bytesTransferidos; }
+        /** Posição em que a última tentativa começou: 0 para um envio completo, o tamanho se já estava no destino. */
+        public long getRetomadoDe() { return retomadoDe; }
+        public int getTentativas() { return tentativas; }
+        public long getDuracaoNanos() { return duracaoNanos; }
+
+        public double getMegabytesPorSegundo() {
+            return duracaoNanos <= 0 ? 0 : bytesTransferidos * 1e9 / duracaoNanos / (1024 * 1024);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s{bytes=%d, retomadoDe=%d, tentativas=%d, MB/s=%.1f}",
+                    nome, bytesTransferidos, retomadoDe, tentativas, getMegabytesPorSegundo());
+        }
+    }
+
+    /**
+     * Resultado de {@link #enviar(List)}.
+     */
+    public static final class Relatorio {
+        private final List<TransferStats> arquivos;
+        private final long duracaoNanos;
+
+        Relatorio(List<TransferStats> arquivos, long duracaoNanos) {
+            this.arquivos = Collections.unmodifiableList(arquivos);
+            this.duracaoNanos = duracaoNanos;
+        }
+
+        public List<TransferStats> getArquivos() { return arquivos; }
+        public long getDuracaoNanos() { return duracaoNanos; }
+
+        public long getBytesTransferidos() {
+            long total = 0;
+            for (TransferStats arquivo : arquivos) {
+                total += arquivo.bytesTransferidos;
+            }
+            return total;
+        }
+
+        /** Vazão somada de todos os envios simultâneos. */
+        public double getMegabytesPorSegundo() {
+            return duracaoNanos <= 0 ? 0 : getBytesTransferidos() * 1e9 / duracaoNanos / (1024 * 1024);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("arquivos=%d bytes=%d duracao=%d ms MB/s=%.1f %s", arquivos.size(), getBytesTransferidos(),
+                    duracaoNanos / 1_000_000, getMegabytesPorSegundo(), arquivos);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.vsi.teste.batch;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Converte a linha corrente de um {@link ResultSet} no objeto que segue pelo pipeline.
+ *
+ * Chamado apenas pela thread de leitura. Não deve avançar o cursor nem guardar o ResultSet:
+ * o objeto devolvido é formatado mais tarde, em outra thread.
+ *
+ * @param <T> O tipo da linha.
+ */
+@FunctionalInterface
+public interface RowExtractor<T> {
+
+    T extrair(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,15 @@
+package com.vsi.teste.batch;
+
+/**
+ * Formata uma linha como texto no arquivo de saída (ex: CSV).
+ *
+ * Chamado em paralelo pelas threads de transformação, portanto deve ser seguro para uso
+ * concorrente (normalmente não tem estado). O pipeline acrescenta a quebra de linha.
+ *
+ * @param <T> O tipo da linha.
+ */
+@FunctionalInterface
+public interface RowFormatter<T> {
+
+    void formatar(T linha, StringBuilder destino);
+}
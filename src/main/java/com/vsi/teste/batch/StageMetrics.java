@@ -0,0 +1,100 @@
+package com.vsi.teste.batch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de um estágio do {@link BatchExportPipeline}.
+ *
+ * Separa o tempo em que as threads do estágio trabalharam (ocupado) do tempo em que ficaram paradas
+ * em uma fila (bloqueado): esperando trabalho do estágio anterior ou espaço no seguinte. O estágio
+ * com maior utilização é o gargalo; os demais passam a maior parte do tempo bloqueados.
+ *
+ * Os contadores são {@link LongAdder} e podem ser lidos enquanto o pipeline executa.
+ */
+public final class StageMetrics {
+
+    private final String nome;
+    private final int threads;
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder linhas = new LongAdder();
+    private final LongAdder bytesEntrada = new LongAdder();
+    private final LongAdder bytesSaida = new LongAdder();
+    private final LongAdder tempoOcupadoNanos = new LongAdder();
+    private final LongAdder tempoBloqueadoNanos = new LongAdder();
+    private final AtomicLong fimNanos = new AtomicLong();
+    private volatile long inicioNanos;
+
+    StageMetrics(String nome, int threads) {
+        this.nome = nome;
+        this.threads = threads;
+    }
+
+    void iniciar(long agora) {
+        inicioNanos = agora;
+    }
+
+    void terminar() {
+        fimNanos.accumulateAndGet(System.nanoTime(), Math::max);
+    }
+
+    void registrarLote(int linhasLote, long entrada, long saida, long nanos) {
+        lotes.increment();
+        linhas.add(linhasLote);
+        bytesEntrada.add(entrada);
+        bytesSaida.add(saida);
+        tempoOcupadoNanos.add(nanos);
+    }
+
+    void registrarOcupado(long nanos) {
+        tempoOcupadoNanos.add(nanos);
+    }
+
+    void registrarBloqueio(long nanos) {
+        tempoBloqueadoNanos.add(nanos);
+    }
+
+    public String getNome() { return nome; }
+    public int getThreads() { return threads; }
+    public long getLotes() { return lotes.sum(); }
+    public long getLinhas() { return linhas.sum(); }
+    /** Bytes recebidos pelo estágio (texto antes da compressão, na transformação). */
+    public long getBytesEntrada() { return bytesEntrada.sum(); }
+    /** Bytes produzidos pelo estágio (comprimidos, na transformação; gravados em disco, na gravação). */
+    public long getBytesSaida() { return bytesSaida.sum(); }
+    public long getTempoOcupadoNanos() { return tempoOcupadoNanos.sum(); }
+    public long getTempoBloqueadoNanos() { return tempoBloqueadoNanos.sum(); }
+
+    /**
+     * @return Tempo desde o início do pipeline até a última thread do estágio terminar (ou até agora).
+     */
+    public long getDuracaoNanos() {
+        long fim = fimNanos.get();
+        return (fim == 0 ? System.nanoTime() : fim) - inicioNanos;
+    }
+
+    public double getLinhasPorSegundo() {
+        long duracao = getDuracaoNanos();
+        return duracao <= 0 ? 0 : getLinhas() * 1e9 / duracao;
+    }
+
+    public double getMegabytesPorSegundo() {
+        long duracao = getDuracaoNanos();
+        return duracao <= 0 ? 0 : getBytesSaida() * 1e9 / duracao / (1024 * 1024);
+    }
+
+    /**
+     * @return Fração (0 a 1) do tempo disponível das threads do estágio gasta trabalhando.
+     */
+    public double getUtilizacao() {
+        long disponivel = getDuracaoNanos() * threads;
+        return disponivel <= 0 ? 0 : Math.min(1.0, getTempoOcupadoNanos() / (double) disponivel);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{threads=%d, lotes=%d, linhas=%d, linhas/s=%.0f, MB/s=%.1f, ocupado=%d ms, bloqueado=%d ms, utilizacao=%.0f%%}",
+                nome, threads, getLotes(), getLinhas(), getLinhasPorSegundo(), getMegabytesPorSegundo(),
+                getTempoOcupadoNanos() / 1_000_000, getTempoBloqueadoNanos() / 1_000_000, getUtilizacao() * 100);
+    }
+}
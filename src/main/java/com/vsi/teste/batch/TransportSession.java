@@ -0,0 +1,63 @@
+package com.vsi.teste.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Sessão aberta com um {@link FileTransport}. Usada por uma transferência de cada vez.
+ *
+ * As operações correspondem aos comandos que os protocolos de transferência oferecem para retomar
+ * envios: SIZE, REST + STOR (ou APPE), RNFR/RNTO e MDTM/MFMT no FTP; stat, open com offset, rename e
+ * setstat no SFTP.
+ */
+public interface TransportSession extends Closeable {
+
+    /**
+     * @return Tamanho do arquivo remoto em bytes, ou -1 se ele não existir.
+     */
+    long tamanho(String nomeRemoto) throws IOException;
+
+    /**
+     * Abre o arquivo remoto para escrita a partir de {@code posicao}, descartando o que houver depois dela.
+     */
+    WritableByteChannel abrirEscrita(String nomeRemoto, long posicao) throws IOException;
+
+    /**
+     * Renomeia o arquivo remoto, substituindo o destino se já existir.
+     */
+    void renomear(String nomeAtual, String nomeNovo) throws IOException;
+
+    /**
+     * @return Data de modificação do arquivo remoto em milissegundos desde a época, ou -1 se ele não existir ou
+     *         se o transporte não a informar.
+     */
+    default long modificadoEm(String nomeRemoto) throws IOException {
+        return -1;
+    }
+
+    /**
+     * Define a data de modificação do arquivo remoto, para que um envio seguinte reconheça o arquivo como igual
+     * ao local.
+     *
+     * @return false se o transporte não permitir alterar a data.
+     */
+    default boolean definirModificadoEm(String nomeRemoto, long epochMs) throws IOException {
+        return false;
+    }
+
+    /**
+     * Verificação barata de que a sessão ainda está utilizável (ex: NOOP no FTP).
+     */
+    default boolean isValida() {
+        return true;
+    }
+
+    /**
+     * @return true se o canal de escrita aceita {@link java.nio.channels.FileChannel#transferTo} sem cópia para o
+     *         heap (arquivo local ou socket); false faz o envio usar um buffer intermediário.
+     */
+    default boolean suportaTransferenciaDireta() {
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package com.vsi.teste.batch;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de sessões de um {@link FileTransport}, no mesmo formato do {@code PooledDataSource}:
+ *
+ * - Tamanho limitado por um {@link Semaphore}: quem chega com o pool cheio espera até o timeout.
+ * - Sessões ociosas ficam em uma pilha (LIFO) e são verificadas com {@link TransportSession#isValida()}
+ *   antes de serem reaproveitadas.
+ * - Uma sessão que falhou durante o uso deve ser devolvida com {@link #descartar(TransportSession)}.
+ */
+public class TransportSessionPool implements AutoCloseable {
+
+    private final FileTransport transporte;
+    private final long timeoutAquisicaoMs;
+    private final Semaphore permissoes;
+    private final ConcurrentLinkedDeque<TransportSession> ociosas = new ConcurrentLinkedDeque<>();
+    private final AtomicLong sessoesCriadas = new AtomicLong();
+    private volatile boolean fechado;
+
+    public TransportSessionPool(FileTransport transporte, int tamanhoMaximo, long timeoutAquisicaoMs) {
+        if (tamanhoMaximo < 1) {
+            throw new IllegalArgumentException("O tamanho máximo do pool deve ser positivo.");
+        }
+        this.transporte = transporte;
+        this.timeoutAquisicaoMs = timeoutAquisicaoMs;
+        this.permissoes = new Semaphore(tamanhoMaximo, true);
+    }
+
+    /**
+     * @return Uma sessão exclusiva do chamador até ser devolvida ou descartada.
+     */
+    public TransportSession emprestar() throws IOException {
+        if (fechado) {
+            throw new IOException("O pool de sessões está fechado.");
+        }
+        try {
+            if (!permissoes.tryAcquire(timeoutAquisicaoMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Nenhuma sessão disponível após " + timeoutAquisicaoMs + " ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido aguardando uma sessão do pool.");
+        }
+        try {
+            TransportSession sessao;
+            while ((sessao = ociosas.pollFirst()) != null) {
+                if (sessao.isValida()) {
+                    return sessao;
+                }
+                fecharSilenciosamente(sessao);
+            }
+            sessao = transporte.abrirSessao();
+            sessoesCriadas.incrementAndGet();
+            return sessao;
+        } catch (IOException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    public void devolver(TransportSession sessao) {
+        if (fechado) {
+            fecharSilenciosamente(sessao);
+        } else {
+            ociosas.offerFirst(sessao);
+        }
+        permissoes.release();
+    }
+
+    /**
+     * Fecha a sessão em vez de devolvê-la: depois de um erro de I/O o estado da conexão é desconhecido.
+     */
+    public void descartar(TransportSession sessao) {
+        fecharSilenciosamente(sessao);
+        permissoes.release();
+    }
+
+    /**
+     * @return Sessões abertas pelo pool até agora (reutilizações não contam).
+     */
+    public long getSessoesCriadas() {
+        return sessoesCriadas.get();
+    }
+
+    public int getSessoesOciosas() {
+        return ociosas.size();
+    }
+
+    /**
+     * Fecha as sessões ociosas e impede novos empréstimos. Sessões emprestadas são fechadas ao serem devolvidas.
+     */
+    @Override
+    public void close() {
+        fechado = true;
+        TransportSession sessao;
+        while ((sessao = ociosas.pollFirst()) != null) {
+            fecharSilenciosamente(sessao);
+        }
+    }
+
+    private static void fecharSilenciosamente(TransportSession sessao) {
+        try {
+            sessao.close();
+        } catch (IOException e) {
+            // Sessão descartada: não há o que fazer
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.vsi.teste.cadastro;
+
+/**
+ * O email já pertence a outro usuário (ou a outro cadastro em andamento).
+ *
+ * É um erro de negócio esperado, que pode ocorrer em rajadas quando muitos cadastros disputam o mesmo
+ * email: não preenche a pilha de chamadas, que seria o custo dominante da recusa.
+ */
+public class EmailDuplicadoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String email;
+
+    public EmailDuplicadoException(String email) {
+        this(email, null);
+    }
+
+    public EmailDuplicadoException(String email, Throwable causa) {
+        super("Email já cadastrado: '" + email + "'", causa, false, false);
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,393 @@
+package com.vsi.teste.cadastro;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice em memória dos emails cadastrados (Questão 8), com a regra de unicidade sem diferenciar
+ * maiúsculas de minúsculas.
+ *
+ * - O email é normalizado sem expressões regulares e sem criar Strings: a {@link Chave} guarda a String
+ *   original e os limites sem os espaços das pontas, e calcula hash e igualdade comparando os caracteres
+ *   já convertidos para minúsculas.
+ * - Reivindicar um email é um "verificar e reservar" atômico ({@link ConcurrentHashMap#putIfAbsent}):
+ *   de vários cadastros simultâneos com o mesmo email, exatamente um recebe a {@link Reserva}; os demais
+ *   recebem {@code null} na hora, sem ida ao banco. As leituras nunca bloqueiam, e a inserção em uma
+ *   posição vazia da tabela é um CAS; só colisões na mesma posição sincronizam, e apenas nela.
+ * - A reserva é confirmada com o id do usuário depois que o INSERT der certo, ou liberada se falhar.
+ * - {@link #reconciliar(Connection)} alinha o índice com a tabela {@code usuarios}, que continua sendo a
+ *   fonte da verdade (outras instâncias da aplicação, cargas diretas no banco etc.).
+ */
+public class EmailRegistry {
+
+    /** Tamanho máximo de um endereço de email (RFC 5321). */
+    public static final int TAMANHO_MAXIMO = 254;
+
+    private static final String SQL_EMAILS = "SELECT id, email FROM usuarios";
+    private static final int SEM_USUARIO = -1;
+
+    private final ConcurrentHashMap<Chave, Reserva> emails;
+    // Ordena confirmações e reconciliações: uma reconciliação só remove usuários confirmados antes do seu início
+    private final AtomicLong relogio = new AtomicLong();
+
+    public EmailRegistry() {
+        this(16);
+    }
+
+    /**
+     * @param capacidadeEsperada Número aproximado de emails, usado para pré-dimensionar a tabela.
+     */
+    public EmailRegistry(int capacidadeEsperada) {
+        this.emails = new ConcurrentHashMap<>(capacidadeEsperada);
+    }
+
+    /**
+     * Verifica e reserva o email em uma única operação atômica.
+     *
+     * @return A reserva, que deve ser confirmada ou liberada; {@code null} se o email já estiver
+     *         cadastrado ou reservado por outro cadastro em andamento.
+     * @throws IllegalArgumentException Se o email for inválido.
+     */
+    public Reserva tentarReservar(String email) {
+        Chave chave = Chave.de(email);
+        Reserva reserva = new Reserva(chave);
+        return emails.putIfAbsent(chave, reserva) == null ? reserva : null;
+    }
+
+    /**
+     * Marca a reserva como um usuário cadastrado.
+     *
+     * @throws IllegalStateException Se a reserva já tiver sido liberada.
+     */
+    public void confirmar(Reserva reserva, int idUsuario) {
+        if (emails.get(reserva.chave) != reserva) {
+            throw new IllegalStateException("A reserva do email '" + reserva.getEmail() + "' não está mais ativa.");
+        }
+        reserva.idUsuario = idUsuario;
+        reserva.confirmadaEm = relogio.incrementAndGet();
+    }
+
+    /**
+     * Desfaz a reserva (cadastro que falhou). Só remove a entrada se ela ainda for desta reserva.
+     */
+    public void liberar(Reserva reserva) {
+        emails.remove(reserva.chave, reserva);
+    }
+
+    /**
+     * Remove o email de um usuário excluído, liberando-o para novos cadastros.
+     *
+     * @return false se o email não estiver cadastrado.
+     */
+    public boolean remover(String email) {
+        return emails.remove(Chave.de(email)) != null;
+    }
+
+    /**
+     * Como {@link #remover(String)}, mas só se o email ainda pertencer ao usuário (verificação atômica).
+     *
+     * @return false se o email não estiver cadastrado para esse usuário.
+     */
+    public boolean remover(String email, int idUsuario) {
+        boolean[] removido = new boolean[1];
+        emails.computeIfPresent(Chave.de(email), (chave, reserva) -> {
+            if (reserva.idUsuario != idUsuario) {
+                return reserva;
+            }
+            removido[0] = true;
+            return null;
+        });
+        return removido[0];
+    }
+
+    /**
+     * Consulta sem lock e sem criar Strings.
+     *
+     * @return true se o email estiver cadastrado ou reservado por um cadastro em andamento.
+     */
+    public boolean contem(String email) {
+        return email != null && isEmailValido(email) && emails.containsKey(Chave.normalizar(email));
+    }
+
+    /**
+     * @return O id do usuário dono do email, ou -1 se não houver usuário confirmado com ele.
+     */
+    public int buscarIdUsuario(String email) {
+        Reserva reserva = emails.get(Chave.de(email));
+        return reserva == null ? SEM_USUARIO : reserva.idUsuario;
+    }
+
+    public int tamanho() {
+        return emails.size();
+    }
+
+    /**
+     * Alinha o índice com a tabela {@code usuarios}: inclui os emails que só existem no banco e remove
+     * os usuários confirmados que não existem mais nele. Reservas de cadastros em andamento e usuários
+     * confirmados depois do início da leitura são preservados, então a reconciliação pode rodar junto com
+     * novos cadastros.
+     *
+     * @return Os números da reconciliação, incluindo emails que o banco guarda em duplicidade quando
+     *         maiúsculas e minúsculas são ignoradas (dados antigos, anteriores à regra).
+     */
+    public Reconciliacao reconciliar(Connection conexao) throws SQLException {
+        long inicio = relogio.incrementAndGet();
+        int lidos = 0;
+        int incluidos = 0;
+        List<String> conflitos = new ArrayList<>();
+        try (PreparedStatement ps = conexao.prepareStatement(SQL_EMAILS)) {
+            ps.setFetchSize(1_000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    String email = rs.getString(2);
+                    lidos++;
+                    if (email == null || !isEmailValido(email)) {
+                        continue;
+                    }
+                    Chave chave = Chave.normalizar(email);
+                    Reserva nova = new Reserva(chave);
+                    nova.idUsuario = id;
+                    nova.confirmadaEm = inicio;
+                    nova.vistaEm = inicio;
+                    Reserva atual = emails.putIfAbsent(chave, nova);
+                    if (atual == null) {
+                        incluidos++;
+                    } else if (atual.vistaEm == inicio) {
+                        conflitos.add(email); // Segunda linha do banco com o mesmo email normalizado
+                    } else {
+                        atual.vistaEm = inicio;
+                    }
+                }
+            }
+        }
+        int removidos = 0;
+        for (Reserva reserva : emails.values()) {
+            long confirmadaEm = reserva.confirmadaEm;
+            boolean confirmadaAntes = confirmadaEm != 0 && confirmadaEm < inicio;
+            if (confirmadaAntes && reserva.vistaEm != inicio && emails.remove(reserva.chave, reserva)) {
+                removidos++;
+            }
+        }
+        return new Reconciliacao(lidos, incluidos, removidos, conflitos);
+    }
+
+    /**
+     * @return O email em minúsculas e sem espaços nas pontas, na forma gravada pelo {@link UsuarioCadastro}.
+     * @throws IllegalArgumentException Se o email for inválido.
+     */
+    static String normalizar(String email) {
+        return Chave.de(email).normalizado();
+    }
+
+    /**
+     * Validação estrutural, sem expressões regulares: exatamente um '@', partes local e de domínio não
+     * vazias, domínio com um ponto que não esteja nas pontas, sem espaços nem caracteres de controle
+     * no meio. Espaços nas pontas são ignorados, como na normalização.
+     */
+    public static boolean isEmailValido(CharSequence email) {
+        int inicio = inicio(email);
+        int fim = fim(email, inicio);
+        if (fim - inicio > TAMANHO_MAXIMO) {
+            return false;
+        }
+        int arroba = -1;
+        int ultimoPonto = -1;
+        for (int i = inicio; i < fim; i++) {
+            char c = email.charAt(i);
+            if (c <= ' ' || c == 0x7F) {
+                return false;
+            }
+            if (c == '@') {
+                if (arroba >= 0) {
+                    return false;
+                }
+                arroba = i;
+            } else if (c == '.' && arroba >= 0) {
+                if (i == arroba + 1 || i == ultimoPonto + 1) {
+                    return false; // Domínio começando com ponto ou com pontos seguidos
+                }
+                ultimoPonto = i;
+            }
+        }
+        return arroba > inicio && ultimoPonto > arroba && ultimoPonto < fim - 1;
+    }
+
+    private static int inicio(CharSequence texto) {
+        int i = 0;
+        while (i < texto.length() && texto.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int fim(CharSequence texto, int inicio) {
+        int fim = texto.length();
+        while (fim > inicio && texto.charAt(fim - 1) <= ' ') {
+            fim--;
+        }
+        return fim;
+    }
+
+    /**
+     * Converte para minúsculas sem tabelas nem alocação; o caminho ASCII não chama Character.
+     */
+    private static char minuscula(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Email normalizado sem cópia: referência à String original com os limites sem espaços nas pontas.
+     * O hash e a igualdade usam os caracteres convertidos para minúsculas.
+     */
+    static final class Chave {
+        private final String texto;
+        private final int inicio;
+        private final int fim;
+        private final int hash;
+
+        private Chave(String texto, int inicio, int fim, int hash) {
+            this.texto = texto;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.hash = hash;
+        }
+
+        static Chave de(String email) {
+            if (email == null || !isEmailValido(email)) {
+                throw new IllegalArgumentException("Email inválido: '" + email + "'");
+            }
+            return normalizar(email);
+        }
+
+        /**
+         * Como {@link #de(String)}, para um email já validado.
+         */
+        static Chave normalizar(String email) {
+            int inicio = inicio(email);
+            int fim = fim(email, inicio);
+            int hash = 0;
+            for (int i = inicio; i < fim; i++) {
+                hash = 31 * hash + minuscula(email.charAt(i));
+            }
+            return new Chave(email, inicio, fim, hash ^ (hash >>> 16));
+        }
+
+        /**
+         * @return O email em minúsculas e sem espaços; cria a String, então fica fora do caminho rápido.
+         */
+        String normalizado() {
+            char[] caracteres = new char[fim - inicio];
+            for (int i = 0; i < caracteres.length; i++) {
+                caracteres[i] = minuscula(texto.charAt(inicio + i));
+            }
+            return new String(caracteres);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave)) return false;
+            Chave outra = (Chave) o;
+            int tamanho = fim - inicio;
+            if (hash != outra.hash || tamanho != outra.fim - outra.inicio) {
+                return false;
+            }
+            for (int i = 0; i < tamanho; i++) {
+                char a = texto.charAt(inicio + i);
+                char b = outra.texto.charAt(outra.inicio + i);
+                if (a != b && minuscula(a) != minuscula(b)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return texto.substring(inicio, fim);
+        }
+    }
+
+    /**
+     * Posse de um email no índice: pendente até {@link #confirmar(Reserva, int)}.
+     */
+    public static final class Reserva {
+        private final Chave chave;
+        private volatile int idUsuario = SEM_USUARIO;
+        private volatile long confirmadaEm; // 0 enquanto pendente
+        private volatile long vistaEm; // Última reconciliação que encontrou o email no banco
+
+        private Reserva(Chave chave) {
+            this.chave = chave;
+        }
+
+        /**
+         * @return O email como foi informado, sem os espaços das pontas.
+         */
+        public String getEmail() {
+            return chave.toString();
+        }
+
+        /**
+         * @return O email em minúsculas e sem espaços, na forma que deve ser gravada no banco.
+         */
+        public String getEmailNormalizado() {
+            return chave.normalizado();
+        }
+
+        /**
+         * @return O id do usuário, ou -1 enquanto o cadastro não for confirmado.
+         */
+        public int getIdUsuario() {
+            return idUsuario;
+        }
+    }
+
+    /**
+     * Resultado de {@link #reconciliar(Connection)}.
+     */
+    public static final class Reconciliacao {
+        private final int linhasLidas;
+        private final int incluidos;
+        private final int removidos;
+        private final List<String> conflitos;
+
+        Reconciliacao(int linhasLidas, int incluidos, int removidos, List<String> conflitos) {
+            this.linhasLidas = linhasLidas;
+            this.incluidos = incluidos;
+            this.removidos = removidos;
+            this.conflitos = Collections.unmodifiableList(conflitos);
+        }
+
+        public int getLinhasLidas() { return linhasLidas; }
+        public int getIncluidos() { return incluidos; }
+        public int getRemovidos() { return removidos; }
+
+        /**
+         * @return Emails do banco que repetem outro já lido quando maiúsculas e minúsculas são ignoradas.
+         */
+        public List<String> getConflitos() { return conflitos; }
+
+        @Override
+        public String toString() {
+            return "Reconciliacao{linhasLidas=" + linhasLidas + ", incluidos=" + incluidos
+                    + ", removidos=" + removidos + ", conflitos=" + conflitos.size() + '}';
+        }
+    }
+}
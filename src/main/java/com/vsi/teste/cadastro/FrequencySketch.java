@@ -0,0 +1,77 @@
+package com.vsi.teste.cadastro;
+
+/**
+ * Estimativa de frequência de acesso (count-min sketch) usada na admissão do {@link UsuarioCache}.
+ *
+ * Cada long guarda 16 contadores de 4 bits; cada chave é contada em 4 posições e a frequência estimada
+ * é o menor dos 4 contadores (colisões só superestimam). Depois de 10 incrementos por entrada do cache
+ * todos os contadores são divididos por dois, para que a popularidade antiga envelheça.
+ *
+ * Não é thread-safe: cada segmento do cache usa o seu sob o próprio lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEMENTES = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+    private static final long METADE = 0x7777777777777777L; // Zera o bit que desce de um contador para o vizinho
+
+    private final long[] tabela;
+    private final int mascara;
+    private final int limiteAmostras;
+    private int amostras;
+
+    /**
+     * @param capacidade Número de entradas do cache que usa a estimativa.
+     */
+    FrequencySketch(int capacidade) {
+        int tamanho = Integer.highestOneBit(Math.max(8, capacidade) - 1) << 1;
+        this.tabela = new long[tamanho];
+        this.mascara = tamanho - 1;
+        this.limiteAmostras = 10 * Math.max(1, capacidade);
+    }
+
+    /**
+     * @return A frequência estimada da chave, de 0 a 15.
+     */
+    int frequencia(int hash) {
+        int minimo = 15;
+        for (int i = 0; i < SEMENTES.length; i++) {
+            long h = espalhar(hash, i);
+            int contador = (int) ((tabela[(int) h & mascara] >>> deslocamento(h)) & 0xF);
+            minimo = Math.min(minimo, contador);
+        }
+        return minimo;
+    }
+
+    void incrementar(int hash) {
+        boolean incrementou = false;
+        for (int i = 0; i < SEMENTES.length; i++) {
+            long h = espalhar(hash, i);
+            int posicao = (int) h & mascara;
+            int deslocamento = deslocamento(h);
+            if (((tabela[posicao] >>> deslocamento) & 0xF) != 0xF) {
+                tabela[posicao] += 1L << deslocamento;
+                incrementou = true;
+            }
+        }
+        if (incrementou && ++amostras >= limiteAmostras) {
+            envelhecer();
+        }
+    }
+
+    private void envelhecer() {
+        for (int i = 0; i < tabela.length; i++) {
+            tabela[i] = (tabela[i] >>> 1) & METADE;
+        }
+        amostras /= 2;
+    }
+
+    private static long espalhar(int hash, int linha) {
+        long h = (hash + SEMENTES[linha]) * SEMENTES[linha];
+        return h ^ (h >>> 29);
+    }
+
+    private static int deslocamento(long h) {
+        return (int) ((h >>> 40) & 0xF) << 2; // Qual dos 16 contadores do long
+    }
+}
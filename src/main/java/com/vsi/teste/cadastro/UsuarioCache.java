@@ -0,0 +1,419 @@
+package com.vsi.teste.cadastro;
+
+import com.vsi.teste.SqlInjectionPrevention;
+import com.vsi.teste.Usuario;
+
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache read-through das buscas de usuário por email, na frente de
+ * {@link SqlInjectionPrevention#buscarUsuarioPorEmail_Seguro(String)}.
+ *
+ * - Consultas por um {@link ConcurrentHashMap}, sem lock. Falhas simultâneas para o mesmo email
+ *   compartilham uma única consulta ao banco (single-flight): a primeira carrega e as demais esperam o
+ *   mesmo {@link CompletableFuture}.
+ * - Tamanho limitado com a política W-TinyLFU, por segmento: as entradas novas passam por uma janela
+ *   LRU pequena (1%) e, ao sair dela, só entram na área principal (LRU segmentada: período de
+ *   experiência e protegida) se a frequência estimada pelo {@link FrequencySketch} for maior que a da
+ *   vítima. Assim uma varredura de emails únicos não expulsa os emails populares.
+ * - A atualização da ordem LRU em um acerto usa tryLock: com o segmento ocupado ela é descartada,
+ *   para que leituras concorrentes nunca esperem umas pelas outras.
+ * - TTL para usuários encontrados e um TTL menor para emails inexistentes (cache negativo).
+ * - {@link #invalidar(String)} remove a entrada após atualizações e exclusões; um carregamento em
+ *   andamento que for invalidado entrega o valor a quem o aguardava, mas não entra no cache.
+ */
+public class UsuarioCache {
+
+    /**
+     * Busca no banco usada nas falhas do cache.
+     */
+    @FunctionalInterface
+    public interface Carregador {
+        Optional<Usuario> carregar(String email) throws SQLException;
+    }
+
+    /**
+     * Parâmetros do cache.
+     */
+    public static final class Configuracao {
+        private int capacidadeMaxima = 10_000;
+        private long ttlMs = TimeUnit.MINUTES.toMillis(5);
+        private long ttlNegativoMs = TimeUnit.SECONDS.toMillis(30);
+        private int segmentos = 16;
+
+        public static Configuracao padrao() {
+            return new Configuracao();
+        }
+
+        /** Número máximo de emails em cache, somando encontrados e inexistentes. */
+        public Configuracao capacidadeMaxima(int valor) {
+            this.capacidadeMaxima = valor;
+            return this;
+        }
+
+        public Configuracao ttlMs(long valor) {
+            this.ttlMs = valor;
+            return this;
+        }
+
+        /** Por quanto tempo um email inexistente é lembrado. */
+        public Configuracao ttlNegativoMs(long valor) {
+            this.ttlNegativoMs = valor;
+            return this;
+        }
+
+        /** Segmentos com política e lock próprios; arredondado para potência de 2. */
+        public Configuracao segmentos(int valor) {
+            this.segmentos = valor;
+            return this;
+        }
+    }
+
+    private static final byte FORA = 0;
+    private static final byte JANELA = 1;
+    private static final byte EXPERIENCIA = 2;
+    private static final byte PROTEGIDA = 3;
+
+    private final Carregador carregador;
+    private final long ttlNanos;
+    private final long ttlNegativoNanos;
+    private final LongSupplier relogio;
+    private final ConcurrentHashMap<String, No> entradas;
+    private final Segmento[] segmentos;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder acertosNegativos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder carregamentosCompartilhados = new LongAdder();
+    private final LongAdder remocoesPorCapacidade = new LongAdder();
+    private final LongAdder expiracoes = new LongAdder();
+    private final LongAdder invalidacoes = new LongAdder();
+
+    public UsuarioCache(SqlInjectionPrevention busca) {
+        this(busca::buscarUsuarioPorEmail_Seguro, Configuracao.padrao());
+    }
+
+    public UsuarioCache(Carregador carregador, Configuracao configuracao) {
+        this(carregador, configuracao, System::nanoTime);
+    }
+
+    UsuarioCache(Carregador carregador, Configuracao configuracao, LongSupplier relogio) {
+        if (configuracao.capacidadeMaxima < 1 || configuracao.segmentos < 1) {
+            throw new IllegalArgumentException("Capacidade e número de segmentos devem ser positivos.");
+        }
+        if (configuracao.ttlMs <= 0 || configuracao.ttlNegativoMs < 0) {
+            throw new IllegalArgumentException("O TTL deve ser positivo e o TTL negativo não pode ser negativo.");
+        }
+        this.carregador = carregador;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(configuracao.ttlMs);
+        this.ttlNegativoNanos = TimeUnit.MILLISECONDS.toNanos(configuracao.ttlNegativoMs);
+        this.relogio = relogio;
+        this.entradas = new ConcurrentHashMap<>(configuracao.capacidadeMaxima);
+
+        int quantidade = Integer.highestOneBit(Math.min(configuracao.segmentos, configuracao.capacidadeMaxima));
+        int capacidadeSegmento = (configuracao.capacidadeMaxima + quantidade - 1) / quantidade;
+        this.segmentos = new Segmento[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            segmentos[i] = new Segmento(capacidadeSegmento);
+        }
+    }
+
+    /**
+     * @return O usuário com o email, ou vazio se não existir (resultado que também fica em cache).
+     * @throws SQLException Se a consulta ao banco falhar; falhas não ficam em cache.
+     */
+    public Optional<Usuario> buscarPorEmail(String email) throws SQLException {
+        Objects.requireNonNull(email, "email");
+        while (true) {
+            No no = entradas.get(email);
+            if (no == null) {
+                No novo = new No(email);
+                no = entradas.putIfAbsent(email, novo);
+                if (no == null) {
+                    return carregar(novo);
+                }
+            }
+            Optional<Usuario> valor = no.valor;
+            if (valor == null) {
+                carregamentosCompartilhados.increment();
+                return aguardar(no);
+            }
+            if (relogio.getAsLong() - no.expiraEmNanos >= 0) {
+                if (entradas.remove(email, no)) {
+                    expiracoes.increment();
+                    desligar(no);
+                }
+                continue;
+            }
+            acertos.increment();
+            if (valor.isEmpty()) {
+                acertosNegativos.increment();
+            }
+            segmento(no).registrarAcesso(no);
+            return valor;
+        }
+    }
+
+    /**
+     * Descarta o que estiver em cache para o email. Chame depois de gravar a alteração no banco.
+     */
+    public void invalidar(String email) {
+        No no = entradas.remove(email);
+        if (no != null) {
+            invalidacoes.increment();
+            desligar(no);
+        }
+    }
+
+    public void invalidarTudo() {
+        for (String email : entradas.keySet()) {
+            invalidar(email);
+        }
+    }
+
+    /**
+     * @return Emails em cache, incluindo carregamentos em andamento.
+     */
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    public long getAcertos() { return acertos.sum(); }
+
+    /** Acertos que devolveram "usuário inexistente" sem ir ao banco. */
+    public long getAcertosNegativos() { return acertosNegativos.sum(); }
+
+    /** Falhas do cache, cada uma com uma consulta ao banco. */
+    public long getFalhas() { return falhas.sum(); }
+
+    /** Falhas que aguardaram a consulta de outra thread para o mesmo email em vez de fazer a sua. */
+    public long getCarregamentosCompartilhados() { return carregamentosCompartilhados.sum(); }
+
+    public long getRemocoesPorCapacidade() { return remocoesPorCapacidade.sum(); }
+    public long getExpiracoes() { return expiracoes.sum(); }
+    public long getInvalidacoes() { return invalidacoes.sum(); }
+
+    /**
+     * @return Fração das buscas atendidas sem consulta própria ao banco.
+     */
+    public double getTaxaAcerto() {
+        long semConsulta = acertos.sum() + carregamentosCompartilhados.sum();
+        long total = semConsulta + falhas.sum();
+        return total == 0 ? 0 : (double) semConsulta / total;
+    }
+
+    private Optional<Usuario> carregar(No no) throws SQLException {
+        falhas.increment();
+        Optional<Usuario> valor;
+        try {
+            valor = carregador.carregar(no.chave);
+        } catch (SQLException | RuntimeException e) {
+            entradas.remove(no.chave, no);
+            no.futuro.completeExceptionally(e);
+            throw e;
+        }
+        if (valor == null) {
+            valor = Optional.empty();
+        }
+        no.expiraEmNanos = relogio.getAsLong() + (valor.isPresent() ? ttlNanos : ttlNegativoNanos);
+        no.valor = valor; // Publica a entrada pronta: quem ler o valor vê também a expiração
+        no.futuro.complete(valor);
+        segmento(no).admitir(no);
+        return valor;
+    }
+
+    private static Optional<Usuario> aguardar(No no) throws SQLException {
+        try {
+            return no.futuro.join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof SQLException) {
+                throw (SQLException) causa;
+            }
+            throw causa instanceof RuntimeException ? (RuntimeException) causa : e;
+        }
+    }
+
+    private void desligar(No no) {
+        no.removido = true;
+        segmento(no).remover(no);
+    }
+
+    private Segmento segmento(No no) {
+        return segmentos[(no.hash >>> 16) & (segmentos.length - 1)];
+    }
+
+    /**
+     * Entrada do cache e, ao mesmo tempo, nó da lista da política do seu segmento.
+     */
+    private static final class No {
+        final String chave;
+        final int hash;
+        final CompletableFuture<Optional<Usuario>> futuro = new CompletableFuture<>();
+        volatile Optional<Usuario> valor; // null enquanto carrega
+        volatile long expiraEmNanos;
+        volatile boolean removido;
+
+        // Protegidos pelo lock do segmento
+        byte fila = FORA;
+        No anterior;
+        No proximo;
+
+        No(String chave) {
+            this.chave = chave;
+            int h = chave.hashCode() * 0x9E3779B9;
+            this.hash = h ^ (h >>> 15);
+        }
+    }
+
+    /**
+     * Lista duplamente ligada com sentinela: o início é o mais recente e o fim, o próximo a sair.
+     */
+    private static final class Fila {
+        final No sentinela = new No("");
+        int tamanho;
+
+        Fila() {
+            sentinela.anterior = sentinela;
+            sentinela.proximo = sentinela;
+        }
+
+        void adicionarNoInicio(No no, byte fila) {
+            no.fila = fila;
+            no.anterior = sentinela;
+            no.proximo = sentinela.proximo;
+            sentinela.proximo.anterior = no;
+            sentinela.proximo = no;
+            tamanho++;
+        }
+
+        void remover(No no) {
+            no.anterior.proximo = no.proximo;
+            no.proximo.anterior = no.anterior;
+            no.anterior = null;
+            no.proximo = null;
+            no.fila = FORA;
+            tamanho--;
+        }
+
+        No ultimo() {
+            return tamanho == 0 ? null : sentinela.anterior;
+        }
+    }
+
+    private final class Segmento {
+        final ReentrantLock trava = new ReentrantLock();
+        final FrequencySketch frequencias;
+        final Fila janela = new Fila();
+        final Fila experiencia = new Fila();
+        final Fila protegida = new Fila();
+        final int capacidadeJanela;
+        final int capacidadePrincipal;
+        final int capacidadeProtegida;
+
+        Segmento(int capacidade) {
+            this.frequencias = new FrequencySketch(capacidade);
+            this.capacidadeJanela = Math.max(1, capacidade / 100);
+            this.capacidadePrincipal = Math.max(0, capacidade - capacidadeJanela);
+            this.capacidadeProtegida = capacidadePrincipal * 8 / 10;
+        }
+
+        /**
+         * Entrada recém-carregada: vai para a janela; quem sai da janela disputa a área principal.
+         */
+        void admitir(No no) {
+            trava.lock();
+            try {
+                if (no.removido) {
+                    return; // Invalidada durante o carregamento
+                }
+                frequencias.incrementar(no.hash);
+                janela.adicionarNoInicio(no, JANELA);
+                while (janela.tamanho > capacidadeJanela) {
+                    No candidato = janela.ultimo();
+                    janela.remover(candidato);
+                    if (experiencia.tamanho + protegida.tamanho < capacidadePrincipal) {
+                        experiencia.adicionarNoInicio(candidato, EXPERIENCIA);
+                        continue;
+                    }
+                    No vitima = experiencia.ultimo() != null ? experiencia.ultimo() : protegida.ultimo();
+                    if (vitima == null) {
+                        expulsar(candidato);
+                    } else if (expirada(vitima) || frequencias.frequencia(candidato.hash) > frequencias.frequencia(vitima.hash)) {
+                        (vitima.fila == EXPERIENCIA ? experiencia : protegida).remover(vitima);
+                        expulsar(vitima);
+                        experiencia.adicionarNoInicio(candidato, EXPERIENCIA);
+                    } else {
+                        expulsar(candidato);
+                    }
+                }
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        void registrarAcesso(No no) {
+            if (!trava.tryLock()) {
+                return; // Segmento ocupado: a reordenação é dispensável, a leitura não espera
+            }
+            try {
+                if (no.removido || no.fila == FORA) {
+                    return;
+                }
+                frequencias.incrementar(no.hash);
+                if (no.fila == JANELA) {
+                    janela.remover(no);
+                    janela.adicionarNoInicio(no, JANELA);
+                } else if (no.fila == PROTEGIDA) {
+                    protegida.remover(no);
+                    protegida.adicionarNoInicio(no, PROTEGIDA);
+                } else {
+                    experiencia.remover(no);
+                    protegida.adicionarNoInicio(no, PROTEGIDA);
+                    while (protegida.tamanho > capacidadeProtegida) {
+                        No rebaixado = protegida.ultimo();
+                        protegida.remover(rebaixado);
+                        experiencia.adicionarNoInicio(rebaixado, EXPERIENCIA);
+                    }
+                }
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        void remover(No no) {
+            trava.lock();
+            try {
+                if (no.fila == JANELA) {
+                    janela.remover(no);
+                } else if (no.fila == EXPERIENCIA) {
+                    experiencia.remover(no);
+                } else if (no.fila == PROTEGIDA) {
+                    protegida.remover(no);
+                }
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        private boolean expirada(No no) {
+            return relogio.getAsLong() - no.expiraEmNanos >= 0;
+        }
+
+        private void expulsar(No no) {
+            no.removido = true;
+            if (entradas.remove(no.chave, no)) {
+                remocoesPorCapacidade.increment();
+            }
+        }
+    }
+}
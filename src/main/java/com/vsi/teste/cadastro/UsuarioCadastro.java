@@ -0,0 +1,202 @@
+package com.vsi.teste.cadastro;
+
+import com.vsi.teste.Usuario;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cadastro de usuários da Questão 8 sobre a tabela {@code usuarios}, com o {@link EmailRegistry} na frente
+ * do banco: o email é reservado em memória antes do INSERT, então cadastros concorrentes com o mesmo
+ * email são recusados sem ida ao banco. O email é gravado normalizado (minúsculas, sem espaços), para que
+ * a restrição UNIQUE da coluna também valha sem diferenciar maiúsculas de minúsculas.
+ *
+ * O banco continua sendo a fonte da verdade: se outro processo já tiver gravado o email, a violação da
+ * restrição UNIQUE vira a mesma {@link EmailDuplicadoException}.
+ *
+ * Com um {@link UsuarioCache}, cada alteração gravada no banco invalida os emails afetados, inclusive o
+ * "não existe" lembrado para um email que acabou de ser cadastrado.
+ */
+public class UsuarioCadastro {
+
+    private static final String SQL_INSERIR = "INSERT INTO usuarios (nome, email) VALUES (?, ?)";
+    private static final String SQL_EXCLUIR = "DELETE FROM usuarios WHERE id = ?";
+    private static final String SQL_ALTERAR_EMAIL = "UPDATE usuarios SET email = ? WHERE id = ?";
+    // Só a violação de chave única vira email duplicado; NOT NULL, FK e CHECK (23502, 23503, 23513) seguem como SQLException
+    private static final String ESTADO_VIOLACAO_UNICIDADE = "23505";
+
+    private final DataSource dataSource;
+    private final EmailRegistry emails;
+    private final UsuarioCache cache;
+
+    public UsuarioCadastro(DataSource dataSource, EmailRegistry emails) {
+        this(dataSource, emails, null);
+    }
+
+    /**
+     * @param cache Cache das buscas por email a invalidar a cada alteração; {@code null} se não houver.
+     */
+    public UsuarioCadastro(DataSource dataSource, EmailRegistry emails, UsuarioCache cache) {
+        this.dataSource = dataSource;
+        this.emails = emails;
+        this.cache = cache;
+    }
+
+    /**
+     * @return O usuário criado, com o id gerado pelo banco e o email normalizado.
+     * @throws IllegalArgumentException Se o nome estiver vazio ou o email for inválido.
+     * @throws EmailDuplicadoException  Se o email já pertencer a outro usuário.
+     * @throws SQLException             Se ocorrer outro erro no banco; a reserva do email é desfeita.
+     */
+    public Usuario registrar(String nome, String email) throws SQLException {
+        if (nome == null || nome.isBlank()) {
+            throw new IllegalArgumentException("O nome é obrigatório.");
+        }
+        EmailRegistry.Reserva reserva = emails.tentarReservar(email);
+        if (reserva == null) {
+            throw new EmailDuplicadoException(email);
+        }
+        boolean confirmado = false;
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(SQL_INSERIR, Statement.RETURN_GENERATED_KEYS)) {
+            String normalizado = reserva.getEmailNormalizado();
+            ps.setString(1, nome);
+            ps.setString(2, normalizado);
+            ps.executeUpdate();
+            try (ResultSet chaves = ps.getGeneratedKeys()) {
+                if (!chaves.next()) {
+                    throw new SQLException("O banco não devolveu o id do usuário criado.");
+                }
+                int id = chaves.getInt(1);
+                emails.confirmar(reserva, id);
+                confirmado = true;
+                invalidarCache(normalizado);
+                return new Usuario(id, nome, normalizado);
+            }
+        } catch (SQLException e) {
+            if (isViolacaoUnicidade(e)) {
+                throw new EmailDuplicadoException(email, e);
+            }
+            throw e;
+        } finally {
+            if (!confirmado) {
+                emails.liberar(reserva);
+            }
+        }
+    }
+
+    /**
+     * Troca o email do usuário. O novo email é reservado antes do UPDATE; o antigo só é liberado depois.
+     *
+     * @return false se não houver usuário com o id (a reserva do novo email é desfeita).
+     * @throws IllegalArgumentException Se um dos emails for inválido; nada é alterado.
+     * @throws EmailDuplicadoException  Se o novo email já pertencer a outro usuário.
+     */
+    public boolean alterarEmail(int id, String emailAtual, String novoEmail) throws SQLException {
+        String atualNormalizado = EmailRegistry.normalizar(emailAtual); // Valida antes de gravar
+        EmailRegistry.Reserva reserva = emails.tentarReservar(novoEmail);
+        if (reserva == null) {
+            if (emails.buscarIdUsuario(novoEmail) != id) {
+                throw new EmailDuplicadoException(novoEmail);
+            }
+            // O email já é do usuário, mas uma linha antiga trazida pelo reconciliar pode guardá-lo com outra
+            // caixa: grava a forma normalizada mesmo assim
+            String normalizado = EmailRegistry.normalizar(novoEmail);
+            if (!gravarEmail(id, normalizado, novoEmail)) {
+                return false;
+            }
+            if (!normalizado.equals(atualNormalizado)) {
+                emails.remover(emailAtual, id);
+                invalidarCache(atualNormalizado);
+            }
+            invalidarCache(normalizado);
+            return true;
+        }
+        boolean confirmado = false;
+        String normalizado = reserva.getEmailNormalizado();
+        try {
+            if (!gravarEmail(id, normalizado, novoEmail)) {
+                return false;
+            }
+            emails.confirmar(reserva, id);
+            confirmado = true;
+        } finally {
+            if (!confirmado) {
+                emails.liberar(reserva);
+            }
+        }
+        emails.remover(emailAtual, id);
+        invalidarCache(normalizado);
+        invalidarCache(atualNormalizado);
+        return true;
+    }
+
+    /**
+     * @return false se não houver usuário com o id.
+     */
+    private boolean gravarEmail(int id, String normalizado, String novoEmail) throws SQLException {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(SQL_ALTERAR_EMAIL)) {
+            ps.setString(1, normalizado);
+            ps.setInt(2, id);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            if (isViolacaoUnicidade(e)) {
+                throw new EmailDuplicadoException(novoEmail, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Exclui o usuário e libera o email para novos cadastros. A regra da Questão 8 é verificada aqui,
+     * e não apenas na interface.
+     *
+     * @param administrador Se quem pede a exclusão é administrador.
+     * @return false se não houver usuário com o id.
+     * @throws SecurityException        Se quem pede não for administrador.
+     * @throws IllegalArgumentException Se o email for inválido; nada é excluído.
+     */
+    public boolean excluir(int id, String email, boolean administrador) throws SQLException {
+        if (!administrador) {
+            throw new SecurityException("Apenas administradores podem excluir usuários.");
+        }
+        String normalizado = EmailRegistry.normalizar(email); // Valida antes de excluir
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(SQL_EXCLUIR)) {
+            ps.setInt(1, id);
+            if (ps.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        emails.remover(email, id);
+        invalidarCache(normalizado);
+        return true;
+    }
+
+    /**
+     * Alinha o índice de emails com o banco (na inicialização e periodicamente).
+     *
+     * @see EmailRegistry#reconciliar(Connection)
+     */
+    public EmailRegistry.Reconciliacao reconciliar() throws SQLException {
+        try (Connection conexao = dataSource.getConnection()) {
+            return emails.reconciliar(conexao);
+        }
+    }
+
+    private void invalidarCache(String emailNormalizado) {
+        if (cache != null) {
+            cache.invalidar(emailNormalizado);
+        }
+    }
+
+    private static boolean isViolacaoUnicidade(SQLException e) {
+        String estado = e.getSQLState();
+        return ESTADO_VIOLACAO_UNICIDADE.equals(estado);
+    }
+}
@@ -0,0 +1,29 @@
+package com.vsi.teste.decoupling;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versão não bloqueante do contrato de {@link PaymentGateway}: as operações retornam
+ * imediatamente um {@link CompletableFuture}, liberando a thread chamadora durante a
+ * ida e volta ao gateway.
+ */
+public interface AsyncPaymentGateway {
+
+    /**
+     * Processa um pagamento de forma assíncrona.
+     *
+     * @param valor          O valor a ser pago.
+     * @param detalhesCartao Detalhes do cartão (simplificado como String).
+     * @return Futuro com o resultado; completa excepcionalmente se o gateway lançar exceção.
+     */
+    CompletableFuture<PaymentResult> processarPagamento(BigDecimal valor, String detalhesCartao);
+
+    /**
+     * Realiza o estorno de um pagamento de forma assíncrona.
+     *
+     * @param idTransacao O identificador da transação original.
+     * @return Futuro com o resultado do estorno.
+     */
+    CompletableFuture<PaymentResult> estornarPagamento(String idTransacao);
+}
@@ -0,0 +1,61 @@
+package com.vsi.teste.decoupling;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Adaptador que expõe um {@link PaymentGateway} bloqueante (ex: {@link OldPaymentGatewayAdapter})
+ * como {@link AsyncPaymentGateway}.
+ *
+ * Cada chamada roda em uma tarefa do executor informado; por padrão, uma thread virtual por
+ * tarefa ({@link VirtualThreadExecutors}). O adaptador não usa {@code synchronized} nem outro
+ * monitor ao redor da chamada bloqueante, para não prender ("pin") a thread carregadora enquanto
+ * o gateway legado espera pela rede.
+ *
+ * O executor criado pelo construtor padrão é do adaptador e é encerrado em {@link #close()};
+ * um executor injetado continua sendo do chamador.
+ */
+public class BlockingPaymentGatewayAsyncAdapter implements AsyncPaymentGateway, AutoCloseable {
+
+    private final PaymentGateway gateway;
+    private final Executor executor;
+    private final ExecutorService executorProprio;
+
+    public BlockingPaymentGatewayAsyncAdapter(PaymentGateway gateway) {
+        this(gateway, VirtualThreadExecutors.novoExecutorPorTarefa(), true);
+    }
+
+    public BlockingPaymentGatewayAsyncAdapter(PaymentGateway gateway, Executor executor) {
+        this(gateway, executor, false);
+    }
+
+    private BlockingPaymentGatewayAsyncAdapter(PaymentGateway gateway, Executor executor, boolean proprio) {
+        this.gateway = gateway;
+        this.executor = executor;
+        this.executorProprio = proprio ? (ExecutorService) executor : null;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> processarPagamento(BigDecimal valor, String detalhesCartao) {
+        return CompletableFuture.supplyAsync(
+                () -> gateway.processarPagamentoComResultado(valor, detalhesCartao), executor);
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> estornarPagamento(String idTransacao) {
+        return CompletableFuture.supplyAsync(
+                () -> gateway.estornarPagamentoComResultado(idTransacao), executor);
+    }
+
+    /**
+     * Encerra o executor criado pelo adaptador; chamadas já submetidas terminam normalmente.
+     */
+    @Override
+    public void close() {
+        if (executorProprio != null) {
+            executorProprio.shutdown();
+        }
+    }
+}
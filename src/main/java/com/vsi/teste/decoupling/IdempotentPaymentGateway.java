@@ -0,0 +1,232 @@
+package com.vsi.teste.decoupling;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Camada de idempotência na frente de um {@link PaymentGateway}: uma nova tentativa do cliente
+ * com a mesma chave não cobra o cartão duas vezes.
+ *
+ * - O cliente gera a chave de idempotência (ex: um UUID por pedido) e a reenvia em cada tentativa.
+ * - Chamadas concorrentes com a mesma chave são colapsadas em uma única chamada ao gateway
+ *   (single-flight): a primeira executa e as demais esperam o mesmo {@link CompletableFuture}.
+ * - Resultados concluídos ficam em cache por um TTL. O cache é limitado: acima da capacidade, as
+ *   entradas concluídas mais antigas são removidas primeiro (ordem de inserção). Entradas descartadas
+ *   (falhas não lembradas, exceções) saem da fila de inserção em varreduras periódicas, para que a
+ *   fila também fique limitada.
+ * - Reutilizar uma chave com outro valor ou cartão é um erro do cliente e lança exceção.
+ * - Estornos são deduplicados pelo identificador da transação. Só estornos bem-sucedidos ficam em
+ *   cache: um estorno recusado pode ser tentado de novo.
+ *
+ * Se o gateway lançar exceção o resultado é desconhecido; a entrada é descartada e a exceção é
+ * repassada a todos os chamadores que aguardavam.
+ */
+public class IdempotentPaymentGateway {
+
+    public static final int CAPACIDADE_PADRAO = 100_000;
+    public static final long TTL_PADRAO_MS = TimeUnit.HOURS.toMillis(24);
+
+    private static final String PREFIXO_PAGAMENTO = "P:";
+    private static final String PREFIXO_ESTORNO = "E:";
+
+    private final PaymentGateway gateway;
+    private final int capacidadeMaxima;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Queue<Entrada> ordemInsercao = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamanhoFila = new AtomicInteger(); // ConcurrentLinkedQueue.size() é O(n)
+    private final LongAdder chamadasDeduplicadas = new LongAdder();
+
+    public IdempotentPaymentGateway(PaymentGateway gateway) {
+        this(gateway, CAPACIDADE_PADRAO, TTL_PADRAO_MS);
+    }
+
+    /**
+     * @param gateway          O gateway de destino.
+     * @param capacidadeMaxima Número máximo de chaves lembradas.
+     * @param ttlMs            Por quanto tempo um resultado concluído é lembrado.
+     */
+    public IdempotentPaymentGateway(PaymentGateway gateway, int capacidadeMaxima, long ttlMs) {
+        if (capacidadeMaxima < 1 || ttlMs <= 0) {
+            throw new IllegalArgumentException("Capacidade e TTL devem ser positivos.");
+        }
+        this.gateway = gateway;
+        this.capacidadeMaxima = capacidadeMaxima;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /**
+     * Processa o pagamento uma única vez por chave de idempotência.
+     *
+     * @param chaveIdempotencia Chave gerada pelo cliente para este pedido.
+     * @param valor             O valor a ser pago.
+     * @param detalhesCartao    Detalhes do cartão.
+     * @return O resultado da primeira (e única) chamada ao gateway para esta chave.
+     * @throws IllegalArgumentException Se a chave for vazia, se faltar o valor ou o cartão, ou se a chave já tiver
+     *                                  sido usada com outro valor ou cartão.
+     */
+    public PaymentResult processarPagamento(String chaveIdempotencia, BigDecimal valor, String detalhesCartao) {
+        if (chaveIdempotencia == null || chaveIdempotencia.trim().isEmpty()) {
+            throw new IllegalArgumentException("Chave de idempotência não pode ser nula ou vazia.");
+        }
+        if (valor == null || detalhesCartao == null) {
+            throw new IllegalArgumentException("Valor e detalhes do cartão são obrigatórios.");
+        }
+        // O cartão entra só pelo resumo SHA-256: o cache não guarda dados do cartão, e dois cartões
+        // diferentes não colidem como aconteceria com um hashCode de 32 bits
+        String impressao = valor.stripTrailingZeros().toPlainString() + '|' + resumir(detalhesCartao);
+        return executarUmaVez(PREFIXO_PAGAMENTO + chaveIdempotencia, impressao, true,
+                () -> gateway.processarPagamentoComResultado(valor, detalhesCartao));
+    }
+
+    /**
+     * Estorna a transação uma única vez, mesmo com pedidos repetidos ou simultâneos.
+     *
+     * @param idTransacao O identificador devolvido em {@link PaymentResult#getIdTransacao()}.
+     * @return O resultado do estorno.
+     */
+    public PaymentResult estornarPagamento(String idTransacao) {
+        if (idTransacao == null || idTransacao.isEmpty()) {
+            throw new IllegalArgumentException("Identificador da transação não pode ser nulo ou vazio.");
+        }
+        return executarUmaVez(PREFIXO_ESTORNO + idTransacao, "", false,
+                () -> gateway.estornarPagamentoComResultado(idTransacao));
+    }
+
+    /**
+     * @return Número de chaves lembradas (em andamento ou concluídas).
+     */
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * @return Chamadas atendidas pelo cache ou por uma chamada em andamento, sem ir ao gateway.
+     */
+    public long getChamadasDeduplicadas() {
+        return chamadasDeduplicadas.sum();
+    }
+
+    /**
+     * @return Nós na fila de inserção, incluindo os de entradas já descartadas ainda não varridos.
+     */
+    int tamanhoFila() {
+        return tamanhoFila.get();
+    }
+
+    private static String resumir(String detalhesCartao) {
+        try {
+            byte[] resumo = MessageDigest.getInstance("SHA-256").digest(detalhesCartao.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(resumo);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível.", e); // Obrigatório em toda JVM
+        }
+    }
+
+    private PaymentResult executarUmaVez(String chave, String impressao, boolean lembrarFalhas, Supplier<PaymentResult> chamada) {
+        Entrada nova = new Entrada(chave, impressao);
+        while (true) {
+            long agora = System.nanoTime();
+            Entrada existente = entradas.putIfAbsent(chave, nova);
+            if (existente == null) {
+                break;
+            }
+            if (existente.expirada(agora)) {
+                entradas.remove(chave, existente);
+                continue;
+            }
+            if (!existente.impressao.equals(impressao)) {
+                throw new IllegalArgumentException("Chave de idempotência já utilizada com outro valor ou cartão.");
+            }
+            chamadasDeduplicadas.increment();
+            return existente.aguardar();
+        }
+
+        ordemInsercao.add(nova);
+        tamanhoFila.incrementAndGet();
+        removerExcedentes(System.nanoTime());
+        PaymentResult resultado;
+        try {
+            resultado = chamada.get();
+        } catch (RuntimeException e) {
+            entradas.remove(chave, nova);
+            nova.futuro.completeExceptionally(e);
+            throw e;
+        }
+        if (resultado.isSucesso() || lembrarFalhas) {
+            nova.expiraEmNanos = System.nanoTime() + ttlNanos;
+        } else {
+            entradas.remove(chave, nova);
+        }
+        nova.futuro.complete(resultado);
+        return resultado;
+    }
+
+    /**
+     * Remove, a partir da entrada mais antiga, as que expiraram, que já saíram do mapa ou que
+     * excedem a capacidade. Entradas em andamento nunca são removidas por capacidade: acima dela,
+     * a varredura passa por cima delas e continua removendo as concluídas seguintes, para que um
+     * pagamento lento no início da fila não suspenda o limite.
+     *
+     * Quando os nós de entradas descartadas passam a ser maioria na fila, a varredura vai até o fim
+     * para retirá-los; o custo, proporcional à fila, fica amortizado pelas inserções que os criaram.
+     */
+    private void removerExcedentes(long agora) {
+        boolean limparDescartadas = tamanhoFila.get() > 2 * entradas.size() + 16;
+        Iterator<Entrada> iterador = ordemInsercao.iterator();
+        while (iterador.hasNext()) {
+            Entrada maisAntiga = iterador.next();
+            boolean descartada = entradas.get(maisAntiga.chave) != maisAntiga;
+            boolean acimaDaCapacidade = entradas.size() > capacidadeMaxima;
+            if (descartada || maisAntiga.expirada(agora) || (acimaDaCapacidade && maisAntiga.futuro.isDone())) {
+                iterador.remove();
+                if (maisAntiga.foraDaFila.compareAndSet(false, true)) { // Duas varreduras podem remover o mesmo nó
+                    tamanhoFila.decrementAndGet();
+                }
+                entradas.remove(maisAntiga.chave, maisAntiga);
+            } else if (!acimaDaCapacidade && !limparDescartadas) {
+                return;
+            }
+        }
+    }
+
+    private static final class Entrada {
+        final String chave;
+        final String impressao;
+        final CompletableFuture<PaymentResult> futuro = new CompletableFuture<>();
+        final AtomicBoolean foraDaFila = new AtomicBoolean();
+        volatile long expiraEmNanos = Long.MAX_VALUE; // Em andamento: não expira
+
+        Entrada(String chave, String impressao) {
+            this.chave = chave;
+            this.impressao = impressao;
+        }
+
+        boolean expirada(long agora) {
+            long expiraEm = expiraEmNanos;
+            return expiraEm != Long.MAX_VALUE && agora - expiraEm >= 0;
+        }
+
+        PaymentResult aguardar() {
+            try {
+                return futuro.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+    }
+}
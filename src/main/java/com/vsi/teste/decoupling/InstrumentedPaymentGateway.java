@@ -0,0 +1,125 @@
+package com.vsi.teste.decoupling;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorador (Decorator Pattern) que mede um {@link PaymentGateway} sem alterar o seu comportamento.
+ *
+ * Para cada chamada registra a latência em um {@link LatencyHistogram}, incrementa contadores de
+ * sucesso, recusa e erro, e mantém um medidor de chamadas em andamento. Tudo é feito com
+ * {@link LongAdder}: no caminho da compra não há locks nem alocação além da do próprio gateway.
+ *
+ * Para ler as métricas use {@link #snapshot()}.
+ */
+public class InstrumentedPaymentGateway implements PaymentGateway {
+
+    private final PaymentGateway gateway;
+
+    private final LatencyHistogram latenciaPagamentos = new LatencyHistogram();
+    private final LatencyHistogram latenciaEstornos = new LatencyHistogram();
+    private final LongAdder pagamentosAprovados = new LongAdder();
+    private final LongAdder pagamentosRecusados = new LongAdder();
+    private final LongAdder estornosAprovados = new LongAdder();
+    private final LongAdder estornosRecusados = new LongAdder();
+    private final LongAdder erros = new LongAdder();
+    private final LongAdder emAndamento = new LongAdder();
+
+    public InstrumentedPaymentGateway(PaymentGateway gateway) {
+        this.gateway = gateway;
+    }
+
+    @Override
+    public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+        return processarPagamentoComResultado(valor, detalhesCartao).isSucesso();
+    }
+
+    @Override
+    public boolean estornarPagamento(String idTransacao) {
+        return estornarPagamentoComResultado(idTransacao).isSucesso();
+    }
+
+    @Override
+    public PaymentResult processarPagamentoComResultado(BigDecimal valor, String detalhesCartao) {
+        emAndamento.increment();
+        long inicio = System.nanoTime();
+        try {
+            PaymentResult resultado = gateway.processarPagamentoComResultado(valor, detalhesCartao);
+            (resultado.isSucesso() ? pagamentosAprovados : pagamentosRecusados).increment();
+            return resultado;
+        } catch (RuntimeException e) {
+            erros.increment();
+            throw e;
+        } finally {
+            latenciaPagamentos.registrar(System.nanoTime() - inicio);
+            emAndamento.decrement();
+        }
+    }
+
+    @Override
+    public PaymentResult estornarPagamentoComResultado(String idTransacao) {
+        emAndamento.increment();
+        long inicio = System.nanoTime();
+        try {
+            PaymentResult resultado = gateway.estornarPagamentoComResultado(idTransacao);
+            (resultado.isSucesso() ? estornosAprovados : estornosRecusados).increment();
+            return resultado;
+        } catch (RuntimeException e) {
+            erros.increment();
+            throw e;
+        } finally {
+            latenciaEstornos.registrar(System.nanoTime() - inicio);
+            emAndamento.decrement();
+        }
+    }
+
+    /**
+     * @return As métricas acumuladas desde a criação do decorador.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Cópia das métricas em um instante, para exportação (logs, endpoint de métricas etc.).
+     */
+    public static final class Snapshot {
+        private final long pagamentosAprovados;
+        private final long pagamentosRecusados;
+        private final long estornosAprovados;
+        private final long estornosRecusados;
+        private final long erros;
+        private final long emAndamento;
+        private final LatencyHistogram.Snapshot latenciaPagamentos;
+        private final LatencyHistogram.Snapshot latenciaEstornos;
+
+        private Snapshot(InstrumentedPaymentGateway origem) {
+            this.pagamentosAprovados = origem.pagamentosAprovados.sum();
+            this.pagamentosRecusados = origem.pagamentosRecusados.sum();
+            this.estornosAprovados = origem.estornosAprovados.sum();
+            this.estornosRecusados = origem.estornosRecusados.sum();
+            this.erros = origem.erros.sum();
+            this.emAndamento = origem.emAndamento.sum();
+            this.latenciaPagamentos = origem.latenciaPagamentos.snapshot();
+            this.latenciaEstornos = origem.latenciaEstornos.snapshot();
+        }
+
+        public long getPagamentosAprovados() { return pagamentosAprovados; }
+        public long getPagamentosRecusados() { return pagamentosRecusados; }
+        public long getEstornosAprovados() { return estornosAprovados; }
+        public long getEstornosRecusados() { return estornosRecusados; }
+        public long getErros() { return erros; }
+        public long getEmAndamento() { return emAndamento; }
+        public LatencyHistogram.Snapshot getLatenciaPagamentos() { return latenciaPagamentos; }
+        public LatencyHistogram.Snapshot getLatenciaEstornos() { return latenciaEstornos; }
+
+        @Override
+        public String toString() {
+            return "pagamentos{aprovados=" + pagamentosAprovados + ", recusados=" + pagamentosRecusados
+                    + ", latencia[" + latenciaPagamentos + "]}"
+                    + " estornos{aprovados=" + estornosAprovados + ", recusados=" + estornosRecusados
+                    + ", latencia[" + latenciaEstornos + "]}"
+                    + " erros=" + erros + " emAndamento=" + emAndamento;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.vsi.teste.decoupling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências no estilo HDR: baldes log-lineares sobre valores em nanossegundos.
+ *
+ * Cada potência de 2 é dividida em 16 sub-baldes, então qualquer valor é registrado com erro
+ * relativo de no máximo 1/16 (~6%), de 1 ns até {@code Long.MAX_VALUE}, em 960 baldes fixos.
+ * O balde é calculado com {@link Long#numberOfLeadingZeros(long)} e um deslocamento, sem laços.
+ *
+ * Gravar não usa locks: cada balde é um {@link LongAdder}, que espalha os incrementos concorrentes
+ * em células separadas. A leitura é feita por {@link #snapshot()}, que pode ser um pouco
+ * inconsistente com gravações simultâneas, o que é aceitável para métricas.
+ */
+public final class LatencyHistogram {
+
+    private static final int BITS_SUB_BALDE = 4;
+    private static final int SUB_BALDES = 1 << BITS_SUB_BALDE;
+    private static final int BALDES = (64 - BITS_SUB_BALDE) * SUB_BALDES;
+
+    private final LongAdder[] contagens = new LongAdder[BALDES];
+    private final LongAdder soma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BALDES; i++) {
+            contagens[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos A latência medida; valores negativos são tratados como zero.
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        contagens[indice(valor)].increment();
+        soma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    public Snapshot snapshot() {
+        long[] copia = new long[BALDES];
+        long total = 0;
+        for (int i = 0; i < BALDES; i++) {
+            copia[i] = contagens[i].sum();
+            total += copia[i];
+        }
+        return new Snapshot(copia, total, soma.sum(), maximo.get());
+    }
+
+    static int indice(long valor) {
+        if (valor < SUB_BALDES) {
+            return (int) valor;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(valor);
+        int deslocamento = magnitude - BITS_SUB_BALDE;
+        return (deslocamento + 1) * SUB_BALDES + (int) ((valor >>> deslocamento) & (SUB_BALDES - 1));
+    }
+
+    /**
+     * @return O maior valor que cai no balde (o valor reportado para os percentis, como no HDR).
+     */
+    static long limiteSuperior(int indice) {
+        if (indice < SUB_BALDES) {
+            return indice;
+        }
+        int deslocamento = indice / SUB_BALDES - 1;
+        long inicio = (long) (SUB_BALDES + indice % SUB_BALDES) << deslocamento;
+        return inicio + (1L << deslocamento) - 1;
+    }
+
+    /**
+     * Cópia imutável das contagens em um instante.
+     */
+    public static final class Snapshot {
+        private final long[] contagens;
+        private final long total;
+        private final long soma;
+        private final long maximo;
+
+        private Snapshot(long[] contagens, long total, long soma, long maximo) {
+            this.contagens = contagens;
+            this.total = total;
+            this.soma = soma;
+            this.maximo = maximo;
+        }
+
+        public long getTotal() { return total; }
+        public long getMaximoNanos() { return maximo; }
+
+        public long getMediaNanos() {
+            return total == 0 ? 0 : soma / total;
+        }
+
+        /**
+         * @param percentil Entre 0 e 100 (ex: 99.9).
+         * @return A latência em nanossegundos abaixo da qual estão {@code percentil}% das amostras, ou 0 se vazio.
+         */
+        public long percentilNanos(double percentil) {
+            if (percentil < 0 || percentil > 100) {
+                throw new IllegalArgumentException("Percentil deve estar entre 0 e 100: " + percentil);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long posicao = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+            long acumulado = 0;
+            for (int i = 0; i < contagens.length; i++) {
+                acumulado += contagens[i];
+                if (acumulado >= posicao) {
+                    return Math.min(limiteSuperior(i), maximo);
+                }
+            }
+            return maximo;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("total=%d media=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+                    total, ms(getMediaNanos()), ms(percentilNanos(50)), ms(percentilNanos(90)),
+                    ms(percentilNanos(99)), ms(percentilNanos(99.9)), ms(maximo));
+        }
+
+        private static double ms(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -8,15 +8,26 @@ import java.math.BigDecimal;
  */
 public class OldPaymentGateway {
 
+    // Onde os eventos são registrados (antes: System.out direto, um ponto de contenção sob carga)
+    private final PaymentEventSink eventos;
+
+    public OldPaymentGateway() {
+        this(PaymentEventSink.console());
+    }
+
+    public OldPaymentGateway(PaymentEventSink eventos) {
+        this.eventos = eventos;
+    }
+
     public String executeTransaction(double amount, String cardInfo) {
-        System.out.println("[OldGateway] Executando transação de " + amount + " com cartão " + cardInfo);
+        eventos.registrar(PaymentEventSink.Evento.TRANSACAO_LEGADA_EXECUTADA, amount, cardInfo);
         // Lógica complexa e específica da biblioteca antiga...
         boolean success = Math.random() > 0.2; // Simula sucesso/falha
         return success ? "TXN_OLD_" + System.currentTimeMillis() : "ERROR_OLD";
     }
 
     public int refundTransaction(String transactionId) {
-        System.out.println("[OldGateway] Estornando transação " + transactionId);
+        eventos.registrar(PaymentEventSink.Evento.ESTORNO_LEGADO_SOLICITADO, 0, transactionId);
         // Lógica de estorno da biblioteca antiga...
         boolean success = transactionId != null && transactionId.startsWith("TXN_OLD_");
         return success ? 1 : 0; // Retorna código de status (1=sucesso, 0=falha)
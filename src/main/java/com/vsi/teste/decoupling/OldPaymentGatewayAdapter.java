@@ -20,20 +20,35 @@ public class OldPaymentGatewayAdapter implements PaymentGateway {
 
     @Override
     public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+        return processarPagamentoComResultado(valor, detalhesCartao).isSucesso();
+    }
+
+    @Override
+    public boolean estornarPagamento(String idTransacao) {
+        return estornarPagamentoComResultado(idTransacao).isSucesso();
+    }
+
+    @Override
+    public PaymentResult processarPagamentoComResultado(BigDecimal valor, String detalhesCartao) {
         // Adaptação:
         // 1. Converte BigDecimal para double (pode exigir tratamento de precisão)
         // 2. Chama o método específico da biblioteca antiga (executeTransaction)
-        // 3. Traduz o resultado da biblioteca antiga (String) para o esperado pela interface (boolean)
+        // 3. Traduz o resultado da biblioteca antiga (String) para o esperado pela interface,
+        //    preservando o identificador da transação ("TXN_OLD_...") para estornos
         String result = oldGateway.executeTransaction(valor.doubleValue(), detalhesCartao);
-        return !result.startsWith("ERROR"); // Considera sucesso se não começar com "ERROR"
+        return result.startsWith("ERROR") // Considera sucesso se não começar com "ERROR"
+                ? PaymentResult.falha(result)
+                : PaymentResult.sucesso(result);
     }
 
     @Override
-    public boolean estornarPagamento(String idTransacao) {
+    public PaymentResult estornarPagamentoComResultado(String idTransacao) {
         // Adaptação:
         // 1. Chama o método específico da biblioteca antiga (refundTransaction)
-        // 2. Traduz o resultado da biblioteca antiga (int) para o esperado pela interface (boolean)
+        // 2. Traduz o resultado da biblioteca antiga (int) para o esperado pela interface
         int status = oldGateway.refundTransaction(idTransacao);
-        return status == 1; // Considera sucesso se o status for 1
+        return status == 1 // Considera sucesso se o status for 1
+                ? PaymentResult.sucesso(idTransacao)
+                : PaymentResult.falha("Estorno recusado pela biblioteca legada (status " + status + ").");
     }
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+package com.vsi.teste.decoupling;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estágio de micro-lotes na frente de um {@link PaymentGateway}.
+ *
+ * As compras entram em uma fila limitada; uma thread dedicada junta até {@code tamanhoMaximoLote}
+ * itens, ou o que chegar em até {@code esperaMaximaMs} após o primeiro item do lote, e os envia
+ * em uma única chamada a {@link PaymentGateway#processarPagamentosEmLote(List)}. Para gateways
+ * sem suporte a lote, o método padrão da interface processa item a item.
+ *
+ * Cada chamador recebe o seu próprio {@link CompletableFuture}. Quando a fila está cheia o
+ * chamador é bloqueado (back-pressure) por até {@code timeoutEnfileiramentoMs}; depois disso a
+ * compra é recusada com {@link RejectedExecutionException}.
+ */
+public class PaymentBatcher implements AsyncPaymentGateway, AutoCloseable {
+
+    private final PaymentGateway gateway;
+    private final int tamanhoMaximoLote;
+    private final long esperaMaximaNanos;
+    private final long timeoutEnfileiramentoMs;
+    private final BlockingQueue<Pendente> fila;
+    private final Thread despachante;
+    private final ExecutorService executorEstornos = VirtualThreadExecutors.novoExecutorPorTarefa();
+    private volatile boolean encerrado;
+
+    /**
+     * @param gateway                 O gateway de destino.
+     * @param tamanhoMaximoLote       N: máximo de itens por chamada ao gateway.
+     * @param esperaMaximaMs          T: tempo máximo que o primeiro item de um lote espera por companhia.
+     * @param capacidadeFila          Itens aguardando envio antes de aplicar back-pressure.
+     * @param timeoutEnfileiramentoMs Quanto tempo um chamador espera por espaço na fila cheia.
+     */
+    public PaymentBatcher(PaymentGateway gateway, int tamanhoMaximoLote, long esperaMaximaMs,
+                          int capacidadeFila, long timeoutEnfileiramentoMs) {
+        if (tamanhoMaximoLote < 1 || capacidadeFila < 1 || esperaMaximaMs < 0) {
+            throw new IllegalArgumentException("Tamanho do lote e capacidade da fila devem ser positivos.");
+        }
+        this.gateway = gateway;
+        this.tamanhoMaximoLote = tamanhoMaximoLote;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        this.timeoutEnfileiramentoMs = timeoutEnfileiramentoMs;
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        this.despachante = new Thread(this::despachar, "payment-batcher");
+        this.despachante.setDaemon(true);
+        this.despachante.start();
+    }
+
+    /**
+     * Enfileira a compra para o próximo lote.
+     *
+     * @return Futuro com o resultado desta compra específica.
+     * @throws RejectedExecutionException Se a fila continuar cheia após o timeout, ou se o estágio estiver encerrado.
+     */
+    @Override
+    public CompletableFuture<PaymentResult> processarPagamento(BigDecimal valor, String detalhesCartao) {
+        if (encerrado) {
+            throw new RejectedExecutionException("O estágio de lotes foi encerrado.");
+        }
+        Pendente pendente = new Pendente(new PaymentRequest(valor, detalhesCartao));
+        try {
+            if (!fila.offer(pendente, timeoutEnfileiramentoMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Fila de pagamentos cheia (" + fila.size() + " itens).");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrompido aguardando espaço na fila de pagamentos.", e);
+        }
+        // O close() pode ter chegado entre a verificação acima e o offer, e o despachante já ter feito a
+        // última drenagem. Se o item ainda estiver na fila, é retirado e recusado aqui; se não estiver,
+        // o despachante já o pegou e vai completá-lo.
+        if (encerrado && fila.remove(pendente)) {
+            throw new RejectedExecutionException("O estágio de lotes foi encerrado.");
+        }
+        return pendente.resultado;
+    }
+
+    /**
+     * Estornos não são agrupados: são raros e não devem esperar a formação de um lote.
+     */
+    @Override
+    public CompletableFuture<PaymentResult> estornarPagamento(String idTransacao) {
+        return CompletableFuture.supplyAsync(() -> gateway.estornarPagamentoComResultado(idTransacao), executorEstornos);
+    }
+
+    /**
+     * @return Itens aguardando o próximo lote.
+     */
+    public int tamanhoFila() {
+        return fila.size();
+    }
+
+    /**
+     * Para de aceitar compras, envia o que já estava na fila e espera a thread despachante terminar.
+     * O despachante não é interrompido: um lote já em envio ao gateway termina normalmente.
+     * Se a thread que fecha for interrompida, o despachante termina de esvaziar a fila sozinho.
+     */
+    @Override
+    public void close() {
+        encerrado = true;
+        executorEstornos.shutdown();
+        try {
+            despachante.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void despachar() {
+        try {
+            despacharAteEncerrar();
+        } finally {
+            // Também se o laço terminar por um erro inesperado: novas compras são recusadas e as que
+            // ficaram na fila não serão enviadas
+            encerrado = true;
+            Pendente atrasado;
+            while ((atrasado = fila.poll()) != null) {
+                atrasado.resultado.completeExceptionally(new RejectedExecutionException("O estágio de lotes foi encerrado."));
+            }
+        }
+    }
+
+    private void despacharAteEncerrar() {
+        List<Pendente> lote = new ArrayList<>(tamanhoMaximoLote);
+        while (!encerrado || !fila.isEmpty()) {
+            try {
+                // A espera curta é o que faz o despachante perceber o encerrado com a fila vazia
+                Pendente primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                long prazo = System.nanoTime() + esperaMaximaNanos;
+                while (lote.size() < tamanhoMaximoLote && !encerrado) {
+                    // Primeiro drena o que já está na fila, sem esperar
+                    if (fila.drainTo(lote, tamanhoMaximoLote - lote.size()) > 0) {
+                        continue;
+                    }
+                    long restante = prazo - System.nanoTime();
+                    if (restante <= 0) {
+                        break;
+                    }
+                    Pendente proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (proximo == null) {
+                        break;
+                    }
+                    lote.add(proximo);
+                }
+            } catch (InterruptedException e) {
+                // A thread é privada e o close() não a interrompe: envia o lote já formado e segue
+                Thread.interrupted();
+            }
+            if (encerrado) {
+                fila.drainTo(lote, tamanhoMaximoLote - lote.size()); // Sem esperar companhia
+            }
+            if (!lote.isEmpty()) {
+                enviar(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private void enviar(List<Pendente> lote) {
+        List<PaymentRequest> pagamentos = new ArrayList<>(lote.size());
+        for (Pendente pendente : lote) {
+            pagamentos.add(pendente.pagamento);
+        }
+        try {
+            List<PaymentResult> resultados = gateway.processarPagamentosEmLote(pagamentos);
+            if (resultados.size() != lote.size()) {
+                throw new IllegalStateException("O gateway devolveu " + resultados.size()
+                        + " resultados para um lote de " + lote.size() + " pagamentos.");
+            }
+            for (int i = 0; i < lote.size(); i++) {
+                lote.get(i).resultado.complete(resultados.get(i));
+            }
+        } catch (Throwable e) {
+            // Inclusive Errors (ex: um StackOverflowError no gateway): o lote falha, mas o despachante
+            // continua atendendo os próximos em vez de morrer com os futuros pendentes
+            for (Pendente pendente : lote) {
+                pendente.resultado.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Pendente {
+        final PaymentRequest pagamento;
+        final CompletableFuture<PaymentResult> resultado = new CompletableFuture<>();
+
+        Pendente(PaymentRequest pagamento) {
+            this.pagamento = pagamento;
+        }
+    }
+}
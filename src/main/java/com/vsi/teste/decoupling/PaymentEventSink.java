@@ -0,0 +1,58 @@
+package com.vsi.teste.decoupling;
+
+/**
+ * Destino dos eventos de pagamento que antes eram impressos diretamente com {@code System.out}.
+ *
+ * Os argumentos são primitivos ou referências já existentes, para que a implementação decida
+ * se e quando formatar uma mensagem: {@link #NENHUM} não aloca nada, e uma implementação de
+ * produção pode enfileirar o evento para um logger assíncrono em vez de disputar o lock do
+ * {@code PrintStream} em cada compra.
+ */
+@FunctionalInterface
+public interface PaymentEventSink {
+
+    enum Evento {
+        COMPRA_INICIADA,
+        COMPRA_APROVADA,
+        COMPRA_RECUSADA,
+        TRANSACAO_LEGADA_EXECUTADA,
+        ESTORNO_LEGADO_SOLICITADO
+    }
+
+    /**
+     * @param evento     O tipo do evento.
+     * @param valor      O valor envolvido, ou 0 quando não se aplica.
+     * @param referencia Cartão ou identificador da transação, conforme o evento (pode ser null).
+     */
+    void registrar(Evento evento, double valor, String referencia);
+
+    /** Descarta todos os eventos. */
+    PaymentEventSink NENHUM = (evento, valor, referencia) -> { };
+
+    /**
+     * @return Um destino que imprime as mesmas mensagens de antes no console.
+     */
+    static PaymentEventSink console() {
+        return (evento, valor, referencia) -> {
+            switch (evento) {
+                case COMPRA_INICIADA:
+                    System.out.println("Processando compra de " + valor + "...");
+                    break;
+                case COMPRA_APROVADA:
+                    System.out.println("Compra realizada com sucesso!");
+                    break;
+                case COMPRA_RECUSADA:
+                    System.out.println("Falha ao processar a compra.");
+                    break;
+                case TRANSACAO_LEGADA_EXECUTADA:
+                    System.out.println("[OldGateway] Executando transação de " + valor + " com cartão " + referencia);
+                    break;
+                case ESTORNO_LEGADO_SOLICITADO:
+                    System.out.println("[OldGateway] Estornando transação " + referencia);
+                    break;
+                default:
+                    break;
+            }
+        };
+    }
+}
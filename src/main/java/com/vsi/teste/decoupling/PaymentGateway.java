@@ -1,6 +1,8 @@
 package com.vsi.teste.decoupling;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Interface que define o contrato para um Gateway de Pagamento.
@@ -26,4 +28,47 @@ public interface PaymentGateway {
      * @return true se o estorno foi bem-sucedido, false caso contrário.
      */
     boolean estornarPagamento(String idTransacao);
-}
\ No newline at end of file
+
+    /**
+     * Processa um pagamento preservando o identificador da transação.
+     *
+     * A implementação padrão só conhece o boolean de {@link #processarPagamento(BigDecimal, String)};
+     * gateways que recebem o identificador do provedor devem sobrescrever este método, pois sem ele
+     * não é possível estornar nem deduplicar o pagamento depois.
+     *
+     * @param valor          O valor a ser pago.
+     * @param detalhesCartao Detalhes do cartão (simplificado como String).
+     * @return O resultado, com o identificador da transação quando o gateway o informar.
+     */
+    default PaymentResult processarPagamentoComResultado(BigDecimal valor, String detalhesCartao) {
+        return PaymentResult.de(processarPagamento(valor, detalhesCartao));
+    }
+
+    /**
+     * Realiza o estorno devolvendo um {@link PaymentResult} em vez de um boolean.
+     *
+     * @param idTransacao O identificador da transação original.
+     * @return O resultado do estorno.
+     */
+    default PaymentResult estornarPagamentoComResultado(String idTransacao) {
+        return PaymentResult.de(estornarPagamento(idTransacao));
+    }
+
+    /**
+     * Processa vários pagamentos em uma única chamada ao gateway.
+     *
+     * A implementação padrão é o fallback para gateways que não suportam lote (como a
+     * biblioteca legada): processa um pagamento por vez. Gateways cujo custo é dominado
+     * pela chamada, e não pelo item, devem sobrescrever este método.
+     *
+     * @param pagamentos Os pagamentos, em ordem.
+     * @return Um resultado por pagamento, na mesma ordem da entrada.
+     */
+    default List<PaymentResult> processarPagamentosEmLote(List<PaymentRequest> pagamentos) {
+        List<PaymentResult> resultados = new ArrayList<>(pagamentos.size());
+        for (PaymentRequest pagamento : pagamentos) {
+            resultados.add(processarPagamentoComResultado(pagamento.getValor(), pagamento.getDetalhesCartao()));
+        }
+        return resultados;
+    }
+}
@@ -1,32 +1,106 @@
 package com.vsi.teste.decoupling;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Classe da aplicação que utiliza um PaymentGateway para processar pagamentos.
  * Esta classe depende da *interface* PaymentGateway, não de uma implementação específica.
+ *
+ * Criado só com o {@link PaymentGateway}, o processador monta o próprio adaptador assíncrono
+ * e o encerra em {@link #close()}; um {@link AsyncPaymentGateway} injetado é do chamador.
  */
-public class PaymentProcessor {
+public class PaymentProcessor implements AutoCloseable {
 
     // Depende da abstração (Interface)
     private final PaymentGateway paymentGateway;
+    private final AsyncPaymentGateway asyncPaymentGateway;
+    // Evita cobrança dupla quando o cliente reenvia o mesmo pedido
+    private final IdempotentPaymentGateway idempotentPaymentGateway;
+    private final PaymentEventSink eventos;
+    // Adaptador criado pelo construtor de um argumento: o executor dele é deste processador
+    private final BlockingPaymentGatewayAsyncAdapter adaptadorProprio;
 
     // Injeção de Dependência (via construtor)
     // Recebe qualquer implementação de PaymentGateway
+    // O caminho assíncrono executa o gateway bloqueante em threads virtuais (uma por compra)
     public PaymentProcessor(PaymentGateway paymentGateway) {
+        this(paymentGateway, new BlockingPaymentGatewayAsyncAdapter(paymentGateway), PaymentEventSink.console(), true);
+    }
+
+    public PaymentProcessor(PaymentGateway paymentGateway, AsyncPaymentGateway asyncPaymentGateway) {
+        this(paymentGateway, asyncPaymentGateway, PaymentEventSink.console());
+    }
+
+    // Em produção, injete um PaymentEventSink que não bloqueie a thread da compra
+    public PaymentProcessor(PaymentGateway paymentGateway, AsyncPaymentGateway asyncPaymentGateway, PaymentEventSink eventos) {
+        this(paymentGateway, asyncPaymentGateway, eventos, false);
+    }
+
+    private PaymentProcessor(PaymentGateway paymentGateway, AsyncPaymentGateway asyncPaymentGateway,
+                             PaymentEventSink eventos, boolean adaptadorProprio) {
         this.paymentGateway = paymentGateway;
+        this.asyncPaymentGateway = asyncPaymentGateway;
+        this.idempotentPaymentGateway = new IdempotentPaymentGateway(paymentGateway);
+        this.eventos = eventos;
+        this.adaptadorProprio = adaptadorProprio ? (BlockingPaymentGatewayAsyncAdapter) asyncPaymentGateway : null;
+    }
+
+    /**
+     * Encerra o adaptador assíncrono criado por {@link #PaymentProcessor(PaymentGateway)}.
+     */
+    @Override
+    public void close() {
+        if (adaptadorProprio != null) {
+            adaptadorProprio.close();
+        }
     }
 
     public void realizarCompra(BigDecimal valor, String cartao) {
-        System.out.println("Processando compra de " + valor + "...");
+        eventos.registrar(PaymentEventSink.Evento.COMPRA_INICIADA, valor.doubleValue(), null);
         boolean sucesso = paymentGateway.processarPagamento(valor, cartao);
         if (sucesso) {
-            System.out.println("Compra realizada com sucesso!");
+            eventos.registrar(PaymentEventSink.Evento.COMPRA_APROVADA, valor.doubleValue(), null);
         } else {
-            System.out.println("Falha ao processar a compra.");
+            eventos.registrar(PaymentEventSink.Evento.COMPRA_RECUSADA, valor.doubleValue(), null);
         }
     }
 
+    /**
+     * Versão não bloqueante de {@link #realizarCompra(BigDecimal, String)}: a thread chamadora
+     * não espera a ida e volta ao gateway.
+     *
+     * @param valor  O valor da compra.
+     * @param cartao Detalhes do cartão.
+     * @return Futuro com o resultado do pagamento.
+     */
+    public CompletableFuture<PaymentResult> realizarCompraAsync(BigDecimal valor, String cartao) {
+        return asyncPaymentGateway.processarPagamento(valor, cartao);
+    }
+
+    /**
+     * Versão idempotente de {@link #realizarCompra(BigDecimal, String)}: reenvios do cliente com a
+     * mesma chave devolvem o resultado da primeira tentativa, sem nova cobrança.
+     *
+     * @param chaveIdempotencia Chave gerada pelo cliente para este pedido.
+     * @param valor             O valor da compra.
+     * @param cartao            Detalhes do cartão.
+     * @return O resultado, com o identificador da transação para um eventual estorno.
+     */
+    public PaymentResult realizarCompra(String chaveIdempotencia, BigDecimal valor, String cartao) {
+        return idempotentPaymentGateway.processarPagamento(chaveIdempotencia, valor, cartao);
+    }
+
+    /**
+     * Estorna uma compra; pedidos repetidos para a mesma transação resultam em um único estorno.
+     *
+     * @param idTransacao O identificador devolvido por {@link #realizarCompra(String, BigDecimal, String)}.
+     * @return O resultado do estorno.
+     */
+    public PaymentResult estornarCompra(String idTransacao) {
+        return idempotentPaymentGateway.estornarPagamento(idTransacao);
+    }
+
     // --- Exemplo de Uso (Opcional) ---
     // public static void main(String[] args) {
     //     // 1. Criar a instância da biblioteca legada
@@ -0,0 +1,25 @@
+package com.vsi.teste.decoupling;
+
+import java.math.BigDecimal;
+
+/**
+ * Um pagamento a ser enviado em lote para {@link PaymentGateway#processarPagamentosEmLote(java.util.List)}.
+ */
+public final class PaymentRequest {
+
+    private final BigDecimal valor;
+    private final String detalhesCartao;
+
+    public PaymentRequest(BigDecimal valor, String detalhesCartao) {
+        this.valor = valor;
+        this.detalhesCartao = detalhesCartao;
+    }
+
+    public BigDecimal getValor() { return valor; }
+    public String getDetalhesCartao() { return detalhesCartao; }
+
+    @Override
+    public String toString() {
+        return "PaymentRequest{valor=" + valor + '}'; // Não expõe os dados do cartão em logs
+    }
+}
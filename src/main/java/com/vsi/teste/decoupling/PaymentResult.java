@@ -0,0 +1,48 @@
+package com.vsi.teste.decoupling;
+
+/**
+ * Resultado de uma operação em um gateway de pagamento.
+ * Diferente do boolean de {@link PaymentGateway}, preserva o identificador da transação
+ * e uma mensagem de falha.
+ */
+public final class PaymentResult {
+
+    private final boolean sucesso;
+    private final String idTransacao;
+    private final String mensagem;
+
+    private PaymentResult(boolean sucesso, String idTransacao, String mensagem) {
+        this.sucesso = sucesso;
+        this.idTransacao = idTransacao;
+        this.mensagem = mensagem;
+    }
+
+    /**
+     * @param idTransacao Identificador da transação no gateway (pode ser null se o gateway não o informar).
+     */
+    public static PaymentResult sucesso(String idTransacao) {
+        return new PaymentResult(true, idTransacao, null);
+    }
+
+    public static PaymentResult falha(String mensagem) {
+        return new PaymentResult(false, null, mensagem);
+    }
+
+    /**
+     * Converte o resultado booleano de um {@link PaymentGateway} (sem identificador de transação).
+     */
+    public static PaymentResult de(boolean sucesso) {
+        return sucesso ? sucesso(null) : falha("Operação recusada pelo gateway.");
+    }
+
+    public boolean isSucesso() { return sucesso; }
+    public String getIdTransacao() { return idTransacao; }
+    public String getMensagem() { return mensagem; }
+
+    @Override
+    public String toString() {
+        return sucesso
+                ? "PaymentResult{sucesso, idTransacao='" + idTransacao + "'}"
+                : "PaymentResult{falha, mensagem='" + mensagem + "'}";
+    }
+}
@@ -0,0 +1,403 @@
+package com.vsi.teste.decoupling;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorador (Decorator Pattern) que protege a aplicação de um {@link PaymentGateway} degradado.
+ *
+ * Cada chamada passa por:
+ * 1. Bulkhead: um {@link Semaphore} limita as chamadas simultâneas ao gateway; acima do limite a
+ *    chamada é recusada na hora (load shedding), em vez de prender mais uma thread.
+ * 2. Circuit breaker: uma janela deslizante de falhas por tempo, sem locks. Quando a taxa de falhas
+ *    passa do limiar, o circuito abre e as chamadas falham imediatamente; depois da espera, uma única
+ *    chamada de sonda decide se o circuito fecha de novo.
+ * 3. Timeout por chamada: a chamada roda em uma thread (virtual, quando disponível) e o chamador
+ *    desiste após o timeout. Timeouts contam como falha no circuito.
+ * 4. Retentativas com jitter apenas para estornos, que são idempotentes. Pagamentos nunca são
+ *    repetidos aqui: um pagamento que estourou o timeout pode ter sido cobrado.
+ *
+ * Chamadas recusadas (bulkhead ou circuito aberto) e timeouts devolvem uma falha, como uma recusa
+ * do gateway; a mensagem do {@link PaymentResult} indica o motivo.
+ */
+public class ResilientPaymentGateway implements PaymentGateway, AutoCloseable {
+
+    public enum EstadoCircuito {
+        FECHADO, ABERTO, SEMI_ABERTO
+    }
+
+    public static final class Configuracao {
+        private long timeoutChamadaMs = 2_000;
+        private int maximoChamadasSimultaneas = 16;
+        private long tamanhoJanelaMs = 10_000;
+        private int baldesJanela = 10;
+        private int minimoChamadasJanela = 20;
+        private int limiarFalhasPercentual = 50;
+        private long esperaCircuitoAbertoMs = 5_000;
+        private int tentativasEstorno = 3;
+        private long backoffBaseMs = 50;
+        private long backoffMaximoMs = 1_000;
+
+        public static Configuracao padrao() {
+            return new Configuracao();
+        }
+
+        /** 0 desliga o timeout: a chamada roda na própria thread do chamador. */
+        public Configuracao timeoutChamadaMs(long valor) {
+            this.timeoutChamadaMs = valor;
+            return this;
+        }
+
+        public Configuracao maximoChamadasSimultaneas(int valor) {
+            this.maximoChamadasSimultaneas = valor;
+            return this;
+        }
+
+        /** Duração da janela deslizante e em quantos baldes ela é dividida. */
+        public Configuracao janela(long tamanhoMs, int baldes) {
+            this.tamanhoJanelaMs = tamanhoMs;
+            this.baldesJanela = baldes;
+            return this;
+        }
+
+        /** Abaixo deste número de chamadas na janela o circuito não abre, qualquer que seja a taxa. */
+        public Configuracao minimoChamadasJanela(int valor) {
+            this.minimoChamadasJanela = valor;
+            return this;
+        }
+
+        public Configuracao limiarFalhasPercentual(int valor) {
+            this.limiarFalhasPercentual = valor;
+            return this;
+        }
+
+        public Configuracao esperaCircuitoAbertoMs(long valor) {
+            this.esperaCircuitoAbertoMs = valor;
+            return this;
+        }
+
+        /** Total de tentativas de um estorno, incluindo a primeira. */
+        public Configuracao tentativasEstorno(int valor) {
+            this.tentativasEstorno = valor;
+            return this;
+        }
+
+        /** Backoff exponencial com "full jitter": espera aleatória entre 0 e min(maximo, base * 2^n). */
+        public Configuracao backoff(long baseMs, long maximoMs) {
+            this.backoffBaseMs = baseMs;
+            this.backoffMaximoMs = maximoMs;
+            return this;
+        }
+    }
+
+    private static final PaymentResult CIRCUITO_ABERTO = PaymentResult.falha("Circuito aberto: gateway de pagamento indisponível.");
+    private static final PaymentResult BULKHEAD_CHEIO = PaymentResult.falha("Limite de chamadas simultâneas ao gateway atingido.");
+    private static final PaymentResult TIMEOUT = PaymentResult.falha("Tempo limite da chamada ao gateway esgotado.");
+
+    private final PaymentGateway gateway;
+    private final Configuracao configuracao;
+    private final ExecutorService executor;
+    private final Semaphore bulkhead;
+    private final JanelaFalhas janela;
+    private final long origemNanos = System.nanoTime();
+
+    private final AtomicReference<EstadoCircuito> estado = new AtomicReference<>(EstadoCircuito.FECHADO);
+    private volatile long abertoAteNanos;
+
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejeitadasPorCircuito = new LongAdder();
+    private final LongAdder rejeitadasPorBulkhead = new LongAdder();
+    private final LongAdder retentativas = new LongAdder();
+
+    public ResilientPaymentGateway(PaymentGateway gateway) {
+        this(gateway, Configuracao.padrao());
+    }
+
+    public ResilientPaymentGateway(PaymentGateway gateway, Configuracao configuracao) {
+        this(gateway, configuracao, configuracao.timeoutChamadaMs > 0 ? VirtualThreadExecutors.novoExecutorPorTarefa() : null);
+    }
+
+    /**
+     * @param executor Onde as chamadas com timeout rodam (encerrado no {@link #close()}); ignorado sem timeout.
+     */
+    ResilientPaymentGateway(PaymentGateway gateway, Configuracao configuracao, ExecutorService executor) {
+        if (configuracao.maximoChamadasSimultaneas < 1 || configuracao.baldesJanela < 1 || configuracao.tentativasEstorno < 1) {
+            throw new IllegalArgumentException("Limite de chamadas, baldes da janela e tentativas devem ser positivos.");
+        }
+        this.gateway = gateway;
+        this.configuracao = configuracao;
+        this.executor = configuracao.timeoutChamadaMs > 0 ? executor : null;
+        this.bulkhead = new Semaphore(configuracao.maximoChamadasSimultaneas);
+        this.janela = new JanelaFalhas(configuracao.baldesJanela,
+                Math.max(1, TimeUnit.MILLISECONDS.toNanos(configuracao.tamanhoJanelaMs) / configuracao.baldesJanela));
+    }
+
+    @Override
+    public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+        return processarPagamentoComResultado(valor, detalhesCartao).isSucesso();
+    }
+
+    @Override
+    public boolean estornarPagamento(String idTransacao) {
+        return estornarPagamentoComResultado(idTransacao).isSucesso();
+    }
+
+    @Override
+    public PaymentResult processarPagamentoComResultado(BigDecimal valor, String detalhesCartao) {
+        return executar(() -> gateway.processarPagamentoComResultado(valor, detalhesCartao));
+    }
+
+    @Override
+    public PaymentResult estornarPagamentoComResultado(String idTransacao) {
+        for (int tentativa = 0; ; tentativa++) {
+            PaymentResult resultado;
+            try {
+                resultado = executar(() -> gateway.estornarPagamentoComResultado(idTransacao));
+            } catch (RuntimeException e) {
+                if (tentativa + 1 >= configuracao.tentativasEstorno) {
+                    throw e;
+                }
+                resultado = null;
+            }
+            // Circuito aberto: repetir só adiaria a mesma recusa
+            if (resultado != null && (resultado.isSucesso() || resultado == CIRCUITO_ABERTO
+                    || tentativa + 1 >= configuracao.tentativasEstorno)) {
+                return resultado;
+            }
+            retentativas.increment();
+            if (!aguardarBackoff(tentativa)) {
+                return PaymentResult.falha("Interrompido aguardando nova tentativa de estorno.");
+            }
+        }
+    }
+
+    public EstadoCircuito getEstadoCircuito() {
+        return estado.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getRejeitadasPorCircuito() {
+        return rejeitadasPorCircuito.sum();
+    }
+
+    public long getRejeitadasPorBulkhead() {
+        return rejeitadasPorBulkhead.sum();
+    }
+
+    public long getRetentativas() {
+        return retentativas.sum();
+    }
+
+    /**
+     * Encerra o executor das chamadas com timeout. Chamadas em andamento no gateway não são interrompidas.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private PaymentResult executar(Callable<PaymentResult> chamada) {
+        if (!bulkhead.tryAcquire()) {
+            rejeitadasPorBulkhead.increment();
+            return BULKHEAD_CHEIO;
+        }
+        boolean permissaoTransferida = false;
+        try {
+            long agora = agora();
+            boolean sonda;
+            EstadoCircuito atual = estado.get();
+            if (atual == EstadoCircuito.FECHADO) {
+                sonda = false;
+            } else if (atual == EstadoCircuito.ABERTO && agora >= abertoAteNanos
+                    && estado.compareAndSet(EstadoCircuito.ABERTO, EstadoCircuito.SEMI_ABERTO)) {
+                sonda = true; // Apenas a thread que venceu o CAS testa o gateway
+            } else {
+                rejeitadasPorCircuito.increment();
+                return CIRCUITO_ABERTO;
+            }
+
+            PaymentResult resultado = null;
+            try {
+                if (executor == null) {
+                    resultado = chamada.call();
+                } else {
+                    // Quem marcar primeiro fica com a vaga: a tarefa, ao começar, ou o chamador, ao
+                    // cancelar uma tarefa que ainda estava na fila (e cujo finally nunca rodaria)
+                    AtomicBoolean iniciada = new AtomicBoolean();
+                    Future<PaymentResult> futuro = executor.submit(() -> {
+                        if (!iniciada.compareAndSet(false, true)) {
+                            return TIMEOUT;
+                        }
+                        try {
+                            return chamada.call();
+                        } finally {
+                            bulkhead.release(); // A vaga só volta quando o gateway de fato responde
+                        }
+                    });
+                    permissaoTransferida = true;
+                    resultado = aguardar(futuro, iniciada);
+                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Falha na chamada ao gateway de pagamento.", e);
+            } finally {
+                registrar(resultado != null && resultado.isSucesso(), sonda);
+            }
+            return resultado;
+        } finally {
+            if (!permissaoTransferida) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private PaymentResult aguardar(Future<PaymentResult> futuro, AtomicBoolean iniciada) throws Exception {
+        try {
+            return futuro.get(configuracao.timeoutChamadaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancelar(futuro, iniciada);
+            timeouts.increment();
+            return TIMEOUT;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            cancelar(futuro, iniciada);
+            Thread.currentThread().interrupt();
+            return PaymentResult.falha("Interrompido aguardando o gateway de pagamento.");
+        }
+    }
+
+    /**
+     * Interrompe a chamada; se a tarefa ainda não tinha começado, devolve a vaga do bulkhead aqui.
+     */
+    private void cancelar(Future<PaymentResult> futuro, AtomicBoolean iniciada) {
+        if (iniciada.compareAndSet(false, true)) {
+            bulkhead.release();
+        }
+        futuro.cancel(true);
+    }
+
+    private void registrar(boolean sucesso, boolean sonda) {
+        long agora = agora();
+        if (sonda) {
+            if (sucesso) {
+                janela.limpar();
+                estado.set(EstadoCircuito.FECHADO);
+            } else {
+                abertoAteNanos = agora + TimeUnit.MILLISECONDS.toNanos(configuracao.esperaCircuitoAbertoMs);
+                estado.set(EstadoCircuito.ABERTO);
+            }
+            return;
+        }
+        janela.registrar(agora, !sucesso);
+        if (!sucesso && estado.get() == EstadoCircuito.FECHADO) {
+            long contagem = janela.contar(agora);
+            long falhas = contagem >>> 32;
+            long total = contagem & 0xFFFF_FFFFL;
+            if (total >= configuracao.minimoChamadasJanela && falhas * 100 >= total * configuracao.limiarFalhasPercentual) {
+                // O prazo é gravado antes do CAS para que quem enxergar ABERTO enxergue o prazo novo
+                abertoAteNanos = agora + TimeUnit.MILLISECONDS.toNanos(configuracao.esperaCircuitoAbertoMs);
+                estado.compareAndSet(EstadoCircuito.FECHADO, EstadoCircuito.ABERTO);
+            }
+        }
+    }
+
+    private boolean aguardarBackoff(int tentativa) {
+        long teto = Math.min(configuracao.backoffMaximoMs, configuracao.backoffBaseMs << Math.min(tentativa, 20));
+        long espera = teto > 0 ? ThreadLocalRandom.current().nextLong(teto + 1) : 0;
+        try {
+            Thread.sleep(espera);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long agora() {
+        return System.nanoTime() - origemNanos;
+    }
+
+    /**
+     * Janela deslizante de sucessos e falhas dividida em baldes de tempo, atualizada só com CAS.
+     *
+     * Cada balde é um único long: 24 bits com a época (número do balde desde a criação), 20 bits de
+     * falhas e 20 bits de sucessos. Como época e contadores mudam juntos, um balde antigo é
+     * reciclado e incrementado no mesmo CAS, sem janela para contagens perdidas.
+     */
+    private static final class JanelaFalhas {
+        private static final long MASCARA_CONTADOR = 0xF_FFFFL;
+        private static final long MASCARA_EPOCA = 0xFF_FFFFL;
+        private static final int DESLOCAMENTO_FALHAS = 20;
+        private static final int DESLOCAMENTO_EPOCA = 40;
+
+        private final AtomicLongArray baldes;
+        private final long duracaoBaldeNanos;
+
+        JanelaFalhas(int quantidade, long duracaoBaldeNanos) {
+            this.baldes = new AtomicLongArray(quantidade);
+            this.duracaoBaldeNanos = duracaoBaldeNanos;
+        }
+
+        void registrar(long agora, boolean falha) {
+            long numero = agora / duracaoBaldeNanos;
+            int indice = (int) (numero % baldes.length());
+            long epoca = numero & MASCARA_EPOCA;
+            while (true) {
+                long valor = baldes.get(indice);
+                long base = (valor >>> DESLOCAMENTO_EPOCA) == epoca ? valor : epoca << DESLOCAMENTO_EPOCA;
+                long novo = incrementar(base, falha);
+                if (novo == valor || baldes.compareAndSet(indice, valor, novo)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return Falhas nos 32 bits altos e total de chamadas nos 32 bits baixos, considerando só os baldes da janela.
+         */
+        long contar(long agora) {
+            long numero = agora / duracaoBaldeNanos;
+            long falhas = 0;
+            long sucessos = 0;
+            for (int i = 0; i < baldes.length(); i++) {
+                long valor = baldes.get(i);
+                long idade = (numero - (valor >>> DESLOCAMENTO_EPOCA)) & MASCARA_EPOCA;
+                if (idade < baldes.length()) {
+                    falhas += (valor >>> DESLOCAMENTO_FALHAS) & MASCARA_CONTADOR;
+                    sucessos += valor & MASCARA_CONTADOR;
+                }
+            }
+            return falhas << 32 | (falhas + sucessos);
+        }
+
+        void limpar() {
+            for (int i = 0; i < baldes.length(); i++) {
+                baldes.set(i, 0L);
+            }
+        }
+
+        private static long incrementar(long valor, boolean falha) {
+            int deslocamento = falha ? DESLOCAMENTO_FALHAS : 0;
+            // Contador saturado: a proporção entre falhas e sucessos continua representativa
+            return ((valor >>> deslocamento) & MASCARA_CONTADOR) == MASCARA_CONTADOR ? valor : valor + (1L << deslocamento);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.vsi.teste.decoupling;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fábrica de executores "uma thread por tarefa" para chamadas bloqueantes de I/O.
+ *
+ * Em Java 21+ usa threads virtuais ({@code Executors.newVirtualThreadPerTaskExecutor()}):
+ * milhares de chamadas em andamento ocupam apenas um pequeno pool de threads carregadoras.
+ * O projeto compila para Java 17, então o método é localizado por reflexão; em runtimes
+ * anteriores ao 21 o fallback é um cached thread pool de threads daemon.
+ */
+public final class VirtualThreadExecutors {
+
+    private VirtualThreadExecutors() {
+        // Classe utilitária
+    }
+
+    /**
+     * @return Um executor que inicia uma thread (virtual, quando disponível) por tarefa.
+     */
+    public static ExecutorService novoExecutorPorTarefa() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(tarefa -> {
+                Thread thread = new Thread(tarefa, "payment-io");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @return true se o runtime atual oferece threads virtuais.
+     */
+    public static boolean threadsVirtuaisDisponiveis() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
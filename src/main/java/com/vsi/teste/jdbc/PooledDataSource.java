@@ -0,0 +1,658 @@
+package com.vsi.teste.jdbc;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * {@link DataSource} com pool de conexões e cache de {@link PreparedStatement} por conexão.
+ *
+ * - Tamanho limitado por um {@link Semaphore}: quem chega com o pool cheio espera até o timeout de aquisição.
+ * - Conexões ociosas ficam em uma pilha (LIFO), reaproveitando primeiro as "mais quentes".
+ * - Antes de reutilizar uma conexão ociosa há mais tempo que o limite de validação, ela é testada com
+ *   {@link Connection#isValid(int)}; conexões inválidas são descartadas.
+ * - Uma thread daemon fecha periodicamente as conexões ociosas além do tempo máximo configurado.
+ * - Cada conexão física mantém um cache LRU de PreparedStatements indexado pelo texto SQL: chamadas
+ *   repetidas a {@code prepareStatement(sql)} evitam o parse/plano no banco. O close() do statement
+ *   devolvido fecha o ResultSet que ficou aberto, limpa parâmetros e lote, restaura as configurações
+ *   alteradas (fetch size, max rows, query timeout...) e o devolve ao cache; um statement com uma
+ *   configuração que não pode ser restaurada (ex: cursor name) é fechado e sai do cache.
+ *
+ * As conexões entregues ao chamador são proxies: close() devolve a conexão ao pool em vez de fechá-la.
+ * Nem a conexão nem os seus statements expõem a conexão física: {@code unwrap} e
+ * {@code Statement.getConnection()} devolvem o proxy.
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+
+    /**
+     * Parâmetros do pool. Os valores padrão atendem a testes e cargas moderadas.
+     */
+    public static final class Configuracao {
+        private int tamanhoMaximo = 10;
+        private int tamanhoCacheStatements = 64;
+        private long timeoutAquisicaoMs = 30_000;
+        private long tempoMaximoOciosoMs = 10 * 60_000;
+        private long validarAposOciosoMs = 5_000;
+        private int timeoutValidacaoSegundos = 2;
+
+        public static Configuracao padrao() {
+            return new Configuracao();
+        }
+
+        public Configuracao tamanhoMaximo(int valor) {
+            this.tamanhoMaximo = valor;
+            return this;
+        }
+
+        /** Statements em cache por conexão; 0 desliga o cache. */
+        public Configuracao tamanhoCacheStatements(int valor) {
+            this.tamanhoCacheStatements = valor;
+            return this;
+        }
+
+        public Configuracao timeoutAquisicaoMs(long valor) {
+            this.timeoutAquisicaoMs = valor;
+            return this;
+        }
+
+        public Configuracao tempoMaximoOciosoMs(long valor) {
+            this.tempoMaximoOciosoMs = valor;
+            return this;
+        }
+
+        /** Conexões ociosas há mais tempo que este valor são validadas antes de serem entregues. */
+        public Configuracao validarAposOciosoMs(long valor) {
+            this.validarAposOciosoMs = valor;
+            return this;
+        }
+
+        public Configuracao timeoutValidacaoSegundos(int valor) {
+            this.timeoutValidacaoSegundos = valor;
+            return this;
+        }
+    }
+
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final Configuracao configuracao;
+
+    private final Semaphore permissoes;
+    private final ConcurrentLinkedDeque<ConexaoFisica> ociosas = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService removedorOciosas;
+    private volatile boolean fechado;
+
+    private final AtomicLong conexoesCriadas = new AtomicLong();
+    private final AtomicLong acertosCache = new AtomicLong();
+    private final AtomicLong falhasCache = new AtomicLong();
+
+    public PooledDataSource(String url, String usuario, String senha) {
+        this(url, usuario, senha, Configuracao.padrao());
+    }
+
+    public PooledDataSource(String url, String usuario, String senha, Configuracao configuracao) {
+        if (configuracao.tamanhoMaximo < 1) {
+            throw new IllegalArgumentException("O tamanho máximo do pool deve ser positivo.");
+        }
+        this.url = url;
+        this.usuario = usuario;
+        this.senha = senha;
+        this.configuracao = configuracao;
+        this.permissoes = new Semaphore(configuracao.tamanhoMaximo, true);
+
+        this.removedorOciosas = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "pool-jdbc-removedor-ociosas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalo = Math.max(1_000, configuracao.tempoMaximoOciosoMs / 2);
+        removedorOciosas.scheduleWithFixedDelay(this::removerOciosasExpiradas, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (fechado) {
+            throw new SQLException("O pool de conexões está fechado.");
+        }
+        try {
+            if (!permissoes.tryAcquire(configuracao.timeoutAquisicaoMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Nenhuma conexão disponível após " + configuracao.timeoutAquisicaoMs + " ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando uma conexão do pool.", e);
+        }
+
+        try {
+            return new ConexaoEmprestada(obterConexaoFisica()).proxy;
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("O pool usa credenciais fixas; use getConnection().");
+    }
+
+    /**
+     * @return Número de conexões físicas abertas até agora (reutilizações não contam).
+     */
+    public long getConexoesCriadas() {
+        return conexoesCriadas.get();
+    }
+
+    /**
+     * @return Chamadas a prepareStatement atendidas pelo cache.
+     */
+    public long getAcertosCache() {
+        return acertosCache.get();
+    }
+
+    /**
+     * @return Chamadas a prepareStatement que precisaram preparar um novo statement no banco.
+     */
+    public long getFalhasCache() {
+        return falhasCache.get();
+    }
+
+    /**
+     * @return Conexões físicas ociosas no momento.
+     */
+    public int getConexoesOciosas() {
+        return ociosas.size();
+    }
+
+    /**
+     * Fecha todas as conexões ociosas e impede novos empréstimos. Conexões emprestadas são
+     * fechadas quando forem devolvidas.
+     */
+    @Override
+    public void close() {
+        fechado = true;
+        removedorOciosas.shutdownNow();
+        ConexaoFisica conexao;
+        while ((conexao = ociosas.pollFirst()) != null) {
+            conexao.fecharSilenciosamente();
+        }
+    }
+
+    private ConexaoFisica obterConexaoFisica() throws SQLException {
+        ConexaoFisica conexao;
+        while ((conexao = ociosas.pollFirst()) != null) {
+            long ociosaHaMs = System.currentTimeMillis() - conexao.devolvidaEm;
+            if (ociosaHaMs < configuracao.validarAposOciosoMs || conexao.validar(configuracao.timeoutValidacaoSegundos)) {
+                return conexao;
+            }
+            conexao.fecharSilenciosamente();
+        }
+        conexoesCriadas.incrementAndGet();
+        return new ConexaoFisica(DriverManager.getConnection(url, usuario, senha), configuracao.tamanhoCacheStatements);
+    }
+
+    private void devolver(ConexaoFisica conexao, boolean descartar) {
+        try {
+            if (descartar || fechado) {
+                conexao.fecharSilenciosamente();
+            } else {
+                conexao.devolvidaEm = System.currentTimeMillis();
+                ociosas.offerFirst(conexao);
+            }
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    private void removerOciosasExpiradas() {
+        long limite = System.currentTimeMillis() - configuracao.tempoMaximoOciosoMs;
+        // As mais antigas ficam no fim da pilha
+        Iterator<ConexaoFisica> iterador = ociosas.descendingIterator();
+        while (iterador.hasNext()) {
+            ConexaoFisica conexao = iterador.next();
+            if (conexao.devolvidaEm < limite && ociosas.removeFirstOccurrence(conexao)) {
+                conexao.fecharSilenciosamente();
+            }
+        }
+    }
+
+    /**
+     * Conexão real com o banco e seu cache de statements. Só é usada por um chamador por vez.
+     */
+    private final class ConexaoFisica {
+        final Connection conexao;
+        final boolean autoCommitInicial;
+        final LinkedHashMap<String, StatementEmCache> cache;
+        // Removidos do cache pelo LRU enquanto o chamador ainda os usava: fechados quando ele os fechar
+        final List<StatementEmCache> removidosEmUso = new ArrayList<>();
+        volatile long devolvidaEm;
+
+        ConexaoFisica(Connection conexao, int tamanhoCache) throws SQLException {
+            this.conexao = conexao;
+            this.autoCommitInicial = conexao.getAutoCommit();
+            // accessOrder = true: a iteração vai do menos para o mais recentemente usado (LRU)
+            this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, StatementEmCache> maisAntigo) {
+                    if (size() > tamanhoCache) {
+                        StatementEmCache removido = maisAntigo.getValue();
+                        if (removido.emUso) {
+                            removido.removido = true; // Nunca fecha um statement na mão do chamador
+                            removidosEmUso.add(removido);
+                        } else {
+                            removido.fecharReal();
+                        }
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * @param emprestada O proxy da conexão, devolvido por {@code getConnection()} do statement.
+         * @return Um statement do cache ou, se não houver, um statement comum (ainda assim sem expor a conexão física).
+         */
+        PreparedStatement preparar(String sql, Connection emprestada) throws SQLException {
+            if (configuracao.tamanhoCacheStatements > 0) {
+                StatementEmCache emCache = cache.get(sql);
+                if (emCache != null && !emCache.emUso) {
+                    acertosCache.incrementAndGet();
+                    return emCache.emprestar(emprestada);
+                }
+                falhasCache.incrementAndGet();
+                if (emCache == null) {
+                    emCache = new StatementEmCache(this, sql, conexao.prepareStatement(sql));
+                    cache.put(sql, emCache);
+                    return emCache.emprestar(emprestada);
+                }
+            } else {
+                falhasCache.incrementAndGet();
+            }
+            // Cache desligado, ou o mesmo SQL já está aberto nesta conexão: statement comum
+            return StatementEmprestado.envolver(PreparedStatement.class, conexao.prepareStatement(sql), emprestada);
+        }
+
+        /**
+         * Fecha um statement que não pode ser reaproveitado e o tira do cache.
+         */
+        void descartar(StatementEmCache statement) {
+            cache.remove(statement.sql, statement);
+            statement.fecharReal();
+        }
+
+        boolean validar(int timeoutSegundos) {
+            try {
+                return conexao.isValid(timeoutSegundos);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Restaura o estado padrão antes de devolver ao pool.
+         *
+         * @return false se a conexão não puder ser reaproveitada.
+         */
+        boolean restaurar() {
+            try {
+                if (conexao.isClosed()) {
+                    return false;
+                }
+                // Statements que o chamador esqueceu de fechar voltam a ficar disponíveis
+                Iterator<StatementEmCache> iterador = cache.values().iterator();
+                while (iterador.hasNext()) {
+                    StatementEmCache statement = iterador.next();
+                    if (statement.emUso && !statement.devolver()) {
+                        iterador.remove();
+                        statement.fecharReal();
+                    }
+                }
+                fecharRemovidos();
+                if (!conexao.getAutoCommit()) {
+                    conexao.rollback();
+                }
+                if (conexao.getAutoCommit() != autoCommitInicial) {
+                    conexao.setAutoCommit(autoCommitInicial);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void fecharRemovidos() {
+            for (StatementEmCache statement : removidosEmUso) {
+                statement.fecharReal();
+            }
+            removidosEmUso.clear();
+        }
+
+        void fecharSilenciosamente() {
+            for (StatementEmCache statement : cache.values()) {
+                statement.fecharReal();
+            }
+            cache.clear();
+            fecharRemovidos();
+            try {
+                conexao.close();
+            } catch (SQLException e) {
+                // Conexão descartada: não há o que fazer
+            }
+        }
+    }
+
+    /**
+     * PreparedStatement mantido no cache; o proxy entregue ao chamador intercepta close(), as
+     * configurações alteradas e os acessos à conexão.
+     */
+    private static final class StatementEmCache implements InvocationHandler {
+        // Restauradas para os valores lidos na criação quando o statement volta ao cache
+        private static final Set<String> CONFIGURACOES_RESTAURAVEIS = Set.of(
+                "setFetchSize", "setFetchDirection", "setMaxRows", "setLargeMaxRows", "setMaxFieldSize", "setQueryTimeout");
+        // Sem getter correspondente (ou sem volta): o statement é fechado em vez de reaproveitado
+        private static final Set<String> CONFIGURACOES_DESCARTAVEIS = Set.of(
+                "setCursorName", "setEscapeProcessing", "setPoolable", "closeOnCompletion");
+
+        final PooledDataSource.ConexaoFisica dona;
+        final String sql;
+        final PreparedStatement real;
+        final PreparedStatement proxy;
+        private final int fetchSizePadrao;
+        private final int fetchDirectionPadrao;
+        private final int maxRowsPadrao;
+        private final int maxFieldSizePadrao;
+        private final int queryTimeoutPadrao;
+        Connection emprestada;
+        ResultSet resultadoAberto;
+        boolean emUso;
+        boolean removido;
+        boolean configuracaoAlterada;
+        boolean loteAberto;
+        boolean naoReaproveitavel;
+
+        StatementEmCache(PooledDataSource.ConexaoFisica dona, String sql, PreparedStatement real) throws SQLException {
+            this.dona = dona;
+            this.sql = sql;
+            this.real = real;
+            this.fetchSizePadrao = real.getFetchSize();
+            this.fetchDirectionPadrao = real.getFetchDirection();
+            this.maxRowsPadrao = real.getMaxRows();
+            this.maxFieldSizePadrao = real.getMaxFieldSize();
+            this.queryTimeoutPadrao = real.getQueryTimeout();
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        PreparedStatement emprestar(Connection emprestada) {
+            this.emprestada = emprestada;
+            emUso = true;
+            return proxy;
+        }
+
+        /**
+         * Deixa o statement como o próximo chamador espera recebê-lo.
+         *
+         * @return false se ele não puder ser reaproveitado e deve ser fechado.
+         */
+        boolean devolver() {
+            emUso = false;
+            emprestada = null;
+            ResultSet resultado = resultadoAberto;
+            resultadoAberto = null;
+            if (removido || naoReaproveitavel) {
+                return false;
+            }
+            try {
+                if (resultado != null) {
+                    resultado.close();
+                }
+                real.clearParameters();
+                if (loteAberto) {
+                    real.clearBatch();
+                    loteAberto = false;
+                }
+                if (configuracaoAlterada) {
+                    real.setMaxRows(maxRowsPadrao); // Antes do fetch size, que alguns drivers limitam a max rows
+                    real.setFetchSize(fetchSizePadrao);
+                    real.setFetchDirection(fetchDirectionPadrao);
+                    real.setMaxFieldSize(maxFieldSizePadrao);
+                    real.setQueryTimeout(queryTimeoutPadrao);
+                    configuracaoAlterada = false;
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            if (metodo.getDeclaringClass() == Object.class) {
+                return invocar(this, metodo, args);
+            }
+            String nome = metodo.getName();
+            switch (nome) {
+                case "close":
+                    if (emUso && !devolver()) {
+                        if (removido) {
+                            fecharReal();
+                        } else {
+                            dona.descartar(this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return !emUso;
+                default:
+                    break;
+            }
+            if (!emUso) {
+                throw new SQLException("PreparedStatement já foi fechado.");
+            }
+            switch (nome) {
+                case "getConnection":
+                    return emprestada;
+                case "unwrap":
+                    return StatementEmprestado.desembrulhar(proxy, (Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                case "addBatch":
+                    loteAberto = true;
+                    break;
+                default:
+                    if (CONFIGURACOES_RESTAURAVEIS.contains(nome)) {
+                        configuracaoAlterada = true;
+                    } else if (CONFIGURACOES_DESCARTAVEIS.contains(nome)) {
+                        naoReaproveitavel = true;
+                    }
+            }
+            Object resultado = invocar(real, metodo, args);
+            if (resultado instanceof ResultSet) {
+                resultadoAberto = (ResultSet) resultado;
+            }
+            return resultado;
+        }
+
+        void fecharReal() {
+            try {
+                real.close();
+            } catch (SQLException e) {
+                // Statement descartado: não há o que fazer
+            }
+        }
+    }
+
+    /**
+     * Statement fora do cache (createStatement, prepareCall, prepareStatement com opções): repassa tudo,
+     * exceto os acessos que entregariam a conexão física.
+     */
+    private static final class StatementEmprestado implements InvocationHandler {
+        private final Statement real;
+        private final Connection emprestada;
+
+        private StatementEmprestado(Statement real, Connection emprestada) {
+            this.real = real;
+            this.emprestada = emprestada;
+        }
+
+        static <T extends Statement> T envolver(Class<T> tipo, Statement real, Connection emprestada) {
+            return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo},
+                    new StatementEmprestado(real, emprestada)));
+        }
+
+        /**
+         * unwrap de um proxy: só o próprio proxy é entregue, nunca o objeto do driver por trás dele.
+         */
+        static Object desembrulhar(Object proxy, Class<?> tipo) throws SQLException {
+            if (tipo.isInstance(proxy)) {
+                return proxy;
+            }
+            throw new SQLException("O pool não expõe o objeto do driver: " + tipo.getName());
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            if (metodo.getDeclaringClass() == Object.class) {
+                return invocar(this, metodo, args);
+            }
+            switch (metodo.getName()) {
+                case "getConnection":
+                    return emprestada;
+                case "unwrap":
+                    return desembrulhar(proxy, (Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                default:
+                    return invocar(real, metodo, args);
+            }
+        }
+    }
+
+    /**
+     * Empréstimo de uma conexão física: o proxy só é válido até o primeiro close().
+     */
+    private final class ConexaoEmprestada implements InvocationHandler {
+        final ConexaoFisica fisica;
+        final Connection proxy;
+        boolean devolvida;
+
+        ConexaoEmprestada(ConexaoFisica fisica) {
+            this.fisica = fisica;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            if (metodo.getDeclaringClass() == Object.class) {
+                return invocar(this, metodo, args);
+            }
+            String nome = metodo.getName();
+            if (nome.equals("close")) {
+                if (!devolvida) {
+                    devolvida = true;
+                    devolver(fisica, !fisica.restaurar());
+                }
+                return null;
+            }
+            if (nome.equals("isClosed")) {
+                return devolvida || fisica.conexao.isClosed();
+            }
+            if (devolvida) {
+                throw new SQLException("A conexão já foi devolvida ao pool.");
+            }
+            switch (nome) {
+                case "prepareStatement":
+                    if (args.length == 1) {
+                        return fisica.preparar((String) args[0], this.proxy);
+                    }
+                    break;
+                case "unwrap":
+                    return StatementEmprestado.desembrulhar(this.proxy, (Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(this.proxy);
+                default:
+                    break;
+            }
+            Object resultado = invocar(fisica.conexao, metodo, args);
+            if (resultado instanceof Statement) {
+                return StatementEmprestado.envolver(metodo.getReturnType().asSubclass(Statement.class),
+                        (Statement) resultado, this.proxy);
+            }
+            return resultado;
+        }
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause(); // Propaga a SQLException original, não o wrapper da reflexão
+        }
+    }
+
+    // --- Métodos de DataSource sem uso neste pool ---
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // Sem log próprio
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Não é um wrapper de " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,84 @@
+package com.vsi.teste.plant;
+
+import com.vsi.teste.LongKeyedSegmentedMap;
+
+import java.util.function.Consumer;
+
+/**
+ * Índice primário código → {@link Plant} sobre um {@link LongKeyedSegmentedMap} com uma coluna
+ * {@code Plant[]}: leituras otimistas que não escrevem em memória compartilhada, escritas que bloqueiam
+ * apenas o seu segmento e remoções sem lápides.
+ */
+final class IndicePlantas {
+
+    private static final LongKeyedSegmentedMap.Colunas<Plant[]> PLANTAS = new LongKeyedSegmentedMap.Colunas<>() {
+        @Override
+        public Plant[] criar(int capacidade) {
+            return new Plant[capacidade];
+        }
+
+        @Override
+        public void copiar(Plant[] origem, int de, Plant[] destino, int para) {
+            destino[para] = origem[de];
+        }
+
+        @Override
+        public void limpar(Plant[] plantas, int posicao) {
+            plantas[posicao] = null;
+        }
+    };
+
+    private final LongKeyedSegmentedMap<Plant[]> plantas;
+
+    IndicePlantas(int capacidadeEsperada) {
+        this.plantas = new LongKeyedSegmentedMap<>(capacidadeEsperada, PLANTAS);
+    }
+
+    Plant obter(long codigo) {
+        return plantas.ler(codigo, (p, posicao) -> p[posicao]);
+    }
+
+    /**
+     * @return A planta já registrada com o mesmo código, ou {@code null} se {@code planta} foi inserida.
+     */
+    Plant inserirSeAusente(Plant planta) {
+        return plantas.gravar(planta.getCodigo(), planta, (p, posicao, nova, recebida) -> {
+            if (nova) {
+                p[posicao] = recebida;
+                return null;
+            }
+            return p[posicao];
+        });
+    }
+
+    /**
+     * Insere ou substitui.
+     *
+     * @return A planta anterior, ou {@code null}.
+     */
+    Plant gravar(Plant planta) {
+        return plantas.gravar(planta.getCodigo(), planta, (p, posicao, nova, recebida) -> {
+            Plant anterior = p[posicao];
+            p[posicao] = recebida;
+            return anterior;
+        });
+    }
+
+    /**
+     * @return A planta removida, ou {@code null}.
+     */
+    Plant remover(long codigo) {
+        return plantas.remover(codigo, (p, posicao) -> p[posicao]);
+    }
+
+    /**
+     * Percorre todas as plantas, um segmento de cada vez sob o lock de leitura.
+     */
+    void paraCada(Consumer<Plant> acao) {
+        plantas.paraCada((p, posicao) -> acao.accept(p[posicao]));
+    }
+
+    int tamanho() {
+        return plantas.tamanho();
+    }
+}
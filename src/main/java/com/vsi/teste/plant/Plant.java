@@ -0,0 +1,104 @@
+package com.vsi.teste.plant;
+
+/**
+ * Planta do cadastro da Questão 7: código numérico único e descrição opcional.
+ *
+ * Imutável; atualizar a descrição gera uma nova instância com o mesmo código. As validações seguem
+ * as regras da Questão 7 e são feitas sem expressões regulares.
+ */
+public final class Plant {
+
+    /** Tamanho máximo da descrição. */
+    public static final int TAMANHO_MAXIMO_DESCRICAO = 10;
+
+    private final long codigo;
+    private final String descricao;
+
+    /**
+     * @param codigo    Código da planta, maior ou igual a zero.
+     * @param descricao Até 10 letras ou dígitos ASCII; {@code null} quando não informada.
+     * @throws IllegalArgumentException Se o código for negativo ou a descrição for inválida.
+     */
+    public Plant(long codigo, String descricao) {
+        if (codigo < 0) {
+            throw new IllegalArgumentException("O código da planta deve ser numérico e não negativo: " + codigo);
+        }
+        if (descricao != null && !isDescricaoValida(descricao)) {
+            throw new IllegalArgumentException("A descrição deve ter até " + TAMANHO_MAXIMO_DESCRICAO
+                    + " letras ou dígitos: '" + descricao + "'");
+        }
+        this.codigo = codigo;
+        this.descricao = descricao;
+    }
+
+    /**
+     * Converte o código digitado pelo usuário. Aceita apenas dígitos: sinais, espaços e separadores são recusados.
+     *
+     * @throws IllegalArgumentException Se o texto estiver vazio, tiver outros caracteres ou não couber em um long.
+     */
+    public static long lerCodigo(CharSequence texto) {
+        if (texto == null || texto.length() == 0) {
+            throw new IllegalArgumentException("O código da planta é obrigatório.");
+        }
+        long codigo = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            int digito = texto.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                throw new IllegalArgumentException("O código da planta deve conter apenas dígitos: '" + texto + "'");
+            }
+            if (codigo > (Long.MAX_VALUE - digito) / 10) {
+                throw new IllegalArgumentException("Código da planta grande demais: '" + texto + "'");
+            }
+            codigo = codigo * 10 + digito;
+        }
+        return codigo;
+    }
+
+    /**
+     * @return true se a descrição tem no máximo 10 caracteres, todos letras ASCII ou dígitos. A descrição vazia é válida.
+     */
+    public static boolean isDescricaoValida(CharSequence descricao) {
+        if (descricao.length() > TAMANHO_MAXIMO_DESCRICAO) {
+            return false;
+        }
+        for (int i = 0; i < descricao.length(); i++) {
+            char c = descricao.charAt(i);
+            boolean alfanumerico = (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+            if (!alfanumerico) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getCodigo() { return codigo; }
+    public String getDescricao() { return descricao; }
+
+    /**
+     * @return Uma cópia com a nova descrição.
+     */
+    public Plant comDescricao(String novaDescricao) {
+        return new Plant(codigo, novaDescricao);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Plant plant = (Plant) o;
+        return codigo == plant.codigo;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(codigo);
+    }
+
+    @Override
+    public String toString() {
+        return "Plant{" +
+                "codigo=" + codigo +
+                ", descricao='" + descricao + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,186 @@
+package com.vsi.teste.plant;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Log de alterações do {@link PlantRepository}, somente de acréscimo, em um arquivo mapeado em memória.
+ *
+ * Cada registro tem 20 bytes fixos: código (8), descrição ASCII (10, completada com zeros), tamanho da
+ * descrição (1, -1 para nula) e operação (1). A operação é gravada por último e o arquivo é pré-alocado
+ * com zeros, então o primeiro registro com operação 0 marca o fim do log, inclusive após uma queda do
+ * processo no meio de uma gravação.
+ *
+ * Gravar é uma cópia para a memória mapeada: o sistema operacional leva as páginas para o disco. Os dados
+ * sobrevivem a uma queda do processo; para sobreviver a uma queda da máquina, chame {@link #sincronizar()}.
+ * Os registros descrevem o estado final da planta, então reaplicá-los é idempotente.
+ */
+final class PlantLog implements AutoCloseable {
+
+    static final byte GRAVAR = 1;
+    static final byte REMOVER = 2;
+
+    private static final int MAGICO = 0x504C4E54; // "PLNT"
+    private static final int VERSAO = 1;
+    private static final int CABECALHO = 8;
+    private static final int REGISTRO = 20;
+    private static final int CAPACIDADE_INICIAL = 1 << 20;
+
+    /**
+     * Recebe os registros durante a leitura do log.
+     */
+    @FunctionalInterface
+    interface Leitor {
+        void aplicar(byte operacao, long codigo, String descricao);
+    }
+
+    private final Path arquivo;
+    private FileChannel canal;
+    private MappedByteBuffer mapa;
+    private int posicao;
+    private long registros;
+
+    private PlantLog(Path arquivo, FileChannel canal, MappedByteBuffer mapa, int posicao, long registros) {
+        this.arquivo = arquivo;
+        this.canal = canal;
+        this.mapa = mapa;
+        this.posicao = posicao;
+        this.registros = registros;
+    }
+
+    /**
+     * Abre (ou cria) o log e entrega cada registro existente ao leitor, na ordem em que foram gravados.
+     */
+    static PlantLog abrir(Path arquivo, Leitor leitor) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean novo = canal.size() == 0;
+            long tamanho = Math.max(canal.size(), CAPACIDADE_INICIAL);
+            if (tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Log de plantas maior que 2 GB: " + arquivo);
+            }
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho);
+            if (novo) {
+                mapa.putInt(0, MAGICO);
+                mapa.putInt(4, VERSAO);
+            } else if (mapa.getInt(0) != MAGICO || mapa.getInt(4) != VERSAO) {
+                throw new IOException("O arquivo não é um log de plantas: " + arquivo);
+            }
+            byte[] texto = new byte[Plant.TAMANHO_MAXIMO_DESCRICAO];
+            int posicao = CABECALHO;
+            long registros = 0;
+            while (posicao + REGISTRO <= mapa.capacity()) {
+                byte operacao = mapa.get(posicao + 19);
+                if (operacao == 0) {
+                    break;
+                }
+                long codigo = mapa.getLong(posicao);
+                int tamanhoDescricao = mapa.get(posicao + 18);
+                if ((operacao != GRAVAR && operacao != REMOVER)
+                        || tamanhoDescricao < -1 || tamanhoDescricao > Plant.TAMANHO_MAXIMO_DESCRICAO) {
+                    throw new IOException("Registro corrompido na posição " + posicao + " do log de plantas: " + arquivo);
+                }
+                String descricao = null;
+                if (tamanhoDescricao >= 0) {
+                    mapa.get(posicao + 8, texto, 0, tamanhoDescricao);
+                    descricao = new String(texto, 0, tamanhoDescricao, StandardCharsets.US_ASCII);
+                }
+                leitor.aplicar(operacao, codigo, descricao);
+                posicao += REGISTRO;
+                registros++;
+            }
+            return new PlantLog(arquivo, canal, mapa, posicao, registros);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    synchronized void gravar(Plant planta) throws IOException {
+        acrescentar(GRAVAR, planta.getCodigo(), planta.getDescricao());
+    }
+
+    synchronized void remover(long codigo) throws IOException {
+        acrescentar(REMOVER, codigo, null);
+    }
+
+    /**
+     * Reescreve o log apenas com o estado atual, em um arquivo temporário que substitui o log
+     * atomicamente. O chamador garante que nenhuma gravação concorrente fique de fora do estado
+     * entregue (ver {@link PlantRepository#compactarLog()}).
+     */
+    synchronized void compactar(Iterable<Plant> plantas) throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".compactando");
+        Files.deleteIfExists(temporario);
+        // O novo log continua aberto durante o rename: se algo falhar antes da troca, este log segue
+        // usando o canal antigo, ainda aberto
+        PlantLog novo = abrir(temporario, (operacao, codigo, descricao) -> { });
+        try {
+            for (Plant planta : plantas) {
+                novo.gravar(planta);
+            }
+            novo.mapa.force();
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            novo.canal.close();
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        FileChannel antigo = canal;
+        this.canal = novo.canal;
+        this.mapa = novo.mapa;
+        this.posicao = novo.posicao;
+        this.registros = novo.registros;
+        antigo.close();
+    }
+
+    /**
+     * Força a gravação das páginas alteradas no disco (fsync).
+     */
+    synchronized void sincronizar() {
+        mapa.force();
+    }
+
+    synchronized long getRegistros() {
+        return registros;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapa.force();
+        canal.close();
+    }
+
+    private void acrescentar(byte operacao, long codigo, String descricao) throws IOException {
+        if (posicao + REGISTRO > mapa.capacity()) {
+            crescer();
+        }
+        mapa.putLong(posicao, codigo);
+        if (descricao == null) {
+            mapa.put(posicao + 18, (byte) -1);
+        } else {
+            for (int i = 0; i < descricao.length(); i++) {
+                mapa.put(posicao + 8 + i, (byte) descricao.charAt(i)); // Descrições válidas são ASCII
+            }
+            mapa.put(posicao + 18, (byte) descricao.length());
+        }
+        mapa.put(posicao + 19, operacao);
+        posicao += REGISTRO;
+        registros++;
+    }
+
+    private void crescer() throws IOException {
+        long novoTamanho = (long) mapa.capacity() * 2;
+        if (novoTamanho > Integer.MAX_VALUE) {
+            throw new IOException("Log de plantas atingiu 2 GB; compacte-o: " + arquivo);
+        }
+        // O mapeamento antigo é liberado pelo GC; o novo estende o arquivo com zeros
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, novoTamanho);
+    }
+}
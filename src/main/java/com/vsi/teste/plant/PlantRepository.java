@@ -0,0 +1,334 @@
+package com.vsi.teste.plant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Repositório em memória do cadastro de Plantas (Questão 7).
+ *
+ * - Índice primário por código ({@link IndicePlantas}): leituras otimistas sem lock, escritas por segmento.
+ *   A regra de unicidade é garantida pela inserção atômica "criar se ausente", sem consulta prévia.
+ * - Índice secundário por descrição: um {@link ConcurrentSkipListSet} ordenado por (descrição, código),
+ *   que atende buscas por prefixo e por faixa em O(log n + resultado). A descrição entra no índice
+ *   codificada em um long que preserva a ordem (ver {@link #codificar(CharSequence)}): cada comparação
+ *   na skip list lê dois longs do próprio nó em vez de seguir Plant → String → byte[]. É fracamente
+ *   consistente: uma busca concorrente com a atualização de uma planta pode ainda não ver a nova descrição.
+ * - Escritas sobre o mesmo código são serializadas por um lock listrado (256 listras), para que os
+ *   dois índices e o log recebam as alterações na mesma ordem; códigos diferentes não disputam locks.
+ * - Remover exige o perfil {@link Perfil#ADMIN}, verificado aqui e não apenas na interface.
+ *
+ * Com {@link #abrir(Path)} as alterações também vão para um {@link PlantLog} mapeado em memória, relido
+ * na próxima inicialização. {@link #compactarLog()} reescreve o log apenas com o estado atual.
+ */
+public class PlantRepository implements AutoCloseable {
+
+    /**
+     * Perfis de usuário relevantes para o cadastro.
+     */
+    public enum Perfil {
+        ADMIN,
+        BASICO
+    }
+
+    private static final int LISTRAS = 256;
+    private static final int BASE = 63; // 62 letras e dígitos + 0 para "fim da descrição"
+
+    private final IndicePlantas porCodigo;
+    private final ConcurrentSkipListSet<EntradaDescricao> porDescricao = new ConcurrentSkipListSet<>();
+    private final Object[] travas = new Object[LISTRAS];
+    private PlantLog log; // Atribuído uma única vez, em abrir(), antes de o repositório ser publicado
+
+    public PlantRepository() {
+        this(0);
+    }
+
+    /**
+     * @param capacidadeEsperada Número aproximado de plantas, usado para pré-dimensionar o índice primário.
+     */
+    public PlantRepository(int capacidadeEsperada) {
+        this.porCodigo = new IndicePlantas(capacidadeEsperada);
+        for (int i = 0; i < LISTRAS; i++) {
+            travas[i] = new Object();
+        }
+    }
+
+    /**
+     * Cria um repositório persistido no log informado, reaplicando as alterações já gravadas nele.
+     */
+    public static PlantRepository abrir(Path arquivoLog) throws IOException {
+        PlantRepository repositorio = new PlantRepository();
+        repositorio.log = PlantLog.abrir(arquivoLog, (operacao, codigo, descricao) -> {
+            if (operacao == PlantLog.GRAVAR) {
+                repositorio.aplicarGravacao(new Plant(codigo, descricao));
+            } else {
+                repositorio.aplicarRemocao(codigo);
+            }
+        });
+        return repositorio;
+    }
+
+    /**
+     * @return false se já existir uma planta com o mesmo código (nada é alterado).
+     * @throws UncheckedIOException Se a gravação no log falhar; a planta não é criada.
+     */
+    public boolean criar(Plant planta) {
+        synchronized (trava(planta.getCodigo())) {
+            if (porCodigo.inserirSeAusente(planta) != null) {
+                return false;
+            }
+            indexarDescricao(planta);
+            try {
+                if (log != null) {
+                    log.gravar(planta);
+                }
+            } catch (IOException e) {
+                aplicarRemocao(planta.getCodigo());
+                throw new UncheckedIOException("Falha ao gravar a planta " + planta.getCodigo() + " no log.", e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Altera a descrição de uma planta existente. O código não pode ser alterado.
+     *
+     * @param descricao A nova descrição, ou {@code null} para removê-la.
+     * @return false se não houver planta com o código.
+     * @throws IllegalArgumentException Se a descrição for inválida.
+     */
+    public boolean atualizarDescricao(long codigo, String descricao) {
+        synchronized (trava(codigo)) {
+            Plant anterior = porCodigo.obter(codigo);
+            if (anterior == null) {
+                return false;
+            }
+            Plant nova = anterior.comDescricao(descricao);
+            aplicarGravacao(nova);
+            try {
+                if (log != null) {
+                    log.gravar(nova);
+                }
+            } catch (IOException e) {
+                aplicarGravacao(anterior);
+                throw new UncheckedIOException("Falha ao gravar a planta " + codigo + " no log.", e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return false se não houver planta com o código.
+     * @throws SecurityException Se o perfil não for {@link Perfil#ADMIN}.
+     */
+    public boolean remover(long codigo, Perfil perfil) {
+        if (perfil != Perfil.ADMIN) {
+            throw new SecurityException("Apenas administradores podem remover plantas.");
+        }
+        synchronized (trava(codigo)) {
+            Plant removida = aplicarRemocao(codigo);
+            if (removida == null) {
+                return false;
+            }
+            try {
+                if (log != null) {
+                    log.remover(codigo);
+                }
+            } catch (IOException e) {
+                aplicarGravacao(removida);
+                throw new UncheckedIOException("Falha ao gravar a remoção da planta " + codigo + " no log.", e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Consulta sem lock: não bloqueia nem é bloqueada por escritas em outros códigos.
+     *
+     * @return A planta, ou {@code null} se não existir.
+     */
+    public Plant buscar(long codigo) {
+        return porCodigo.obter(codigo);
+    }
+
+    /**
+     * @param limite Número máximo de plantas devolvidas.
+     * @return Plantas cuja descrição começa com {@code prefixo}, ordenadas por descrição e código.
+     * @throws IllegalArgumentException Se o prefixo não for uma descrição válida.
+     */
+    public List<Plant> buscarPorPrefixo(String prefixo, int limite) {
+        long inicio = codificar(prefixo);
+        // Todas as extensões do prefixo ficam entre o prefixo e o prefixo + 1 na posição do último caractere
+        long fim = inicio + potencia(Plant.TAMANHO_MAXIMO_DESCRICAO - prefixo.length());
+        return copiar(inicio, fim, limite);
+    }
+
+    /**
+     * @param limite Número máximo de plantas devolvidas.
+     * @return Plantas com descrição em [{@code de}, {@code ate}), ordenadas por descrição e código.
+     * @throws IllegalArgumentException Se algum dos limites não for uma descrição válida.
+     */
+    public List<Plant> buscarPorFaixa(String de, String ate, int limite) {
+        return copiar(codificar(de), codificar(ate), limite);
+    }
+
+    public int tamanho() {
+        return porCodigo.tamanho();
+    }
+
+    /**
+     * Reescreve o log apenas com as plantas atuais. Bloqueia as escritas durante a cópia; leituras continuam.
+     *
+     * @throws IllegalStateException Se o repositório não tiver log.
+     */
+    public void compactarLog() throws IOException {
+        if (log == null) {
+            throw new IllegalStateException("O repositório não foi aberto com um log.");
+        }
+        compactarComTravas(0);
+    }
+
+    /**
+     * Força a gravação do log no disco. Sem log, não faz nada.
+     */
+    public void sincronizar() {
+        if (log != null) {
+            log.sincronizar();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    long getRegistrosLog() {
+        return log == null ? 0 : log.getRegistros();
+    }
+
+    /**
+     * Adquire todas as listras, em ordem, antes de copiar o estado: nenhuma escrita fica pela metade
+     * (já aplicada no índice e ainda não gravada no log antigo, ou vice-versa) durante a troca do arquivo.
+     */
+    private void compactarComTravas(int listra) throws IOException {
+        if (listra == LISTRAS) {
+            List<Plant> plantas = new ArrayList<>(porCodigo.tamanho());
+            porCodigo.paraCada(plantas::add);
+            log.compactar(plantas);
+            return;
+        }
+        synchronized (travas[listra]) {
+            compactarComTravas(listra + 1);
+        }
+    }
+
+    /**
+     * Codifica a descrição em um long com a mesma ordem das Strings: cada caractere vira um dígito
+     * de 1 a 62 na base 63 ('0'-'9', 'A'-'Z', 'a'-'z', na ordem ASCII) e posições além do fim valem 0,
+     * de modo que um prefixo vem antes de todas as suas extensões. 63^10 cabe em um long.
+     */
+    static long codificar(CharSequence descricao) {
+        if (!Plant.isDescricaoValida(descricao)) {
+            throw new IllegalArgumentException("Descrição inválida para busca: '" + descricao + "'");
+        }
+        long codigo = 0;
+        for (int i = 0; i < Plant.TAMANHO_MAXIMO_DESCRICAO; i++) {
+            codigo = codigo * BASE + (i < descricao.length() ? digito(descricao.charAt(i)) : 0);
+        }
+        return codigo;
+    }
+
+    private static int digito(char c) {
+        if (c <= '9') {
+            return c - '0' + 1;
+        }
+        return c <= 'Z' ? c - 'A' + 11 : c - 'a' + 37;
+    }
+
+    private static long potencia(int expoente) {
+        long resultado = 1;
+        for (int i = 0; i < expoente; i++) {
+            resultado *= BASE;
+        }
+        return resultado;
+    }
+
+    private Plant aplicarGravacao(Plant planta) {
+        Plant anterior = porCodigo.gravar(planta);
+        if (anterior != null && Objects.equals(anterior.getDescricao(), planta.getDescricao())) {
+            return anterior; // A entrada do índice secundário continua correta
+        }
+        if (anterior != null && anterior.getDescricao() != null) {
+            porDescricao.remove(new EntradaDescricao(anterior));
+        }
+        indexarDescricao(planta);
+        return anterior;
+    }
+
+    private Plant aplicarRemocao(long codigo) {
+        Plant removida = porCodigo.remover(codigo);
+        if (removida != null && removida.getDescricao() != null) {
+            porDescricao.remove(new EntradaDescricao(removida));
+        }
+        return removida;
+    }
+
+    private void indexarDescricao(Plant planta) {
+        if (planta.getDescricao() != null) {
+            porDescricao.add(new EntradaDescricao(planta));
+        }
+    }
+
+    private List<Plant> copiar(long de, long ate, int limite) {
+        List<Plant> resultado = new ArrayList<>(Math.min(limite, 64));
+        if (de >= ate) {
+            return resultado;
+        }
+        // Código -1 fica antes de qualquer planta com a mesma descrição
+        NavigableSet<EntradaDescricao> faixa = porDescricao.subSet(
+                new EntradaDescricao(de, -1, null), true, new EntradaDescricao(ate, -1, null), false);
+        for (EntradaDescricao entrada : faixa) {
+            if (resultado.size() == limite) {
+                break;
+            }
+            resultado.add(entrada.planta);
+        }
+        return resultado;
+    }
+
+    private Object trava(long codigo) {
+        return travas[(int) ((codigo * 0x9E3779B97F4A7C15L) >>> 56)]; // 8 bits mais altos => 256 listras
+    }
+
+    /**
+     * Entrada do índice secundário: a chave (descrição codificada, código) fica no próprio objeto.
+     */
+    private static final class EntradaDescricao implements Comparable<EntradaDescricao> {
+        final long descricao;
+        final long codigo;
+        final Plant planta;
+
+        EntradaDescricao(Plant planta) {
+            this(codificar(planta.getDescricao()), planta.getCodigo(), planta);
+        }
+
+        EntradaDescricao(long descricao, long codigo, Plant planta) {
+            this.descricao = descricao;
+            this.codigo = codigo;
+            this.planta = planta;
+        }
+
+        @Override
+        public int compareTo(EntradaDescricao outra) {
+            int comparacao = Long.compare(descricao, outra.descricao);
+            return comparacao != 0 ? comparacao : Long.compare(codigo, outra.codigo);
+        }
+    }
+}
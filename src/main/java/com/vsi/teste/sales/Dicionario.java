@@ -0,0 +1,45 @@
+package com.vsi.teste.sales;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificação por dicionário de colunas de texto: cada valor distinto vira um int.
+ *
+ * Nomes e cidades se repetem muito em relação ao número de linhas; guardar o código em um
+ * {@code int[]} ocupa 4 bytes por linha e transforma filtros de igualdade ("City = 'Jackson'")
+ * em comparação de inteiros.
+ */
+final class Dicionario {
+
+    /** Código devolvido por {@link #codigoDe(String)} para um valor que não aparece na coluna. */
+    static final int AUSENTE = -1;
+
+    private final Map<String, Integer> codigos = new HashMap<>();
+    private final List<String> valores = new ArrayList<>();
+
+    int codificar(String valor) {
+        Integer codigo = codigos.get(valor);
+        if (codigo == null) {
+            codigo = valores.size();
+            codigos.put(valor, codigo);
+            valores.add(valor);
+        }
+        return codigo;
+    }
+
+    int codigoDe(String valor) {
+        Integer codigo = codigos.get(valor);
+        return codigo == null ? AUSENTE : codigo;
+    }
+
+    String valor(int codigo) {
+        return valores.get(codigo);
+    }
+
+    int tamanho() {
+        return valores.size();
+    }
+}
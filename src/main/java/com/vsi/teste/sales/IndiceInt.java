@@ -0,0 +1,68 @@
+package com.vsi.teste.sales;
+
+import java.util.Arrays;
+
+/**
+ * Índice hash de chave primária int para a posição da linha, em arrays primitivos
+ * (endereçamento aberto com sondagem linear), usado como lado de construção dos hash joins.
+ */
+final class IndiceInt {
+
+    static final int AUSENTE = -1;
+
+    private int[] chaves;
+    private int[] linhas;
+    private int tamanho;
+
+    IndiceInt(int capacidadeEsperada) {
+        int capacidade = Integer.highestOneBit(Math.max(4, capacidadeEsperada * 2 - 1)) << 1;
+        chaves = new int[capacidade];
+        linhas = new int[capacidade];
+        Arrays.fill(linhas, AUSENTE);
+    }
+
+    /**
+     * @return A linha anterior associada à chave, ou {@link #AUSENTE}.
+     */
+    int associar(int chave, int linha) {
+        if ((tamanho + 1) * 2 > chaves.length) {
+            redimensionar();
+        }
+        int posicao = localizar(chaves, linhas, chave);
+        int anterior = linhas[posicao];
+        if (anterior == AUSENTE) {
+            chaves[posicao] = chave;
+            tamanho++;
+        }
+        linhas[posicao] = linha;
+        return anterior;
+    }
+
+    int linha(int chave) {
+        return linhas[localizar(chaves, linhas, chave)];
+    }
+
+    private static int localizar(int[] chaves, int[] linhas, int chave) {
+        int mascara = chaves.length - 1;
+        int posicao = (chave * 0x9E3779B9) >>> 1 & mascara; // Hash de Fibonacci: IDs sequenciais não se agrupam
+        while (linhas[posicao] != AUSENTE && chaves[posicao] != chave) {
+            posicao = (posicao + 1) & mascara;
+        }
+        return posicao;
+    }
+
+    private void redimensionar() {
+        int[] chavesAntigas = chaves;
+        int[] linhasAntigas = linhas;
+        chaves = new int[chavesAntigas.length * 2];
+        linhas = new int[chavesAntigas.length * 2];
+        Arrays.fill(linhas, AUSENTE);
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (linhasAntigas[i] != AUSENTE) {
+                int posicao = localizar(chaves, linhas, chavesAntigas[i]);
+                chaves[posicao] = chavesAntigas[i];
+                linhas[posicao] = linhasAntigas[i];
+            }
+        }
+    }
+}
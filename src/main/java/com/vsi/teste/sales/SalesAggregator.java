@@ -0,0 +1,400 @@
+package com.vsi.teste.sales;
+
+import com.vsi.teste.LongKeyedSegmentedMap;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * Agregados por Salesperson mantidos incrementalmente a partir de eventos de inclusão, alteração e
+ * remoção de pedidos, para responder às consultas da Questão 6 sem varrer Orders a cada pergunta.
+ *
+ * Para cada vendedor são mantidos, em mapas concorrentes de primitivos ({@link LongKeyedSegmentedMap}, um {@code long} por chave):
+ * - soma dos valores (centavos) e quantidade de pedidos (6b e 6d);
+ * - quantos pedidos ele tem com cada cliente e com cada cidade (6a e 6c).
+ * Assim "vendedores sem pedidos com Samsonic" ou "com pedidos em Jackson" custam uma consulta por
+ * vendedor, O(vendedores), em vez de um join com Orders.
+ *
+ * Cada pedido guarda o seu vendedor, cliente e valor atuais, para que uma alteração ou remoção
+ * desfaça exatamente a contribuição anterior. Eventos de um mesmo pedido são serializados por um
+ * lock listrado pelo ID do pedido; eventos de pedidos diferentes rodam em paralelo. Leituras não
+ * bloqueiam e podem observar um evento aplicado parcialmente (ex: soma já atualizada e contagem não).
+ *
+ * Clientes devem ser registrados antes dos seus pedidos (a cidade é resolvida na inclusão). Para
+ * recuperação, ou depois de mudar a cidade de um cliente, use {@link #reconstruir(Connection)}.
+ */
+public class SalesAggregator {
+
+    private static final int LISTRAS = 256;
+
+    /** Valor de uma chave que não está em um dos mapas. */
+    private static final long AUSENTE = Long.MIN_VALUE;
+
+    private static final LongKeyedSegmentedMap.Colunas<long[]> VALORES = new LongKeyedSegmentedMap.Colunas<>() {
+        @Override
+        public long[] criar(int capacidade) {
+            return new long[capacidade];
+        }
+
+        @Override
+        public void copiar(long[] origem, int de, long[] destino, int para) {
+            destino[para] = origem[de];
+        }
+
+        @Override
+        public void limpar(long[] valores, int posicao) {
+            valores[posicao] = 0;
+        }
+    };
+
+    private final Object[] travasPedidos = new Object[LISTRAS];
+    private volatile Estado estado = new Estado(1_024);
+
+    public SalesAggregator() {
+        for (int i = 0; i < LISTRAS; i++) {
+            travasPedidos[i] = new Object();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o ID for {@code Integer.MIN_VALUE}, reservado pelos índices.
+     */
+    public void registrarVendedor(int id, String nome) {
+        estado.vendedores.put(validarVendedor(id), nome);
+    }
+
+    /**
+     * Remove o vendedor das consultas (como o DELETE da 6c). Os agregados dos seus pedidos são mantidos.
+     *
+     * @return true se o vendedor estava registrado.
+     */
+    public boolean removerVendedor(int id) {
+        return estado.vendedores.remove(id) != null;
+    }
+
+    public void registrarCliente(int id, String nome, String cidade) {
+        Estado atual = estado;
+        atual.clientesPorNome.computeIfAbsent(nome, n -> ConcurrentHashMap.newKeySet()).add(id);
+        trocar(atual.cidadeDoCliente, id, atual.codigoCidade(cidade));
+    }
+
+    /**
+     * Aplica a inclusão de um pedido. Se o pedido já existir, equivale a {@link #alterarPedido}.
+     */
+    public void incluirPedido(int idPedido, int idCliente, int idVendedor, long valorCentavos) {
+        alterarPedido(idPedido, idCliente, idVendedor, valorCentavos);
+    }
+
+    /**
+     * Aplica a alteração de um pedido: desfaz a contribuição anterior e aplica a nova.
+     * Se o pedido não existir, equivale a uma inclusão.
+     *
+     * @throws IllegalArgumentException Se o ID do vendedor for {@code Integer.MIN_VALUE}, reservado pelos índices.
+     */
+    public void alterarPedido(int idPedido, int idCliente, int idVendedor, long valorCentavos) {
+        validarVendedor(idVendedor);
+        Estado atual = estado;
+        synchronized (trava(idPedido)) {
+            long anterior = trocar(atual.vendedorClienteDoPedido, idPedido, par(idVendedor, idCliente));
+            long valorAnterior = trocar(atual.valorDoPedido, idPedido, valorCentavos);
+            if (anterior != AUSENTE) {
+                atual.aplicar(primeiro(anterior), segundo(anterior), valorAnterior, -1);
+            }
+            atual.aplicar(idVendedor, idCliente, valorCentavos, +1);
+        }
+    }
+
+    /**
+     * Aplica a remoção de um pedido.
+     *
+     * @return true se o pedido existia.
+     */
+    public boolean removerPedido(int idPedido) {
+        Estado atual = estado;
+        synchronized (trava(idPedido)) {
+            long anterior = remover(atual.vendedorClienteDoPedido, idPedido);
+            long valorAnterior = remover(atual.valorDoPedido, idPedido);
+            if (anterior == AUSENTE) {
+                return false;
+            }
+            atual.aplicar(primeiro(anterior), segundo(anterior), valorAnterior, -1);
+            return true;
+        }
+    }
+
+    /**
+     * @return O total vendido (centavos) pelo vendedor, ou 0.
+     */
+    public long totalVendasCentavos(int idVendedor) {
+        return ouZero(obter(estado.somaPorVendedor, idVendedor));
+    }
+
+    /**
+     * @return A quantidade de pedidos do vendedor, ou 0.
+     */
+    public long quantidadePedidos(int idVendedor) {
+        return ouZero(obter(estado.pedidosPorVendedor, idVendedor));
+    }
+
+    /**
+     * Questão 6d sem varrer Orders.
+     *
+     * @return O total de cada vendedor registrado, ordenado por nome (e por ID, em caso de nomes iguais).
+     */
+    public List<TotalVendas> totalVendasPorVendedor() {
+        Estado atual = estado;
+        List<TotalVendas> resultado = new ArrayList<>(atual.vendedores.size());
+        for (Map.Entry<Integer, String> vendedor : atual.vendedores.entrySet()) {
+            resultado.add(new TotalVendas(vendedor.getKey(), vendedor.getValue(),
+                    ouZero(obter(atual.somaPorVendedor, vendedor.getKey()))));
+        }
+        resultado.sort(Comparator.comparing(TotalVendas::getNome).thenComparingInt(TotalVendas::getIdVendedor));
+        return resultado;
+    }
+
+    /**
+     * Questão 6b sem varrer Orders.
+     *
+     * @return IDs (crescentes) dos vendedores com pelo menos {@code minimoPedidos} pedidos.
+     */
+    public int[] vendedoresComMinimoDePedidos(int minimoPedidos) {
+        Estado atual = estado;
+        return atual.filtrarVendedores(id -> ouZero(obter(atual.pedidosPorVendedor, id)) >= minimoPedidos);
+    }
+
+    /**
+     * Questão 6a sem join.
+     *
+     * @return Nomes, por ordem de ID, dos vendedores sem nenhum pedido com clientes de nome {@code nomeCliente}.
+     */
+    public List<String> vendedoresSemPedidosDoCliente(String nomeCliente) {
+        Estado atual = estado;
+        Set<Integer> clientes = atual.clientesPorNome.getOrDefault(nomeCliente, Set.of());
+        List<String> resultado = new ArrayList<>();
+        for (Map.Entry<Integer, String> vendedor : atual.vendedores.entrySet()) {
+            boolean temPedido = false;
+            for (int cliente : clientes) {
+                if (ouZero(obter(atual.pedidosPorVendedorCliente, par(vendedor.getKey(), cliente))) > 0) {
+                    temPedido = true;
+                    break;
+                }
+            }
+            if (!temPedido) {
+                resultado.add(vendedor.getValue());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Questão 6c sem join.
+     *
+     * @return IDs (crescentes) dos vendedores com pedidos para clientes da cidade.
+     */
+    public int[] vendedoresComPedidosNaCidade(String cidade) {
+        Estado atual = estado;
+        Integer codigo = atual.cidades.get(cidade);
+        if (codigo == null) {
+            return new int[0];
+        }
+        return atual.filtrarVendedores(id -> ouZero(obter(atual.pedidosPorVendedorCidade, par(id, codigo))) > 0);
+    }
+
+    /**
+     * Caminho de recuperação: recalcula todos os agregados a partir das tabelas e os troca de uma vez.
+     *
+     * Eventos aplicados durante a reconstrução vão para o estado antigo e se perdem na troca; pause a
+     * entrada de eventos (ou reaplique os posteriores ao início da leitura) ao usar este método.
+     *
+     * @param conexao Conexão com o esquema de sql/queries.sql; não é fechada por este método.
+     * @throws SQLException Em caso de erro de acesso ao banco.
+     */
+    public void reconstruir(Connection conexao) throws SQLException {
+        Estado novo = new Estado(1_024);
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT ID, Name FROM Salesperson");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                novo.vendedores.put(validarVendedor(rs.getInt(1)), rs.getString(2));
+            }
+        }
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT ID, Name, City FROM Customer");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                novo.clientesPorNome.computeIfAbsent(rs.getString(2), n -> ConcurrentHashMap.newKeySet()).add(id);
+                trocar(novo.cidadeDoCliente, id, novo.codigoCidade(rs.getString(3)));
+            }
+        }
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT ID, customer_id, salesperson_id, Amount FROM Orders")) {
+            ps.setFetchSize(10_000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int idPedido = rs.getInt(1);
+                    int idCliente = rs.getInt(2);
+                    int idVendedor = validarVendedor(rs.getInt(3));
+                    BigDecimal valor = rs.getBigDecimal(4);
+                    long centavos = valor == null ? 0 : valor.movePointRight(2).longValue();
+                    trocar(novo.vendedorClienteDoPedido, idPedido, par(idVendedor, idCliente));
+                    trocar(novo.valorDoPedido, idPedido, centavos);
+                    novo.aplicar(idVendedor, idCliente, centavos, +1);
+                }
+            }
+        }
+        estado = novo;
+    }
+
+    /**
+     * @return Chaves em todos os índices primitivos (pedidos, contadores e cidades dos clientes).
+     */
+    int chavesIndexadas() {
+        Estado atual = estado;
+        int total = 0;
+        for (LongKeyedSegmentedMap<long[]> mapa : List.of(atual.cidadeDoCliente, atual.vendedorClienteDoPedido,
+                atual.valorDoPedido, atual.somaPorVendedor, atual.pedidosPorVendedor,
+                atual.pedidosPorVendedorCliente, atual.pedidosPorVendedorCidade)) {
+            total += mapa.tamanho();
+        }
+        return total;
+    }
+
+    private Object trava(int idPedido) {
+        return travasPedidos[(idPedido * 0x9E3779B9) >>> 24]; // 8 bits mais altos => 256 listras
+    }
+
+    /**
+     * O par (Integer.MIN_VALUE, 0) coincide com {@link LongKeyedSegmentedMap#CHAVE_RESERVADA}; como o
+     * vendedor é sempre o primeiro elemento dos pares, basta recusar esse ID de vendedor.
+     */
+    private static int validarVendedor(int id) {
+        if (id == Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("ID de vendedor reservado: " + id);
+        }
+        return id;
+    }
+
+    private static long par(int a, int b) {
+        return (long) a << 32 | (b & 0xFFFF_FFFFL);
+    }
+
+    private static int primeiro(long par) {
+        return (int) (par >>> 32);
+    }
+
+    private static int segundo(long par) {
+        return (int) par;
+    }
+
+    private static LongKeyedSegmentedMap<long[]> novoMapa(int capacidadeEsperada) {
+        return new LongKeyedSegmentedMap<>(capacidadeEsperada, VALORES);
+    }
+
+    /**
+     * @return O valor da chave, ou {@link #AUSENTE}.
+     */
+    private static long obter(LongKeyedSegmentedMap<long[]> mapa, long chave) {
+        return mapa.lerLong(chave, AUSENTE, (valores, posicao) -> valores[posicao]);
+    }
+
+    /**
+     * Soma {@code delta} ao valor da chave (ausente conta como zero). Um contador que chega a zero é
+     * removido, para que pares vendedor/cliente e vendedor/cidade sem pedidos não fiquem no índice.
+     */
+    private static void somar(LongKeyedSegmentedMap<long[]> mapa, long chave, long delta) {
+        if (mapa.gravarLong(chave, delta, (valores, posicao, nova, d) -> valores[posicao] += d) == 0) {
+            mapa.removerSe(chave, (valores, posicao) -> valores[posicao] == 0);
+        }
+    }
+
+    /**
+     * @return O valor anterior, ou {@link #AUSENTE}.
+     */
+    private static long trocar(LongKeyedSegmentedMap<long[]> mapa, long chave, long valor) {
+        return mapa.gravarLong(chave, valor, (valores, posicao, nova, novo) -> {
+            long anterior = nova ? AUSENTE : valores[posicao];
+            valores[posicao] = novo;
+            return anterior;
+        });
+    }
+
+    /**
+     * @return O valor removido, ou {@link #AUSENTE}.
+     */
+    private static long remover(LongKeyedSegmentedMap<long[]> mapa, long chave) {
+        return mapa.removerLong(chave, AUSENTE, (valores, posicao) -> valores[posicao]);
+    }
+
+    private static long ouZero(long valor) {
+        return valor == AUSENTE ? 0 : valor;
+    }
+
+    /**
+     * Todos os agregados; trocado por inteiro em {@link #reconstruir(Connection)}.
+     */
+    private static final class Estado {
+        final ConcurrentSkipListMap<Integer, String> vendedores = new ConcurrentSkipListMap<>();
+        final ConcurrentHashMap<String, Set<Integer>> clientesPorNome = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, Integer> cidades = new ConcurrentHashMap<>();
+        final AtomicInteger proximaCidade = new AtomicInteger();
+        final LongKeyedSegmentedMap<long[]> cidadeDoCliente;
+        final LongKeyedSegmentedMap<long[]> vendedorClienteDoPedido;
+        final LongKeyedSegmentedMap<long[]> valorDoPedido;
+        final LongKeyedSegmentedMap<long[]> somaPorVendedor;
+        final LongKeyedSegmentedMap<long[]> pedidosPorVendedor;
+        final LongKeyedSegmentedMap<long[]> pedidosPorVendedorCliente;
+        final LongKeyedSegmentedMap<long[]> pedidosPorVendedorCidade;
+
+        Estado(int capacidadeEsperada) {
+            cidadeDoCliente = novoMapa(capacidadeEsperada);
+            vendedorClienteDoPedido = novoMapa(capacidadeEsperada);
+            valorDoPedido = novoMapa(capacidadeEsperada);
+            somaPorVendedor = novoMapa(capacidadeEsperada);
+            pedidosPorVendedor = novoMapa(capacidadeEsperada);
+            pedidosPorVendedorCliente = novoMapa(capacidadeEsperada);
+            pedidosPorVendedorCidade = novoMapa(capacidadeEsperada);
+        }
+
+        int codigoCidade(String cidade) {
+            return cidades.computeIfAbsent(cidade, c -> proximaCidade.getAndIncrement());
+        }
+
+        /**
+         * Soma (sinal +1) ou desfaz (sinal -1) a contribuição de um pedido em todos os agregados.
+         */
+        void aplicar(int idVendedor, int idCliente, long valorCentavos, int sinal) {
+            somar(somaPorVendedor, idVendedor, sinal * valorCentavos);
+            somar(pedidosPorVendedor, idVendedor, sinal);
+            somar(pedidosPorVendedorCliente, par(idVendedor, idCliente), sinal);
+            long cidade = obter(cidadeDoCliente, idCliente);
+            if (cidade != AUSENTE) {
+                somar(pedidosPorVendedorCidade, par(idVendedor, (int) cidade), sinal);
+            }
+        }
+
+        int[] filtrarVendedores(IntPredicate filtro) {
+            int[] ids = new int[16];
+            int quantidade = 0;
+            for (Integer id : vendedores.keySet()) {
+                if (filtro.test(id)) {
+                    if (quantidade == ids.length) {
+                        ids = Arrays.copyOf(ids, quantidade * 2);
+                    }
+                    ids[quantidade++] = id;
+                }
+            }
+            return Arrays.copyOf(ids, quantidade);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.vsi.teste.sales;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Motor em memória, colunar, para as consultas da Questão 6 (sql/queries.sql) sobre as tabelas
+ * Salesperson, Customer e Orders.
+ *
+ * Cada coluna é um array primitivo: IDs em {@code int[]}, valores em centavos em {@code long[]},
+ * datas como dia epoch em {@code int[]} e textos (nomes, cidades) codificados por dicionário.
+ * Os joins Orders→Customer e Orders→Salesperson são resolvidos uma vez, na carga, por índices hash
+ * de chave primária, e guardados como colunas de linha ({@code pedidoLinhaCliente},
+ * {@code pedidoLinhaVendedor}). Assim cada consulta é uma única passada sequencial sobre os pedidos:
+ * - 6a (NOT IN): anti-join por bitset de vendedores marcados;
+ * - 6b (GROUP BY ... HAVING): contagem em um {@code int[]} indexado pela linha do vendedor;
+ * - 6c (DELETE ... IN): semi-join por bitset de clientes da cidade; as linhas removidas viram lápides;
+ * - 6d (LEFT JOIN ... COALESCE(SUM)): soma em um {@code long[]} indexado pela linha do vendedor.
+ *
+ * Não é thread-safe: carregue, consulte e altere a partir de uma única thread.
+ */
+public class SalesAnalytics {
+
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    // --- Salesperson ---
+    private final Dicionario nomesVendedores = new Dicionario();
+    private final IndiceInt indiceVendedores = new IndiceInt(CAPACIDADE_INICIAL);
+    private int[] vendedorId = new int[CAPACIDADE_INICIAL];
+    private int[] vendedorNome = new int[CAPACIDADE_INICIAL];
+    private int[] vendedorIdade = new int[CAPACIDADE_INICIAL];
+    private long[] vendedorSalarioCentavos = new long[CAPACIDADE_INICIAL];
+    private long[] vendedorRemovido = new long[1]; // Bitset de lápides
+    private int quantidadeVendedores;
+
+    // --- Customer ---
+    private final Dicionario nomesClientes = new Dicionario();
+    private final Dicionario cidades = new Dicionario();
+    private final IndiceInt indiceClientes = new IndiceInt(CAPACIDADE_INICIAL);
+    private int[] clienteId = new int[CAPACIDADE_INICIAL];
+    private int[] clienteNome = new int[CAPACIDADE_INICIAL];
+    private int[] clienteCidade = new int[CAPACIDADE_INICIAL];
+    private char[] clienteIndustria = new char[CAPACIDADE_INICIAL];
+    private int quantidadeClientes;
+
+    // --- Orders ---
+    private int[] pedidoId = new int[CAPACIDADE_INICIAL];
+    private int[] pedidoData = new int[CAPACIDADE_INICIAL];
+    private int[] pedidoCliente = new int[CAPACIDADE_INICIAL];
+    private int[] pedidoVendedor = new int[CAPACIDADE_INICIAL];
+    private long[] pedidoValorCentavos = new long[CAPACIDADE_INICIAL];
+    private int[] pedidoLinhaCliente = new int[CAPACIDADE_INICIAL];
+    private int[] pedidoLinhaVendedor = new int[CAPACIDADE_INICIAL];
+    private int quantidadePedidos;
+
+    // Um vendedor ou cliente incluído depois dos pedidos exige refazer as colunas de join
+    private boolean joinsPendentes;
+
+    /**
+     * Carrega as três tabelas de um banco com o esquema de sql/queries.sql.
+     *
+     * @param conexao Conexão aberta; não é fechada por este método.
+     * @return O motor com os dados carregados.
+     * @throws SQLException Em caso de erro de acesso ao banco.
+     */
+    public static SalesAnalytics carregar(Connection conexao) throws SQLException {
+        SalesAnalytics analytics = new SalesAnalytics();
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT ID, Name, Age, Salary FROM Salesperson");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                analytics.adicionarVendedor(rs.getInt(1), rs.getString(2), rs.getInt(3), centavos(rs.getBigDecimal(4)));
+            }
+        }
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT ID, Name, City, Industry_Type FROM Customer");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String industria = rs.getString(4);
+                analytics.adicionarCliente(rs.getInt(1), rs.getString(2), rs.getString(3),
+                        industria == null || industria.isEmpty() ? ' ' : industria.charAt(0));
+            }
+        }
+        try (PreparedStatement ps = conexao.prepareStatement(
+                "SELECT ID, order_date, customer_id, salesperson_id, Amount FROM Orders")) {
+            ps.setFetchSize(10_000); // Orders é a tabela grande: evita uma ida ao banco por poucas linhas
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    analytics.adicionarPedido(rs.getInt(1), rs.getObject(2, LocalDate.class), rs.getInt(3), rs.getInt(4),
+                            centavos(rs.getBigDecimal(5)));
+                }
+            }
+        }
+        return analytics;
+    }
+
+    /**
+     * Inclui (ou substitui, se o ID já existir) um Salesperson.
+     */
+    public void adicionarVendedor(int id, String nome, int idade, long salarioCentavos) {
+        int linha = quantidadeVendedores;
+        if (linha == vendedorId.length) {
+            int capacidade = linha * 2;
+            vendedorId = Arrays.copyOf(vendedorId, capacidade);
+            vendedorNome = Arrays.copyOf(vendedorNome, capacidade);
+            vendedorIdade = Arrays.copyOf(vendedorIdade, capacidade);
+            vendedorSalarioCentavos = Arrays.copyOf(vendedorSalarioCentavos, capacidade);
+        }
+        if (linha >> 6 == vendedorRemovido.length) {
+            vendedorRemovido = Arrays.copyOf(vendedorRemovido, vendedorRemovido.length * 2);
+        }
+        vendedorId[linha] = id;
+        vendedorNome[linha] = nomesVendedores.codificar(nome);
+        vendedorIdade[linha] = idade;
+        vendedorSalarioCentavos[linha] = salarioCentavos;
+        quantidadeVendedores++;
+        int anterior = indiceVendedores.associar(id, linha);
+        if (anterior != IndiceInt.AUSENTE) {
+            marcar(vendedorRemovido, anterior);
+        }
+        joinsPendentes |= quantidadePedidos > 0;
+    }
+
+    /**
+     * Inclui (ou substitui, se o ID já existir) um Customer.
+     */
+    public void adicionarCliente(int id, String nome, String cidade, char industria) {
+        int linha = quantidadeClientes;
+        if (linha == clienteId.length) {
+            int capacidade = linha * 2;
+            clienteId = Arrays.copyOf(clienteId, capacidade);
+            clienteNome = Arrays.copyOf(clienteNome, capacidade);
+            clienteCidade = Arrays.copyOf(clienteCidade, capacidade);
+            clienteIndustria = Arrays.copyOf(clienteIndustria, capacidade);
+        }
+        clienteId[linha] = id;
+        clienteNome[linha] = nomesClientes.codificar(nome);
+        clienteCidade[linha] = cidades.codificar(cidade);
+        clienteIndustria[linha] = industria;
+        quantidadeClientes++;
+        indiceClientes.associar(id, linha);
+        joinsPendentes |= quantidadePedidos > 0;
+    }
+
+    /**
+     * Inclui um pedido. Cliente e vendedor são resolvidos pelo ID no momento da inclusão.
+     *
+     * @param data Data do pedido (pode ser null).
+     */
+    public void adicionarPedido(int id, LocalDate data, int idCliente, int idVendedor, long valorCentavos) {
+        int linha = quantidadePedidos;
+        if (linha == pedidoId.length) {
+            int capacidade = linha * 2;
+            pedidoId = Arrays.copyOf(pedidoId, capacidade);
+            pedidoData = Arrays.copyOf(pedidoData, capacidade);
+            pedidoCliente = Arrays.copyOf(pedidoCliente, capacidade);
+            pedidoVendedor = Arrays.copyOf(pedidoVendedor, capacidade);
+            pedidoValorCentavos = Arrays.copyOf(pedidoValorCentavos, capacidade);
+            pedidoLinhaCliente = Arrays.copyOf(pedidoLinhaCliente, capacidade);
+            pedidoLinhaVendedor = Arrays.copyOf(pedidoLinhaVendedor, capacidade);
+        }
+        pedidoId[linha] = id;
+        pedidoData[linha] = data == null ? Integer.MIN_VALUE : (int) data.toEpochDay();
+        pedidoCliente[linha] = idCliente;
+        pedidoVendedor[linha] = idVendedor;
+        pedidoValorCentavos[linha] = valorCentavos;
+        pedidoLinhaCliente[linha] = indiceClientes.linha(idCliente);
+        pedidoLinhaVendedor[linha] = indiceVendedores.linha(idVendedor);
+        quantidadePedidos++;
+    }
+
+    /**
+     * Questão 6a: nomes dos Salesperson que não têm nenhum pedido com o cliente informado.
+     *
+     * @param nomeCliente O nome do cliente (ex: "Samsonic").
+     * @return Os nomes, na ordem de inclusão dos vendedores.
+     */
+    public List<String> vendedoresSemPedidosDoCliente(String nomeCliente) {
+        resolverJoins();
+        long[] comPedido = new long[palavras(quantidadeVendedores)];
+        int codigo = nomesClientes.codigoDe(nomeCliente);
+        if (codigo != Dicionario.AUSENTE) {
+            long[] clientesAlvo = new long[palavras(quantidadeClientes)];
+            for (int c = 0; c < quantidadeClientes; c++) {
+                if (clienteNome[c] == codigo) {
+                    marcar(clientesAlvo, c);
+                }
+            }
+            marcarVendedoresComPedidosDe(clientesAlvo, comPedido);
+        }
+        List<String> resultado = new ArrayList<>();
+        for (int v = 0; v < quantidadeVendedores; v++) {
+            if (!marcado(vendedorRemovido, v) && !marcado(comPedido, v)) {
+                resultado.add(nomesVendedores.valor(vendedorNome[v]));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Questão 6b: acrescenta um sufixo ao nome dos Salesperson com pelo menos {@code minimoPedidos} pedidos.
+     *
+     * @param minimoPedidos Quantidade mínima de pedidos (2 na questão).
+     * @param sufixo        O texto a acrescentar ("*" na questão).
+     * @return O número de vendedores atualizados.
+     */
+    public int acrescentarSufixoAosVendedoresComPedidos(int minimoPedidos, String sufixo) {
+        resolverJoins();
+        int[] contagem = new int[quantidadeVendedores];
+        int[] linhaVendedor = pedidoLinhaVendedor;
+        for (int i = 0; i < quantidadePedidos; i++) {
+            int v = linhaVendedor[i];
+            if (v >= 0) {
+                contagem[v]++;
+            }
+        }
+        int atualizados = 0;
+        for (int v = 0; v < quantidadeVendedores; v++) {
+            if (contagem[v] >= minimoPedidos && !marcado(vendedorRemovido, v)) {
+                vendedorNome[v] = nomesVendedores.codificar(nomesVendedores.valor(vendedorNome[v]) + sufixo);
+                atualizados++;
+            }
+        }
+        return atualizados;
+    }
+
+    /**
+     * Questão 6c: remove os Salesperson que têm pedidos para clientes da cidade informada.
+     * Os pedidos são mantidos; apenas deixam de ser associados a um vendedor existente.
+     *
+     * @param cidade A cidade (ex: "Jackson").
+     * @return O número de vendedores removidos.
+     */
+    public int removerVendedoresComPedidosNaCidade(String cidade) {
+        resolverJoins();
+        int codigo = cidades.codigoDe(cidade);
+        if (codigo == Dicionario.AUSENTE) {
+            return 0;
+        }
+        long[] clientesDaCidade = new long[palavras(quantidadeClientes)];
+        for (int c = 0; c < quantidadeClientes; c++) {
+            if (clienteCidade[c] == codigo) {
+                marcar(clientesDaCidade, c);
+            }
+        }
+        long[] alvo = new long[palavras(quantidadeVendedores)];
+        marcarVendedoresComPedidosDe(clientesDaCidade, alvo);
+        int removidos = 0;
+        for (int p = 0; p < alvo.length; p++) {
+            long novos = alvo[p] & ~vendedorRemovido[p];
+            removidos += Long.bitCount(novos);
+            vendedorRemovido[p] |= novos;
+        }
+        return removidos;
+    }
+
+    /**
+     * Questão 6d: total vendido por cada Salesperson, com zero para quem não vendeu nada.
+     *
+     * @return Os totais ordenados por nome (e por ID, em caso de nomes iguais).
+     */
+    public List<TotalVendas> totalVendasPorVendedor() {
+        resolverJoins();
+        long[] totais = new long[quantidadeVendedores];
+        int[] linhaVendedor = pedidoLinhaVendedor;
+        long[] valores = pedidoValorCentavos;
+        for (int i = 0; i < quantidadePedidos; i++) {
+            int v = linhaVendedor[i];
+            if (v >= 0) {
+                totais[v] += valores[i];
+            }
+        }
+        List<TotalVendas> resultado = new ArrayList<>(quantidadeVendedores);
+        for (int v = 0; v < quantidadeVendedores; v++) {
+            if (!marcado(vendedorRemovido, v)) {
+                resultado.add(new TotalVendas(vendedorId[v], nomesVendedores.valor(vendedorNome[v]), totais[v]));
+            }
+        }
+        resultado.sort(Comparator.comparing(TotalVendas::getNome).thenComparingInt(TotalVendas::getIdVendedor));
+        return resultado;
+    }
+
+    /**
+     * @return Número de Salesperson ativos (sem contar os removidos).
+     */
+    public int quantidadeVendedores() {
+        int removidos = 0;
+        for (long palavra : vendedorRemovido) {
+            removidos += Long.bitCount(palavra);
+        }
+        return quantidadeVendedores - removidos;
+    }
+
+    public int quantidadePedidos() {
+        return quantidadePedidos;
+    }
+
+    /**
+     * Semi-join: marca em {@code vendedores} a linha de todo vendedor com pedido para um cliente marcado em {@code clientes}.
+     */
+    private void marcarVendedoresComPedidosDe(long[] clientes, long[] vendedores) {
+        int[] linhaCliente = pedidoLinhaCliente;
+        int[] linhaVendedor = pedidoLinhaVendedor;
+        for (int i = 0; i < quantidadePedidos; i++) {
+            int c = linhaCliente[i];
+            int v = linhaVendedor[i];
+            if (c >= 0 && v >= 0 && marcado(clientes, c)) {
+                marcar(vendedores, v);
+            }
+        }
+    }
+
+    private void resolverJoins() {
+        if (!joinsPendentes) {
+            return;
+        }
+        for (int i = 0; i < quantidadePedidos; i++) {
+            pedidoLinhaCliente[i] = indiceClientes.linha(pedidoCliente[i]);
+            pedidoLinhaVendedor[i] = indiceVendedores.linha(pedidoVendedor[i]);
+        }
+        joinsPendentes = false;
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor == null ? 0 : valor.movePointRight(2).longValue();
+    }
+
+    private static int palavras(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static void marcar(long[] bitset, int indice) {
+        bitset[indice >>> 6] |= 1L << indice;
+    }
+
+    private static boolean marcado(long[] bitset, int indice) {
+        return (bitset[indice >>> 6] & (1L << indice)) != 0;
+    }
+}
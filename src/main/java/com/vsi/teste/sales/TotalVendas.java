@@ -0,0 +1,49 @@
+package com.vsi.teste.sales;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Uma linha do resultado da Questão 6d: o total vendido por um Salesperson.
+ */
+public final class TotalVendas {
+
+    private final int idVendedor;
+    private final String nome;
+    private final long totalCentavos;
+
+    public TotalVendas(int idVendedor, String nome, long totalCentavos) {
+        this.idVendedor = idVendedor;
+        this.nome = nome;
+        this.totalCentavos = totalCentavos;
+    }
+
+    public int getIdVendedor() { return idVendedor; }
+    public String getNome() { return nome; }
+    public long getTotalCentavos() { return totalCentavos; }
+
+    /**
+     * @return O total com duas casas decimais, como o DECIMAL(10, 2) da coluna Amount.
+     */
+    public BigDecimal getTotal() {
+        return BigDecimal.valueOf(totalCentavos, 2);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TotalVendas that = (TotalVendas) o;
+        return idVendedor == that.idVendedor && totalCentavos == that.totalCentavos && Objects.equals(nome, that.nome);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(idVendedor, nome, totalCentavos);
+    }
+
+    @Override
+    public String toString() {
+        return nome + ": " + getTotal();
+    }
+}
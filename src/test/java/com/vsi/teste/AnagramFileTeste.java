@@ -0,0 +1,76 @@
+package com.vsi.teste;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da exportação de anagramas para arquivo de registros de largura fixa e da leitura por posição.
+ */
+class AnagramFileTeste {
+
+    private final AnagramGenerator generator = new AnagramGenerator();
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("O arquivo gravado em faixas paralelas deve ter uma linha por anagrama, em ordem lexicográfica")
+    void testExportacaoParalela() throws IOException {
+        Path arquivo = diretorio.resolve("anagramas.txt");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Faixas de 8 registros: força centenas de tarefas e mapeamentos
+            assertEquals(5040, AnagramFile.gravar("abcdefg".toCharArray(), arquivo, pool, 8 * 8));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(generator.gerarAnagramas("gfedcba"), Files.readAllLines(arquivo, StandardCharsets.US_ASCII));
+        assertEquals(5040L * 8, Files.size(arquivo));
+        assertFalse(Files.exists(diretorio.resolve("anagramas.txt.parcial")));
+    }
+
+    @Test
+    @DisplayName("A leitura por posição deve coincidir com anagramaNaPosicao")
+    void testLeituraPorPosicao() throws IOException {
+        Path arquivo = diretorio.resolve("anagramas.txt");
+        assertEquals(362_880, generator.exportarAnagramas("ihgfedcba", arquivo));
+
+        try (AnagramFile anagramas = AnagramFile.abrir(arquivo)) {
+            assertEquals(362_880, anagramas.tamanho());
+            assertEquals("abcdefghi", anagramas.getLetras());
+            for (long indice : new long[]{0, 1, 40_319, 181_440, 362_879}) {
+                assertEquals(generator.anagramaNaPosicao("abcdefghi", indice), anagramas.anagrama(indice));
+            }
+            byte[] destino = new byte[11];
+            anagramas.ler(362_879, destino, 2);
+            assertEquals("ihgfedcba", new String(destino, 2, 9, StandardCharsets.US_ASCII));
+            assertThrows(IndexOutOfBoundsException.class, () -> anagramas.anagrama(362_880));
+            assertThrows(IndexOutOfBoundsException.class, () -> anagramas.anagrama(-1));
+        }
+    }
+
+    @Test
+    @DisplayName("Entradas inválidas e arquivos truncados ou alheios devem ser recusados")
+    void testValidacoes() throws IOException {
+        Path arquivo = diretorio.resolve("anagramas.txt");
+        assertThrows(IllegalArgumentException.class, () -> generator.exportarAnagramas("aab", arquivo));
+        assertThrows(IllegalArgumentException.class, () -> generator.exportarAnagramas("abcdefghijklmnopqrstu", arquivo));
+        assertFalse(Files.exists(arquivo));
+
+        generator.exportarAnagramas("dcba", arquivo);
+        Files.write(arquivo, List.of("abcd", "abdc"), StandardCharsets.US_ASCII);
+        assertThrows(IOException.class, () -> AnagramFile.abrir(arquivo), "Arquivo truncado");
+        Files.write(arquivo, new byte[0]);
+        assertThrows(IOException.class, () -> AnagramFile.abrir(arquivo), "Arquivo vazio");
+    }
+}
@@ -4,16 +4,25 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Testes unitários para a classe AnagramGenerator.
  */
-class AnagramGeneratorTest {
+class AnagramGeneratorTeste {
 
     private AnagramGenerator generator;
 
@@ -54,6 +63,160 @@ class AnagramGeneratorTest {
         assertEquals(expected, actual, "Os anagramas gerados devem corresponder ao esperado");
     }
 
+    // --- Testes da API preguiçosa (Iterator / Stream) ---
+
+    @Test
+    @DisplayName("Iterador deve produzir a mesma sequência ordenada de gerarAnagramas")
+    void testIterarAnagramas_MesmaSequenciaQueLista() {
+        List<String> esperado = generator.gerarAnagramas("dBca");
+        List<String> atual = new ArrayList<>();
+        generator.iterarAnagramas("dBca").forEachRemaining(atual::add);
+        assertEquals(esperado, atual, "O iterador deve seguir a ordem lexicográfica da lista");
+    }
+
+    @Test
+    @DisplayName("Iterador esgotado deve lançar NoSuchElementException")
+    void testIterarAnagramas_Esgotado() {
+        Iterator<String> iterador = generator.iterarAnagramas("a");
+        assertEquals("a", iterador.next());
+        assertFalse(iterador.hasNext());
+        assertThrows(NoSuchElementException.class, iterador::next);
+    }
+
+    @Test
+    @DisplayName("Stream deve permitir parar cedo sem materializar todas as permutações")
+    void testStreamAnagramas_ParadaAntecipada() {
+        // 15! permutações: inviável materializar, mas os primeiros resultados saem imediatamente
+        List<String> primeiros = generator.streamAnagramas("onmlkjihgfedcba").limit(3).collect(Collectors.toList());
+        assertEquals(Arrays.asList("abcdefghijklmno", "abcdefghijklmon", "abcdefghijklnmo"), primeiros);
+        assertEquals(6, generator.streamAnagramas("cab").count());
+    }
+
+    @Test
+    @DisplayName("Iterador deve validar a entrada como gerarAnagramas")
+    void testIterarAnagramas_EntradaInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> generator.iterarAnagramas("aab"));
+        assertThrows(IllegalArgumentException.class, () -> generator.streamAnagramas(""));
+    }
+
+    // --- Testes do motor de permutações (visitor) ---
+
+    @Test
+    @DisplayName("Visitor deve receber todas as permutações distintas reutilizando o mesmo buffer")
+    void testVisitarAnagramas_TodasPermutacoes() {
+        Set<String> vistos = new HashSet<>();
+        Set<char[]> buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+        boolean completo = generator.visitarAnagramas("abcde", (permutacao, tamanho) -> {
+            buffers.add(permutacao);
+            return vistos.add(new String(permutacao, 0, tamanho));
+        });
+        assertTrue(completo);
+        assertEquals(120, vistos.size(), "Devem ser visitadas 5! permutações distintas");
+        assertEquals(1, buffers.size(), "O motor deve reutilizar um único char[]");
+    }
+
+    @Test
+    @DisplayName("Visitor retornando false deve interromper a geração")
+    void testVisitarAnagramas_Interrupcao() {
+        int[] visitas = {0};
+        boolean completo = generator.visitarAnagramas("abcdef", (permutacao, tamanho) -> ++visitas[0] < 10);
+        assertFalse(completo);
+        assertEquals(10, visitas[0]);
+    }
+
+    // --- Testes da geração paralela ---
+
+    @Test
+    @DisplayName("Geração paralela deve produzir exatamente a lista sequencial")
+    void testGerarAnagramasParalelo_MesmaOrdemQueSequencial() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(generator.gerarAnagramas("hgfedcBa"), generator.gerarAnagramasParalelo("hgfedcBa", pool));
+            assertEquals(generator.gerarAnagramas("ab"), generator.gerarAnagramasParalelo("ab", pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Geração paralela deve recusar entradas grandes demais para materializar")
+    void testGerarAnagramasParalelo_EntradaGrandeDemais() {
+        assertThrows(IllegalArgumentException.class, () -> generator.gerarAnagramasParalelo("abcdefghijklm"));
+    }
+
+    // --- Testes de acesso por posição (rank/unrank) ---
+
+    @Test
+    @DisplayName("anagramaNaPosicao e posicaoDoAnagrama devem ser inversas e seguir a lista ordenada")
+    void testPosicao_RankUnrankConsistentes() {
+        List<String> todos = generator.gerarAnagramas("bDcae");
+        for (int i = 0; i < todos.size(); i++) {
+            assertEquals(todos.get(i), generator.anagramaNaPosicao("bDcae", i));
+            assertEquals(i, generator.posicaoDoAnagrama("bDcae", todos.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Acesso por posição deve funcionar para 20 letras sem gerar as anteriores")
+    void testPosicao_VinteLetras() {
+        String letras = "tsrqponmlkjihgfedcba";
+        assertEquals("abcdefghijklmnopqrst", generator.anagramaNaPosicao(letras, 0));
+        assertEquals("tsrqponmlkjihgfedcba", generator.anagramaNaPosicao(letras, 2432902008176639999L));
+        assertEquals(1_000_000L, generator.posicaoDoAnagrama(letras, generator.anagramaNaPosicao(letras, 1_000_000L)));
+    }
+
+    @Test
+    @DisplayName("Stream por faixa deve devolver a fatia correspondente da lista completa")
+    void testStreamAnagramas_Faixa() {
+        List<String> todos = generator.gerarAnagramas("abcdef");
+        assertEquals(todos.subList(100, 110), generator.streamAnagramas("abcdef", 100, 10).collect(Collectors.toList()));
+        assertEquals(todos.subList(715, 720), generator.streamAnagramas("abcdef", 715, 50).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Acesso por posição deve rejeitar índices e anagramas inválidos")
+    void testPosicao_EntradasInvalidas() {
+        assertThrows(IndexOutOfBoundsException.class, () -> generator.anagramaNaPosicao("abc", 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> generator.streamAnagramas("abc", -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> generator.posicaoDoAnagrama("abc", "abd"));
+        assertThrows(IllegalArgumentException.class, () -> generator.anagramaNaPosicao("abcdefghijklmnopqrstu", 0));
+    }
+
+    // --- Testes de multiconjunto (letras repetidas) ---
+
+    @Test
+    @DisplayName("Multiconjunto deve gerar anagramas distintos e ordenados de 'banana'")
+    void testMulticonjunto_Banana() {
+        List<String> anagramas = generator.streamAnagramasMulticonjunto("banana", false).collect(Collectors.toList());
+        assertEquals(60, anagramas.size(), "6! / (3! * 2!) = 60");
+        assertEquals(60, new HashSet<>(anagramas).size(), "Não deve haver duplicatas");
+        List<String> ordenados = new ArrayList<>(anagramas);
+        Collections.sort(ordenados);
+        assertEquals(ordenados, anagramas);
+        assertEquals("aaabnn", anagramas.get(0));
+        assertEquals("nnbaaa", anagramas.get(59));
+    }
+
+    @Test
+    @DisplayName("Multiconjunto deve respeitar a opção de ignorar maiúsculas")
+    void testMulticonjunto_IgnorarMaiusculas() {
+        assertEquals(Arrays.asList("aab", "aba", "baa"),
+                generator.streamAnagramasMulticonjunto("aAb", true).collect(Collectors.toList()));
+        assertEquals(6, generator.streamAnagramasMulticonjunto("aAb", false).count());
+    }
+
+    @Test
+    @DisplayName("contarAnagramas deve calcular n!/∏k! exatamente, inclusive para entradas enormes")
+    void testContarAnagramas() {
+        assertEquals(BigInteger.valueOf(60), generator.contarAnagramas("banana", false));
+        assertEquals(BigInteger.valueOf(34650), generator.contarAnagramas("Mississippi", true));
+        assertEquals(BigInteger.ONE, generator.contarAnagramas("aaaa", false));
+        // 30! não cabe em long
+        assertEquals(new BigInteger("265252859812191058636308480000000"),
+                generator.contarAnagramas("abcdefghijklmnopqrstuvwxyzABCD", false));
+        assertThrows(IllegalArgumentException.class, () -> generator.contarAnagramas("ba1", false));
+    }
+
 
     // --- Testes de Casos de Borda e Inválidos ---
 
@@ -111,4 +274,15 @@ class AnagramGeneratorTest {
         );
         assertTrue(thrown.getMessage().contains("distintas"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Teste com entrada grande demais para uma lista (13! elementos) deve lançar IllegalArgumentException")
+    void testGerarAnagramas_EntradaGrandeDemais() {
+        IllegalArgumentException thrown = assertThrows(
+                IllegalArgumentException.class,
+                () -> generator.gerarAnagramas("abcdefghijklm"),
+                "Esperado IllegalArgumentException antes de tentar alocar a lista"
+        );
+        assertTrue(thrown.getMessage().contains("iterarAnagramas"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.vsi.teste;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe AnagramSolver.
+ */
+class AnagramSolverTeste {
+
+    private AnagramSolver solver;
+
+    @BeforeEach
+    void setUp() {
+        solver = new AnagramSolver(Arrays.asList(
+                "dirty", "room", "dormitory", "listen", "silent", "enlist", "tinsel",
+                "a", "an", "ant", "tan", "nat", "Roma", "amor", "mora", "ramo", "x-ray", ""));
+    }
+
+    @Test
+    @DisplayName("Deve encontrar anagramas de uma única palavra ignorando maiúsculas")
+    void testBuscarPalavras() {
+        assertEquals(Arrays.asList("enlist", "listen", "silent", "tinsel"), solver.buscarPalavras("LiStEn"));
+        assertEquals(Arrays.asList("amor", "mora", "ramo", "roma"), solver.buscarPalavras("omar"));
+        assertTrue(solver.buscarPalavras("zzz").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar palavras inválidas e duplicadas do dicionário")
+    void testDicionarioNormalizado() {
+        assertEquals(16, solver.tamanhoDicionario(), "'x-ray' e '' devem ser descartadas, 'Roma' vira 'roma'");
+    }
+
+    @Test
+    @DisplayName("Deve encontrar frases com várias palavras, sem repetir a mesma combinação em outra ordem")
+    void testBuscarFrases() {
+        List<String> frases = solver.buscarFrases("dormitory", 4, 100);
+        assertEquals(Arrays.asList("dirty room", "dormitory"), frases);
+    }
+
+    @Test
+    @DisplayName("Tamanho mínimo da palavra deve podar palavras curtas")
+    void testBuscarFrases_TamanhoMinimo() {
+        assertEquals(Arrays.asList("a a ant", "a a nat", "a a tan"), sorted(solver.buscarFrases("aaant", 1, 100)));
+        assertTrue(solver.buscarFrases("aaant", 4, 100).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Entradas com mais de 20 letras devem ser resolvidas rapidamente e respeitar o limite de resultados")
+    void testBuscarFrases_EntradaLonga() {
+        long inicio = System.nanoTime();
+        List<String> frases = solver.buscarFrases("dormitorylistensilentroma", 3, 5);
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        assertEquals(5, frases.size());
+        assertTrue(duracaoMs < 1_000, "A poda pela trie deve evitar a explosão de 25! permutações");
+    }
+
+    @Test
+    @DisplayName("Entradas inválidas devem lançar IllegalArgumentException")
+    void testEntradaInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> solver.buscarPalavras(null));
+        assertThrows(IllegalArgumentException.class, () -> solver.buscarFrases("a1", 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> solver.buscarFrases("abc", 0, 10));
+    }
+
+    private static List<String> sorted(List<String> lista) {
+        List<String> copia = new ArrayList<>(lista);
+        Collections.sort(copia);
+        return copia;
+    }
+}
@@ -0,0 +1,76 @@
+package com.vsi.teste;
+
+import com.vsi.teste.EqualsHashCodeExample.Pessoa;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe Cpf.
+ */
+class CpfTeste {
+
+    @Test
+    @DisplayName("CPFs com dígitos verificadores corretos devem ser aceitos com ou sem pontuação")
+    void testIsValido_CpfsValidos() {
+        assertTrue(Cpf.isValido("123.456.789-09"));
+        assertTrue(Cpf.isValido("12345678909"));
+        assertTrue(Cpf.isValido("987.654.321-00"));
+        assertTrue(Cpf.isValido("000.000.001-91"));
+    }
+
+    @Test
+    @DisplayName("CPFs com verificadores errados, tamanho errado, caracteres inválidos ou dígitos repetidos devem ser rejeitados")
+    void testIsValido_CpfsInvalidos() {
+        assertFalse(Cpf.isValido("123.456.789-00"), "Primeiro verificador errado");
+        assertFalse(Cpf.isValido("123.456.789-08"), "Segundo verificador errado");
+        assertFalse(Cpf.isValido("1234567890"));
+        assertFalse(Cpf.isValido("123456789091"));
+        assertFalse(Cpf.isValido("123.456.789/09"));
+        assertFalse(Cpf.isValido("111.111.111-11"));
+        assertFalse(Cpf.isValido(""));
+        assertFalse(Cpf.isValido(null));
+    }
+
+    @Test
+    @DisplayName("normalizar deve remover a pontuação e completar deve gerar verificadores corretos")
+    void testNormalizarECompletar() {
+        assertEquals("12345678909", Cpf.normalizar(" 123.456.789-09 "));
+        assertEquals(12345678909L, Cpf.completar(123456789L));
+        assertEquals(191L, Cpf.completar(1L));
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> Cpf.normalizar("123.456.789-00"));
+        assertTrue(thrown.getMessage().contains("verificadores"));
+    }
+
+    @Test
+    @DisplayName("Pessoa deve usar o CPF normalizado como identidade")
+    void testPessoaComCpfNormalizado() {
+        Pessoa formatado = new Pessoa("Alice", "123.456.789-09", 30);
+        Pessoa somenteDigitos = new Pessoa("Alice Silva", "12345678909", 31);
+        assertEquals(formatado, somenteDigitos);
+        assertEquals(formatado.hashCode(), somenteDigitos.hashCode());
+        assertEquals("12345678909", formatado.getCpf());
+        assertThrows(IllegalArgumentException.class, () -> new Pessoa("Bob", "123.456.789-00", 40));
+    }
+
+    @Test
+    @DisplayName("Validação em lote deve processar bytes e texto linha a linha")
+    void testValidarLote() {
+        String arquivo = "123.456.789-09\r\n98765432100\n123.456.789-00\n\n000.000.001-91";
+        long[] chaves = new long[8];
+
+        byte[] bytes = arquivo.getBytes(StandardCharsets.US_ASCII);
+        assertEquals(5, Cpf.validarLote(bytes, 0, bytes.length, chaves));
+        assertArrayEquals(new long[]{12345678909L, 98765432100L, Cpf.INVALIDO, Cpf.INVALIDO, 191L},
+                Arrays.copyOf(chaves, 5));
+
+        long[] chavesTexto = new long[8];
+        assertEquals(5, Cpf.validarLote(CharBuffer.wrap(arquivo), chavesTexto));
+        assertArrayEquals(chaves, chavesTexto);
+    }
+}
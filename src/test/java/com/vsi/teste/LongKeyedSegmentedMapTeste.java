@@ -0,0 +1,162 @@
+package com.vsi.teste;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe LongKeyedSegmentedMap.
+ */
+class LongKeyedSegmentedMapTeste {
+
+    private static final LongKeyedSegmentedMap.Colunas<long[]> VALORES = new LongKeyedSegmentedMap.Colunas<>() {
+        @Override
+        public long[] criar(int capacidade) {
+            return new long[capacidade];
+        }
+
+        @Override
+        public void copiar(long[] origem, int de, long[] destino, int para) {
+            destino[para] = origem[de];
+        }
+
+        @Override
+        public void limpar(long[] valores, int posicao) {
+            valores[posicao] = 0;
+        }
+    };
+
+    private static long obter(LongKeyedSegmentedMap<long[]> mapa, long chave) {
+        return mapa.lerLong(chave, -1, (valores, posicao) -> valores[posicao]);
+    }
+
+    private static long somar(LongKeyedSegmentedMap<long[]> mapa, long chave, long delta) {
+        return mapa.gravarLong(chave, delta, (valores, posicao, nova, d) -> valores[posicao] += d);
+    }
+
+    @Test
+    @DisplayName("Chaves devem sobreviver aos redimensionamentos, inclusive negativas e sequenciais")
+    void testRedimensionamento() {
+        LongKeyedSegmentedMap<long[]> mapa = new LongKeyedSegmentedMap<>(0, VALORES);
+        for (long chave = -50_000; chave < 50_000; chave++) {
+            somar(mapa, chave, chave * 3);
+        }
+        assertEquals(100_000, mapa.tamanho());
+        for (long chave = -50_000; chave < 50_000; chave++) {
+            assertEquals(chave * 3, obter(mapa, chave));
+        }
+        assertEquals(-1, obter(mapa, 50_000));
+
+        AtomicLong soma = new AtomicLong();
+        mapa.paraCada((valores, posicao) -> soma.addAndGet(valores[posicao]));
+        assertEquals(-150_000, soma.get());
+    }
+
+    @Test
+    @DisplayName("Alterar não deve inserir e a chave reservada deve ser rejeitada")
+    void testAlterarEChaveReservada() {
+        LongKeyedSegmentedMap<long[]> mapa = new LongKeyedSegmentedMap<>(16, VALORES);
+        LongKeyedSegmentedMap.Escrita<long[], Long, Long> atribuir = (valores, posicao, nova, valor) -> valores[posicao] = valor;
+
+        assertNull(mapa.alterar(7, 1L, atribuir));
+        assertEquals(0, mapa.tamanho());
+        assertEquals(Boolean.TRUE, mapa.gravar(7, 1L, (valores, posicao, nova, valor) -> nova));
+        assertEquals(5L, mapa.alterar(7, 5L, atribuir));
+        assertEquals(5, obter(mapa, 7));
+        assertNull(mapa.ler(8, (valores, posicao) -> valores[posicao]));
+
+        assertThrows(IllegalArgumentException.class, () -> somar(mapa, LongKeyedSegmentedMap.CHAVE_RESERVADA, 1));
+        assertEquals(-1, obter(mapa, LongKeyedSegmentedMap.CHAVE_RESERVADA));
+        assertNull(mapa.remover(LongKeyedSegmentedMap.CHAVE_RESERVADA, (valores, posicao) -> valores[posicao]));
+        assertEquals(1, mapa.tamanho());
+
+        assertThrows(IllegalStateException.class, () -> mapa.gravar(9, 1L, (valores, posicao, nova, valor) -> {
+            valores[posicao] = valor;
+            throw new IllegalStateException("falha na escrita");
+        }));
+        assertEquals(-1, obter(mapa, 9), "Uma inserção que falhou não deve deixar a chave");
+        assertEquals(0, somar(mapa, 9, 0), "Nem valores na posição");
+        assertTrue(mapa.removerSe(9, (valores, posicao) -> valores[posicao] == 0));
+        assertThrows(IllegalStateException.class, () -> mapa.ler(7, (valores, posicao) -> {
+            throw new IllegalStateException("falha da leitura");
+        }));
+
+        assertFalse(mapa.removerSe(7, (valores, posicao) -> valores[posicao] == 0));
+        assertEquals(5, mapa.removerLong(7, -1, (valores, posicao) -> valores[posicao]));
+        assertEquals(-1, mapa.removerLong(7, -1, (valores, posicao) -> valores[posicao]));
+        assertEquals(0, mapa.tamanho());
+    }
+
+    @Test
+    @DisplayName("Remoções devem manter alcançáveis as chaves do mesmo cluster e liberar as posições")
+    void testRemocao() {
+        LongKeyedSegmentedMap<long[]> mapa = new LongKeyedSegmentedMap<>(0, VALORES);
+        for (long chave = 0; chave < 20_000; chave++) {
+            somar(mapa, chave, chave);
+        }
+        for (long chave = 0; chave < 20_000; chave += 3) {
+            assertEquals((Long) chave, mapa.remover(chave, (valores, posicao) -> valores[posicao]));
+        }
+        assertNull(mapa.remover(0, (valores, posicao) -> valores[posicao]));
+        for (long chave = 0; chave < 20_000; chave++) {
+            assertEquals(chave % 3 == 0 ? -1 : chave, obter(mapa, chave));
+        }
+        assertEquals(20_000 - 6_667, mapa.tamanho());
+
+        // Ciclos de inserção e remoção não devem acumular lixo nem exigir redimensionamento
+        for (int ciclo = 0; ciclo < 50; ciclo++) {
+            for (long chave = 1_000_000; chave < 1_010_000; chave++) {
+                somar(mapa, chave, 1);
+            }
+            for (long chave = 1_000_000; chave < 1_010_000; chave++) {
+                assertNotNull(mapa.remover(chave, (valores, posicao) -> valores[posicao]));
+            }
+        }
+        assertEquals(20_000 - 6_667, mapa.tamanho());
+        assertEquals(19_999, obter(mapa, 19_999));
+        assertEquals(0, somar(mapa, 0, 0), "Uma chave removida deve voltar com o valor padrão");
+    }
+
+    @Test
+    @DisplayName("Leituras otimistas concorrentes com inserções não devem perder nem corromper valores")
+    void testConcorrencia() throws Exception {
+        LongKeyedSegmentedMap<long[]> mapa = new LongKeyedSegmentedMap<>(0, VALORES);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> escritor = executor.submit(() -> {
+                for (long chave = 0; chave < 200_000; chave++) {
+                    somar(mapa, chave, chave + 1);
+                }
+            });
+            Future<?> leitor = executor.submit(() -> {
+                while (!escritor.isDone()) {
+                    for (long chave = 0; chave < 1_000; chave++) {
+                        long valor = obter(mapa, chave);
+                        assertTrue(valor == -1 || valor == chave + 1, "Valor corrompido: " + valor);
+                        // Uma leitura que falha com uma posição pela metade deve ser repetida, não propagada
+                        Long exigente = mapa.ler(chave, (valores, posicao) -> {
+                            if (valores[posicao] == 0) {
+                                throw new IllegalStateException("posição pela metade");
+                            }
+                            return valores[posicao];
+                        });
+                        assertTrue(exigente == null || exigente == chave + 1, "Valor corrompido: " + exigente);
+                    }
+                }
+            });
+            escritor.get(30, TimeUnit.SECONDS);
+            leitor.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(200_000, mapa.tamanho());
+        assertEquals(200_000, obter(mapa, 199_999));
+    }
+}
@@ -0,0 +1,128 @@
+package com.vsi.teste;
+
+import com.vsi.teste.PessoaCsvImporter.Configuracao;
+import com.vsi.teste.PessoaCsvImporter.PoliticaConflito;
+import com.vsi.teste.PessoaCsvImporter.Relatorio;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da importação de CSV de pessoas com remoção de duplicados por CPF.
+ */
+class PessoaCsvImporterTeste {
+
+    @TempDir
+    Path diretorio;
+
+    private static String cpf(long base) {
+        return Cpf.paraTexto(Cpf.completar(base));
+    }
+
+    @Test
+    @DisplayName("Duplicados devem ser resolvidos pela política e linhas inválidas ignoradas e contadas")
+    void testPoliticasELinhasInvalidas() throws IOException {
+        String ana = cpf(123_456_789);
+        String bia = cpf(987_654_321);
+        String formatado = ana.substring(0, 3) + "." + ana.substring(3, 6) + "." + ana.substring(6, 9) + "-" + ana.substring(9);
+        Path entrada = diretorio.resolve("pessoas.csv");
+        Files.writeString(entrada, "nome,cpf,idade\r\n"
+                + "Ana," + ana + ",30\r\n"
+                + "\"Souza, Bia\"," + bia + ", 41 \n"
+                + "\n"
+                + "Sem idade," + cpf(1) + ",\n"
+                + "CPF errado,123.456.789-00,20\n"
+                + "Quatro colunas," + cpf(2) + ",20,x\n"
+                + "Ana Maria," + formatado + ",31\n"
+                + "Ana Paula," + ana + ",31", StandardCharsets.UTF_8); // Sem '\n' no fim
+
+        Path saida = diretorio.resolve("unicas.csv");
+        Relatorio ultima = new PessoaCsvImporter().importar(entrada, saida);
+        List<String> linhasUltima = Files.readAllLines(saida, StandardCharsets.UTF_8);
+        Relatorio primeira = new PessoaCsvImporter(Configuracao.padrao().politica(PoliticaConflito.PRIMEIRA_VENCE))
+                .importar(entrada, saida);
+        List<String> linhasPrimeira = Files.readAllLines(saida, StandardCharsets.UTF_8);
+
+        assertEquals(List.of("nome,cpf,idade", "Ana Paula," + ana + ",31", "\"Souza, Bia\"," + bia + ",41"), linhasUltima);
+        assertEquals(List.of("nome,cpf,idade", "Ana," + ana + ",30", "\"Souza, Bia\"," + bia + ",41"), linhasPrimeira);
+        for (Relatorio relatorio : List.of(ultima, primeira)) {
+            assertEquals(7, relatorio.getLinhasLidas());
+            assertEquals(3, relatorio.getLinhasInvalidas());
+            assertEquals(List.of(5L, 6L, 7L), relatorio.getPrimeirasLinhasInvalidas());
+            assertEquals(2, relatorio.getPessoasUnicas());
+            assertEquals(2, relatorio.getDuplicadas());
+            assertEquals(1, relatorio.getCpfsComIdadesDivergentes());
+            assertEquals(0, relatorio.getCorridasDerramadas());
+            assertTrue(relatorio.getPicoHeapBytes() > 0);
+        }
+        assertFalse(Files.exists(diretorio.resolve("unicas.csv.parcial")));
+    }
+
+    @Test
+    @DisplayName("Acima do orçamento, a ordenação externa deve produzir o mesmo resultado que a deduplicação em memória")
+    void testDerramamentoEmDisco() throws IOException {
+        SplittableRandom aleatorio = new SplittableRandom(7);
+        Path entrada = diretorio.resolve("grande.csv");
+        TreeMap<Long, String> primeiras = new TreeMap<>();
+        TreeMap<Long, String> ultimas = new TreeMap<>();
+        StringBuilder csv = new StringBuilder("nome,cpf,idade\n");
+        for (int i = 0; i < 30_000; i++) {
+            long chave = Cpf.completar(aleatorio.nextInt(8_000) * 7_919L + 100);
+            String linha = "Pessoa " + "x".repeat(aleatorio.nextInt(20)) + i + "," + Cpf.paraTexto(chave) + "," + aleatorio.nextInt(100);
+            csv.append(linha).append('\n');
+            primeiras.putIfAbsent(chave, linha);
+            ultimas.put(chave, linha);
+        }
+        Files.writeString(entrada, csv, StandardCharsets.US_ASCII);
+        Path temporarios = Files.createDirectory(diretorio.resolve("temporarios"));
+
+        for (PoliticaConflito politica : PoliticaConflito.values()) {
+            Path saida = diretorio.resolve(politica + ".csv");
+            Relatorio relatorio = new PessoaCsvImporter(Configuracao.padrao().politica(politica)
+                    .tamanhoBloco(512).orcamentoMemoria(16 * 1024).diretorioTemporario(temporarios))
+                    .importar(entrada, saida);
+
+            List<String> esperado = new ArrayList<>();
+            esperado.add("nome,cpf,idade");
+            esperado.addAll((politica == PoliticaConflito.PRIMEIRA_VENCE ? primeiras : ultimas).values());
+            assertEquals(esperado, Files.readAllLines(saida, StandardCharsets.US_ASCII), politica.toString());
+            assertTrue(relatorio.getCorridasDerramadas() > 10, relatorio.toString());
+            assertEquals(30_000, relatorio.getLinhasLidas());
+            assertEquals(primeiras.size(), relatorio.getPessoasUnicas());
+            try (Stream<Path> restantes = Files.list(temporarios)) {
+                assertEquals(0, restantes.count(), "As corridas devem ser apagadas");
+            }
+
+            Relatorio emMemoria = new PessoaCsvImporter(Configuracao.padrao().politica(politica))
+                    .importar(entrada, diretorio.resolve("memoria.csv"));
+            assertEquals(0, emMemoria.getCorridasDerramadas());
+            assertEquals(emMemoria.getCpfsComIdadesDivergentes(), relatorio.getCpfsComIdadesDivergentes());
+            assertEquals(Files.readAllLines(diretorio.resolve("memoria.csv")), esperado);
+        }
+    }
+
+    @Test
+    @DisplayName("Uma linha maior que o bloco deve falhar sem deixar arquivo de saída")
+    void testLinhaMaiorQueBloco() throws IOException {
+        Path entrada = diretorio.resolve("pessoas.csv");
+        Files.writeString(entrada, "nome,cpf,idade\n" + "N".repeat(200) + "," + cpf(5) + ",1\n");
+        Path saida = diretorio.resolve("unicas.csv");
+        PessoaCsvImporter importador = new PessoaCsvImporter(Configuracao.padrao().tamanhoBloco(128));
+        assertThrows(IOException.class, () -> importador.importar(entrada, saida));
+        assertFalse(Files.exists(saida));
+        assertFalse(Files.exists(diretorio.resolve("unicas.csv.parcial")));
+        assertThrows(IllegalArgumentException.class, () -> new PessoaCsvImporter(Configuracao.padrao().orcamentoMemoria(100)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.vsi.teste;
+
+import com.vsi.teste.EqualsHashCodeExample.Pessoa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe PessoaRegistry.
+ */
+class PessoaRegistryTeste {
+
+    private PessoaRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PessoaRegistry();
+    }
+
+    @Test
+    @DisplayName("Registrar e buscar pelo CPF com ou sem pontuação")
+    void testRegistrarEBuscar() {
+        assertTrue(registry.registrar(new Pessoa("Alice", "123.456.789-09", 30)));
+
+        Pessoa encontrada = registry.buscar("12345678909");
+        assertEquals("Alice", encontrada.getNome());
+        assertEquals(30, encontrada.getIdade());
+        assertTrue(registry.contem("123.456.789-09"));
+        assertEquals(30, registry.buscarIdade(Cpf.paraChave("12345678909")));
+        assertNull(registry.buscar("98765432100"));
+        assertEquals(PessoaRegistry.IDADE_AUSENTE, registry.buscarIdade(98765432100L));
+    }
+
+    @Test
+    @DisplayName("Registrar o mesmo CPF novamente deve atualizar o registro (upsert)")
+    void testUpsert() {
+        registry.registrar(new Pessoa("Alice", "12345678909", 30));
+        assertFalse(registry.registrar(new Pessoa("Alice Silva", "123.456.789-09", 31)));
+        assertEquals(1, registry.tamanho());
+        assertEquals("Alice Silva", registry.buscar("12345678909").getNome());
+
+        assertTrue(registry.atualizarIdade("12345678909", 40));
+        assertEquals(40, registry.buscar("12345678909").getIdade());
+        assertFalse(registry.atualizarIdade("98765432100", 40), "CPF inexistente não deve ser criado");
+    }
+
+    @Test
+    @DisplayName("CPF com zeros à esquerda deve manter os 11 dígitos")
+    void testCpfComZerosAEsquerda() {
+        registry.registrar(new Pessoa("Bob", "000.000.001-91", 25));
+        assertEquals("00000000191", registry.buscar("00000000191").getCpf());
+    }
+
+    @Test
+    @DisplayName("CPF inválido deve lançar IllegalArgumentException")
+    void testCpfInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> registry.contem("1234567890"));
+        assertThrows(IllegalArgumentException.class, () -> registry.contem("123456789012"));
+        assertThrows(IllegalArgumentException.class, () -> registry.contem("123.456.789/09"));
+        assertThrows(IllegalArgumentException.class, () -> registry.contem("123.456.789-00"));
+    }
+
+    @Test
+    @DisplayName("Leituras e escritas concorrentes (com redimensionamento) não devem perder registros")
+    void testConcorrencia() throws Exception {
+        int threads = 4;
+        int porThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = (t + 1) * 1_000_000L;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < porThread; i++) {
+                        long chave = Cpf.completar(base + i);
+                        registry.registrar(new Pessoa("P" + chave, Cpf.paraTexto(chave), i % 100));
+                        assertEquals(i % 100, registry.buscarIdade(chave));
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * porThread, registry.tamanho());
+    }
+}
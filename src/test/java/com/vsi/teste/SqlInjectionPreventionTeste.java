@@ -0,0 +1,108 @@
+package com.vsi.teste;
+
+import com.vsi.teste.jdbc.PooledDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes das buscas seguras de SqlInjectionPrevention contra um H2 em memória.
+ */
+class SqlInjectionPreventionTeste {
+
+    private PooledDataSource dataSource;
+    private SqlInjectionPrevention prevention;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new PooledDataSource("jdbc:h2:mem:usuarios_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE usuarios (id INT AUTO_INCREMENT PRIMARY KEY, nome VARCHAR(255), email VARCHAR(255) UNIQUE)");
+            stmt.execute("INSERT INTO usuarios (nome, email) VALUES ('Alice', 'alice@example.com'), ('Bob', 'bob@example.com')");
+        }
+        prevention = new SqlInjectionPrevention(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("Busca pelo pool deve encontrar o usuário e reaproveitar conexão e statement")
+    void testBuscarUsuarioPorEmail_Pool() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            Optional<Usuario> usuario = prevention.buscarUsuarioPorEmail_Seguro("alice@example.com");
+            assertTrue(usuario.isPresent());
+            assertEquals("Alice", usuario.get().getNome());
+        }
+        assertEquals(1, dataSource.getConexoesCriadas());
+        assertEquals(2, dataSource.getAcertosCache());
+    }
+
+    @Test
+    @DisplayName("Input malicioso deve ser tratado como literal pela busca pelo pool")
+    void testBuscarUsuarioPorEmail_InputMalicioso() throws SQLException {
+        assertFalse(prevention.buscarUsuarioPorEmail_Seguro("' OR '1'='1").isPresent());
+    }
+
+    @Test
+    @DisplayName("Busca em lote deve devolver cada usuário existente uma única vez")
+    void testBuscarUsuariosPorEmails_Lote() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO usuarios (nome, email) VALUES (?, ?)")) {
+            for (int i = 0; i < 300; i++) {
+                ps.setString(1, "Usuario " + i);
+                ps.setString(2, "u" + i + "@example.com");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 300; i += 2) {
+            emails.add("u" + i + "@example.com");
+        }
+        emails.add("alice@example.com");
+        emails.add("alice@example.com"); // duplicado
+        emails.add("naoexiste@example.com");
+        emails.add("' OR '1'='1");
+
+        List<Usuario> encontrados = new ArrayList<>();
+        prevention.buscarUsuariosPorEmails_Seguro(emails, 10, encontrados::add);
+
+        assertEquals(151, encontrados.size());
+        Set<String> emailsEncontrados = new HashSet<>();
+        encontrados.forEach(u -> emailsEncontrados.add(u.getEmail()));
+        assertEquals(151, emailsEncontrados.size());
+        assertTrue(emailsEncontrados.contains("alice@example.com"));
+        assertFalse(emailsEncontrados.contains("u1@example.com"));
+    }
+
+    @Test
+    @DisplayName("Busca em lote deve reaproveitar os statements dos tamanhos fixos de lista IN")
+    void testBuscarUsuariosPorEmails_ReaproveitaStatements() throws SQLException {
+        List<Usuario> encontrados = new ArrayList<>();
+        // 2 emails => lote de 8 preenchido; repetido 3 vezes usa sempre o mesmo texto SQL
+        for (int i = 0; i < 3; i++) {
+            prevention.buscarUsuariosPorEmails_Seguro(Arrays.asList("alice@example.com", "bob@example.com"), encontrados::add);
+        }
+        assertEquals(6, encontrados.size());
+        assertEquals(1, dataSource.getFalhasCache(), "Apenas o primeiro lote deve preparar statement no banco");
+        assertEquals(2, dataSource.getAcertosCache());
+    }
+}
@@ -0,0 +1,165 @@
+package com.vsi.teste.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe BatchExportPipeline, com H2 em memória e um diretório temporário.
+ */
+class BatchExportPipelineTeste {
+
+    private static final int PEDIDOS = 10_000;
+
+    @TempDir
+    Path diretorio;
+
+    private Connection conexao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conexao = DriverManager.getConnection("jdbc:h2:mem:", "sa", "");
+        try (Statement stmt = conexao.createStatement()) {
+            stmt.execute("CREATE TABLE Orders (ID INT PRIMARY KEY, customer_id INT, Amount DECIMAL(10, 2))");
+            stmt.execute("INSERT INTO Orders SELECT X, MOD(X, 97), X / 100.0 FROM SYSTEM_RANGE(1, " + PEDIDOS + ")");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conexao.close();
+    }
+
+    private static BatchExportPipeline<Object[]> pipeline(BatchExportPipeline.Configuracao configuracao) {
+        return new BatchExportPipeline<>(
+                rs -> new Object[]{rs.getInt(1), rs.getInt(2), rs.getBigDecimal(3)},
+                (linha, destino) -> destino.append(linha[0]).append(';').append(linha[1]).append(';').append(linha[2]),
+                configuracao);
+    }
+
+    private static List<String> lerLinhas(List<Path> arquivos) throws IOException {
+        List<String> linhas = new ArrayList<>();
+        for (Path arquivo : arquivos) {
+            try (BufferedReader leitor = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(arquivo)), StandardCharsets.UTF_8))) {
+                String linha;
+                while ((linha = leitor.readLine()) != null) {
+                    linhas.add(linha);
+                }
+            }
+        }
+        return linhas;
+    }
+
+    @Test
+    @DisplayName("Deve exportar todas as linhas na ordem da query, divididas em arquivos GZIP com cabeçalho")
+    void testExportacaoCompleta() throws Exception {
+        BatchExportPipeline.Resultado resultado = pipeline(BatchExportPipeline.Configuracao.padrao()
+                .tamanhoFetch(500).linhasPorLote(300).threadsTransformacao(3).linhasPorArquivo(3_000)
+                .cabecalho("id;cliente;valor"))
+                .executar(conexao, "SELECT ID, customer_id, Amount FROM Orders ORDER BY ID", diretorio, "pedidos");
+
+        // 3.000 linhas por arquivo arredondadas para lotes de 300: 10.000 linhas em 4 arquivos
+        assertEquals(4, resultado.getArquivos().size());
+        assertEquals(diretorio.resolve("pedidos-00001.csv.gz"), resultado.getArquivos().get(0));
+        try (Stream<Path> conteudo = Files.list(diretorio)) {
+            assertEquals(4, conteudo.count(), "Não devem sobrar arquivos .parcial");
+        }
+
+        List<String> linhas = lerLinhas(resultado.getArquivos());
+        assertEquals(PEDIDOS + 4, linhas.size());
+        assertEquals("id;cliente;valor", linhas.get(0));
+        assertEquals("1;1;0.01", linhas.get(1));
+        int esperado = 1;
+        for (String linha : linhas) {
+            if (!linha.startsWith("id;")) {
+                assertTrue(linha.startsWith(esperado++ + ";"), "Linha fora de ordem: " + linha);
+            }
+        }
+
+        assertEquals(PEDIDOS, resultado.getLinhas());
+        assertEquals(PEDIDOS, resultado.getLeitura().getLinhas());
+        assertEquals(PEDIDOS, resultado.getTransformacao().getLinhas());
+        assertEquals(34, resultado.getGravacao().getLotes());
+        assertTrue(resultado.getTransformacao().getBytesSaida() < resultado.getTransformacao().getBytesEntrada());
+    }
+
+    @Test
+    @DisplayName("A leitura não deve avançar mais que os lotes em trânsito à frente da formatação")
+    void testBackPressureLimitaLinhasEmMemoria() throws Exception {
+        AtomicLong lidas = new AtomicLong();
+        AtomicLong formatadas = new AtomicLong();
+        AtomicLong maiorDistancia = new AtomicLong();
+        BatchExportPipeline<Integer> pipeline = new BatchExportPipeline<>(
+                rs -> {
+                    long distancia = lidas.incrementAndGet() - formatadas.get();
+                    maiorDistancia.accumulateAndGet(distancia, Math::max);
+                    return rs.getInt(1);
+                },
+                (id, destino) -> {
+                    if (formatadas.incrementAndGet() % 100 == 0) {
+                        try {
+                            Thread.sleep(1); // Formatação lenta: a leitura precisa esperar
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    destino.append(id);
+                },
+                BatchExportPipeline.Configuracao.padrao().linhasPorLote(100).threadsTransformacao(2).lotesEmTransito(4));
+
+        BatchExportPipeline.Resultado resultado = pipeline.executar(conexao, "SELECT ID FROM Orders WHERE ID <= ?",
+                diretorio, "ids", 5_000);
+
+        assertEquals(5_000, resultado.getLinhas());
+        assertTrue(maiorDistancia.get() <= 4 * 100, "Linhas lidas e ainda não formatadas: " + maiorDistancia.get());
+        assertTrue(resultado.getLeitura().getTempoBloqueadoNanos() > 0);
+    }
+
+    @Test
+    @DisplayName("Uma falha em qualquer estágio deve encerrar o pipeline, propagar o erro e não deixar arquivos")
+    void testFalhaInterrompePipelineEApagaArquivos() throws Exception {
+        BatchExportPipeline<Object[]> pipeline = new BatchExportPipeline<>(
+                rs -> new Object[]{rs.getInt(1)},
+                (linha, destino) -> {
+                    if ((Integer) linha[0] == 7_777) {
+                        throw new IllegalStateException("linha inválida");
+                    }
+                    destino.append(linha[0]);
+                },
+                BatchExportPipeline.Configuracao.padrao().linhasPorLote(100).linhasPorArquivo(1_000));
+
+        IllegalStateException erro = assertThrows(IllegalStateException.class,
+                () -> pipeline.executar(conexao, "SELECT ID FROM Orders ORDER BY ID", diretorio, "pedidos"));
+        assertEquals("linha inválida", erro.getMessage());
+        try (Stream<Path> conteudo = Files.list(diretorio)) {
+            assertEquals(0, conteudo.count());
+        }
+        assertTrue(conexao.getAutoCommit(), "O autocommit da conexão deve ser restaurado");
+
+        BatchExportPipeline.Resultado vazio = pipeline(BatchExportPipeline.Configuracao.padrao())
+                .executar(conexao, "SELECT ID, customer_id, Amount FROM Orders WHERE ID < 0", diretorio, "vazio");
+        assertEquals(0, vazio.getLinhas());
+        assertTrue(vazio.getArquivos().isEmpty());
+    }
+}
@@ -0,0 +1,323 @@
+package com.vsi.teste.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe ParallelFileUploader, com o FileSystemTransport como servidor de destino.
+ */
+class ParallelFileUploaderTeste {
+
+    @TempDir
+    Path temporario;
+
+    private List<Path> criarArquivos(int quantidade, int tamanho) throws IOException {
+        Path origem = Files.createDirectories(temporario.resolve("origem"));
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        List<Path> arquivos = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            byte[] conteudo = new byte[tamanho + i];
+            for (int j = 0; j < conteudo.length; j++) {
+                conteudo[j] = (byte) aleatorio.nextInt(256);
+            }
+            arquivos.add(Files.write(origem.resolve("pedidos-" + i + ".csv.gz"), conteudo));
+        }
+        return arquivos;
+    }
+
+    @Test
+    @DisplayName("Deve enviar os arquivos em paralelo reaproveitando sessões e não reenviar os que já estão no destino")
+    void testEnvioParaleloComReusoDeSessoes() throws Exception {
+        List<Path> arquivos = criarArquivos(8, 300_000);
+        Path destino = temporario.resolve("destino");
+        try (TransportSessionPool pool = new TransportSessionPool(new FileSystemTransport(destino), 3, 5_000)) {
+            ParallelFileUploader uploader = new ParallelFileUploader(pool, ParallelFileUploader.Configuracao.padrao()
+                    .maximoTransferenciasSimultaneas(3).tamanhoBloco(64 * 1024));
+
+            ParallelFileUploader.Relatorio relatorio = uploader.enviar(arquivos);
+
+            assertEquals(8, relatorio.getArquivos().size());
+            long esperado = 0;
+            for (Path arquivo : arquivos) {
+                assertArrayEquals(Files.readAllBytes(arquivo), Files.readAllBytes(destino.resolve(arquivo.getFileName())));
+                esperado += Files.size(arquivo);
+            }
+            assertEquals(esperado, relatorio.getBytesTransferidos());
+            assertTrue(pool.getSessoesCriadas() <= 3, "Sessões criadas: " + pool.getSessoesCriadas());
+            try (Stream<Path> conteudo = Files.list(destino)) {
+                assertEquals(8, conteudo.count(), "Não devem sobrar arquivos .parcial");
+            }
+
+            // Nova execução do batch: tudo já está no destino
+            ParallelFileUploader.Relatorio repeticao = uploader.enviar(arquivos);
+            assertEquals(0, repeticao.getBytesTransferidos());
+        }
+    }
+
+    @Test
+    @DisplayName("Um envio interrompido deve ser retomado a partir do checkpoint, sem reenviar o que já chegou")
+    void testRetomadaAPartirDoCheckpoint() throws Exception {
+        Path arquivo = criarArquivos(1, 1_000_000).get(0);
+        Path destino = temporario.resolve("destino");
+        AtomicInteger sessoes = new AtomicInteger();
+        FileSystemTransport real = new FileSystemTransport(destino);
+        // A primeira sessão cai depois de 400.000 bytes; as seguintes funcionam
+        FileTransport instavel = () -> new SessaoInstavel(real.abrirSessao(), sessoes.incrementAndGet() == 1 ? 400_000 : Long.MAX_VALUE);
+
+        try (TransportSessionPool pool = new TransportSessionPool(instavel, 2, 5_000)) {
+            ParallelFileUploader uploader = new ParallelFileUploader(pool, ParallelFileUploader.Configuracao.padrao()
+                    .tamanhoBuffer(32 * 1024).esperaEntreTentativasMs(1));
+
+            ParallelFileUploader.TransferStats envio = uploader.enviar(List.of(arquivo)).getArquivos().get(0);
+
+            assertEquals(2, envio.getTentativas());
+            assertEquals(400_000, envio.getRetomadoDe());
+            assertEquals(Files.size(arquivo), envio.getBytesTransferidos(), "Nenhum byte deve ser enviado duas vezes");
+            assertArrayEquals(Files.readAllBytes(arquivo), Files.readAllBytes(destino.resolve(arquivo.getFileName())));
+            assertEquals(2, pool.getSessoesCriadas(), "A sessão que falhou deve ser descartada");
+        }
+    }
+
+    @Test
+    @DisplayName("Deve falhar depois de esgotar as tentativas, mantendo o checkpoint no destino")
+    void testFalhaAposTentativas() throws Exception {
+        Path arquivo = criarArquivos(1, 100_000).get(0);
+        Path destino = temporario.resolve("destino");
+        FileSystemTransport real = new FileSystemTransport(destino);
+        FileTransport quebrado = () -> new SessaoInstavel(real.abrirSessao(), 10_000);
+
+        try (TransportSessionPool pool = new TransportSessionPool(quebrado, 1, 5_000)) {
+            ParallelFileUploader uploader = new ParallelFileUploader(pool, ParallelFileUploader.Configuracao.padrao()
+                    .tentativas(3).tamanhoBuffer(4 * 1024).esperaEntreTentativasMs(1));
+
+            IOException erro = assertThrows(IOException.class, () -> uploader.enviar(List.of(arquivo)));
+            assertTrue(erro.getMessage().contains("3 tentativas"));
+            // Cada tentativa avança 10.000 bytes a partir do checkpoint anterior
+            assertEquals(30_000, Files.size(destino.resolve(arquivo.getFileName() + ".parcial")));
+            assertFalse(Files.exists(destino.resolve(arquivo.getFileName())));
+        }
+    }
+
+    @Test
+    @DisplayName("Um arquivo que diminui durante a transferência direta deve falhar em vez de travar o envio")
+    void testArquivoDiminuiDuranteTransferenciaDireta() throws Exception {
+        Path arquivo = criarArquivos(1, 100_000).get(0);
+        FileSystemTransport real = new FileSystemTransport(temporario.resolve("destino"));
+        // Trunca a origem depois que o tamanho foi lido, logo antes de os bytes começarem a ir
+        FileTransport encolhe = () -> new SessaoInstavel(real.abrirSessao(), Long.MAX_VALUE) {
+            @Override
+            public WritableByteChannel abrirEscrita(String nomeRemoto, long posicao) throws IOException {
+                try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+                    canal.truncate(50_000);
+                }
+                return super.abrirEscrita(nomeRemoto, posicao);
+            }
+
+            @Override
+            public boolean suportaTransferenciaDireta() {
+                return true;
+            }
+        };
+
+        try (TransportSessionPool pool = new TransportSessionPool(encolhe, 1, 5_000)) {
+            ParallelFileUploader uploader = new ParallelFileUploader(pool, ParallelFileUploader.Configuracao.padrao()
+                    .tentativas(2).esperaEntreTentativasMs(1));
+
+            IOException erro = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> assertThrows(IOException.class, () -> uploader.enviar(List.of(arquivo))));
+            assertTrue(erro.getCause().getMessage().contains("diminuiu"), erro.getCause().getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Um arquivo alterado com o mesmo tamanho deve ser reenviado")
+    void testReenvioDeArquivoAlteradoComMesmoTamanho() throws Exception {
+        Path arquivo = criarArquivos(1, 50_000).get(0);
+        Path destino = temporario.resolve("destino");
+        try (TransportSessionPool pool = new TransportSessionPool(new FileSystemTransport(destino), 1, 5_000)) {
+            ParallelFileUploader uploader = new ParallelFileUploader(pool);
+            uploader.enviar(List.of(arquivo));
+            assertEquals(Files.getLastModifiedTime(arquivo).toMillis() / 1000,
+                    Files.getLastModifiedTime(destino.resolve(arquivo.getFileName())).toMillis() / 1000,
+                    "A data de modificação deve ser copiada para o destino");
+
+            byte[] conteudo = Files.readAllBytes(arquivo);
+            conteudo[0] ^= 1;
+            Files.write(arquivo, conteudo);
+            Files.setLastModifiedTime(arquivo, FileTime.fromMillis(Files.getLastModifiedTime(arquivo).toMillis() + 5_000));
+
+            ParallelFileUploader.Relatorio repeticao = uploader.enviar(List.of(arquivo));
+            assertEquals(50_000, repeticao.getBytesTransferidos());
+            assertArrayEquals(conteudo, Files.readAllBytes(destino.resolve(arquivo.getFileName())));
+        }
+    }
+
+    @Test
+    @DisplayName("Um destino que não aceita bytes deve falhar em vez de travar o envio com buffer")
+    void testDestinoSemProgressoComBuffer() throws Exception {
+        Path arquivo = criarArquivos(1, 100_000).get(0);
+        FileSystemTransport real = new FileSystemTransport(temporario.resolve("destino"));
+        // Aceita 10.000 bytes e depois passa a devolver 0 em toda escrita
+        FileTransport parado = () -> new SessaoInstavel(real.abrirSessao(), 10_000) {
+            @Override
+            public WritableByteChannel abrirEscrita(String nomeRemoto, long posicao) throws IOException {
+                WritableByteChannel canal = super.abrirEscrita(nomeRemoto, posicao);
+                return new WritableByteChannel() {
+                    long escritos;
+
+                    @Override
+                    public int write(ByteBuffer origem) throws IOException {
+                        if (escritos >= 10_000) {
+                            return 0;
+                        }
+                        int gravados = canal.write(origem);
+                        escritos += gravados;
+                        return gravados;
+                    }
+
+                    @Override
+                    public boolean isOpen() {
+                        return canal.isOpen();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        canal.close();
+                    }
+                };
+            }
+        };
+
+        try (TransportSessionPool pool = new TransportSessionPool(parado, 1, 5_000)) {
+            ParallelFileUploader uploader = new ParallelFileUploader(pool, ParallelFileUploader.Configuracao.padrao()
+                    .tentativas(2).tamanhoBuffer(4 * 1024).esperaEntreTentativasMs(1));
+
+            IOException erro = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> assertThrows(IOException.class, () -> uploader.enviar(List.of(arquivo))));
+            assertTrue(erro.getCause().getMessage().contains("não aceitou bytes"), erro.getCause().getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Uma falha ao obter a sessão deve contar como tentativa e ser repetida")
+    void testFalhaAoObterSessaoERepetida() throws Exception {
+        Path arquivo = criarArquivos(1, 10_000).get(0);
+        Path destino = temporario.resolve("destino");
+        FileSystemTransport real = new FileSystemTransport(destino);
+        AtomicInteger conexoes = new AtomicInteger();
+        FileTransport recusaPrimeira = () -> {
+            if (conexoes.incrementAndGet() == 1) {
+                throw new IOException("Conexão recusada");
+            }
+            return real.abrirSessao();
+        };
+
+        try (TransportSessionPool pool = new TransportSessionPool(recusaPrimeira, 1, 5_000)) {
+            ParallelFileUploader uploader = new ParallelFileUploader(pool, ParallelFileUploader.Configuracao.padrao()
+                    .esperaEntreTentativasMs(1));
+
+            ParallelFileUploader.TransferStats envio = uploader.enviar(List.of(arquivo)).getArquivos().get(0);
+
+            assertEquals(2, envio.getTentativas());
+            assertArrayEquals(Files.readAllBytes(arquivo), Files.readAllBytes(destino.resolve(arquivo.getFileName())));
+            assertEquals(1, pool.getSessoesOciosas(), "A permissão da tentativa que falhou deve ter sido liberada");
+        }
+    }
+
+    /**
+     * Simula uma conexão que cai depois de um número de bytes. Sem transferência direta, para que a
+     * contagem de bytes enviados seja exata.
+     */
+    private static class SessaoInstavel implements TransportSession {
+        private final TransportSession sessao;
+        private final long limite;
+
+        SessaoInstavel(TransportSession sessao, long limite) {
+            this.sessao = sessao;
+            this.limite = limite;
+        }
+
+        @Override
+        public long tamanho(String nomeRemoto) throws IOException {
+            return sessao.tamanho(nomeRemoto);
+        }
+
+        @Override
+        public WritableByteChannel abrirEscrita(String nomeRemoto, long posicao) throws IOException {
+            WritableByteChannel canal = sessao.abrirEscrita(nomeRemoto, posicao);
+            return new WritableByteChannel() {
+                long escritos;
+
+                @Override
+                public int write(ByteBuffer origem) throws IOException {
+                    if (escritos >= limite) {
+                        throw new IOException("Conexão perdida");
+                    }
+                    if (origem.remaining() > limite - escritos) {
+                        ByteBuffer parte = origem.slice().limit((int) (limite - escritos));
+                        int gravados = canal.write(parte);
+                        origem.position(origem.position() + gravados);
+                        escritos += gravados;
+                        return gravados;
+                    }
+                    int gravados = canal.write(origem);
+                    escritos += gravados;
+                    return gravados;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return canal.isOpen();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    canal.close();
+                }
+            };
+        }
+
+        @Override
+        public void renomear(String nomeAtual, String nomeNovo) throws IOException {
+            sessao.renomear(nomeAtual, nomeNovo);
+        }
+
+        @Override
+        public long modificadoEm(String nomeRemoto) throws IOException {
+            return sessao.modificadoEm(nomeRemoto);
+        }
+
+        @Override
+        public boolean definirModificadoEm(String nomeRemoto, long epochMs) throws IOException {
+            return sessao.definirModificadoEm(nomeRemoto, epochMs);
+        }
+
+        @Override
+        public boolean suportaTransferenciaDireta() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            sessao.close();
+        }
+    }
+}
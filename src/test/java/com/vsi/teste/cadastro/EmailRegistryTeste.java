@@ -0,0 +1,200 @@
+package com.vsi.teste.cadastro;
+
+import com.vsi.teste.Usuario;
+import com.vsi.teste.jdbc.PooledDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do índice de emails e do cadastro de usuários da Questão 8 contra um H2 em memória.
+ */
+class EmailRegistryTeste {
+
+    private PooledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new PooledDataSource("jdbc:h2:mem:cadastro_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        executar("CREATE TABLE usuarios (id INT AUTO_INCREMENT PRIMARY KEY, nome VARCHAR(255), email VARCHAR(255) UNIQUE)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    private void executar(String sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    @Test
+    @DisplayName("Emails devem ser comparados sem diferenciar maiúsculas e ignorando espaços nas pontas")
+    void testNormalizacaoEValidacao() {
+        EmailRegistry registro = new EmailRegistry();
+        EmailRegistry.Reserva reserva = registro.tentarReservar("  Ana.Silva@Example.COM ");
+        assertNotNull(reserva);
+        assertEquals("Ana.Silva@Example.COM", reserva.getEmail());
+        assertEquals("ana.silva@example.com", reserva.getEmailNormalizado());
+        assertTrue(registro.contem("ana.silva@example.com"));
+        assertTrue(registro.contem("ANA.SILVA@EXAMPLE.COM"));
+        assertNull(registro.tentarReservar("ana.SILVA@example.com"));
+        assertNotNull(registro.tentarReservar("JOSÉ@example.com"));
+        assertNull(registro.tentarReservar("josé@EXAMPLE.com"));
+
+        for (String valido : new String[]{"a@b.co", "nome+tag@sub.dominio.com.br", " x@y.z "}) {
+            assertTrue(EmailRegistry.isEmailValido(valido), valido);
+        }
+        for (String invalido : new String[]{"", "semarroba", "@dominio.com", "a@", "a@b", "a@@b.com", "a@b.com.",
+                "a@.com", "a@b..com", "a b@c.com", "a@b\u0000c.com"}) {
+            assertFalse(EmailRegistry.isEmailValido(invalido), invalido);
+            assertFalse(registro.contem(invalido));
+            assertThrows(IllegalArgumentException.class, () -> registro.tentarReservar(invalido), invalido);
+        }
+    }
+
+    @Test
+    @DisplayName("Reservas concorrentes do mesmo email devem ter exatamente um vencedor")
+    void testReservaConcorrente() throws Exception {
+        EmailRegistry registro = new EmailRegistry();
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < 200; i++) {
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<EmailRegistry.Reserva>> resultados = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    // Cada thread usa uma grafia diferente do mesmo email
+                    String email = (t % 2 == 0 ? "usuario" : "USUARIO") + i + (t % 3 == 0 ? "@x.com" : "@X.COM");
+                    resultados.add(executor.submit(() -> {
+                        largada.await();
+                        return registro.tentarReservar(email);
+                    }));
+                }
+                largada.countDown();
+                int vencedores = 0;
+                for (Future<EmailRegistry.Reserva> resultado : resultados) {
+                    EmailRegistry.Reserva reserva = resultado.get();
+                    if (reserva != null) {
+                        vencedores++;
+                        registro.confirmar(reserva, i);
+                    }
+                }
+                assertEquals(1, vencedores, "Email " + i);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(200, registro.tamanho());
+        assertEquals(7, registro.buscarIdUsuario("Usuario7@x.com"));
+    }
+
+    @Test
+    @DisplayName("Cadastro deve recusar duplicados pelo índice ou pelo banco e desfazer reservas que falharem")
+    void testCadastro() throws SQLException {
+        EmailRegistry registro = new EmailRegistry();
+        UsuarioCadastro cadastro = new UsuarioCadastro(dataSource, registro);
+
+        Usuario ana = cadastro.registrar("Ana", "Ana@Example.com");
+        assertEquals("ana@example.com", ana.getEmail());
+        assertEquals(ana.getId(), registro.buscarIdUsuario("ANA@example.com"));
+        EmailDuplicadoException duplicado = assertThrows(EmailDuplicadoException.class,
+                () -> cadastro.registrar("Outra Ana", "ana@EXAMPLE.com"));
+        assertEquals("ana@EXAMPLE.com", duplicado.getEmail());
+
+        // Gravado por outro processo, fora do índice: a restrição UNIQUE do banco recusa e a reserva é desfeita
+        executar("INSERT INTO usuarios (nome, email) VALUES ('Bia', 'bia@example.com')");
+        assertThrows(EmailDuplicadoException.class, () -> cadastro.registrar("Bia 2", "Bia@example.com"));
+        assertFalse(registro.contem("bia@example.com"));
+        assertThrows(IllegalArgumentException.class, () -> cadastro.registrar("", "carla@example.com"));
+        assertFalse(registro.contem("carla@example.com"));
+
+        Usuario caio = cadastro.registrar("Caio", "caio@example.com");
+        assertThrows(EmailDuplicadoException.class, () -> cadastro.alterarEmail(caio.getId(), "caio@example.com", "ANA@example.com"));
+        assertTrue(cadastro.alterarEmail(caio.getId(), "caio@example.com", "Caio.Novo@example.com"));
+        assertFalse(registro.contem("caio@example.com"));
+        assertEquals(caio.getId(), registro.buscarIdUsuario("caio.novo@example.com"));
+
+        assertThrows(SecurityException.class, () -> cadastro.excluir(ana.getId(), "ana@example.com", false));
+        assertTrue(cadastro.excluir(ana.getId(), "ana@example.com", true));
+        assertFalse(cadastro.excluir(ana.getId(), "ana@example.com", true));
+        assertEquals("ana@example.com", cadastro.registrar("Ana de novo", "ANA@example.com").getEmail());
+    }
+
+    @Test
+    @DisplayName("Só a violação de chave única vira email duplicado, e emails inválidos não alteram nem excluem nada")
+    void testOutrasViolacoesEEmailsInvalidos() throws SQLException {
+        executar("ALTER TABLE usuarios ADD CONSTRAINT email_curto CHECK (LENGTH(email) < 30)");
+        EmailRegistry registro = new EmailRegistry();
+        UsuarioCadastro cadastro = new UsuarioCadastro(dataSource, registro);
+
+        SQLException erro = assertThrows(SQLException.class,
+                () -> cadastro.registrar("Longo", "um.email.bem.comprido@example.com"));
+        assertEquals("23513", erro.getSQLState());
+        assertFalse(registro.contem("um.email.bem.comprido@example.com"));
+
+        Usuario dora = cadastro.registrar("Dora", "dora@example.com");
+        assertThrows(IllegalArgumentException.class, () -> cadastro.alterarEmail(dora.getId(), "invalido", "dora2@example.com"));
+        assertThrows(IllegalArgumentException.class, () -> cadastro.excluir(dora.getId(), "invalido", true));
+        assertFalse(registro.contem("dora2@example.com"), "A reserva do novo email não foi feita");
+        assertEquals(dora.getId(), registro.buscarIdUsuario("dora@example.com"));
+        assertTrue(cadastro.excluir(dora.getId(), "dora@example.com", true), "O usuário continuava no banco");
+    }
+
+    @Test
+    @DisplayName("Reconciliação deve alinhar o índice ao banco, preservando reservas em andamento")
+    void testReconciliacao() throws SQLException {
+        EmailRegistry registro = new EmailRegistry();
+        UsuarioCadastro cadastro = new UsuarioCadastro(dataSource, registro);
+        Usuario removidoPorFora = cadastro.registrar("Dani", "dani@example.com");
+        cadastro.registrar("Edu", "edu@example.com");
+        EmailRegistry.Reserva emAndamento = registro.tentarReservar("fabi@example.com");
+
+        executar("DELETE FROM usuarios WHERE id = " + removidoPorFora.getId());
+        // Dados antigos, de antes da regra sem diferenciar maiúsculas
+        executar("INSERT INTO usuarios (nome, email) VALUES ('Gil', 'gil@example.com'), ('Gil 2', 'GIL@example.com')");
+
+        EmailRegistry.Reconciliacao reconciliacao = cadastro.reconciliar();
+        assertEquals(3, reconciliacao.getLinhasLidas());
+        assertEquals(1, reconciliacao.getIncluidos());
+        assertEquals(1, reconciliacao.getRemovidos());
+        assertEquals(1, reconciliacao.getConflitos().size());
+        assertTrue(reconciliacao.getConflitos().get(0).equalsIgnoreCase("gil@example.com"));
+
+        assertFalse(registro.contem("dani@example.com"));
+        assertTrue(registro.contem("edu@example.com"));
+        assertTrue(registro.contem("gil@example.com"));
+        assertTrue(registro.contem("fabi@example.com"), "Reserva em andamento não pode ser descartada");
+        registro.confirmar(emAndamento, 99);
+        assertEquals(99, registro.buscarIdUsuario("fabi@example.com"));
+
+        // O email já é do usuário, mas o banco guarda outra caixa: a forma normalizada deve ser gravada
+        executar("INSERT INTO usuarios (nome, email) VALUES ('Hugo', 'Hugo@Example.com')");
+        cadastro.reconciliar();
+        int hugo = registro.buscarIdUsuario("hugo@example.com");
+        assertTrue(cadastro.alterarEmail(hugo, "Hugo@Example.com", "HUGO@example.com"));
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT email FROM usuarios WHERE id = " + hugo)) {
+            assertTrue(rs.next());
+            assertEquals("hugo@example.com", rs.getString(1));
+        }
+        assertEquals(hugo, registro.buscarIdUsuario("hugo@example.com"));
+    }
+}
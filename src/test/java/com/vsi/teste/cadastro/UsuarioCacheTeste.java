@@ -0,0 +1,169 @@
+package com.vsi.teste.cadastro;
+
+import com.vsi.teste.SqlInjectionPrevention;
+import com.vsi.teste.Usuario;
+import com.vsi.teste.jdbc.PooledDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do cache read-through de usuários por email.
+ */
+class UsuarioCacheTeste {
+
+    private static Optional<Usuario> usuario(String email) {
+        return Optional.of(new Usuario(email.hashCode(), "Usuario", email));
+    }
+
+    @Test
+    @DisplayName("Acertos, cache negativo e TTL devem evitar consultas repetidas até expirar")
+    void testLeituraNegativoETtl() throws SQLException {
+        AtomicInteger consultas = new AtomicInteger();
+        AtomicLong agora = new AtomicLong();
+        UsuarioCache cache = new UsuarioCache(email -> {
+            consultas.incrementAndGet();
+            return email.startsWith("existe") ? usuario(email) : Optional.empty();
+        }, UsuarioCache.Configuracao.padrao().ttlMs(1_000).ttlNegativoMs(100), agora::get);
+
+        assertTrue(cache.buscarPorEmail("existe@x.com").isPresent());
+        assertTrue(cache.buscarPorEmail("existe@x.com").isPresent());
+        assertFalse(cache.buscarPorEmail("nao@x.com").isPresent());
+        assertFalse(cache.buscarPorEmail("nao@x.com").isPresent());
+        assertEquals(2, consultas.get());
+        assertEquals(2, cache.getAcertos());
+        assertEquals(1, cache.getAcertosNegativos());
+        assertEquals(2, cache.getFalhas());
+        assertEquals(0.5, cache.getTaxaAcerto(), 1e-9);
+
+        agora.addAndGet(TimeUnit.MILLISECONDS.toNanos(100)); // Só o negativo expira
+        cache.buscarPorEmail("existe@x.com");
+        cache.buscarPorEmail("nao@x.com");
+        assertEquals(3, consultas.get());
+        assertEquals(1, cache.getExpiracoes());
+
+        agora.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_000));
+        cache.buscarPorEmail("existe@x.com");
+        assertEquals(4, consultas.get());
+
+        cache.invalidar("existe@x.com");
+        cache.buscarPorEmail("existe@x.com");
+        assertEquals(5, consultas.get());
+        assertEquals(1, cache.getInvalidacoes());
+    }
+
+    @Test
+    @DisplayName("Falhas simultâneas para o mesmo email devem compartilhar uma única consulta, inclusive o erro")
+    void testCarregamentoCompartilhado() throws Exception {
+        AtomicInteger consultas = new AtomicInteger();
+        AtomicReference<CountDownLatch> liberarConsulta = new AtomicReference<>();
+        AtomicInteger falharProxima = new AtomicInteger(1);
+        UsuarioCache cache = new UsuarioCache(email -> {
+            consultas.incrementAndGet();
+            try {
+                liberarConsulta.get().await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (falharProxima.getAndSet(0) == 1) {
+                throw new SQLException("Banco fora do ar");
+            }
+            return usuario(email);
+        }, UsuarioCache.Configuracao.padrao());
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int rodada = 0; rodada < 2; rodada++) {
+                liberarConsulta.set(new CountDownLatch(1));
+                List<Future<Optional<Usuario>>> resultados = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    resultados.add(executor.submit(() -> cache.buscarPorEmail("quente@x.com")));
+                }
+                while (cache.getCarregamentosCompartilhados() < (rodada + 1) * (threads - 1L)) {
+                    Thread.sleep(1);
+                }
+                liberarConsulta.get().countDown();
+                for (Future<Optional<Usuario>> resultado : resultados) {
+                    if (rodada == 0) {
+                        Exception erro = assertThrows(Exception.class, resultado::get);
+                        assertInstanceOf(SQLException.class, erro.getCause(), "O erro vai para todos e não fica em cache");
+                    } else {
+                        assertTrue(resultado.get().isPresent());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    @DisplayName("Uma varredura de emails únicos não deve expulsar os emails populares")
+    void testResistenciaAVarredura() throws SQLException {
+        AtomicInteger consultas = new AtomicInteger();
+        UsuarioCache cache = new UsuarioCache(email -> {
+            consultas.incrementAndGet();
+            return usuario(email);
+        }, UsuarioCache.Configuracao.padrao().capacidadeMaxima(200).segmentos(1));
+
+        for (int repeticao = 0; repeticao < 10; repeticao++) {
+            for (int i = 0; i < 100; i++) {
+                cache.buscarPorEmail("popular" + i + "@x.com");
+            }
+        }
+        for (int i = 0; i < 10_000; i++) {
+            cache.buscarPorEmail("varredura" + i + "@x.com");
+        }
+        assertTrue(cache.tamanho() <= 200, "Tamanho " + cache.tamanho());
+        assertTrue(cache.getRemocoesPorCapacidade() >= 10_000 - 100);
+
+        int antes = consultas.get();
+        for (int i = 0; i < 100; i++) {
+            cache.buscarPorEmail("popular" + i + "@x.com");
+        }
+        assertTrue(consultas.get() - antes <= 5, "Populares recarregados: " + (consultas.get() - antes));
+    }
+
+    @Test
+    @DisplayName("Cadastro, troca de email e exclusão devem invalidar o cache na frente do banco")
+    void testInvalidacaoPeloCadastro() throws SQLException {
+        try (PooledDataSource dataSource = new PooledDataSource("jdbc:h2:mem:cache_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "")) {
+            try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE usuarios (id INT AUTO_INCREMENT PRIMARY KEY, nome VARCHAR(255), email VARCHAR(255) UNIQUE)");
+            }
+            UsuarioCache cache = new UsuarioCache(new SqlInjectionPrevention(dataSource));
+            UsuarioCadastro cadastro = new UsuarioCadastro(dataSource, new EmailRegistry(), cache);
+
+            assertFalse(cache.buscarPorEmail("ana@example.com").isPresent());
+            Usuario ana = cadastro.registrar("Ana", "Ana@Example.com");
+            assertEquals(Optional.of(ana), cache.buscarPorEmail("ana@example.com"), "O negativo foi invalidado");
+
+            assertTrue(cadastro.alterarEmail(ana.getId(), "ana@example.com", "ana.nova@example.com"));
+            assertFalse(cache.buscarPorEmail("ana@example.com").isPresent());
+            assertEquals("ana.nova@example.com", cache.buscarPorEmail("ana.nova@example.com").orElseThrow().getEmail());
+
+            assertTrue(cadastro.excluir(ana.getId(), "ana.nova@example.com", true));
+            assertFalse(cache.buscarPorEmail("ana.nova@example.com").isPresent());
+            assertEquals(3, cache.getInvalidacoes());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.vsi.teste.decoupling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe IdempotentPaymentGateway.
+ */
+class IdempotentPaymentGatewayTeste {
+
+    /**
+     * Gateway que conta as chamadas e devolve um identificador de transação diferente a cada cobrança.
+     */
+    static class GatewayContador implements PaymentGateway {
+        final AtomicInteger cobrancas = new AtomicInteger();
+        final AtomicInteger estornos = new AtomicInteger();
+        volatile CountDownLatch bloqueio;
+        volatile boolean recusarEstornos;
+
+        @Override
+        public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+            return processarPagamentoComResultado(valor, detalhesCartao).isSucesso();
+        }
+
+        @Override
+        public boolean estornarPagamento(String idTransacao) {
+            return estornarPagamentoComResultado(idTransacao).isSucesso();
+        }
+
+        @Override
+        public PaymentResult processarPagamentoComResultado(BigDecimal valor, String detalhesCartao) {
+            int n = cobrancas.incrementAndGet();
+            aguardarLiberacao();
+            return PaymentResult.sucesso("TXN_" + n);
+        }
+
+        @Override
+        public PaymentResult estornarPagamentoComResultado(String idTransacao) {
+            estornos.incrementAndGet();
+            return recusarEstornos ? PaymentResult.falha("recusado") : PaymentResult.sucesso(idTransacao);
+        }
+
+        private void aguardarLiberacao() {
+            CountDownLatch latch = bloqueio;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Reenvio com a mesma chave deve devolver o mesmo resultado sem nova cobrança")
+    void testReenvioNaoCobraDuasVezes() {
+        GatewayContador gateway = new GatewayContador();
+        IdempotentPaymentGateway idempotente = new IdempotentPaymentGateway(gateway);
+
+        PaymentResult primeiro = idempotente.processarPagamento("pedido-1", new BigDecimal("10.00"), "4111");
+        PaymentResult reenvio = idempotente.processarPagamento("pedido-1", new BigDecimal("10.0"), "4111");
+        PaymentResult outroPedido = idempotente.processarPagamento("pedido-2", new BigDecimal("10.00"), "4111");
+
+        assertSame(primeiro, reenvio);
+        assertNotEquals(primeiro.getIdTransacao(), outroPedido.getIdTransacao());
+        assertEquals(2, gateway.cobrancas.get());
+        assertEquals(1, idempotente.getChamadasDeduplicadas());
+    }
+
+    @Test
+    @DisplayName("Chamadas simultâneas com a mesma chave devem gerar uma única chamada ao gateway")
+    void testSingleFlight() throws Exception {
+        GatewayContador gateway = new GatewayContador();
+        gateway.bloqueio = new CountDownLatch(1);
+        IdempotentPaymentGateway idempotente = new IdempotentPaymentGateway(gateway);
+
+        List<CompletableFuture<PaymentResult>> chamadas = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            chamadas.add(CompletableFuture.supplyAsync(
+                    () -> idempotente.processarPagamento("pedido-1", BigDecimal.TEN, "4111")));
+        }
+        while (gateway.cobrancas.get() == 0) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50); // Dá tempo das demais chamadas encontrarem a entrada em andamento
+        gateway.bloqueio.countDown();
+
+        for (CompletableFuture<PaymentResult> chamada : chamadas) {
+            assertEquals("TXN_1", chamada.get(5, TimeUnit.SECONDS).getIdTransacao());
+        }
+        assertEquals(1, gateway.cobrancas.get());
+    }
+
+    @Test
+    @DisplayName("Chave reutilizada com outro valor deve ser rejeitada")
+    void testChaveReutilizadaComOutroValor() {
+        IdempotentPaymentGateway idempotente = new IdempotentPaymentGateway(new GatewayContador());
+        idempotente.processarPagamento("pedido-1", BigDecimal.TEN, "4111");
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotente.processarPagamento("pedido-1", BigDecimal.ONE, "4111"));
+
+        // "Aa" e "BB" têm o mesmo String.hashCode(), mas são cartões diferentes
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        idempotente.processarPagamento("pedido-2", BigDecimal.TEN, "Aa");
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotente.processarPagamento("pedido-2", BigDecimal.TEN, "BB"));
+    }
+
+    @Test
+    @DisplayName("Entradas devem expirar pelo TTL e o cache deve respeitar a capacidade")
+    void testTtlECapacidade() throws InterruptedException {
+        GatewayContador gateway = new GatewayContador();
+        IdempotentPaymentGateway idempotente = new IdempotentPaymentGateway(gateway, 3, 50);
+
+        for (int i = 0; i < 10; i++) {
+            idempotente.processarPagamento("pedido-" + i, BigDecimal.TEN, "4111");
+        }
+        assertTrue(idempotente.tamanho() <= 4, "Tamanho: " + idempotente.tamanho());
+
+        idempotente.processarPagamento("pedido-9", BigDecimal.TEN, "4111");
+        assertEquals(10, gateway.cobrancas.get(), "Entrada recente deve estar em cache");
+
+        Thread.sleep(80);
+        idempotente.processarPagamento("pedido-9", BigDecimal.TEN, "4111");
+        assertEquals(11, gateway.cobrancas.get(), "Entrada expirada deve gerar nova chamada");
+    }
+
+    @Test
+    @DisplayName("Um pagamento lento no início da fila não deve suspender o limite de capacidade")
+    void testCapacidadeComPagamentoLentoNoInicio() throws Exception {
+        CountDownLatch liberarLento = new CountDownLatch(1);
+        GatewayContador gateway = new GatewayContador() {
+            @Override
+            public PaymentResult processarPagamentoComResultado(BigDecimal valor, String detalhesCartao) {
+                if (detalhesCartao.equals("lento")) {
+                    try {
+                        liberarLento.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.processarPagamentoComResultado(valor, detalhesCartao);
+            }
+        };
+        IdempotentPaymentGateway idempotente = new IdempotentPaymentGateway(gateway, 3, 60_000);
+        CompletableFuture<PaymentResult> lento = CompletableFuture.supplyAsync(
+                () -> idempotente.processarPagamento("pedido-lento", BigDecimal.TEN, "lento"));
+        while (idempotente.tamanho() == 0) {
+            Thread.sleep(1);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            idempotente.processarPagamento("pedido-" + i, BigDecimal.TEN, "4111");
+        }
+        assertTrue(idempotente.tamanho() <= 4, "Tamanho: " + idempotente.tamanho());
+
+        liberarLento.countDown();
+        assertTrue(lento.get(5, TimeUnit.SECONDS).isSucesso());
+        assertThrows(IllegalArgumentException.class, () -> idempotente.processarPagamento("pedido-x", BigDecimal.TEN, null));
+    }
+
+    @Test
+    @DisplayName("Estornos recusados e exceções do gateway não devem acumular na fila de inserção")
+    void testFilaLimitadaComFalhas() {
+        GatewayContador gateway = new GatewayContador() {
+            @Override
+            public PaymentResult processarPagamentoComResultado(BigDecimal valor, String detalhesCartao) {
+                throw new IllegalStateException("gateway fora do ar");
+            }
+        };
+        gateway.recusarEstornos = true;
+        IdempotentPaymentGateway idempotente = new IdempotentPaymentGateway(gateway, 10, 60_000);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(idempotente.estornarPagamento("TXN_" + i).isSucesso());
+            String chave = "pedido-" + i;
+            assertThrows(IllegalStateException.class, () -> idempotente.processarPagamento(chave, BigDecimal.TEN, "4111"));
+        }
+        assertEquals(0, idempotente.tamanho());
+        assertTrue(idempotente.tamanhoFila() <= 2 * 10 + 16 + 1, "Fila: " + idempotente.tamanhoFila());
+    }
+
+    @Test
+    @DisplayName("Estornos devem ser deduplicados pelo identificador real da transação do adaptador legado")
+    void testEstornoDeduplicadoComIdDoAdaptador() {
+        PaymentGateway adaptador = new OldPaymentGatewayAdapter(new OldPaymentGateway());
+        PaymentResult pagamento;
+        do {
+            pagamento = adaptador.processarPagamentoComResultado(BigDecimal.TEN, "4111"); // O legado falha ~20% das vezes
+        } while (!pagamento.isSucesso());
+        assertTrue(pagamento.getIdTransacao().startsWith("TXN_OLD_"));
+
+        GatewayContador contador = new GatewayContador();
+        IdempotentPaymentGateway idempotente = new IdempotentPaymentGateway(contador);
+        assertTrue(idempotente.estornarPagamento(pagamento.getIdTransacao()).isSucesso());
+        assertTrue(idempotente.estornarPagamento(pagamento.getIdTransacao()).isSucesso());
+        assertEquals(1, contador.estornos.get());
+
+        contador.recusarEstornos = true;
+        assertFalse(idempotente.estornarPagamento("TXN_outro").isSucesso());
+        assertFalse(idempotente.estornarPagamento("TXN_outro").isSucesso());
+        assertEquals(3, contador.estornos.get(), "Estorno recusado pode ser tentado de novo");
+    }
+}
@@ -0,0 +1,122 @@
+package com.vsi.teste.decoupling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para InstrumentedPaymentGateway, LatencyHistogram e PaymentEventSink.
+ */
+class InstrumentedPaymentGatewayTeste {
+
+    @Test
+    @DisplayName("Percentis do histograma devem ter erro relativo de no máximo 1/16")
+    void testPercentisDoHistograma() {
+        LatencyHistogram histograma = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histograma.registrar(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        LatencyHistogram.Snapshot snapshot = histograma.snapshot();
+
+        assertEquals(10_000, snapshot.getTotal());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), snapshot.getMaximoNanos());
+        assertPerto(TimeUnit.MICROSECONDS.toNanos(5_000), snapshot.percentilNanos(50));
+        assertPerto(TimeUnit.MICROSECONDS.toNanos(9_900), snapshot.percentilNanos(99));
+        assertEquals(snapshot.getMaximoNanos(), snapshot.percentilNanos(100));
+    }
+
+    @Test
+    @DisplayName("Todo valor deve cair em um balde cujo limite superior o contém")
+    void testBaldesDoHistograma() {
+        long[] valores = {0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789L, Long.MAX_VALUE};
+        for (long valor : valores) {
+            int indice = LatencyHistogram.indice(valor);
+            assertTrue(LatencyHistogram.limiteSuperior(indice) >= valor, "Valor " + valor);
+            if (indice > 0) {
+                assertTrue(LatencyHistogram.limiteSuperior(indice - 1) < valor, "Valor " + valor);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Contadores e medidor de chamadas em andamento devem refletir as chamadas ao gateway")
+    void testContadoresEEmAndamento() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        PaymentGateway falso = new PaymentGateway() {
+            @Override
+            public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+                if ("lento".equals(detalhesCartao)) {
+                    try {
+                        liberar.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if (valor.signum() == 0) {
+                    throw new IllegalStateException("valor zero");
+                }
+                return valor.signum() > 0;
+            }
+
+            @Override
+            public boolean estornarPagamento(String idTransacao) {
+                return idTransacao.startsWith("TXN");
+            }
+        };
+        InstrumentedPaymentGateway gateway = new InstrumentedPaymentGateway(falso);
+
+        assertTrue(gateway.processarPagamento(BigDecimal.TEN, "4111"));
+        assertFalse(gateway.processarPagamento(BigDecimal.TEN.negate(), "4111"));
+        assertThrows(IllegalStateException.class, () -> gateway.processarPagamento(BigDecimal.ZERO, "4111"));
+        assertTrue(gateway.estornarPagamento("TXN_1"));
+        assertFalse(gateway.estornarPagamento("X"));
+
+        CompletableFuture<Boolean> lenta = CompletableFuture.supplyAsync(() -> gateway.processarPagamento(BigDecimal.ONE, "lento"));
+        while (gateway.snapshot().getEmAndamento() == 0) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, gateway.snapshot().getEmAndamento());
+        liberar.countDown();
+        assertTrue(lenta.get(5, TimeUnit.SECONDS));
+
+        InstrumentedPaymentGateway.Snapshot snapshot = gateway.snapshot();
+        assertEquals(2, snapshot.getPagamentosAprovados());
+        assertEquals(1, snapshot.getPagamentosRecusados());
+        assertEquals(1, snapshot.getErros());
+        assertEquals(1, snapshot.getEstornosAprovados());
+        assertEquals(1, snapshot.getEstornosRecusados());
+        assertEquals(0, snapshot.getEmAndamento());
+        assertEquals(4, snapshot.getLatenciaPagamentos().getTotal());
+        assertEquals(2, snapshot.getLatenciaEstornos().getTotal());
+    }
+
+    @Test
+    @DisplayName("PaymentProcessor e o gateway legado devem enviar eventos ao sink em vez de imprimir")
+    void testEventosNoSink() {
+        List<PaymentEventSink.Evento> eventos = Collections.synchronizedList(new ArrayList<>());
+        PaymentEventSink sink = (evento, valor, referencia) -> eventos.add(evento);
+        PaymentGateway adaptador = new OldPaymentGatewayAdapter(new OldPaymentGateway(sink));
+        try (BlockingPaymentGatewayAsyncAdapter async = new BlockingPaymentGatewayAsyncAdapter(adaptador)) {
+            new PaymentProcessor(adaptador, async, sink).realizarCompra(new BigDecimal("199.99"), "1234-XXXX-XXXX-5678");
+        }
+
+        assertEquals(3, eventos.size());
+        assertEquals(PaymentEventSink.Evento.COMPRA_INICIADA, eventos.get(0));
+        assertEquals(PaymentEventSink.Evento.TRANSACAO_LEGADA_EXECUTADA, eventos.get(1));
+        assertTrue(eventos.get(2) == PaymentEventSink.Evento.COMPRA_APROVADA
+                || eventos.get(2) == PaymentEventSink.Evento.COMPRA_RECUSADA);
+    }
+
+    private static void assertPerto(long esperado, long obtido) {
+        assertTrue(Math.abs(obtido - esperado) <= esperado / 16, "Esperado ~" + esperado + ", obtido " + obtido);
+    }
+}
@@ -0,0 +1,234 @@
+package com.vsi.teste.decoupling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe PaymentBatcher.
+ */
+class PaymentBatcherTeste {
+
+    /**
+     * Gateway com suporte a lote que registra o tamanho de cada chamada; valores negativos são recusados.
+     */
+    static class GatewayEmLote implements PaymentGateway {
+        final List<Integer> tamanhosDosLotes = Collections.synchronizedList(new ArrayList<>());
+        volatile CountDownLatch liberar;
+
+        @Override
+        public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+            tamanhosDosLotes.add(1);
+            return valor.signum() > 0;
+        }
+
+        @Override
+        public boolean estornarPagamento(String idTransacao) {
+            return true;
+        }
+
+        @Override
+        public List<PaymentResult> processarPagamentosEmLote(List<PaymentRequest> pagamentos) {
+            aguardarLiberacao();
+            tamanhosDosLotes.add(pagamentos.size());
+            List<PaymentResult> resultados = new ArrayList<>();
+            for (PaymentRequest pagamento : pagamentos) {
+                resultados.add(pagamento.getValor().signum() > 0
+                        ? PaymentResult.sucesso("TXN_" + pagamento.getDetalhesCartao())
+                        : PaymentResult.falha("valor inválido"));
+            }
+            return resultados;
+        }
+
+        private void aguardarLiberacao() {
+            CountDownLatch latch = liberar;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Compras simultâneas devem ser agrupadas até o tamanho máximo e cada uma receber o seu resultado")
+    void testAgrupaPorTamanho() throws Exception {
+        GatewayEmLote gateway = new GatewayEmLote();
+        try (PaymentBatcher batcher = new PaymentBatcher(gateway, 10, 1_000, 100, 1_000)) {
+            List<CompletableFuture<PaymentResult>> resultados = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                resultados.add(batcher.processarPagamento(BigDecimal.valueOf(i % 5 == 0 ? -1 : 10), "c" + i));
+            }
+            for (int i = 0; i < 25; i++) {
+                PaymentResult resultado = resultados.get(i).get(5, TimeUnit.SECONDS);
+                assertEquals(i % 5 != 0, resultado.isSucesso());
+                if (resultado.isSucesso()) {
+                    assertEquals("TXN_c" + i, resultado.getIdTransacao());
+                }
+            }
+            assertEquals(25, gateway.tamanhosDosLotes.stream().mapToInt(Integer::intValue).sum());
+            assertTrue(gateway.tamanhosDosLotes.stream().allMatch(t -> t <= 10));
+            assertTrue(gateway.tamanhosDosLotes.size() <= 5, "Lotes: " + gateway.tamanhosDosLotes);
+        }
+    }
+
+    @Test
+    @DisplayName("Lote incompleto deve ser enviado após o tempo máximo de espera")
+    void testEnviaPorTempo() throws Exception {
+        GatewayEmLote gateway = new GatewayEmLote();
+        try (PaymentBatcher batcher = new PaymentBatcher(gateway, 100, 50, 100, 1_000)) {
+            long inicio = System.nanoTime();
+            assertTrue(batcher.processarPagamento(BigDecimal.ONE, "unico").get(5, TimeUnit.SECONDS).isSucesso());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 2_000);
+            assertEquals(Collections.singletonList(1), gateway.tamanhosDosLotes);
+        }
+    }
+
+    @Test
+    @DisplayName("Gateway sem suporte a lote deve usar o fallback item a item da interface")
+    void testFallbackSemLote() throws Exception {
+        PaymentGateway legado = new OldPaymentGatewayAdapter(new OldPaymentGateway());
+        try (PaymentBatcher batcher = new PaymentBatcher(legado, 5, 20, 10, 1_000)) {
+            List<CompletableFuture<PaymentResult>> resultados = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                resultados.add(batcher.processarPagamento(BigDecimal.TEN, "1234"));
+            }
+            for (CompletableFuture<PaymentResult> resultado : resultados) {
+                assertNotNull(resultado.get(5, TimeUnit.SECONDS)); // Sucesso ou falha aleatória do legado
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Fila cheia deve aplicar back-pressure e recusar após o timeout")
+    void testBackPressure() throws Exception {
+        GatewayEmLote gateway = new GatewayEmLote();
+        gateway.liberar = new CountDownLatch(1); // Segura o primeiro lote no gateway
+        try (PaymentBatcher batcher = new PaymentBatcher(gateway, 1, 0, 2, 50)) {
+            CompletableFuture<PaymentResult> emEnvio = batcher.processarPagamento(BigDecimal.ONE, "a");
+            while (batcher.tamanhoFila() > 0) {
+                Thread.sleep(5); // Espera o despachante retirar o primeiro item
+            }
+            batcher.processarPagamento(BigDecimal.ONE, "b");
+            batcher.processarPagamento(BigDecimal.ONE, "c");
+
+            long inicio = System.nanoTime();
+            assertThrows(RejectedExecutionException.class, () -> batcher.processarPagamento(BigDecimal.ONE, "d"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) >= 40, "Deve esperar antes de recusar");
+
+            gateway.liberar.countDown();
+            assertTrue(emEnvio.get(5, TimeUnit.SECONDS).isSucesso());
+        }
+    }
+
+    @Test
+    @DisplayName("close() deve esperar o lote em envio sem interrompê-lo")
+    void testCloseNaoInterrompeLoteEmEnvio() throws Exception {
+        AtomicBoolean interrompido = new AtomicBoolean();
+        GatewayEmLote gateway = new GatewayEmLote() {
+            @Override
+            public List<PaymentResult> processarPagamentosEmLote(List<PaymentRequest> pagamentos) {
+                List<PaymentResult> resultados = super.processarPagamentosEmLote(pagamentos);
+                interrompido.set(Thread.currentThread().isInterrupted());
+                return resultados;
+            }
+        };
+        gateway.liberar = new CountDownLatch(1);
+        PaymentBatcher batcher = new PaymentBatcher(gateway, 10, 0, 10, 1_000);
+        CompletableFuture<PaymentResult> emEnvio = batcher.processarPagamento(BigDecimal.ONE, "a");
+        while (batcher.tamanhoFila() > 0) {
+            Thread.sleep(5);
+        }
+        CompletableFuture<Void> fechamento = CompletableFuture.runAsync(batcher::close);
+        Thread.sleep(50);
+        assertFalse(fechamento.isDone(), "close() espera o lote em envio");
+        assertThrows(RejectedExecutionException.class, () -> batcher.processarPagamento(BigDecimal.ONE, "b"));
+
+        gateway.liberar.countDown();
+        fechamento.get(5, TimeUnit.SECONDS);
+        assertTrue(emEnvio.get(5, TimeUnit.SECONDS).isSucesso());
+        assertFalse(interrompido.get());
+    }
+
+    @Test
+    @DisplayName("Compras concorrentes com o close() devem ser enviadas ou recusadas, nunca esquecidas")
+    void testCompraDuranteClose() throws Exception {
+        for (int rodada = 0; rodada < 20; rodada++) {
+            PaymentBatcher batcher = new PaymentBatcher(new GatewayEmLote(), 4, 0, 1_000, 1_000);
+            List<CompletableFuture<PaymentResult>> aceitas = Collections.synchronizedList(new ArrayList<>());
+            Thread comprador = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    try {
+                        aceitas.add(batcher.processarPagamento(BigDecimal.ONE, "c" + i));
+                    } catch (RejectedExecutionException e) {
+                        return;
+                    }
+                }
+            });
+            comprador.start();
+            batcher.close();
+            comprador.join();
+            for (CompletableFuture<PaymentResult> aceita : aceitas) {
+                try {
+                    aceita.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Exceção do gateway deve falhar todos os futuros do lote")
+    void testExcecaoNoLote() throws Exception {
+        PaymentGateway quebrado = new GatewayEmLote() {
+            @Override
+            public List<PaymentResult> processarPagamentosEmLote(List<PaymentRequest> pagamentos) {
+                throw new IllegalStateException("gateway indisponível");
+            }
+        };
+        try (PaymentBatcher batcher = new PaymentBatcher(quebrado, 10, 10, 10, 1_000)) {
+            ExecutionException erro = assertThrows(ExecutionException.class,
+                    () -> batcher.processarPagamento(BigDecimal.ONE, "x").get(5, TimeUnit.SECONDS));
+            assertTrue(erro.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    @DisplayName("Um Error do gateway deve falhar o lote sem derrubar o despachante")
+    void testErrorNoLoteNaoDerrubaDespachante() throws Exception {
+        AtomicBoolean falhar = new AtomicBoolean(true);
+        GatewayEmLote instavel = new GatewayEmLote() {
+            @Override
+            public List<PaymentResult> processarPagamentosEmLote(List<PaymentRequest> pagamentos) {
+                if (falhar.getAndSet(false)) {
+                    throw new StackOverflowError("recursão no gateway");
+                }
+                return super.processarPagamentosEmLote(pagamentos);
+            }
+        };
+        try (PaymentBatcher batcher = new PaymentBatcher(instavel, 10, 10, 10, 1_000)) {
+            ExecutionException erro = assertThrows(ExecutionException.class,
+                    () -> batcher.processarPagamento(BigDecimal.ONE, "x").get(5, TimeUnit.SECONDS));
+            assertTrue(erro.getCause() instanceof StackOverflowError);
+
+            PaymentResult depois = batcher.processarPagamento(BigDecimal.ONE, "y").get(5, TimeUnit.SECONDS);
+            assertTrue(depois.isSucesso());
+            assertEquals("TXN_y", depois.getIdTransacao());
+        }
+    }
+}
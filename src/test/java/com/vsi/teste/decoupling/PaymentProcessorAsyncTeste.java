@@ -0,0 +1,134 @@
+package com.vsi.teste.decoupling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Testes do caminho assíncrono de PaymentProcessor contra um gateway lento simulado.
+ */
+class PaymentProcessorAsyncTeste {
+
+    /**
+     * Gateway bloqueante que simula 200 ms de latência de rede e registra o pico de chamadas simultâneas.
+     */
+    static class GatewayLento implements PaymentGateway {
+        final AtomicInteger emAndamento = new AtomicInteger();
+        final AtomicInteger picoEmAndamento = new AtomicInteger();
+
+        @Override
+        public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+            picoEmAndamento.accumulateAndGet(emAndamento.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(200);
+                return valor.signum() > 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                emAndamento.decrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean estornarPagamento(String idTransacao) {
+            return idTransacao != null;
+        }
+    }
+
+    @Test
+    @DisplayName("Com threads virtuais, milhares de compras bloqueadas devem ficar em andamento sobre poucas threads de plataforma")
+    void testCargaComThreadsVirtuais() throws Exception {
+        assumeTrue(VirtualThreadExecutors.threadsVirtuaisDisponiveis(), "Requer Java 21+ (threads virtuais)");
+        GatewayLento gateway = new GatewayLento();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean(); // Só enxerga threads de plataforma
+        int threadsAntes = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        try (BlockingPaymentGatewayAsyncAdapter async = new BlockingPaymentGatewayAsyncAdapter(gateway)) {
+            long totalMs = comprar(new PaymentProcessor(gateway, async), 10_000);
+
+            // Sequencialmente seriam 2.000 s; sobrepostas, cabem em poucos segundos
+            assertTrue(totalMs < 20_000, "Total de " + totalMs + " ms indica que as chamadas não foram sobrepostas");
+            assertTrue(gateway.picoEmAndamento.get() > 5_000, "Pico de chamadas simultâneas: " + gateway.picoEmAndamento.get());
+            int threadsCriadas = threads.getPeakThreadCount() - threadsAntes;
+            assertTrue(threadsCriadas <= Runtime.getRuntime().availableProcessors() + 16,
+                    "Threads de plataforma criadas: " + threadsCriadas);
+        }
+    }
+
+    @Test
+    @DisplayName("Compras simultâneas devem ficar em andamento ao mesmo tempo sem bloquear o chamador")
+    void testCargaComGatewayLento() throws Exception {
+        GatewayLento gateway = new GatewayLento();
+        ExecutorService executor = VirtualThreadExecutors.novoExecutorPorTarefa();
+        try {
+            // Sem threads virtuais (Java 17) cada compra ocupa uma thread de plataforma: carga pequena
+            long totalMs = comprar(new PaymentProcessor(gateway, new BlockingPaymentGatewayAsyncAdapter(gateway, executor)), 200);
+
+            // Sequencialmente seriam 40 s
+            assertTrue(totalMs < 10_000, "Total de " + totalMs + " ms indica que as chamadas não foram sobrepostas");
+            assertTrue(gateway.picoEmAndamento.get() > 100, "Pico de chamadas simultâneas: " + gateway.picoEmAndamento.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Submete as compras, confere que a submissão não esperou o gateway e que todas foram aprovadas.
+     *
+     * @return Tempo total até a última compra terminar, em ms.
+     */
+    private static long comprar(PaymentProcessor processor, int compras) throws Exception {
+        long inicio = System.nanoTime();
+        List<CompletableFuture<PaymentResult>> resultados = new ArrayList<>(compras);
+        for (int i = 0; i < compras; i++) {
+            resultados.add(processor.realizarCompraAsync(BigDecimal.TEN, "cartao-" + i));
+        }
+        long submissaoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        CompletableFuture.allOf(resultados.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        assertTrue(resultados.stream().allMatch(f -> f.join().isSucesso()));
+        assertTrue(submissaoMs < 200 * 10, "A submissão não deve esperar o gateway");
+        return totalMs;
+    }
+
+    @Test
+    @DisplayName("Falha e exceção do gateway devem aparecer no resultado/futuro")
+    void testFalhaEExcecao() {
+        PaymentGateway recusa = new PaymentGateway() {
+            @Override
+            public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+                if (detalhesCartao == null) {
+                    throw new IllegalStateException("cartão ausente");
+                }
+                return false;
+            }
+
+            @Override
+            public boolean estornarPagamento(String idTransacao) {
+                return true;
+            }
+        };
+        try (PaymentProcessor processor = new PaymentProcessor(recusa)) {
+            assertFalse(processor.realizarCompraAsync(BigDecimal.ONE, "1234").join().isSucesso());
+            ExecutionException erro = assertThrows(ExecutionException.class,
+                    () -> processor.realizarCompraAsync(BigDecimal.ONE, null).get(5, TimeUnit.SECONDS));
+            assertTrue(erro.getCause() instanceof IllegalStateException);
+        }
+    }
+}
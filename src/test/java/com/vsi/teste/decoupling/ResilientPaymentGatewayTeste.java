@@ -0,0 +1,178 @@
+package com.vsi.teste.decoupling;
+
+import com.vsi.teste.decoupling.ResilientPaymentGateway.Configuracao;
+import com.vsi.teste.decoupling.ResilientPaymentGateway.EstadoCircuito;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe ResilientPaymentGateway.
+ */
+class ResilientPaymentGatewayTeste {
+
+    /**
+     * Gateway local e determinístico: latência fixa e uma taxa de falhas distribuída de forma
+     * regular (com taxa 0.2, exatamente 1 em cada 5 chamadas falha).
+     */
+    static class GatewayFalso implements PaymentGateway {
+        final AtomicInteger pagamentos = new AtomicInteger();
+        final AtomicInteger estornos = new AtomicInteger();
+        volatile long latenciaMs;
+        volatile double taxaFalha;
+        volatile int estornosComFalha;
+        volatile CountDownLatch bloqueio;
+
+        @Override
+        public boolean processarPagamento(BigDecimal valor, String detalhesCartao) {
+            int n = pagamentos.getAndIncrement();
+            simularLatencia();
+            return Math.floor((n + 1) * taxaFalha) == Math.floor(n * taxaFalha);
+        }
+
+        @Override
+        public boolean estornarPagamento(String idTransacao) {
+            int n = estornos.getAndIncrement();
+            simularLatencia();
+            return n >= estornosComFalha;
+        }
+
+        private void simularLatencia() {
+            try {
+                CountDownLatch latch = bloqueio;
+                if (latch != null) {
+                    latch.await(5, TimeUnit.SECONDS);
+                }
+                if (latenciaMs > 0) {
+                    Thread.sleep(latenciaMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Configuracao semTimeout() {
+        return Configuracao.padrao().timeoutChamadaMs(0).minimoChamadasJanela(10).esperaCircuitoAbertoMs(50).backoff(1, 5);
+    }
+
+    @Test
+    @DisplayName("Chamada lenta deve ser abandonada no timeout e contada como falha")
+    void testTimeout() {
+        GatewayFalso falso = new GatewayFalso();
+        falso.latenciaMs = 1_000;
+        try (ResilientPaymentGateway gateway = new ResilientPaymentGateway(falso, Configuracao.padrao().timeoutChamadaMs(50))) {
+            long inicio = System.nanoTime();
+            assertFalse(gateway.processarPagamento(BigDecimal.TEN, "4111"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 800);
+            assertEquals(1, gateway.getTimeouts());
+        }
+    }
+
+    @Test
+    @DisplayName("Circuito deve abrir com falhas acima do limiar, recusar sem chamar o gateway e fechar após sonda bem-sucedida")
+    void testCircuitoAbreEFecha() throws InterruptedException {
+        GatewayFalso falso = new GatewayFalso();
+        falso.taxaFalha = 1.0;
+        try (ResilientPaymentGateway gateway = new ResilientPaymentGateway(falso, semTimeout())) {
+            for (int i = 0; i < 10; i++) {
+                assertFalse(gateway.processarPagamento(BigDecimal.TEN, "4111"));
+            }
+            assertEquals(EstadoCircuito.ABERTO, gateway.getEstadoCircuito());
+
+            assertFalse(gateway.processarPagamento(BigDecimal.TEN, "4111"));
+            assertEquals(10, falso.pagamentos.get(), "Circuito aberto não deve chamar o gateway");
+            assertEquals(1, gateway.getRejeitadasPorCircuito());
+
+            falso.taxaFalha = 0.0;
+            Thread.sleep(80);
+            assertTrue(gateway.processarPagamento(BigDecimal.TEN, "4111"), "Sonda deve passar após a espera");
+            assertEquals(EstadoCircuito.FECHADO, gateway.getEstadoCircuito());
+        }
+    }
+
+    @Test
+    @DisplayName("Taxa de falhas do gateway legado (20%) não deve abrir o circuito com limiar de 50%")
+    void testCircuitoPermaneceFechadoAbaixoDoLimiar() {
+        GatewayFalso falso = new GatewayFalso();
+        falso.taxaFalha = 0.2;
+        try (ResilientPaymentGateway gateway = new ResilientPaymentGateway(falso, semTimeout())) {
+            int sucessos = 0;
+            for (int i = 0; i < 100; i++) {
+                if (gateway.processarPagamento(BigDecimal.TEN, "4111")) {
+                    sucessos++;
+                }
+            }
+            assertEquals(80, sucessos);
+            assertEquals(EstadoCircuito.FECHADO, gateway.getEstadoCircuito());
+        }
+    }
+
+    @Test
+    @DisplayName("Bulkhead cheio deve recusar na hora, sem esperar o gateway")
+    void testBulkhead() throws Exception {
+        GatewayFalso falso = new GatewayFalso();
+        falso.bloqueio = new CountDownLatch(1);
+        try (ResilientPaymentGateway gateway = new ResilientPaymentGateway(falso, semTimeout().maximoChamadasSimultaneas(2))) {
+            CompletableFuture<Boolean> primeira = CompletableFuture.supplyAsync(() -> gateway.processarPagamento(BigDecimal.ONE, "a"));
+            CompletableFuture<Boolean> segunda = CompletableFuture.supplyAsync(() -> gateway.processarPagamento(BigDecimal.ONE, "b"));
+            while (falso.pagamentos.get() < 2) {
+                Thread.sleep(5);
+            }
+
+            assertFalse(gateway.processarPagamento(BigDecimal.ONE, "c"));
+            assertEquals(1, gateway.getRejeitadasPorBulkhead());
+
+            falso.bloqueio.countDown();
+            assertTrue(primeira.get(5, TimeUnit.SECONDS));
+            assertTrue(segunda.get(5, TimeUnit.SECONDS));
+            assertTrue(gateway.processarPagamento(BigDecimal.ONE, "d"), "Vagas devem ser devolvidas");
+        }
+    }
+
+    @Test
+    @DisplayName("Timeout de uma chamada ainda na fila do executor deve devolver a vaga do bulkhead")
+    void testTimeoutNaFilaDevolveVaga() throws Exception {
+        GatewayFalso falso = new GatewayFalso();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch ocupado = new CountDownLatch(1);
+        executor.submit(() -> ocupado.await(5, TimeUnit.SECONDS)); // A única thread fica presa: as chamadas ficam na fila
+        try (ResilientPaymentGateway gateway = new ResilientPaymentGateway(falso,
+                Configuracao.padrao().timeoutChamadaMs(50).maximoChamadasSimultaneas(1), executor)) {
+            for (int i = 0; i < 3; i++) {
+                assertFalse(gateway.processarPagamento(BigDecimal.ONE, "a"));
+            }
+            assertEquals(3, gateway.getTimeouts());
+            assertEquals(0, gateway.getRejeitadasPorBulkhead(), "A vaga voltou a cada cancelamento");
+
+            ocupado.countDown();
+            assertTrue(gateway.processarPagamento(BigDecimal.ONE, "b"));
+            assertEquals(1, falso.pagamentos.get(), "As chamadas canceladas na fila nunca chegam ao gateway");
+        }
+    }
+
+    @Test
+    @DisplayName("Estornos devem ser repetidos com backoff; pagamentos nunca")
+    void testRetentativasApenasEmEstornos() {
+        GatewayFalso falso = new GatewayFalso();
+        falso.estornosComFalha = 2;
+        falso.taxaFalha = 1.0;
+        try (ResilientPaymentGateway gateway = new ResilientPaymentGateway(falso, semTimeout())) {
+            assertTrue(gateway.estornarPagamento("TXN_1"));
+            assertEquals(3, falso.estornos.get());
+            assertEquals(2, gateway.getRetentativas());
+
+            assertFalse(gateway.processarPagamento(BigDecimal.TEN, "4111"));
+            assertEquals(1, falso.pagamentos.get());
+        }
+    }
+}
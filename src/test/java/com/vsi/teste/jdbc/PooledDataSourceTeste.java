@@ -0,0 +1,207 @@
+package com.vsi.teste.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe PooledDataSource (H2 em memória).
+ */
+class PooledDataSourceTeste {
+
+    private PooledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:pool_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        dataSource = new PooledDataSource(url, "sa", "", PooledDataSource.Configuracao.padrao()
+                .tamanhoMaximo(2)
+                .tamanhoCacheStatements(2)
+                .timeoutAquisicaoMs(200));
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE itens (id INT PRIMARY KEY, nome VARCHAR(50))");
+            stmt.execute("INSERT INTO itens VALUES (1, 'um'), (2, 'dois')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("Conexões devolvidas devem ser reutilizadas em vez de recriadas")
+    void testReutilizaConexoes() throws SQLException {
+        for (int i = 0; i < 10; i++) {
+            try (Connection conn = dataSource.getConnection()) {
+                assertFalse(conn.isClosed());
+            }
+        }
+        assertEquals(1, dataSource.getConexoesCriadas());
+        assertEquals(1, dataSource.getConexoesOciosas());
+    }
+
+    @Test
+    @DisplayName("Pool cheio deve expirar a espera com SQLTimeoutException")
+    void testTamanhoLimitado() throws SQLException {
+        try (Connection c1 = dataSource.getConnection(); Connection c2 = dataSource.getConnection()) {
+            assertThrows(SQLTimeoutException.class, () -> dataSource.getConnection());
+        }
+        try (Connection c3 = dataSource.getConnection()) {
+            assertNotNull(c3, "Após a devolução, uma conexão volta a ficar disponível");
+        }
+    }
+
+    @Test
+    @DisplayName("prepareStatement repetido deve ser atendido pelo cache da conexão")
+    void testCacheDeStatements() throws SQLException {
+        for (int i = 0; i < 5; i++) {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement ps = conn.prepareStatement("SELECT nome FROM itens WHERE id = ?")) {
+                ps.setInt(1, 1 + i % 2);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(i % 2 == 0 ? "um" : "dois", rs.getString(1));
+                }
+            }
+        }
+        assertEquals(1, dataSource.getFalhasCache());
+        assertEquals(4, dataSource.getAcertosCache());
+    }
+
+    @Test
+    @DisplayName("Mesmo SQL aberto duas vezes na mesma conexão deve gerar statements independentes")
+    void testMesmoSqlEmUso() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps1 = conn.prepareStatement("SELECT nome FROM itens WHERE id = ?");
+             PreparedStatement ps2 = conn.prepareStatement("SELECT nome FROM itens WHERE id = ?")) {
+            assertNotSame(ps1, ps2);
+            ps1.setInt(1, 1);
+            ps2.setInt(1, 2);
+            try (ResultSet r1 = ps1.executeQuery(); ResultSet r2 = ps2.executeQuery()) {
+                assertTrue(r1.next() && r2.next());
+                assertEquals("um", r1.getString(1));
+                assertEquals("dois", r2.getString(1));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Statement em uso não deve ser fechado quando o LRU o remove do cache")
+    void testRemocaoDoCacheComStatementEmUso() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement antigo = conn.prepareStatement("SELECT nome FROM itens WHERE id = ?");
+             PreparedStatement ps2 = conn.prepareStatement("SELECT id FROM itens WHERE id = ?");
+             PreparedStatement ps3 = conn.prepareStatement("SELECT COUNT(*) FROM itens")) { // Cache de 2: remove o antigo
+            assertNotNull(ps2);
+            assertNotNull(ps3);
+            antigo.setInt(1, 2);
+            try (ResultSet rs = antigo.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("dois", rs.getString(1));
+            }
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT nome FROM itens WHERE id = ?")) {
+            ps.setInt(1, 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next(), "O SQL removido volta a ser preparado normalmente");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Usar uma conexão ou statement depois do close deve falhar")
+    void testUsoAposClose() throws SQLException {
+        Connection conn = dataSource.getConnection();
+        PreparedStatement ps = conn.prepareStatement("SELECT 1");
+        ps.close();
+        assertThrows(SQLException.class, ps::executeQuery);
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+    }
+
+    @Test
+    @DisplayName("Transação não confirmada deve ser desfeita ao devolver a conexão")
+    void testRollbackNaDevolucao() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.execute("INSERT INTO itens VALUES (3, 'tres')");
+        }
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM itens")) {
+            assertTrue(conn.getAutoCommit());
+            assertTrue(rs.next());
+            assertEquals(2, rs.getInt(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Statement devolvido ao cache deve voltar com as configurações padrão e sem ResultSet aberto")
+    void testStatementVoltaLimpo() throws SQLException {
+        String sql = "SELECT nome FROM itens ORDER BY id";
+        ResultSet esquecido;
+        int fetchSizePadrao;
+        try (Connection conn = dataSource.getConnection()) {
+            PreparedStatement ps = conn.prepareStatement(sql);
+            fetchSizePadrao = ps.getFetchSize();
+            ps.setFetchSize(fetchSizePadrao + 500);
+            ps.setMaxRows(1);
+            ps.setQueryTimeout(7);
+            esquecido = ps.executeQuery();
+            assertTrue(esquecido.next());
+            ps.close();
+            assertTrue(esquecido.isClosed(), "O ResultSet esquecido deve ser fechado na devolução");
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            assertEquals(1, dataSource.getAcertosCache(), "Deve ser o mesmo statement do cache");
+            assertEquals(fetchSizePadrao, ps.getFetchSize());
+            assertEquals(0, ps.getMaxRows());
+            assertEquals(0, ps.getQueryTimeout());
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next() && rs.next(), "Sem o limite de linhas do chamador anterior");
+            }
+            ps.setCursorName("cursor"); // Sem como restaurar: o statement sai do cache
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            assertNotNull(ps);
+            assertEquals(2, dataSource.getFalhasCache(), "O statement com cursor name não deve voltar ao cache");
+        }
+    }
+
+    @Test
+    @DisplayName("Nem unwrap nem Statement.getConnection() devem expor a conexão física")
+    void testConexaoFisicaNaoExposta() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement emCache = conn.prepareStatement("SELECT 1");
+             Statement comum = conn.createStatement()) {
+            assertSame(conn, emCache.getConnection());
+            assertSame(conn, comum.getConnection());
+            assertSame(conn, conn.unwrap(Connection.class));
+            assertSame(emCache, emCache.unwrap(PreparedStatement.class));
+            assertFalse(conn.isWrapperFor(org.h2.jdbc.JdbcConnection.class));
+            assertThrows(SQLException.class, () -> conn.unwrap(org.h2.jdbc.JdbcConnection.class));
+
+            emCache.getConnection().unwrap(Connection.class).close();
+            assertTrue(conn.isClosed());
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(1, dataSource.getConexoesCriadas(), "O close pelo statement deve devolver, não fechar, a conexão física");
+    }
+}
@@ -0,0 +1,187 @@
+package com.vsi.teste.plant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para as classes Plant e PlantRepository, seguindo os cenários da Questão 7.
+ */
+class PlantRepositoryTeste {
+
+    @TempDir
+    Path diretorio;
+
+    private static List<Long> codigos(List<Plant> plantas) {
+        return plantas.stream().map(Plant::getCodigo).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Validações de código e descrição devem seguir as regras da Questão 7")
+    void testValidacoes() {
+        assertEquals(0, Plant.lerCodigo("0"));
+        assertEquals(Long.MAX_VALUE, Plant.lerCodigo("9223372036854775807"));
+        for (String invalido : new String[]{"", "ABC", "12A", "-5", "+5", " 5", "9223372036854775808"}) {
+            assertThrows(IllegalArgumentException.class, () -> Plant.lerCodigo(invalido), invalido);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new Plant(-1, "Rosa"));
+
+        assertEquals("Rosa123456", new Plant(1, "Rosa123456").getDescricao());
+        assertNull(new Plant(2, null).getDescricao());
+        for (String invalida : new String[]{"Rosa1234567", "Rosa azul", "<script>", "Ipê", "Rosa!"}) {
+            assertThrows(IllegalArgumentException.class, () -> new Plant(3, invalida), invalida);
+        }
+    }
+
+    @Test
+    @DisplayName("CRUD: código único, atualização só da descrição e remoção apenas por administradores")
+    void testCrudEPermissoes() {
+        PlantRepository repositorio = new PlantRepository();
+        assertTrue(repositorio.criar(new Plant(10, "Rosa")));
+        assertTrue(repositorio.criar(new Plant(11, null)));
+        assertFalse(repositorio.criar(new Plant(10, "Outra")), "Código duplicado");
+        assertEquals("Rosa", repositorio.buscar(10).getDescricao());
+
+        assertTrue(repositorio.atualizarDescricao(10, "Roseira"));
+        assertFalse(repositorio.atualizarDescricao(99, "Nada"));
+        assertEquals("Roseira", repositorio.buscar(10).getDescricao());
+        assertTrue(repositorio.buscarPorPrefixo("Rosa", 10).isEmpty(), "A descrição antiga sai do índice");
+
+        assertThrows(SecurityException.class, () -> repositorio.remover(10, PlantRepository.Perfil.BASICO));
+        assertNotNull(repositorio.buscar(10));
+        assertTrue(repositorio.remover(10, PlantRepository.Perfil.ADMIN));
+        assertFalse(repositorio.remover(10, PlantRepository.Perfil.ADMIN), "Planta já removida");
+        assertNull(repositorio.buscar(10));
+        assertEquals(1, repositorio.tamanho());
+    }
+
+    @Test
+    @DisplayName("Buscas por prefixo e faixa de descrição devem vir ordenadas por descrição e código")
+    void testBuscasPorDescricao() {
+        PlantRepository repositorio = new PlantRepository();
+        repositorio.criar(new Plant(5, "Rosa"));
+        repositorio.criar(new Plant(3, "Rosa"));
+        repositorio.criar(new Plant(7, "RosaBranca"));
+        repositorio.criar(new Plant(1, "Rosmaninho"));
+        repositorio.criar(new Plant(2, "Ros"));
+        repositorio.criar(new Plant(4, "Tulipa"));
+        repositorio.criar(new Plant(6, null));
+
+        assertEquals(List.of(3L, 5L, 7L), codigos(repositorio.buscarPorPrefixo("Rosa", 10)));
+        assertEquals(List.of(2L, 3L, 5L, 7L, 1L), codigos(repositorio.buscarPorPrefixo("Ros", 10)));
+        assertEquals(List.of(2L, 3L), codigos(repositorio.buscarPorPrefixo("Ros", 2)));
+        assertEquals(List.of(3L, 5L, 7L, 1L), codigos(repositorio.buscarPorFaixa("Rosa", "T", 10)));
+        assertTrue(repositorio.buscarPorFaixa("T", "A", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> repositorio.buscarPorPrefixo("Ros%", 10));
+
+        // A codificação usada no índice deve preservar a ordem das Strings
+        String[] ordenadas = {"", "0", "09", "9", "A", "Ros", "Rosa", "RosaBranca", "Rosb", "Z", "a", "zzzzzzzzzz"};
+        for (int i = 1; i < ordenadas.length; i++) {
+            assertTrue(PlantRepository.codificar(ordenadas[i - 1]) < PlantRepository.codificar(ordenadas[i]), ordenadas[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Criações concorrentes com o mesmo código devem ter exatamente um vencedor")
+    void testCriacaoConcorrenteMesmoCodigo() throws Exception {
+        PlantRepository repositorio = new PlantRepository();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (long codigo = 0; codigo < 200; codigo++) {
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<Boolean>> resultados = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    Plant planta = new Plant(codigo, "T" + t);
+                    resultados.add(executor.submit(() -> {
+                        largada.await();
+                        return repositorio.criar(planta);
+                    }));
+                }
+                largada.countDown();
+                int vencedores = 0;
+                for (Future<Boolean> resultado : resultados) {
+                    vencedores += resultado.get() ? 1 : 0;
+                }
+                assertEquals(1, vencedores, "Código " + codigo);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(200, repositorio.tamanho());
+        assertEquals(200, repositorio.buscarPorPrefixo("T", 1_000).size(), "Perdedores não devem ficar no índice secundário");
+    }
+
+    @Test
+    @DisplayName("O log mapeado deve restaurar o estado ao reabrir, inclusive depois de compactado")
+    void testRestauracaoPeloLog() throws Exception {
+        Path arquivo = diretorio.resolve("plantas.log");
+        try (PlantRepository repositorio = PlantRepository.abrir(arquivo)) {
+            for (long codigo = 0; codigo < 100_000; codigo++) { // Passa da capacidade inicial do arquivo
+                repositorio.criar(new Plant(codigo, codigo % 2 == 0 ? "Par" + codigo : null));
+            }
+            repositorio.atualizarDescricao(1, "Um");
+            repositorio.remover(2, PlantRepository.Perfil.ADMIN);
+        }
+
+        try (PlantRepository repositorio = PlantRepository.abrir(arquivo)) {
+            assertEquals(99_999, repositorio.tamanho());
+            assertEquals("Um", repositorio.buscar(1).getDescricao());
+            assertNull(repositorio.buscar(2));
+            assertEquals("Par4", repositorio.buscar(4).getDescricao());
+            assertEquals(100_002, repositorio.getRegistrosLog());
+
+            long tamanhoAntes = Files.size(arquivo);
+            repositorio.compactarLog();
+            assertEquals(99_999, repositorio.getRegistrosLog());
+            assertTrue(Files.size(arquivo) <= tamanhoAntes);
+            repositorio.criar(new Plant(2, "Volta"));
+        }
+
+        try (PlantRepository repositorio = PlantRepository.abrir(arquivo)) {
+            assertEquals(100_000, repositorio.tamanho());
+            assertEquals("Volta", repositorio.buscar(2).getDescricao());
+            assertEquals(List.of(1L), codigos(repositorio.buscarPorPrefixo("Um", 10)));
+        }
+    }
+
+    @Test
+    @DisplayName("Um log com registro corrompido deve falhar com IOException indicando o arquivo")
+    void testLogCorrompido() throws Exception {
+        Path arquivo = diretorio.resolve("plantas.log");
+        try (PlantRepository repositorio = PlantRepository.abrir(arquivo)) {
+            repositorio.criar(new Plant(1, "Um"));
+            repositorio.criar(new Plant(2, "Dois"));
+        }
+
+        // Cabeçalho de 8 bytes, registros de 20: tamanho da descrição no byte 18 e operação no 19
+        try (RandomAccessFile bruto = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            bruto.seek(8 + 20 + 18);
+            bruto.write(Plant.TAMANHO_MAXIMO_DESCRICAO + 1);
+        }
+        IOException erro = assertThrows(IOException.class, () -> PlantRepository.abrir(arquivo));
+        assertTrue(erro.getMessage().contains(arquivo.toString()), erro.getMessage());
+
+        try (RandomAccessFile bruto = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            bruto.seek(8 + 20 + 18);
+            bruto.write(4);
+            bruto.write(7);
+        }
+        erro = assertThrows(IOException.class, () -> PlantRepository.abrir(arquivo));
+        assertTrue(erro.getMessage().contains("corrompido"), erro.getMessage());
+    }
+}
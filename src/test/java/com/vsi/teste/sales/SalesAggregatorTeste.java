@@ -0,0 +1,144 @@
+package com.vsi.teste.sales;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a classe SalesAggregator.
+ */
+class SalesAggregatorTeste {
+
+    private static final String[] CIDADES = {"Jackson", "Oaktown", "Pleasant"};
+
+    @Test
+    @DisplayName("Reconstrução a partir das tabelas deve responder às questões 6a a 6d como no enunciado")
+    void testReconstrucaoComDadosDoEnunciado() throws SQLException {
+        SalesAggregator agregador = new SalesAggregator();
+        try (Connection conexao = DriverManager.getConnection("jdbc:h2:mem:", "sa", "");
+             Statement stmt = conexao.createStatement()) {
+            stmt.execute("CREATE TABLE Salesperson (ID INT PRIMARY KEY, Name VARCHAR(50), Age INT, Salary DECIMAL(10, 2))");
+            stmt.execute("CREATE TABLE Customer (ID INT PRIMARY KEY, Name VARCHAR(50), City VARCHAR(50), Industry_Type CHAR(1))");
+            stmt.execute("CREATE TABLE Orders (ID INT PRIMARY KEY, order_date DATE, customer_id INT, salesperson_id INT, Amount DECIMAL(10, 2))");
+            stmt.execute("INSERT INTO Salesperson (ID, Name, Age, Salary) VALUES (1, 'Abe', 61, 140000), (2, 'Bob', 34, 44000), (5, 'Chris', 34, 40000), (7, 'Dan', 41, 52000), (8, 'Ken', 57, 115000), (11, 'Joe', 38, 38000)");
+            stmt.execute("INSERT INTO Customer (ID, Name, City, Industry_Type) VALUES (4, 'Samsonic', 'Pleasant', 'J'), (6, 'Panasung', 'Oaktown', 'J'), (7, 'Samony', 'Jackson', 'B'), (9, 'Orange', 'Jackson', 'B')");
+            stmt.execute("INSERT INTO Orders (ID, order_date, customer_id, salesperson_id, Amount) VALUES (10, '1996-08-02', 4, 2, 540), (20, '1999-01-30', 4, 8, 1800), (30, '1995-07-14', 9, 1, 460), (40, '1998-01-29', 7, 2, 2400), (50, '1998-02-03', 7, 7, 600), (60, '1998-03-02', 6, 7, 720), (70, '1998-05-06', 9, 7, 150)");
+            agregador.reconstruir(conexao);
+        }
+
+        assertEquals(Arrays.asList("Abe", "Chris", "Dan", "Joe"), agregador.vendedoresSemPedidosDoCliente("Samsonic"));
+        assertArrayEquals(new int[]{2, 7}, agregador.vendedoresComMinimoDePedidos(2));
+        assertArrayEquals(new int[]{1, 2, 7}, agregador.vendedoresComPedidosNaCidade("Jackson"));
+        assertEquals(294_000, agregador.totalVendasCentavos(2));
+        assertEquals(0, agregador.totalVendasCentavos(5));
+
+        agregador.removerPedido(40);
+        agregador.alterarPedido(30, 6, 1, 46_000); // Pedido de Abe passa de Orange (Jackson) para Panasung (Oaktown)
+        assertArrayEquals(new int[]{7}, agregador.vendedoresComPedidosNaCidade("Jackson"));
+        assertArrayEquals(new int[]{7}, agregador.vendedoresComMinimoDePedidos(2));
+        assertEquals(54_000, agregador.totalVendasCentavos(2));
+    }
+
+    @Test
+    @DisplayName("Eventos concorrentes devem deixar os mesmos agregados que um recálculo completo")
+    void testEventosConcorrentesEquivalemAoRecalculo() throws Exception {
+        SalesAggregator agregador = new SalesAggregator();
+        SalesAnalytics referencia = new SalesAnalytics();
+        for (int v = 1; v <= 20; v++) {
+            agregador.registrarVendedor(v, "Vendedor" + v);
+            referencia.adicionarVendedor(v, "Vendedor" + v, 30, 0);
+        }
+        for (int c = 1; c <= 50; c++) {
+            agregador.registrarCliente(c, "Cliente" + c, CIDADES[c % CIDADES.length]);
+            referencia.adicionarCliente(c, "Cliente" + c, CIDADES[c % CIDADES.length], 'J');
+        }
+
+        // Cada thread trabalha em uma faixa própria de pedidos e registra o estado final de cada um
+        Map<Integer, long[]> estadoFinal = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 10_000;
+            long semente = t;
+            tarefas.add(executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(semente);
+                for (int i = 0; i < 20_000; i++) {
+                    int idPedido = base + random.nextInt(2_000);
+                    if (random.nextInt(5) == 0) {
+                        agregador.removerPedido(idPedido);
+                        estadoFinal.remove(idPedido);
+                    } else {
+                        int cliente = 1 + random.nextInt(50);
+                        int vendedor = 1 + random.nextInt(20);
+                        long valor = random.nextInt(100_000);
+                        agregador.alterarPedido(idPedido, cliente, vendedor, valor);
+                        estadoFinal.put(idPedido, new long[]{cliente, vendedor, valor});
+                    }
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+
+        for (Map.Entry<Integer, long[]> pedido : estadoFinal.entrySet()) {
+            long[] p = pedido.getValue();
+            referencia.adicionarPedido(pedido.getKey(), null, (int) p[0], (int) p[1], p[2]);
+        }
+        assertEquals(referencia.totalVendasPorVendedor(), agregador.totalVendasPorVendedor());
+        assertEquals(referencia.vendedoresSemPedidosDoCliente("Cliente7"), agregador.vendedoresSemPedidosDoCliente("Cliente7"));
+        long pedidos = 0;
+        for (int v = 1; v <= 20; v++) {
+            pedidos += agregador.quantidadePedidos(v);
+        }
+        assertEquals(estadoFinal.size(), pedidos);
+    }
+
+    @Test
+    @DisplayName("Pedidos criados e removidos não devem deixar chaves nos índices")
+    void testRotatividadeDePedidos() {
+        SalesAggregator agregador = new SalesAggregator();
+        for (int vendedor = 0; vendedor < 20; vendedor++) {
+            agregador.registrarVendedor(vendedor, "Vendedor " + vendedor);
+        }
+        for (int cliente = 0; cliente < 50; cliente++) {
+            agregador.registrarCliente(cliente, "Cliente " + cliente, CIDADES[cliente % CIDADES.length]);
+        }
+        int base = agregador.chavesIndexadas();
+        assertEquals(50, base);
+
+        SplittableRandom aleatorio = new SplittableRandom(3);
+        for (int rodada = 0; rodada < 5; rodada++) {
+            for (int pedido = 0; pedido < 20_000; pedido++) {
+                agregador.incluirPedido(rodada * 20_000 + pedido, aleatorio.nextInt(50), aleatorio.nextInt(20), 1 + aleatorio.nextInt(10_000));
+            }
+            assertTrue(agregador.chavesIndexadas() > base + 40_000);
+            for (int pedido = 0; pedido < 20_000; pedido++) {
+                assertTrue(agregador.removerPedido(rodada * 20_000 + pedido));
+            }
+            assertEquals(base, agregador.chavesIndexadas(), "Rodada " + rodada);
+        }
+        assertEquals(0, agregador.totalVendasCentavos(3));
+        assertArrayEquals(new int[0], agregador.vendedoresComPedidosNaCidade("Jackson"));
+
+        assertThrows(IllegalArgumentException.class, () -> agregador.registrarVendedor(Integer.MIN_VALUE, "Reservado"));
+        assertThrows(IllegalArgumentException.class, () -> agregador.incluirPedido(1, 0, Integer.MIN_VALUE, 100));
+        assertEquals(base, agregador.chavesIndexadas());
+    }
+}
@@ -0,0 +1,161 @@
+package com.vsi.teste.sales;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara SalesAnalytics com o H2 executando as próprias queries de sql/queries.sql.
+ */
+class SalesAnalyticsTeste {
+
+    private Connection conexao;
+    private List<String> queries; // 6a, 6b, 6c, 6d, na ordem do arquivo
+
+    @BeforeEach
+    void setUp() throws IOException, SQLException {
+        String script = new String(Files.readAllBytes(Paths.get("sql", "queries.sql")), StandardCharsets.UTF_8);
+        int inicioDados = script.indexOf("/*");
+        int fimDados = script.indexOf("*/", inicioDados);
+
+        conexao = DriverManager.getConnection("jdbc:h2:mem:vendas_" + UUID.randomUUID(), "sa", "");
+        try (Statement stmt = conexao.createStatement()) {
+            // O bloco de dados do arquivo cria as tabelas, insere, apaga e reinsere os dados exatos do enunciado.
+            // As FKs são removidas para que o DELETE da 6c se comporte como no enunciado.
+            for (String comando : comandos(script.substring(inicioDados + 2, fimDados))) {
+                stmt.execute(comando.replaceAll(",\\s*FOREIGN KEY \\(\\w+\\) REFERENCES \\w+\\(\\w+\\)", ""));
+            }
+        }
+        queries = comandos(script.substring(fimDados + 2));
+        assertEquals(4, queries.size());
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conexao.close();
+    }
+
+    @Test
+    @DisplayName("6a: vendedores sem pedidos com Samsonic devem coincidir com o H2")
+    void testQuestao6a() throws SQLException {
+        SalesAnalytics analytics = SalesAnalytics.carregar(conexao);
+        List<String> esperado = nomes(queries.get(0));
+
+        List<String> obtido = analytics.vendedoresSemPedidosDoCliente("Samsonic");
+
+        assertEquals(new HashSet<>(esperado), new HashSet<>(obtido));
+        assertEquals(new HashSet<>(Arrays.asList("Abe", "Chris", "Dan", "Joe")), new HashSet<>(obtido));
+        assertEquals(6, analytics.vendedoresSemPedidosDoCliente("Inexistente").size());
+    }
+
+    @Test
+    @DisplayName("6b, 6c e 6d aplicadas em sequência devem deixar o mesmo estado que no H2")
+    void testQuestoes6bA6dEmSequencia() throws SQLException {
+        SalesAnalytics analytics = SalesAnalytics.carregar(conexao);
+        assertEquals(totais(queries.get(3)), analytics.totalVendasPorVendedor());
+
+        int atualizadosH2 = executar(queries.get(1));
+        assertEquals(atualizadosH2, analytics.acrescentarSufixoAosVendedoresComPedidos(2, "*"));
+        assertEquals(totais(queries.get(3)), analytics.totalVendasPorVendedor());
+
+        int removidosH2 = executar(queries.get(2));
+        assertEquals(removidosH2, analytics.removerVendedoresComPedidosNaCidade("Jackson"));
+        assertEquals(3, removidosH2);
+        assertEquals(totais(queries.get(3)), analytics.totalVendasPorVendedor());
+        assertEquals(3, analytics.quantidadeVendedores());
+    }
+
+    @Test
+    @DisplayName("6d no estado inicial deve trazer os totais esperados no arquivo, com zero para quem não vendeu")
+    void testQuestao6dValoresEsperados() throws SQLException {
+        List<TotalVendas> totais = SalesAnalytics.carregar(conexao).totalVendasPorVendedor();
+
+        List<String> obtido = new ArrayList<>();
+        for (TotalVendas total : totais) {
+            obtido.add(total.getNome() + "=" + total.getTotal());
+        }
+        assertEquals(Arrays.asList("Abe=460.00", "Bob=2940.00", "Chris=0.00", "Dan=1470.00", "Joe=0.00", "Ken=1800.00"), obtido);
+    }
+
+    @Test
+    @DisplayName("Pedidos incluídos antes do vendedor devem ser associados a ele na próxima consulta")
+    void testJoinResolvidoAposInclusaoTardia() {
+        SalesAnalytics analytics = new SalesAnalytics();
+        analytics.adicionarCliente(1, "Samsonic", "Pleasant", 'J');
+        analytics.adicionarPedido(100, LocalDate.of(2024, 1, 1), 1, 42, 1_000);
+        analytics.adicionarVendedor(42, "Ana", 30, 0);
+
+        assertEquals(1_000, analytics.totalVendasPorVendedor().get(0).getTotalCentavos());
+        assertTrue(analytics.vendedoresSemPedidosDoCliente("Samsonic").isEmpty());
+    }
+
+    private List<String> nomes(String sql) throws SQLException {
+        List<String> nomes = new ArrayList<>();
+        try (Statement stmt = conexao.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                nomes.add(rs.getString(1));
+            }
+        }
+        return nomes;
+    }
+
+    private List<TotalVendas> totais(String sql) throws SQLException {
+        List<TotalVendas> totais = new ArrayList<>();
+        try (Statement stmt = conexao.createStatement(); ResultSet rs = stmt.executeQuery(sql);
+             Statement ids = conexao.createStatement()) {
+            while (rs.next()) {
+                String nome = rs.getString(1);
+                BigDecimal total = rs.getBigDecimal(2);
+                try (ResultSet id = ids.executeQuery("SELECT ID FROM Salesperson WHERE Name = '" + nome + "'")) {
+                    id.next();
+                    totais.add(new TotalVendas(id.getInt(1), nome, total.movePointRight(2).longValueExact()));
+                }
+            }
+        }
+        return totais;
+    }
+
+    private int executar(String sql) throws SQLException {
+        try (Statement stmt = conexao.createStatement()) {
+            return stmt.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * Remove comentários de linha e separa os comandos por ';'.
+     */
+    private static List<String> comandos(String sql) {
+        StringBuilder semComentarios = new StringBuilder();
+        for (String linha : sql.split("\n")) {
+            int comentario = linha.indexOf("--");
+            semComentarios.append(comentario >= 0 ? linha.substring(0, comentario) : linha).append('\n');
+        }
+        List<String> comandos = new ArrayList<>();
+        for (String comando : semComentarios.toString().split(";")) {
+            if (!comando.trim().isEmpty()) {
+                comandos.add(comando.trim());
+            }
+        }
+        return comandos;
+    }
+}